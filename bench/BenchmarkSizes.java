@@ -0,0 +1,29 @@
+/**
+ * This class holds the shape of the synthetic instances shared by the
+ * benchmarks.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+final class BenchmarkSizes {
+    private static final int CLASSES_PER_DEPARTMENT = 50;  // Average classes
+                                                           // per department.
+
+    /**
+     * Private constructor, since this class only holds static helpers.
+     */
+    private BenchmarkSizes() {
+    }
+
+    /**
+     * Returns the number of departments of a benchmark size, so that larger
+     * instances are split into more, similarly sized departments.
+     *
+     * @param size The instance size, as "students x classes".
+     * @return The number of departments.
+     */
+    static int departments(String size) {
+        final int numClasses = Integer.parseInt(size.split("x")[1]);
+        return Math.max(1, numClasses / CLASSES_PER_DEPARTMENT);
+    }
+}
@@ -0,0 +1,149 @@
+import benchmarks.Stage;
+import benchmarks.Workload;
+import com.google.ortools.Loader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * This class runs the stages of the solver pipeline for the JMH benchmarks
+ * of the benchmarks package, which cannot refer to the solver classes
+ * themselves. Problems that reuse the eligibility index only build it in
+ * the ELIGIBILITY_INDEX stage. Every problem uses the SCIP backend, since
+ * the AUTO backend picks CP-SAT for large models on machines with enough
+ * cores, and results would then measure different backends on different
+ * hosts.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class BenchmarkWorkload implements Workload {
+    private ArrayInstance instance;  // Generated instance.
+    private EligibilityIndex eligibility;  // Eligibility index of the
+                                           // instance.
+    private Path dir;  // Directory holding the text input files, or null.
+    private StudentEmploymentAssignment problem;  // Problem prepared for
+                                                  // the next stage.
+
+    @Override
+    public void setUp(String size) {
+        Loader.loadNativeLibraries();
+        this.instance = InstanceGenerator.ofSize(size, 42L)
+                .departments(BenchmarkSizes.departments(size))
+                .generate();
+        this.eligibility = new EligibilityIndex(this.instance);
+    }
+
+    @Override
+    public void writeInputFiles() throws IOException {
+        this.dir = Files.createTempDirectory("sea-bench");
+        InstanceGenerator.writeText(this.instance, this.dir);
+    }
+
+    /**
+     * Creates a problem on the SCIP backend.
+     *
+     * @param reuseIndex true to reuse the eligibility index.
+     * @return A problem with no model built yet.
+     */
+    private StudentEmploymentAssignment newProblem(boolean reuseIndex) {
+        final StudentEmploymentAssignment fresh =
+                new StudentEmploymentAssignment(this.instance);
+        fresh.setBackend(StudentEmploymentAssignment.Backend.SCIP);
+        if (reuseIndex) {
+            fresh.eligibility = this.eligibility;
+        }
+        return fresh;
+    }
+
+    @Override
+    public void prepare(Stage stage) {
+        switch (stage) {
+            case CREATE_VARIABLES:
+                this.problem = this.newProblem(true);
+                this.problem.filterEligiblePairs();
+                this.problem.createSolver();
+                break;
+            case ADD_EXACTLY_ONE_STUDENT_PER_CLASS:
+            case ADD_MAX_HOURS_PER_STUDENT:
+            case CREATE_OBJECTIVE_FUNCTION:
+                this.problem = this.newProblem(true);
+                this.problem.filterEligiblePairs();
+                this.problem.createSolver();
+                this.problem.createVariables();
+                break;
+            case SOLVER_SOLVE:
+            case SOLVE:
+                this.problem = this.newProblem(false);
+                this.problem.buildModel();
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public Object run(Stage stage) throws IOException {
+        switch (stage) {
+            case LOAD_ALL:
+                return InputLoader.load(this.dir);
+            case DEMO_PREFERENCES:
+                return Demo.getPreferences(
+                        this.dir.resolve(InputLoader.PROF_PREF_FILE)
+                                .toString(),
+                        this.instance.numClasses());
+            case ELIGIBILITY_INDEX:
+                return new EligibilityIndex(this.instance);
+            case FILTER_ELIGIBLE_PAIRS: {
+                final StudentEmploymentAssignment filtered =
+                        this.newProblem(true);
+                filtered.filterEligiblePairs();
+                return filtered.pairs;
+            }
+            case SCAN_ELIGIBLE_PAIRS: {
+                final StudentEmploymentAssignment scanned =
+                        this.newProblem(false);
+                scanned.filterEligiblePairs();
+                return scanned.pairs;
+            }
+            case CREATE_VARIABLES:
+                this.problem.createVariables();
+                return this.problem.solver;
+            case ADD_EXACTLY_ONE_STUDENT_PER_CLASS:
+                this.problem.addExactlyOneStudentPerClass();
+                return this.problem.solver;
+            case ADD_MAX_HOURS_PER_STUDENT:
+                this.problem.addMaxHoursPerStudent();
+                return this.problem.solver;
+            case CREATE_OBJECTIVE_FUNCTION:
+                this.problem.createObjectiveFunction();
+                return this.problem.solver;
+            case SOLVER_SOLVE:
+                return this.problem.solver.solve();
+            case SOLVE:
+                return this.problem.solve();
+            default:
+                throw new IllegalArgumentException("Unknown stage " + stage);
+        }
+    }
+
+    @Override
+    public void tearDown() throws IOException {
+        if (this.dir == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(this.dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+        this.dir = null;
+    }
+}
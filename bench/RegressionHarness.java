@@ -0,0 +1,415 @@
+import com.google.ortools.Loader;
+import com.google.ortools.linearsolver.MPSolver;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * This class runs a corpus of seeded synthetic instances, from 100 to
+ * 20,000 students, through the full pipeline of Demo: the instance is
+ * written as text input files, loaded with InputLoader, solved with the
+ * default engine and extracted with SolutionWriter. Every solution is
+ * checked by SolutionVerifier, and the smaller instances are also solved as
+ * one unpresolved model to confirm the optimum. The runtime, peak heap and
+ * allocation of each instance are compared with a baseline file, and the
+ * run fails when any of them grows beyond the threshold.
+ *
+ * <p>Usage: {@code java RegressionHarness [--sizes 100x10,1000x100]
+ * [--baseline bench/baseline.csv] [--threshold 0.25] [--time-limit ms]
+ * [--update]}. The baseline is written when it does not exist yet or when
+ * --update is given and every solution is correct. The exit status is 1 if
+ * a solution is wrong or a measurement regressed.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public final class RegressionHarness {
+    private static final String[] DEFAULT_SIZES = {"100x10", "1000x100",
+            "5000x250", "10000x500", "20000x1000"};  // Corpus sizes.
+    private static final long SEED = 42L;  // Seed of every instance.
+    private static final int REFERENCE_MAX_STUDENTS = 1000;  // Largest
+                            // instance also solved by the reference path.
+    private static final double OPTIMALITY_TOLERANCE = 1e-4;  // Relative gap
+                            // accepted as optimal, SCIP's default.
+    private static final long RUNTIME_SLACK_MILLIS = 10;  // Runtime growth
+                            // ignored on top of the threshold, for noise.
+    private static final long MEMORY_SLACK_BYTES = 1L << 20;  // Memory growth
+                            // ignored on top of the threshold, for noise.
+    private static final String HEADER = "size,runtime_ms,peak_heap_bytes,"
+            + "allocated_bytes,allocation_mb_per_s";  // Baseline header.
+
+    /**
+     * This class holds the measurements of one instance.
+     */
+    static final class Measurement {
+        private final String size;  // Instance size, "students x classes".
+        private final long runtimeMillis;  // Wall time of the pipeline.
+        private final long peakHeapBytes;  // Peak heap during the pipeline.
+        private final long allocatedBytes;  // Bytes allocated by the
+                                            // pipeline.
+
+        /**
+         * Constructor to initialize a measurement.
+         *
+         * @param size The instance size.
+         * @param runtimeMillis The wall time of the pipeline.
+         * @param peakHeapBytes The peak heap during the pipeline.
+         * @param allocatedBytes The bytes allocated by the pipeline.
+         */
+        Measurement(String size, long runtimeMillis, long peakHeapBytes,
+                    long allocatedBytes) {
+            this.size = size;
+            this.runtimeMillis = runtimeMillis;
+            this.peakHeapBytes = peakHeapBytes;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        /**
+         * Returns the allocation rate of the pipeline.
+         *
+         * @return The allocated megabytes per second of wall time.
+         */
+        double allocationRate() {
+            return this.allocatedBytes / 1e6
+                    / Math.max(1e-3, this.runtimeMillis / 1000.0);
+        }
+
+        /**
+         * Formats the measurement as a line of the baseline file.
+         *
+         * @return The CSV line.
+         */
+        String toCsv() {
+            return String.format("%s,%d,%d,%d,%.1f", this.size,
+                    this.runtimeMillis, this.peakHeapBytes,
+                    this.allocatedBytes, this.allocationRate());
+        }
+
+        /**
+         * Parses a line of the baseline file.
+         *
+         * @param line The CSV line.
+         * @return The measurement.
+         */
+        static Measurement parse(String line) {
+            final String[] fields = line.split(",");
+            return new Measurement(fields[0].trim(),
+                    Long.parseLong(fields[1].trim()),
+                    Long.parseLong(fields[2].trim()),
+                    Long.parseLong(fields[3].trim()));
+        }
+    }
+
+    /**
+     * Private constructor, since this class only holds static helpers.
+     */
+    private RegressionHarness() {
+    }
+
+    /**
+     * Runs one instance through the pipeline, checks its solution and
+     * measures it.
+     *
+     * @param size The instance size, as "students x classes".
+     * @param timeLimit The time limit of the solve in milliseconds, 0 for
+     *                  none.
+     * @param failures The list where failed checks are added.
+     * @return The measurement of the pipeline.
+     * @throws IOException If the input files cannot be written or read.
+     */
+    static Measurement run(String size, long timeLimit,
+                           List<String> failures) throws IOException {
+        final Path dir = Files.createTempDirectory("regression-" + size);
+        try {
+            InstanceGenerator.writeText(InstanceGenerator.ofSize(size, SEED)
+                    .departments(BenchmarkSizes.departments(size))
+                    .generate(), dir);
+
+            System.gc();
+            resetPeakHeap();
+            final long allocatedBefore = allocatedBytes();
+            final long start = System.nanoTime();
+            final ProblemInstance instance = InputLoader.load(dir);
+            final StudentEmploymentAssignment problem =
+                    new StudentEmploymentAssignment(instance);
+            problem.setSolveConfig(new SolveConfig().timeLimit(timeLimit));
+            final MPSolver.ResultStatus status = problem.solve();
+            final boolean solved = status == MPSolver.ResultStatus.OPTIMAL
+                    || status == MPSolver.ResultStatus.FEASIBLE;
+            final SolutionVerifier verifier = new SolutionVerifier(instance,
+                    problem.getMaxHoursPerStudent());
+            if (solved) {
+                SolutionWriter.write(problem, verifier, false, false);
+            }
+            final long runtimeMillis = (System.nanoTime() - start) / 1_000_000;
+            final long allocated = allocatedBytes() - allocatedBefore;
+            final Measurement measurement = new Measurement(size,
+                    runtimeMillis, peakHeapBytes(), allocated);
+
+            if (!solved) {
+                failures.add(size + ": status " + status);
+                return measurement;
+            }
+            final SolutionVerifier.Result check = verifier.verify(
+                    problem.getObjectiveValue(), problem.getBestBound());
+            for (final String message : check.getMessages()) {
+                failures.add(size + ": " + message);
+            }
+            if (check.getViolations() > check.getMessages().size()) {
+                failures.add(size + ": " + (check.getViolations()
+                        - check.getMessages().size()) + " more violations");
+            }
+            final double objective = check.getObjectiveValue();
+            if (status == MPSolver.ResultStatus.OPTIMAL
+                    && !isWithinTolerance(objective, problem.getBestBound())) {
+                failures.add(size + ": optimal objective " + objective
+                        + " is far from its bound " + problem.getBestBound());
+            }
+            if (instance.numStudents() <= REFERENCE_MAX_STUDENTS) {
+                final StudentEmploymentAssignment reference =
+                        new StudentEmploymentAssignment(instance);
+                reference.setEngine(StudentEmploymentAssignment.Engine.MIP);
+                reference.setPresolve(false);
+                reference.setDecomposition(false);
+                if (reference.solve() == MPSolver.ResultStatus.OPTIMAL
+                        && status == MPSolver.ResultStatus.OPTIMAL
+                        && !isWithinTolerance(objective,
+                                reference.getObjectiveValue())) {
+                    failures.add(size + ": objective " + objective
+                            + " differs from the reference "
+                            + reference.getObjectiveValue());
+                }
+            }
+            System.out.printf("%-11s %-8s %14.2f %9d ms %8.1f MB"
+                            + " %9.1f MB/s%n", size, status, objective,
+                    runtimeMillis, measurement.peakHeapBytes / 1e6,
+                    measurement.allocationRate());
+            return measurement;
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (final Path file : (Iterable<Path>) files
+                        .sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if an objective is within the optimality tolerance of another
+     * value.
+     *
+     * @param objective The objective value.
+     * @param other The bound or reference objective.
+     * @return true if they differ by at most the relative tolerance.
+     */
+    private static boolean isWithinTolerance(double objective, double other) {
+        return Math.abs(other - objective)
+                <= OPTIMALITY_TOLERANCE * Math.max(1.0, Math.abs(other));
+    }
+
+    /**
+     * Resets the peak usage of every heap memory pool.
+     */
+    private static void resetPeakHeap() {
+        for (final MemoryPoolMXBean pool
+                : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Returns the peak heap usage since the last reset, as the sum of the
+     * peak of each heap memory pool.
+     *
+     * @return The peak heap usage in bytes.
+     */
+    private static long peakHeapBytes() {
+        long total = 0;
+        for (final MemoryPoolMXBean pool
+                : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                total += pool.getPeakUsage().getUsed();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the bytes allocated so far by the live threads, such as the
+     * main thread and the workers of the common pool. Threads that end
+     * between two calls are not counted.
+     *
+     * @return The allocated bytes, or 0 if the JVM does not measure them.
+     */
+    private static long allocatedBytes() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return 0;
+        }
+        final com.sun.management.ThreadMXBean counters =
+                (com.sun.management.ThreadMXBean) threads;
+        long total = 0;
+        for (final long bytes : counters.getThreadAllocatedBytes(
+                counters.getAllThreadIds())) {
+            total += Math.max(0, bytes);
+        }
+        return total;
+    }
+
+    /**
+     * Compares the measurements with the baseline.
+     *
+     * @param measurements The measurements of this run.
+     * @param baseline The baseline measurements, by size.
+     * @param threshold The relative growth allowed, such as 0.25.
+     * @return The regressions found.
+     */
+    static List<String> compare(List<Measurement> measurements,
+                                Map<String, Measurement> baseline,
+                                double threshold) {
+        final List<String> regressions = new ArrayList<>();
+        for (final Measurement current : measurements) {
+            final Measurement base = baseline.get(current.size);
+            if (base == null) {
+                continue;
+            }
+            if (current.runtimeMillis > base.runtimeMillis * (1 + threshold)
+                    + RUNTIME_SLACK_MILLIS) {
+                regressions.add(current.size + ": runtime "
+                        + current.runtimeMillis + " ms, baseline "
+                        + base.runtimeMillis + " ms");
+            }
+            if (current.peakHeapBytes > base.peakHeapBytes * (1 + threshold)
+                    + MEMORY_SLACK_BYTES) {
+                regressions.add(current.size + ": peak heap "
+                        + current.peakHeapBytes + " bytes, baseline "
+                        + base.peakHeapBytes + " bytes");
+            }
+            // Allocation is compared in bytes, since a faster run raises
+            // the rate without allocating more.
+            if (current.allocatedBytes > base.allocatedBytes * (1 + threshold)
+                    + MEMORY_SLACK_BYTES) {
+                regressions.add(current.size + ": allocated "
+                        + current.allocatedBytes + " bytes, baseline "
+                        + base.allocatedBytes + " bytes");
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Reads a baseline file.
+     *
+     * @param path The baseline file.
+     * @return The measurements by size, in file order.
+     * @throws IOException If the file cannot be read.
+     */
+    static Map<String, Measurement> readBaseline(Path path)
+            throws IOException {
+        final Map<String, Measurement> baseline = new LinkedHashMap<>();
+        for (final String line : Files.readAllLines(path)) {
+            if (line.isEmpty() || line.startsWith("#")
+                    || line.startsWith("size,")) {
+                continue;
+            }
+            final Measurement measurement = Measurement.parse(line);
+            baseline.put(measurement.size, measurement);
+        }
+        return baseline;
+    }
+
+    /**
+     * Writes a baseline file.
+     *
+     * @param path The baseline file.
+     * @param measurements The measurements to record.
+     * @throws IOException If the file cannot be written.
+     */
+    static void writeBaseline(Path path, List<Measurement> measurements)
+            throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(path)) {
+            out.append(HEADER).append('\n');
+            for (final Measurement measurement : measurements) {
+                out.append(measurement.toCsv()).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Main method to run the corpus and compare it with the baseline.
+     *
+     * @param args Command-line arguments: --sizes followed by a comma
+     *             separated list of sizes, --baseline followed by the
+     *             baseline file, --threshold followed by the relative
+     *             growth allowed, --time-limit followed by the limit of
+     *             each solve in milliseconds, and --update to rewrite the
+     *             baseline.
+     * @throws IOException If an I/O error occurs.
+     */
+    public static void main(final String[] args) throws IOException {
+        String[] sizes = DEFAULT_SIZES;
+        Path baselinePath = Paths.get("bench", "baseline.csv");
+        double threshold = 0.25;
+        long timeLimit = 0;
+        boolean update = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--sizes") && i + 1 < args.length) {
+                sizes = args[++i].split(",");
+            } else if (args[i].equals("--baseline") && i + 1 < args.length) {
+                baselinePath = Paths.get(args[++i]);
+            } else if (args[i].equals("--threshold")
+                    && i + 1 < args.length) {
+                threshold = Double.parseDouble(args[++i]);
+            } else if (args[i].equals("--time-limit")
+                    && i + 1 < args.length) {
+                timeLimit = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--update")) {
+                update = true;
+            } else {
+                throw new IllegalArgumentException(
+                        "Unknown argument " + args[i]);
+            }
+        }
+
+        Loader.loadNativeLibraries();
+        final List<String> failures = new ArrayList<>();
+        final List<Measurement> measurements = new ArrayList<>();
+        for (final String size : sizes) {
+            measurements.add(run(size.trim(), timeLimit, failures));
+        }
+
+        final List<String> regressions = new ArrayList<>();
+        if (Files.exists(baselinePath) && !update) {
+            regressions.addAll(compare(measurements,
+                    readBaseline(baselinePath), threshold));
+        } else if (failures.isEmpty()) {
+            writeBaseline(baselinePath, measurements);
+            System.out.println("Baseline written to " + baselinePath);
+        }
+        for (final String failure : failures) {
+            System.err.println("WRONG " + failure);
+        }
+        for (final String regression : regressions) {
+            System.err.println("REGRESSION " + regression);
+        }
+        if (!failures.isEmpty() || !regressions.isEmpty()) {
+            System.exit(1);
+        }
+    }
+}
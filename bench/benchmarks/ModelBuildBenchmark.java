@@ -0,0 +1,186 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks each stage of model construction on its own. Every
+ * invocation starts from a fresh problem on which the earlier stages have
+ * already run, so only the measured stage is timed.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx8g"})
+public class ModelBuildBenchmark {
+
+    /**
+     * This class holds the generated instance, shared by all invocations.
+     * The prepared problem lives in the workload too, so the benchmarks run
+     * on a single thread, the JMH default.
+     */
+    @State(Scope.Benchmark)
+    public static class Instance {
+        @Param({"100x10", "1000x100", "10000x500", "50000x2000"})
+        public String size;  // Instance size, as "students x classes".
+
+        Workload workload;  // Solver pipeline of the instance.
+
+        /**
+         * Loads the native libraries and generates the instance.
+         *
+         * @throws IOException If an I/O error occurs.
+         */
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            this.workload = Workload.create();
+            this.workload.setUp(size);
+        }
+    }
+
+    /**
+     * This class prepares a problem whose eligible pairs are filtered and
+     * whose solver exists.
+     */
+    @State(Scope.Thread)
+    public static class Filtered {
+
+        /**
+         * Runs the stages before variable creation.
+         *
+         * @param instance The shared instance.
+         */
+        @Setup(Level.Invocation)
+        public void setUp(Instance instance) {
+            instance.workload.prepare(Stage.CREATE_VARIABLES);
+        }
+    }
+
+    /**
+     * This class prepares a problem whose variables exist.
+     */
+    @State(Scope.Thread)
+    public static class WithVariables {
+
+        /**
+         * Runs the stages up to variable creation.
+         *
+         * @param instance The shared instance.
+         */
+        @Setup(Level.Invocation)
+        public void setUp(Instance instance) {
+            instance.workload.prepare(Stage.ADD_MAX_HOURS_PER_STUDENT);
+        }
+    }
+
+    /**
+     * Builds the bitset eligibility index.
+     *
+     * @param instance The shared instance.
+     * @return The index.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Benchmark
+    public Object eligibilityIndex(Instance instance) throws IOException {
+        return instance.workload.run(Stage.ELIGIBILITY_INDEX);
+    }
+
+    /**
+     * Filters the eligible pairs of the shared eligibility index and
+     * computes their weights.
+     *
+     * @param instance The shared instance.
+     * @return The eligible pairs.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Benchmark
+    public Object filterEligiblePairs(Instance instance) throws IOException {
+        return instance.workload.run(Stage.FILTER_ELIGIBLE_PAIRS);
+    }
+
+    /**
+     * Tests eligibility and computes the weights in one scan, without an
+     * eligibility index, as a solve does when no index is shared.
+     *
+     * @param instance The shared instance.
+     * @return The eligible pairs.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Benchmark
+    public Object scanEligiblePairs(Instance instance) throws IOException {
+        return instance.workload.run(Stage.SCAN_ELIGIBLE_PAIRS);
+    }
+
+    /**
+     * Creates the pair variables.
+     *
+     * @param instance The shared instance.
+     * @param state A problem with filtered pairs and a solver.
+     * @return The solver.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Benchmark
+    public Object createVariables(Instance instance, Filtered state)
+            throws IOException {
+        return instance.workload.run(Stage.CREATE_VARIABLES);
+    }
+
+    /**
+     * Adds the one-student-per-class rows.
+     *
+     * @param instance The shared instance.
+     * @param state A problem with variables.
+     * @return The solver.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Benchmark
+    public Object addExactlyOneStudentPerClass(Instance instance,
+            WithVariables state) throws IOException {
+        return instance.workload.run(Stage.ADD_EXACTLY_ONE_STUDENT_PER_CLASS);
+    }
+
+    /**
+     * Adds the maximum-hours-per-student rows.
+     *
+     * @param instance The shared instance.
+     * @param state A problem with variables.
+     * @return The solver.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Benchmark
+    public Object addMaxHoursPerStudent(Instance instance,
+            WithVariables state) throws IOException {
+        return instance.workload.run(Stage.ADD_MAX_HOURS_PER_STUDENT);
+    }
+
+    /**
+     * Sets the objective coefficients.
+     *
+     * @param instance The shared instance.
+     * @param state A problem with variables.
+     * @return The solver.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Benchmark
+    public Object createObjectiveFunction(Instance instance,
+            WithVariables state) throws IOException {
+        return instance.workload.run(Stage.CREATE_OBJECTIVE_FUNCTION);
+    }
+}
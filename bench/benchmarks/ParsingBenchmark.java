@@ -0,0 +1,83 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks the parsing of the text input files on synthetic
+ * instances written to a temporary directory.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx8g"})
+public class ParsingBenchmark {
+    @Param({"100x10", "1000x100", "10000x500", "50000x2000"})
+    public String size;  // Instance size, as "students x classes".
+
+    private Workload workload;  // Solver pipeline of the instance.
+
+    /**
+     * Generates the instance and writes its text input files.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.workload = Workload.create();
+        this.workload.setUp(size);
+        this.workload.writeInputFiles();
+    }
+
+    /**
+     * Deletes the generated input files.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.workload.tearDown();
+    }
+
+    /**
+     * Parses the five input files, as Demo does.
+     *
+     * @return The parsed instance.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Benchmark
+    public Object loadAll() throws IOException {
+        return this.workload.run(Stage.LOAD_ALL);
+    }
+
+    /**
+     * Parses the professors' preferences file alone through Demo, the
+     * largest of the input files.
+     *
+     * @return The parsed preferences.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Benchmark
+    public Object demoPreferences() throws IOException {
+        return this.workload.run(Stage.DEMO_PREFERENCES);
+    }
+}
@@ -0,0 +1,80 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks solving on its own: the model is built before each
+ * invocation and only the solver call is timed. The largest sizes are left
+ * out since a single SCIP solve of them takes minutes.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx8g"})
+public class SolveBenchmark {
+    @Param({"100x10", "1000x100", "5000x250"})
+    public String size;  // Instance size, as "students x classes".
+
+    private Workload workload;  // Solver pipeline of the instance.
+
+    /**
+     * Loads the native libraries and generates the instance.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        this.workload = Workload.create();
+        this.workload.setUp(size);
+    }
+
+    /**
+     * Builds a fresh model, so that no solve starts from a previous one.
+     */
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        this.workload.prepare(Stage.SOLVE);
+    }
+
+    /**
+     * Solves the single model with SCIP.
+     *
+     * @return The result status of the solver.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Benchmark
+    public Object solverSolve() throws IOException {
+        return this.workload.run(Stage.SOLVER_SOLVE);
+    }
+
+    /**
+     * Runs the whole solve() path, with component decomposition and engine
+     * selection.
+     *
+     * @return The result status of the solver.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Benchmark
+    public Object solve() throws IOException {
+        return this.workload.run(Stage.SOLVE);
+    }
+}
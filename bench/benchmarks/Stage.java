@@ -0,0 +1,22 @@
+package benchmarks;
+
+/**
+ * This enum names the steps of the solver pipeline that the benchmarks
+ * time, so that a Workload can prepare and run each one.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public enum Stage {
+    LOAD_ALL,  // Parsing of the five text input files.
+    DEMO_PREFERENCES,  // Parsing of the professors' preferences by Demo.
+    ELIGIBILITY_INDEX,  // Construction of the bitset eligibility index.
+    FILTER_ELIGIBLE_PAIRS,  // Eligible pairs from a shared index.
+    SCAN_ELIGIBLE_PAIRS,  // Eligible pairs in one scan, without an index.
+    CREATE_VARIABLES,  // Pair variables of a filtered problem.
+    ADD_EXACTLY_ONE_STUDENT_PER_CLASS,  // One-student-per-class rows.
+    ADD_MAX_HOURS_PER_STUDENT,  // Maximum-hours-per-student rows.
+    CREATE_OBJECTIVE_FUNCTION,  // Objective coefficients.
+    SOLVER_SOLVE,  // Solver call on a built single model.
+    SOLVE  // Whole solve() path of a fresh problem.
+}
@@ -0,0 +1,71 @@
+package benchmarks;
+
+import java.io.IOException;
+
+/**
+ * This interface represents the solver pipeline as seen by the benchmarks.
+ * JMH needs benchmark classes in a named package, and a named package
+ * cannot refer to the solver classes in the default package, so the
+ * benchmarks reach them through this interface. It is implemented by
+ * BenchmarkWorkload in the default package, which is loaded once by name
+ * before any measurement.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public interface Workload {
+    /**
+     * Generates the seeded synthetic instance of a size.
+     *
+     * @param size The instance size, as "students x classes".
+     * @throws IOException If an I/O error occurs.
+     */
+    void setUp(String size) throws IOException;
+
+    /**
+     * Writes the text input files of the instance to a temporary directory,
+     * for the parsing stages.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    void writeInputFiles() throws IOException;
+
+    /**
+     * Creates a fresh problem on which every stage the given stage needs has
+     * already run.
+     *
+     * @param stage The stage that will run next.
+     */
+    void prepare(Stage stage);
+
+    /**
+     * Runs one stage.
+     *
+     * @param stage The stage.
+     * @return The result of the stage, to be consumed by the benchmark.
+     * @throws IOException If an I/O error occurs.
+     */
+    Object run(Stage stage) throws IOException;
+
+    /**
+     * Deletes the text input files, if they were written.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    void tearDown() throws IOException;
+
+    /**
+     * Creates the workload of the solver classes.
+     *
+     * @return The workload.
+     */
+    static Workload create() {
+        try {
+            return (Workload) Class.forName("BenchmarkWorkload")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(
+                    "BenchmarkWorkload is not on the classpath", e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * This class represents a problem instance backed by the Java arrays that
+ * the text input files are parsed into.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class ArrayInstance implements ProblemInstance {
+    private final int[][] profPreferences;  // Professor preferences for
+                                            // classes.
+    private final int[][] studPreferences;  // Student preferences for classes.
+    private final int[] hoursPerClass;  // Hours per class.
+    private final int[][][] registeredSlotsPerStudentDay;  // Registered slots
+                                            // for each student on each day.
+    private final int[][] slotsPerClass;  // Assigned slots for each class.
+
+    /**
+     * Constructor to initialize the ArrayInstance with class preferences and
+     * scheduling constraints.
+     *
+     * @param profPreferences The 2D array of professors' preferences for each
+     *                        student for each class.
+     * @param studPreferences The 2D array of students' preferences for each
+     *                        class.
+     * @param hoursPerClass The 1D array of required hours per class.
+     * @param registeredSlotsPerStudentDay The 3D array representing registered
+     *                                     slots for each student on each day.
+     * @param slotsPerClass The 2D array representing assigned slots for each
+     *                      class.
+     */
+    public ArrayInstance(
+            int[][] profPreferences,
+            int[][] studPreferences,
+            int[] hoursPerClass,
+            int[][][] registeredSlotsPerStudentDay,
+            int[][] slotsPerClass
+    ) {
+        this.profPreferences = profPreferences;
+        this.studPreferences = studPreferences;
+        this.hoursPerClass = hoursPerClass;
+        this.registeredSlotsPerStudentDay = registeredSlotsPerStudentDay;
+        this.slotsPerClass = slotsPerClass;
+    }
+
+    @Override
+    public int numStudents() {
+        return profPreferences.length;
+    }
+
+    @Override
+    public int numClasses() {
+        return hoursPerClass.length;
+    }
+
+    @Override
+    public int profPreference(int s, int c) {
+        return profPreferences[s][c];
+    }
+
+    @Override
+    public int studPreference(int s, int c) {
+        return studPreferences[s][c];
+    }
+
+    @Override
+    public void profPreferenceRow(int s, int[] row) {
+        System.arraycopy(profPreferences[s], 0, row, 0, numClasses());
+    }
+
+    @Override
+    public void studPreferenceRow(int s, int[] row) {
+        System.arraycopy(studPreferences[s], 0, row, 0, numClasses());
+    }
+
+    @Override
+    public int hoursPerClass(int c) {
+        return hoursPerClass[c];
+    }
+
+    @Override
+    public int classSlot(int c, int d) {
+        return slotsPerClass[c][d];
+    }
+
+    @Override
+    public int numRegisteredSlots(int s, int d) {
+        final int[] slots = registeredSlotsPerStudentDay[s][d];
+        return slots == null ? 0 : slots.length;
+    }
+
+    @Override
+    public int registeredSlot(int s, int d, int i) {
+        return registeredSlotsPerStudentDay[s][d][i];
+    }
+}
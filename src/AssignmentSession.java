@@ -0,0 +1,250 @@
+import com.google.ortools.linearsolver.MPSolver;
+import com.google.ortools.linearsolver.MPVariable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class represents a long-lived solving session that keeps the built
+ * model between solves. Preference, eligibility and hours edits only touch
+ * the affected objective terms, variable bounds and constraint rows, and
+ * every re-solve is warm-started from the previous incumbent.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class AssignmentSession {
+    private final StudentEmploymentAssignment problem;  // Built model.
+    private final ProblemInstance instance;  // Original problem data.
+    private final int[] hoursPerClass;  // Current hours per class.
+    private final Map<Long, MPVariable> addedVariables = new HashMap<>();
+                                // Variables of pairs enabled after the build,
+                                // keyed by student * numClasses + class.
+    private boolean[] assignedPairs;  // Last solution of the built pairs,
+                                      // null before the first solve.
+    private final Map<Long, Boolean> assignedAdded = new HashMap<>();
+                                      // Last solution of the added pairs.
+    private double objectiveValue;  // Objective value of the last solution.
+
+    /**
+     * Constructor to build the model of a problem instance. The model is not
+     * solved until solve is called.
+     *
+     * @param instance The preferences, hours and slots of the problem.
+     */
+    public AssignmentSession(ProblemInstance instance) {
+        this.instance = instance;
+        this.problem = new StudentEmploymentAssignment(instance);
+        // Sessions edit the MPSolver model in place.
+        this.problem.setBackend(StudentEmploymentAssignment.Backend.SCIP);
+        this.problem.buildModel();
+        this.hoursPerClass = new int[instance.numClasses()];
+        for (int c = 0; c < this.hoursPerClass.length; c++) {
+            this.hoursPerClass[c] = instance.hoursPerClass(c);
+        }
+    }
+
+    /**
+     * Returns the variable of a pair, creating it if the pair was not in the
+     * built model. A new variable is added to its class and student rows
+     * only.
+     *
+     * @param s The student index.
+     * @param c The class index.
+     * @return The assignment variable of the pair.
+     */
+    private MPVariable variable(int s, int c) {
+        final int p = this.problem.pairs.indexOf(s, c);
+        if (p >= 0) {
+            return this.problem.pairVariables[p];
+        }
+        final long key = key(s, c);
+        MPVariable variable = this.addedVariables.get(key);
+        if (variable == null) {
+            variable = this.problem.solver.makeIntVar(0.0, 1.0, "");
+            this.problem.classConstraints[c].setCoefficient(variable, 1.0);
+            this.problem.studentConstraints[s].setCoefficient(
+                    variable, this.hoursPerClass[c]
+            );
+            this.problem.objective.setCoefficient(variable,
+                    this.problem.weightOf(
+                            this.instance.profPreference(s, c),
+                            this.instance.studPreference(s, c)
+                    ));
+            this.addedVariables.put(key, variable);
+        }
+        return variable;
+    }
+
+    /**
+     * Returns the map key of a pair.
+     *
+     * @param s The student index.
+     * @param c The class index.
+     * @return The key of the pair.
+     */
+    private long key(int s, int c) {
+        return (long) s * this.hoursPerClass.length + c;
+    }
+
+    /**
+     * Returns the variable of a pair if the model has one.
+     *
+     * @param s The student index.
+     * @param c The class index.
+     * @return The assignment variable, or null if the pair has none.
+     */
+    private MPVariable existingVariable(int s, int c) {
+        final int p = this.problem.pairs.indexOf(s, c);
+        return p >= 0 ? this.problem.pairVariables[p]
+                : this.addedVariables.get(key(s, c));
+    }
+
+    /**
+     * Updates both preferences of a pair. Its objective coefficient is
+     * replaced, and the pair is disabled if either side no longer wants it.
+     *
+     * @param s The student index.
+     * @param c The class index.
+     * @param profPreference The new professor preference for the student.
+     * @param studPreference The new student preference for the class.
+     */
+    public void updatePreferences(int s, int c, int profPreference,
+                                  int studPreference) {
+        final boolean wanted = profPreference > 0 && studPreference > 0;
+        final MPVariable variable = wanted
+                ? variable(s, c) : existingVariable(s, c);
+        if (variable == null) {
+            return;
+        }
+        this.problem.objective.setCoefficient(variable,
+                this.problem.weightOf(profPreference, studPreference));
+        variable.setUb(wanted ? 1.0 : 0.0);
+    }
+
+    /**
+     * Enables or disables a pair by fixing the bounds of its variable.
+     * Enabling a pair that was filtered out of the built model adds its
+     * variable with the pair's original preferences.
+     *
+     * @param s The student index.
+     * @param c The class index.
+     * @param enabled true to allow the assignment, false to forbid it.
+     */
+    public void setPairEnabled(int s, int c, boolean enabled) {
+        final MPVariable variable = enabled
+                ? variable(s, c) : existingVariable(s, c);
+        if (variable != null) {
+            variable.setUb(enabled ? 1.0 : 0.0);
+        }
+    }
+
+    /**
+     * Changes the required hours of a class. Only the coefficients of the
+     * class's pairs in their student rows are updated.
+     *
+     * @param c The class index.
+     * @param hours The new hours per week of the class.
+     */
+    public void setHoursPerClass(int c, int hours) {
+        this.hoursPerClass[c] = hours;
+        final EligiblePairs pairs = this.problem.pairs;
+        for (int i = pairs.classStart(c); i < pairs.classEnd(c); i++) {
+            final int p = pairs.classPair(i);
+            this.problem.studentConstraints[pairs.student(p)].setCoefficient(
+                    this.problem.pairVariables[p], hours
+            );
+        }
+        for (final Map.Entry<Long, MPVariable> entry
+                : this.addedVariables.entrySet()) {
+            final long key = entry.getKey();
+            if (key % this.hoursPerClass.length == c) {
+                final int s = (int) (key / this.hoursPerClass.length);
+                this.problem.studentConstraints[s].setCoefficient(
+                        entry.getValue(), hours
+                );
+            }
+        }
+    }
+
+    /**
+     * Solves the model. After the first solve, the previous incumbent is
+     * passed to the solver as a hint, with pairs that have been disabled
+     * since hinted as unassigned. The solution is copied out right away,
+     * since solver values are no longer available once the model is edited.
+     *
+     * @return The result status of the solver.
+     */
+    public MPSolver.ResultStatus solve() {
+        final MPVariable[] pairVariables = this.problem.pairVariables;
+        if (this.assignedPairs != null) {
+            final MPVariable[] hintVariables = new MPVariable[
+                    pairVariables.length + this.addedVariables.size()];
+            final double[] hintValues = new double[hintVariables.length];
+            for (int p = 0; p < pairVariables.length; p++) {
+                hintVariables[p] = pairVariables[p];
+                hintValues[p] = this.assignedPairs[p]
+                        && pairVariables[p].ub() > 0.5 ? 1.0 : 0.0;
+            }
+            int i = pairVariables.length;
+            for (final Map.Entry<Long, MPVariable> entry
+                    : this.addedVariables.entrySet()) {
+                hintVariables[i] = entry.getValue();
+                hintValues[i] = this.assignedAdded.getOrDefault(
+                        entry.getKey(), false)
+                        && entry.getValue().ub() > 0.5 ? 1.0 : 0.0;
+                i++;
+            }
+            this.problem.solver.setHint(hintVariables, hintValues);
+        }
+
+        final MPSolver.ResultStatus status = this.problem.solver.solve();
+        this.problem.resultStatus = SolveStatus.of(status);
+        this.assignedPairs = new boolean[pairVariables.length];
+        this.assignedAdded.clear();
+        if (status == MPSolver.ResultStatus.OPTIMAL
+                || status == MPSolver.ResultStatus.FEASIBLE) {
+            // The built pairs are the first variables, in pair order.
+            final double[] values =
+                    LinearBackend.solutionValues(this.problem.solver);
+            for (int p = 0; p < pairVariables.length; p++) {
+                this.assignedPairs[p] = values[p] > 0.5;
+            }
+            for (final Map.Entry<Long, MPVariable> entry
+                    : this.addedVariables.entrySet()) {
+                this.assignedAdded.put(entry.getKey(),
+                        values[entry.getValue().index()] > 0.5);
+            }
+            this.objectiveValue = this.problem.objective.value();
+        } else {
+            this.objectiveValue = 0.0;
+        }
+        return status;
+    }
+
+    /**
+     * Checks if a student was assigned to a class in the last solution.
+     *
+     * @param s The student index.
+     * @param c The class index.
+     * @return true if the pair was assigned in the last solution, false
+     * otherwise or before the first solve.
+     */
+    public boolean isAssigned(int s, int c) {
+        if (this.assignedPairs == null) {
+            return false;
+        }
+        final int p = this.problem.pairs.indexOf(s, c);
+        return p >= 0 ? this.assignedPairs[p]
+                : this.assignedAdded.getOrDefault(key(s, c), false);
+    }
+
+    /**
+     * Returns the objective value of the last solution.
+     *
+     * @return The total satisfaction of the last solution.
+     */
+    public double getObjectiveValue() {
+        return this.objectiveValue;
+    }
+}
@@ -0,0 +1,495 @@
+import com.google.ortools.linearsolver.MPConstraint;
+import com.google.ortools.linearsolver.MPObjective;
+import com.google.ortools.linearsolver.MPSolver;
+import com.google.ortools.linearsolver.MPVariable;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * This class solves the problem by column generation over bundles: a bundle
+ * is a set of classes a student is eligible for whose hours fit in the
+ * maximum hours. The master problem chooses at most one bundle per student
+ * and at most one student per class, so the hours rows are implicit in the
+ * bundles and its LP relaxation is at least as tight as the one of the pair
+ * model.
+ *
+ * <p>The restricted master LP, started from the bundles of a greedy
+ * assignment, is solved with GLOP. Each round prices every student with a
+ * knapsack over their classes, each worth its weight minus the dual of its
+ * class row, and adds the best bundle of each student whose value exceeds
+ * the dual of their row. Students are priced independently, in parallel on
+ * large instances. For any non-negative class duals y, the sum of y and of
+ * the best bundle value of each student bounds the objective, so the
+ * smallest such value is a certified bound. Once no bundle improves the LP,
+ * the master is solved with binary bundles by SCIP, or rounded greedily if
+ * SCIP is not available.
+ *
+ * <p>A bundle may hold classes that share a slot, as in the pair model,
+ * since only the student's registered slots restrict their classes.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class ColumnGenerationEngine {
+    private static final int MAX_ROUNDS = 500;  // Pricing rounds.
+    private static final double EPSILON = 1e-7;  // Reduced cost from which a
+                                                 // bundle is added.
+    private static final double DEFAULT_GAP = 1e-4;  // Relative gap at which
+                                    // to stop when the config sets none.
+    private static final long GREEDY_BUDGET_MILLIS = 20;  // Time of the
+                                    // greedy start.
+    private static final int PARALLEL_MIN_PAIRS = 100_000;  // Pairs from
+                                    // which students are priced in parallel.
+    private final EligiblePairs pairs;  // Eligible pairs and their weights.
+    private final int[] units;  // Hours of each class, in units of the
+                                // greatest common divisor of the hours.
+    private final int capacity;  // Maximum hours per student, in units.
+    private final boolean parallel;  // Whether students are priced in
+                                     // parallel.
+    private final MPSolver master;  // Restricted master LP.
+    private final MPConstraint[] studentRows;  // At most one bundle per
+                                               // student.
+    private final MPConstraint[] classRows;  // At most one student per
+                                             // class.
+    private final List<int[]> bundles = new ArrayList<>();  // Pairs of each
+                                                            // bundle.
+    private final List<MPVariable> bundleVariables = new ArrayList<>();
+                                    // Master variable of each bundle.
+    private final Set<IntBuffer> seen = new HashSet<>();  // Bundles added.
+    private final double[] studentDuals;  // Dual of each student row.
+    private final double[] classDuals;  // Dual of each class row.
+    private double[] relaxed = new double[0];  // LP value of each bundle
+                                               // at the last master solve.
+    private final double[] bestValue;  // Reduced value of the best bundle
+                                       // of each student.
+    private final int[][] bestBundle;  // Pairs of the best bundle of each
+                                       // student.
+
+    /**
+     * Constructor to initialize an empty master problem.
+     *
+     * @param pairs The eligible student-class pairs and their weights.
+     * @param instance The problem instance, for the hours per class.
+     * @param maxHoursPerStudent The maximum hours per student.
+     * @param parallel Whether to price the students in parallel.
+     * @param master The GLOP solver of the master LP.
+     */
+    private ColumnGenerationEngine(EligiblePairs pairs,
+                                   ProblemInstance instance,
+                                   int maxHoursPerStudent, boolean parallel,
+                                   MPSolver master) {
+        this.pairs = pairs;
+        this.parallel = parallel;
+        this.master = master;
+        final int numClasses = pairs.numClasses();
+        int divisor = maxHoursPerStudent;
+        for (int c = 0; c < numClasses; c++) {
+            divisor = gcd(divisor, instance.hoursPerClass(c));
+        }
+        divisor = Math.max(divisor, 1);
+        this.units = new int[numClasses];
+        for (int c = 0; c < numClasses; c++) {
+            this.units[c] = instance.hoursPerClass(c) / divisor;
+        }
+        this.capacity = maxHoursPerStudent / divisor;
+
+        this.studentRows = new MPConstraint[pairs.numStudents()];
+        for (int s = 0; s < this.studentRows.length; s++) {
+            this.studentRows[s] = master.makeConstraint(0.0, 1.0, "");
+        }
+        this.classRows = new MPConstraint[numClasses];
+        for (int c = 0; c < numClasses; c++) {
+            this.classRows[c] = master.makeConstraint(0.0, 1.0, "");
+        }
+        master.objective().setMaximization();
+        this.studentDuals = new double[pairs.numStudents()];
+        this.classDuals = new double[numClasses];
+        this.bestValue = new double[pairs.numStudents()];
+        this.bestBundle = new int[pairs.numStudents()][];
+    }
+
+    /**
+     * Computes the greatest common divisor of two non-negative integers.
+     *
+     * @param a The first integer.
+     * @param b The second integer.
+     * @return The greatest common divisor, or the other integer if one is 0.
+     */
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            final int r = a % b;
+            a = b;
+            b = r;
+        }
+        return a;
+    }
+
+    /**
+     * Generates bundles until no bundle improves the master LP, the bound
+     * meets the LP value, the rounds or time limit run out, the listener of
+     * the configuration asks to stop or a stop is requested, and then
+     * solves the master with binary bundles.
+     *
+     * @param pairs The eligible student-class pairs and their weights.
+     * @param instance The problem instance, for the hours per class.
+     * @param maxHoursPerStudent The maximum hours per student.
+     * @param config The solve configuration: time limit, relative gap,
+     *               threads (1 prices the students on the calling thread
+     *               only) and incumbent listener.
+     * @param stop Returns true when the solve should stop.
+     * @return The best assignment found and the smallest bound, or null if
+     * GLOP is not available.
+     */
+    public static LagrangianEngine.Result solve(EligiblePairs pairs,
+                                                ProblemInstance instance,
+                                                int maxHoursPerStudent,
+                                                SolveConfig config,
+                                                BooleanSupplier stop) {
+        final long start = System.nanoTime();
+        final long deadline = config.getTimeLimit() > 0
+                ? start + config.getTimeLimit() * 1_000_000L : Long.MAX_VALUE;
+        final double gap = Double.isNaN(config.getRelativeGap())
+                ? DEFAULT_GAP : config.getRelativeGap();
+        final SolveConfig.IncumbentListener listener =
+                config.getIncumbentListener();
+        final MPSolver master = MPSolver.createSolver("GLOP");
+        if (master == null) {
+            return null;
+        }
+        final ColumnGenerationEngine engine = new ColumnGenerationEngine(
+                pairs, instance, maxHoursPerStudent,
+                config.getThreads() != 1
+                        && pairs.size() >= PARALLEL_MIN_PAIRS, master);
+
+        final double[] greedy = HeuristicEngine.solve(pairs, instance,
+                maxHoursPerStudent, GREEDY_BUDGET_MILLIS);
+        engine.addAssignment(greedy);
+        double lower = 0.0;
+        for (int p = 0; p < greedy.length; p++) {
+            lower += greedy[p] * pairs.weight(p);
+        }
+        double bound = Double.POSITIVE_INFINITY;
+        int rounds = 0;
+        while (rounds < MAX_ROUNDS && !stop.getAsBoolean()
+                && System.nanoTime() < deadline) {
+            if (master.solve() != MPSolver.ResultStatus.OPTIMAL) {
+                break;
+            }
+            final double relaxed = master.objective().value();
+            final double value = engine.price();
+            rounds++;
+            final boolean tighter = value < bound;
+            bound = Math.min(bound, value);
+            if (tighter && listener != null
+                    && !listener.onIncumbent(lower, bound,
+                    (System.nanoTime() - start) / 1_000_000L)) {
+                break;
+            }
+            if (engine.addImprovingBundles() == 0
+                    || bound - relaxed <= gap * Math.max(Math.abs(bound),
+                    1e-9)) {
+                break;
+            }
+        }
+
+        double[] values = engine.solveIntegerMaster(config, deadline);
+        double objective = 0.0;
+        for (int p = 0; p < values.length; p++) {
+            objective += values[p] * pairs.weight(p);
+        }
+        if (objective < lower) {
+            values = greedy;
+            objective = lower;
+        }
+        if (Double.isInfinite(bound)) {
+            bound = Double.NaN;
+        }
+        master.delete();
+        return new LagrangianEngine.Result(values, objective, bound, rounds,
+                !Double.isNaN(bound) && bound - objective
+                        <= gap * Math.max(Math.abs(bound), 1e-9));
+    }
+
+    /**
+     * Adds the bundle of each student in an assignment to the master.
+     *
+     * @param values The value of each pair, 1.0 if assigned.
+     */
+    private void addAssignment(double[] values) {
+        for (int s = 0; s < this.pairs.numStudents(); s++) {
+            int count = 0;
+            for (int p = this.pairs.studentStart(s);
+                 p < this.pairs.studentEnd(s); p++) {
+                count += values[p] > 0.5 ? 1 : 0;
+            }
+            if (count == 0) {
+                continue;
+            }
+            final int[] bundle = new int[count];
+            int k = 0;
+            for (int p = this.pairs.studentStart(s);
+                 p < this.pairs.studentEnd(s); p++) {
+                if (values[p] > 0.5) {
+                    bundle[k++] = p;
+                }
+            }
+            this.addBundle(s, bundle);
+        }
+    }
+
+    /**
+     * Adds a bundle to the master, unless it was added before.
+     *
+     * @param s The student of the bundle.
+     * @param bundle The pairs of the bundle, in ascending order.
+     * @return true if the bundle is new.
+     */
+    private boolean addBundle(int s, int[] bundle) {
+        if (!this.seen.add(IntBuffer.wrap(bundle))) {
+            return false;
+        }
+        final MPVariable variable = this.master.makeNumVar(0.0, 1.0, "");
+        double weight = 0.0;
+        for (final int p : bundle) {
+            weight += this.pairs.weight(p);
+            this.classRows[this.pairs.classOf(p)]
+                    .setCoefficient(variable, 1.0);
+        }
+        this.studentRows[s].setCoefficient(variable, 1.0);
+        this.master.objective().setCoefficient(variable, weight);
+        this.bundles.add(bundle);
+        this.bundleVariables.add(variable);
+        return true;
+    }
+
+    /**
+     * Prices every student with the class duals of the last master solve.
+     * The duals and the LP value of each bundle are copied first, since
+     * OR-Tools does not return them once a bundle is added to the master.
+     *
+     * @return The bound of the duals: their sum plus the reduced value of
+     * the best bundle of each student.
+     */
+    private double price() {
+        double value = 0.0;
+        for (int s = 0; s < this.studentDuals.length; s++) {
+            this.studentDuals[s] = Math.max(0.0,
+                    this.studentRows[s].dualValue());
+        }
+        this.relaxed = new double[this.bundleVariables.size()];
+        for (int b = 0; b < this.relaxed.length; b++) {
+            this.relaxed[b] = this.bundleVariables.get(b).solutionValue();
+        }
+        for (int c = 0; c < this.classDuals.length; c++) {
+            this.classDuals[c] = Math.max(0.0, this.classRows[c].dualValue());
+            value += this.classDuals[c];
+        }
+        if (this.parallel) {
+            IntStream.range(0, this.pairs.numStudents()).parallel()
+                    .forEach(this::priceStudent);
+        } else {
+            for (int s = 0; s < this.pairs.numStudents(); s++) {
+                this.priceStudent(s);
+            }
+        }
+        for (final double best : this.bestValue) {
+            value += best;
+        }
+        return value;
+    }
+
+    /**
+     * Finds the bundle of a student of largest reduced value by a knapsack
+     * over the hours: each class is worth its weight minus the dual of its
+     * class row.
+     *
+     * @param s The student index.
+     */
+    private void priceStudent(int s) {
+        final int start = this.pairs.studentStart(s);
+        final int size = this.pairs.studentEnd(s) - start;
+        final double[] best = new double[this.capacity + 1];
+        final boolean[][] take = new boolean[size][];
+        double free = 0.0;  // Value of the classes without hours.
+        for (int i = 0; i < size; i++) {
+            final int p = start + i;
+            final int c = this.pairs.classOf(p);
+            final double value = this.pairs.weight(p) - this.classDuals[c];
+            final int units = this.units[c];
+            if (value <= 0.0 || units > this.capacity) {
+                continue;
+            }
+            take[i] = new boolean[this.capacity + 1];
+            if (units == 0) {
+                free += value;
+                continue;
+            }
+            for (int h = this.capacity; h >= units; h--) {
+                if (best[h - units] + value > best[h]) {
+                    best[h] = best[h - units] + value;
+                    take[i][h] = true;
+                }
+            }
+        }
+        this.bestValue[s] = best[this.capacity] + free;
+
+        final int[] chosen = new int[size];
+        int count = 0;
+        int h = this.capacity;
+        for (int i = size - 1; i >= 0; i--) {
+            if (take[i] == null) {
+                continue;
+            }
+            final int units = this.units[this.pairs.classOf(start + i)];
+            if (units == 0 || take[i][h]) {
+                chosen[count++] = start + i;
+                h -= units;
+            }
+        }
+        final int[] bundle = new int[count];
+        for (int k = 0; k < count; k++) {
+            bundle[k] = chosen[count - 1 - k];
+        }
+        this.bestBundle[s] = bundle;
+    }
+
+    /**
+     * Adds the best bundle of each student whose reduced value exceeds the
+     * dual of the student's row.
+     *
+     * @return The number of bundles added.
+     */
+    private int addImprovingBundles() {
+        int added = 0;
+        for (int s = 0; s < this.pairs.numStudents(); s++) {
+            if (this.bestValue[s] > this.studentDuals[s] + EPSILON
+                    && this.bestBundle[s].length > 0
+                    && this.addBundle(s, this.bestBundle[s])) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Chooses at most one generated bundle per student and one student per
+     * class: exactly with SCIP within the time left, or greedily by LP
+     * value and weight if SCIP is not available or finds no solution.
+     *
+     * @param config The solve configuration, for the gap and parameters.
+     * @param deadline The System.nanoTime() at which to stop.
+     * @return The value of each pair, 1.0 if assigned.
+     */
+    private double[] solveIntegerMaster(SolveConfig config, long deadline) {
+        final int numBundles = this.bundles.size();
+        final double[] relaxed = Arrays.copyOf(this.relaxed, numBundles);
+        boolean[] chosen = null;
+        final MPSolver integer = MPSolver.createSolver("SCIP");
+        if (integer != null) {
+            final MPConstraint[] students =
+                    new MPConstraint[this.studentRows.length];
+            for (int s = 0; s < students.length; s++) {
+                students[s] = integer.makeConstraint(0.0, 1.0, "");
+            }
+            final MPConstraint[] classes =
+                    new MPConstraint[this.classRows.length];
+            for (int c = 0; c < classes.length; c++) {
+                classes[c] = integer.makeConstraint(0.0, 1.0, "");
+            }
+            final MPObjective objective = integer.objective();
+            final MPVariable[] variables = new MPVariable[numBundles];
+            for (int b = 0; b < numBundles; b++) {
+                final int[] bundle = this.bundles.get(b);
+                variables[b] = integer.makeBoolVar("");
+                double weight = 0.0;
+                for (final int p : bundle) {
+                    weight += this.pairs.weight(p);
+                    classes[this.pairs.classOf(p)]
+                            .setCoefficient(variables[b], 1.0);
+                }
+                students[this.pairs.student(bundle[0])]
+                        .setCoefficient(variables[b], 1.0);
+                objective.setCoefficient(variables[b], weight);
+            }
+            objective.setMaximization();
+            config.applyTo(integer);
+            if (deadline != Long.MAX_VALUE) {
+                integer.setTimeLimit(Math.max(1,
+                        (deadline - System.nanoTime()) / 1_000_000L));
+            }
+            final MPSolver.ResultStatus status =
+                    integer.solve(config.toParameters());
+            if (status == MPSolver.ResultStatus.OPTIMAL
+                    || status == MPSolver.ResultStatus.FEASIBLE) {
+                chosen = new boolean[numBundles];
+                for (int b = 0; b < numBundles; b++) {
+                    chosen[b] = variables[b].solutionValue() > 0.5;
+                }
+            }
+            integer.delete();
+        }
+        if (chosen == null) {
+            chosen = this.roundGreedily(relaxed);
+        }
+
+        final double[] values = new double[this.pairs.size()];
+        for (int b = 0; b < numBundles; b++) {
+            if (chosen[b]) {
+                for (final int p : this.bundles.get(b)) {
+                    values[p] = 1.0;
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Chooses bundles by decreasing LP value, then weight, while their
+     * student and classes are free.
+     *
+     * @param relaxed The LP value of each bundle.
+     * @return Whether each bundle is chosen.
+     */
+    private boolean[] roundGreedily(double[] relaxed) {
+        final int numBundles = this.bundles.size();
+        final double[] weights = new double[numBundles];
+        for (int b = 0; b < numBundles; b++) {
+            for (final int p : this.bundles.get(b)) {
+                weights[b] += this.pairs.weight(p);
+            }
+        }
+        final Integer[] order = new Integer[numBundles];
+        for (int b = 0; b < numBundles; b++) {
+            order[b] = b;
+        }
+        Arrays.sort(order, (a, b) -> relaxed[a] != relaxed[b]
+                ? Double.compare(relaxed[b], relaxed[a])
+                : Double.compare(weights[b], weights[a]));
+        final boolean[] studentUsed = new boolean[this.pairs.numStudents()];
+        final boolean[] classUsed = new boolean[this.pairs.numClasses()];
+        final boolean[] chosen = new boolean[numBundles];
+        for (final int b : order) {
+            final int[] bundle = this.bundles.get(b);
+            boolean free = !studentUsed[this.pairs.student(bundle[0])];
+            for (int k = 0; free && k < bundle.length; k++) {
+                free = !classUsed[this.pairs.classOf(bundle[k])];
+            }
+            if (!free) {
+                continue;
+            }
+            chosen[b] = true;
+            studentUsed[this.pairs.student(bundle[0])] = true;
+            for (final int p : bundle) {
+                classUsed[this.pairs.classOf(p)] = true;
+            }
+        }
+        return chosen;
+    }
+}
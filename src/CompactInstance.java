@@ -0,0 +1,306 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * This class represents a problem instance stored in a few flat primitive
+ * arrays instead of one Java array per row. The preference matrices are kept
+ * row-major, with one byte per rank when every rank fits in a byte and two
+ * bytes otherwise, and the registered slots are kept in compressed sparse
+ * row form: the slots of every (student, day) in one array and the offset of
+ * each (student, day) in another. The preference buffers, which hold almost
+ * all of the data, can be allocated off the Java heap.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class CompactInstance implements ProblemInstance {
+    private static final int NUM_WEEKDAYS = EligibilityIndex.NUM_WEEKDAYS;
+    private final int numStudents;  // Total number of students.
+    private final int numClasses;  // Total number of classes.
+    private final boolean wide;  // Whether ranks take two bytes instead of
+                                 // one.
+    private final ByteBuffer profPreferences;  // Row-major professor ranks.
+    private final ByteBuffer studPreferences;  // Row-major student ranks.
+    private final int[] hoursPerClass;  // Hours per class.
+    private final byte[] slotsPerClass;  // Row-major slot of each class on
+                                         // each weekday.
+    private final int[] registeredOffsets;  // Start of the slots of each
+                                // (student, day) in registeredSlots, plus
+                                // the end of the last one.
+    private final byte[] registeredSlots;  // Registered slots of every
+                                           // (student, day), in order.
+
+    /**
+     * Constructor to initialize the CompactInstance with its flat arrays.
+     *
+     * @param numStudents The number of students.
+     * @param numClasses The number of classes.
+     * @param wide Whether ranks take two bytes instead of one.
+     * @param profPreferences The row-major professor ranks.
+     * @param studPreferences The row-major student ranks.
+     * @param hoursPerClass The hours per class.
+     * @param slotsPerClass The row-major slot of each class on each day.
+     * @param registeredOffsets The offset of each (student, day) in the
+     *                          registered slots, plus their total.
+     * @param registeredSlots The registered slots.
+     */
+    private CompactInstance(int numStudents, int numClasses, boolean wide,
+                            ByteBuffer profPreferences,
+                            ByteBuffer studPreferences, int[] hoursPerClass,
+                            byte[] slotsPerClass, int[] registeredOffsets,
+                            byte[] registeredSlots) {
+        this.numStudents = numStudents;
+        this.numClasses = numClasses;
+        this.wide = wide;
+        this.profPreferences = profPreferences;
+        this.studPreferences = studPreferences;
+        this.hoursPerClass = hoursPerClass;
+        this.slotsPerClass = slotsPerClass;
+        this.registeredOffsets = registeredOffsets;
+        this.registeredSlots = registeredSlots;
+    }
+
+    /**
+     * Copies an instance into compact storage on the Java heap.
+     *
+     * @param source The instance to copy.
+     * @return The compact instance.
+     * @throws IllegalArgumentException If a rank does not fit in two bytes or
+     * a slot does not fit in one.
+     */
+    public static CompactInstance of(ProblemInstance source) {
+        return of(source, false);
+    }
+
+    /**
+     * Copies an instance into compact storage, with the preference buffers
+     * on or off the Java heap. Off-heap buffers are not scanned by the
+     * garbage collector, which keeps pauses short when large instances are
+     * held for a long time.
+     *
+     * @param source The instance to copy.
+     * @param offHeap Whether to allocate the preference buffers off the
+     *                Java heap.
+     * @return The compact instance.
+     * @throws IllegalArgumentException If a rank does not fit in two bytes, a
+     * slot does not fit in one or the instance is too large for a buffer.
+     */
+    public static CompactInstance of(ProblemInstance source,
+                                     boolean offHeap) {
+        final int numStudents = source.numStudents();
+        final int numClasses = source.numClasses();
+        final int[] row = new int[numClasses];
+        int min = 0;
+        int max = 0;
+        for (int s = 0; s < numStudents; s++) {
+            source.profPreferenceRow(s, row);
+            for (int c = 0; c < numClasses; c++) {
+                min = Math.min(min, row[c]);
+                max = Math.max(max, row[c]);
+            }
+            source.studPreferenceRow(s, row);
+            for (int c = 0; c < numClasses; c++) {
+                min = Math.min(min, row[c]);
+                max = Math.max(max, row[c]);
+            }
+        }
+        if (min < Short.MIN_VALUE || max > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Preference ranks "
+                    + min + ".." + max + " do not fit in two bytes");
+        }
+        final boolean wide = min < Byte.MIN_VALUE || max > Byte.MAX_VALUE;
+        final long bytes = (long) numStudents * numClasses * (wide ? 2 : 1);
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Preference matrices of "
+                    + bytes + " bytes do not fit in a buffer");
+        }
+
+        final ByteBuffer prof = allocate((int) bytes, offHeap);
+        final ByteBuffer stud = allocate((int) bytes, offHeap);
+        for (int s = 0; s < numStudents; s++) {
+            final int base = s * numClasses;
+            source.profPreferenceRow(s, row);
+            writeRow(prof, base, row, numClasses, wide);
+            source.studPreferenceRow(s, row);
+            writeRow(stud, base, row, numClasses, wide);
+        }
+
+        final int[] hours = new int[numClasses];
+        final byte[] slots = new byte[numClasses * NUM_WEEKDAYS];
+        for (int c = 0; c < numClasses; c++) {
+            hours[c] = source.hoursPerClass(c);
+            for (int d = 0; d < NUM_WEEKDAYS; d++) {
+                slots[c * NUM_WEEKDAYS + d] =
+                        toSlot(source.classSlot(c, d), d);
+            }
+        }
+
+        final int[] offsets = new int[numStudents * NUM_WEEKDAYS + 1];
+        for (int i = 0; i < numStudents * NUM_WEEKDAYS; i++) {
+            offsets[i + 1] = offsets[i] + source.numRegisteredSlots(
+                    i / NUM_WEEKDAYS, i % NUM_WEEKDAYS);
+        }
+        final byte[] registered = new byte[offsets[offsets.length - 1]];
+        for (int s = 0; s < numStudents; s++) {
+            for (int d = 0; d < NUM_WEEKDAYS; d++) {
+                final int start = offsets[s * NUM_WEEKDAYS + d];
+                final int count = offsets[s * NUM_WEEKDAYS + d + 1] - start;
+                for (int i = 0; i < count; i++) {
+                    registered[start + i] =
+                            toSlot(source.registeredSlot(s, d, i), d);
+                }
+            }
+        }
+        return new CompactInstance(numStudents, numClasses, wide, prof, stud,
+                hours, slots, offsets, registered);
+    }
+
+    /**
+     * Allocates a buffer in native byte order.
+     *
+     * @param bytes The capacity of the buffer.
+     * @param offHeap Whether to allocate it off the Java heap.
+     * @return The buffer.
+     */
+    private static ByteBuffer allocate(int bytes, boolean offHeap) {
+        final ByteBuffer buffer = offHeap ? ByteBuffer.allocateDirect(bytes)
+                : ByteBuffer.allocate(bytes);
+        return buffer.order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Writes the ranks of one row into a preference buffer.
+     *
+     * @param buffer The preference buffer.
+     * @param base The index of the first rank of the row.
+     * @param row The ranks.
+     * @param length The number of ranks.
+     * @param wide Whether ranks take two bytes instead of one.
+     */
+    private static void writeRow(ByteBuffer buffer, int base, int[] row,
+                                 int length, boolean wide) {
+        for (int c = 0; c < length; c++) {
+            if (wide) {
+                buffer.putShort((base + c) << 1, (short) row[c]);
+            } else {
+                buffer.put(base + c, (byte) row[c]);
+            }
+        }
+    }
+
+    /**
+     * Narrows a slot to a byte.
+     *
+     * @param slot The slot value.
+     * @param d The weekday index, for the error message.
+     * @return The slot as a byte.
+     * @throws IllegalArgumentException If the slot does not fit in a byte.
+     */
+    private static byte toSlot(int slot, int d) {
+        if (slot < 0 || slot > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Slot " + slot + " on day " + d
+                    + " does not fit in a byte");
+        }
+        return (byte) slot;
+    }
+
+    /**
+     * Reads the rank at a row-major index of a preference buffer.
+     *
+     * @param buffer The preference buffer.
+     * @param index The row-major index of the pair.
+     * @return The rank.
+     */
+    private int rank(ByteBuffer buffer, int index) {
+        return wide ? buffer.getShort(index << 1) : buffer.get(index);
+    }
+
+    /**
+     * Copies one row of a preference buffer into an array.
+     *
+     * @param buffer The preference buffer.
+     * @param s The student index.
+     * @param row The array to fill.
+     */
+    private void readRow(ByteBuffer buffer, int s, int[] row) {
+        final int base = s * numClasses;
+        if (wide) {
+            for (int c = 0; c < numClasses; c++) {
+                row[c] = buffer.getShort((base + c) << 1);
+            }
+        } else {
+            for (int c = 0; c < numClasses; c++) {
+                row[c] = buffer.get(base + c);
+            }
+        }
+    }
+
+    /**
+     * Checks if the ranks take two bytes each instead of one.
+     *
+     * @return True if the ranks are stored as shorts.
+     */
+    public boolean isWide() {
+        return wide;
+    }
+
+    /**
+     * Checks if the preference buffers are allocated off the Java heap.
+     *
+     * @return True if the preference buffers are direct buffers.
+     */
+    public boolean isOffHeap() {
+        return profPreferences.isDirect();
+    }
+
+    @Override
+    public int numStudents() {
+        return numStudents;
+    }
+
+    @Override
+    public int numClasses() {
+        return numClasses;
+    }
+
+    @Override
+    public int profPreference(int s, int c) {
+        return rank(profPreferences, s * numClasses + c);
+    }
+
+    @Override
+    public int studPreference(int s, int c) {
+        return rank(studPreferences, s * numClasses + c);
+    }
+
+    @Override
+    public void profPreferenceRow(int s, int[] row) {
+        readRow(profPreferences, s, row);
+    }
+
+    @Override
+    public void studPreferenceRow(int s, int[] row) {
+        readRow(studPreferences, s, row);
+    }
+
+    @Override
+    public int hoursPerClass(int c) {
+        return hoursPerClass[c];
+    }
+
+    @Override
+    public int classSlot(int c, int d) {
+        return slotsPerClass[c * NUM_WEEKDAYS + d];
+    }
+
+    @Override
+    public int numRegisteredSlots(int s, int d) {
+        final int i = s * NUM_WEEKDAYS + d;
+        return registeredOffsets[i + 1] - registeredOffsets[i];
+    }
+
+    @Override
+    public int registeredSlot(int s, int d, int i) {
+        return registeredSlots[registeredOffsets[s * NUM_WEEKDAYS + d] + i];
+    }
+}
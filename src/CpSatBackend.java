@@ -0,0 +1,228 @@
+import com.google.ortools.linearsolver.MPSolver;
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverSolutionCallback;
+import com.google.ortools.sat.CpSolverStatus;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.LinearArgument;
+import com.google.ortools.sat.LinearExpr;
+import com.google.ortools.sat.Literal;
+import com.google.ortools.sat.SatParameters;
+import com.google.protobuf.TextFormat;
+
+import java.util.Arrays;
+
+/**
+ * This class expresses the model with the OR-Tools CP-SAT solver: variables
+ * with an upper bound of 1 become Boolean variables and the others integer
+ * variables, single classes become native at-most-one constraints, class
+ * groups and student hours become linear constraints, and the search runs on
+ * num_search_workers threads. CP-SAT needs integer objective coefficients,
+ * so the preference weights are scaled by OBJECTIVE_SCALE and rounded.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+class CpSatBackend implements SolverBackend {
+    static final double OBJECTIVE_SCALE = 1_000_000.0;  // Scale of the
+                                                        // integer objective.
+    private final CpModel model = new CpModel();  // CP-SAT model.
+    private final CpSolver solver = new CpSolver();  // CP-SAT solver.
+    private LinearArgument[] variables = new LinearArgument[0];  // Model
+                                                                // variables.
+    private int numVariables;  // Number of variables added.
+    private int numConstraints;  // Number of constraints added.
+    private double[] bestValues;  // Values of the best solution, or null.
+    private double bestObjective;  // Objective of the best solution.
+    private double bound = Double.NaN;  // Best bound of the solve.
+
+    @Override
+    public void addVariables(int[] upperBounds, int count) {
+        if (numVariables + count > variables.length) {
+            variables = Arrays.copyOf(variables, numVariables + count);
+        }
+        for (int i = 0; i < count; i++) {
+            variables[numVariables++] = upperBounds[i] == 1
+                    ? model.newBoolVar("")
+                    : model.newIntVar(0, upperBounds[i], "");
+        }
+    }
+
+    @Override
+    public int addAtMostOne(int[] indices, int size) {
+        // At-most-one rows only hold binary variables.
+        final Literal[] literals = new Literal[size];
+        for (int i = 0; i < size; i++) {
+            literals[i] = (Literal) variables[indices[i]];
+        }
+        model.addAtMostOne(literals);
+        return numConstraints++;
+    }
+
+    @Override
+    public int addCapacity(int[] indices, int[] weights, int size,
+                           int capacity) {
+        final LinearArgument[] terms = new LinearArgument[size];
+        final long[] coefficients = new long[size];
+        for (int i = 0; i < size; i++) {
+            terms[i] = variables[indices[i]];
+            coefficients[i] = weights[i];
+        }
+        model.addLinearConstraint(
+                LinearExpr.weightedSum(terms, coefficients), 0, capacity);
+        return numConstraints++;
+    }
+
+    @Override
+    public int addCut(int[] indices, int[] weights, int size, int bound) {
+        final LinearArgument[] terms = new LinearArgument[size];
+        final long[] coefficients = new long[size];
+        for (int i = 0; i < size; i++) {
+            terms[i] = variables[indices[i]];
+            coefficients[i] = weights[i];
+        }
+        model.addLessOrEqual(
+                LinearExpr.weightedSum(terms, coefficients), bound);
+        return numConstraints++;
+    }
+
+    @Override
+    public void maximize(double[] coefficients) {
+        final long[] scaled = new long[numVariables];
+        for (int i = 0; i < numVariables; i++) {
+            scaled[i] = Math.round(coefficients[i] * OBJECTIVE_SCALE);
+        }
+        model.maximize(LinearExpr.weightedSum(
+                Arrays.copyOf(variables, numVariables), scaled));
+    }
+
+    @Override
+    public void hint(double[] values) {
+        // CP-SAT rejects a model that hints a variable twice.
+        model.clearHints();
+        for (int i = 0; i < numVariables; i++) {
+            model.addHint((IntVar) variables[i], Math.round(values[i]));
+        }
+    }
+
+    @Override
+    public MPSolver.ResultStatus solve(SolveConfig config, boolean stream) {
+        final SatParameters.Builder parameters = solver.getParameters();
+        if (config.getSolverSpecificParameters() != null) {
+            try {
+                TextFormat.merge(config.getSolverSpecificParameters(),
+                        parameters);
+            } catch (TextFormat.ParseException e) {
+                throw new IllegalArgumentException(
+                        "Invalid CP-SAT parameters", e);
+            }
+        }
+        if (config.getThreads() > 0) {
+            parameters.setNumSearchWorkers(config.getThreads());
+        }
+        if (config.getTimeLimit() > 0) {
+            parameters.setMaxTimeInSeconds(config.getTimeLimit() / 1000.0);
+        }
+        if (!Double.isNaN(config.getRelativeGap())) {
+            parameters.setRelativeGapLimit(config.getRelativeGap());
+        }
+
+        final SolveConfig.IncumbentListener listener =
+                config.getIncumbentListener();
+        final IncumbentPool pool = config.getIncumbentPool();
+        final CpSolverStatus status;
+        if (stream && listener != null) {
+            status = solver.solve(model, new CpSolverSolutionCallback() {
+                @Override
+                public void onSolutionCallback() {
+                    if (pool != null) {
+                        // CP-SAT takes hints only before the search, so it
+                        // shares its incumbents without reading others.
+                        final double[] values = new double[numVariables];
+                        for (int i = 0; i < numVariables; i++) {
+                            values[i] = value(variables[i]);
+                        }
+                        pool.offer(objectiveValue() / OBJECTIVE_SCALE,
+                                values);
+                    }
+                    if (!listener.onIncumbent(
+                            objectiveValue() / OBJECTIVE_SCALE,
+                            bestObjectiveBound() / OBJECTIVE_SCALE,
+                            (long) (wallTime() * 1000))) {
+                        stopSearch();
+                    }
+                }
+            });
+        } else {
+            status = solver.solve(model);
+        }
+
+        bestValues = null;
+        if (status == CpSolverStatus.OPTIMAL
+                || status == CpSolverStatus.FEASIBLE) {
+            bestValues = new double[numVariables];
+            for (int i = 0; i < numVariables; i++) {
+                bestValues[i] = solver.value(variables[i]);
+            }
+            bestObjective = solver.objectiveValue() / OBJECTIVE_SCALE;
+            bound = solver.bestObjectiveBound() / OBJECTIVE_SCALE;
+        }
+        switch (status) {
+            case OPTIMAL:
+                return MPSolver.ResultStatus.OPTIMAL;
+            case FEASIBLE:
+                return MPSolver.ResultStatus.FEASIBLE;
+            case INFEASIBLE:
+                return MPSolver.ResultStatus.INFEASIBLE;
+            case MODEL_INVALID:
+                return MPSolver.ResultStatus.MODEL_INVALID;
+            default:
+                return MPSolver.ResultStatus.NOT_SOLVED;
+        }
+    }
+
+    @Override
+    public void interrupt() {
+        solver.stopSearch();
+    }
+
+    @Override
+    public double[] values() {
+        return bestValues;
+    }
+
+    @Override
+    public double objectiveValue() {
+        return bestObjective;
+    }
+
+    @Override
+    public double bestBound() {
+        return bound;
+    }
+
+    @Override
+    public long numVariables() {
+        return numVariables;
+    }
+
+    @Override
+    public long numConstraints() {
+        return numConstraints;
+    }
+
+    @Override
+    public long wallMillis() {
+        return (long) (solver.wallTime() * 1000);
+    }
+
+    @Override
+    public long nodes() {
+        return solver.numBranches();
+    }
+
+    @Override
+    public long iterations() {
+        return solver.numConflicts();
+    }
+}
@@ -1,9 +1,10 @@
 import com.google.ortools.Loader;
-import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.Scanner;
+import java.util.stream.IntStream;
 
 /**
  * This class implements a demo for the Student Employment Assignment solver.
@@ -27,6 +28,22 @@ public class Demo {
             "input/students_registered_slots.txt";  // Path to the file
                                                     // containing registered
                                                     // slots.
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: Demo [options] [snapshot file]",
+            "  --report               print the solve report as JSON",
+            "  --out <file>           write the solution as .csv, .jsonl"
+                    + " or .bin",
+            "  --backend <name>       SCIP, CBC, GLOP or CP_SAT",
+            "  --history <dir>        term store, used with --term",
+            "  --term <name>          term to solve and save, used with"
+                    + " --history",
+            "  --stability <bonus>    bonus of each kept assignment",
+            "  --rc-fixing            fix MIP columns by LP reduced costs",
+            "  --portfolio            race the solvers, keep the first"
+                    + " proven answer",
+            "  --alternatives <n>     list n alternative assignments",
+            "  --distance <pairs>     pairs in which any two alternatives"
+                    + " differ");  // Command-line usage.
 
 
     /**
@@ -39,39 +56,12 @@ public class Demo {
      * @return A 2D integer array representing professor/student preferences,
      * where each row corresponds
      *         to a professor/student and each column to a preference value.
-     * @throws IOException If an I/O error occurs while reading the file.
+     * @throws IOException If an I/O error occurs while reading the file or
+     * the file is malformed.
      */
     public static int[][] getPreferences(String filePath, int nClasses) throws
             IOException {
-        List<int[]> preferencesList = new ArrayList<>();
-        Scanner scanner = new Scanner(new File(filePath));
-        Scanner line;
-
-        while (scanner.hasNextLine()) {
-            line = new Scanner(scanner.nextLine());
-            line.useDelimiter(",|\\s+"); // Use comma, spaces, or newline as
-            // delimiters
-            line.nextInt();
-            line.next();
-            int[] preferencesRow = new int[nClasses];
-            int classNum = 0;
-            while(line.hasNextInt()) {
-                preferencesRow[classNum] = line.nextInt(); // First
-                // preference value
-                classNum++;
-            }
-            preferencesList.add(preferencesRow);
-            line.close();
-        }
-
-        // Convert the List to a 2D array
-        int[][] preferences = new int[preferencesList.size()][nClasses];
-        for (int i = 0; i < preferencesList.size(); i++) {
-            preferences[i] = preferencesList.get(i);
-        }
-
-        scanner.close();
-        return preferences;
+        return InputLoader.readPreferences(Paths.get(filePath), nClasses);
     }
 
     /**
@@ -79,32 +69,11 @@ public class Demo {
      * integers.
      *
      * @return An array of integers representing the hours for each class.
-     * @throws IOException If an I/O error occurs while reading the file.
+     * @throws IOException If an I/O error occurs while reading the file or
+     * the file is malformed.
      */
     public static int[] getHoursPerClass() throws IOException {
-        List<Integer> hoursList = new ArrayList<>();
-        Scanner scanner = new Scanner(new File(HOURS_PER_CLASS_PATH));
-        Scanner line;
-
-        while (scanner.hasNextLine()) {
-            line = new Scanner(scanner.nextLine());
-            line.useDelimiter(",|\\s+"); // Use comma, spaces, or newline as
-            // delimiters
-            line.nextInt(); // Skip the first integer (class ID)
-            line.next();
-            int hours = line.nextInt();
-            hoursList.add(hours);
-            line.close();
-        }
-
-        // Convert the List to an array
-        int[] hoursPerClass = new int[hoursList.size()];
-        for (int i = 0; i < hoursList.size(); i++) {
-            hoursPerClass[i] = hoursList.get(i);
-        }
-
-        scanner.close();
-        return hoursPerClass;
+        return InputLoader.readHoursPerClass(Paths.get(HOURS_PER_CLASS_PATH));
     }
 
     /**
@@ -113,36 +82,11 @@ public class Demo {
      *
      * @return A 2D array of integers representing the slot in each weekday for
      * each class.
-     * @throws IOException If an I/O error occurs while reading the file.
+     * @throws IOException If an I/O error occurs while reading the file or
+     * the file is malformed.
      */
     public static int[][] getSlotsPerClass() throws IOException {
-        final int NUM_WEEKDAYS = 5;
-        List<int[]> slotsPerClass = new ArrayList<>();
-        Scanner scanner = new Scanner(new File(CLASS_SLOTS_PATH));
-        Scanner line;
-
-        while (scanner.hasNextLine()) {
-            line = new Scanner(scanner.nextLine());
-            line.useDelimiter(",|\\s+"); // Use comma, spaces, or newline as
-            // delimiters
-            line.nextInt(); // Skip the first integer (class ID)
-            line.next();
-            int[] slots = new int[NUM_WEEKDAYS];
-            for (int d = 0; d < NUM_WEEKDAYS; d++) {
-                slots[d] = line.nextInt();
-            }
-            slotsPerClass.add(slots);
-            line.close();
-        }
-
-        // Convert the List to an array
-        int[][] hoursPerClass = new int[slotsPerClass.size()][NUM_WEEKDAYS];
-        for (int i = 0; i < slotsPerClass.size(); i++) {
-            hoursPerClass[i] = slotsPerClass.get(i);
-        }
-
-        scanner.close();
-        return hoursPerClass;
+        return InputLoader.readSlotsPerClass(Paths.get(CLASS_SLOTS_PATH));
     }
 
     /**
@@ -152,85 +96,284 @@ public class Demo {
      * @return A 3D integer array representing registered slots where the first
      * dimension corresponds to rows, the second dimension corresponds to
      * weekdays, and the third dimension contains slot values.
-     * @throws IOException If an I/O error occurs while reading the file.
+     * @throws IOException If an I/O error occurs while reading the file or
+     * the file is malformed.
      */
     public static int[][][] getRegisteredSlots() throws IOException {
-        final int NUM_WEEKDAYS = 5;
-        List<List<List<Integer>>> registeredSlotsList = new ArrayList<>();
-
-        Scanner scanner = new Scanner(new File(REGISTERED_SLOTS_PATH));
-        int numRows = 0;
-        while (scanner.hasNextLine()) {
-            String line = scanner.nextLine();
-            String[] parts = line.split(",");
-            int row = Integer.parseInt(parts[0].trim());
-            int col = Integer.parseInt(parts[1].trim());
-            registeredSlotsList.add(new ArrayList<>());
-            List<Integer> slots = new ArrayList<>();
-
-            if (parts.length == 3) {
-
-                if (col >= 0 && col < NUM_WEEKDAYS) {
-                    String[] slotValues = parts[2].split("\\s+");
+        return InputLoader.readRegisteredSlots(
+                Paths.get(REGISTERED_SLOTS_PATH)
+        );
+    }
 
-                    for (String slotValue : slotValues) {
-                        if (slotValue.length() > 0)
-                            slots.add(Integer.parseInt(slotValue.trim()));
-                    }
+    /**
+     * Writes the solution with per-student summaries and unassigned classes,
+     * in the format given by the file extension: .csv, .jsonl or .bin.
+     *
+     * @param problem The solved problem.
+     * @param path The output file.
+     * @throws IOException If an I/O error occurs while writing the file.
+     */
+    private static void writeSolution(StudentEmploymentAssignment problem,
+                                      Path path) throws IOException {
+        final String name = path.getFileName().toString();
+        try (SolutionWriter.Sink sink = name.endsWith(".csv")
+                ? SolutionWriter.csv(Files.newBufferedWriter(path))
+                : name.endsWith(".bin")
+                ? SolutionWriter.binary(Files.newOutputStream(path))
+                : SolutionWriter.jsonLines(Files.newBufferedWriter(path))) {
+            SolutionWriter.write(problem, sink, true, true);
+        }
+    }
 
-                }
+    /**
+     * Prints an alternative assignment as soon as it is found: its
+     * satisfaction, its distance to the best one and its assigned pairs.
+     *
+     * @param problem The problem the alternative belongs to.
+     * @param alternative The alternative.
+     * @return true, to keep looking for alternatives.
+     */
+    private static boolean printAlternative(
+            StudentEmploymentAssignment problem,
+            StudentEmploymentAssignment.Alternative alternative) {
+        final EligiblePairs pairs = problem.getPairs();
+        final StringBuilder out = new StringBuilder();
+        out.append(String.format(
+                "Alternative %d: total satisfaction %.2f, %d pairs from the"
+                        + " best%n", alternative.getRank() + 1,
+                alternative.getObjectiveValue(), alternative.getDistance()));
+        for (int p = 0; p < pairs.size(); p++) {
+            if (alternative.isAssigned(p)) {
+                out.append("  Student ").append(pairs.student(p))
+                        .append(" -> class ").append(pairs.classOf(p))
+                        .append('\n');
             }
-            registeredSlotsList.get(row).add(slots);
-            numRows = row;
         }
-        numRows++;
-        scanner.close();
-
-        // Convert registeredSlotsList to a 3D array
-        int[][][] registeredSlots = new int[numRows][NUM_WEEKDAYS][];
-
-        for (int row = 0; row < numRows; row++) {
-            List<List<Integer>> rowList = registeredSlotsList.get(row);
-
-            for (int col = 0; col < NUM_WEEKDAYS; col++) {
-                if (!rowList.isEmpty()) {
-                    List<Integer> slotsList = rowList.get(col);
-
-                    registeredSlots[row][col] = new int[slotsList.size()];
+        System.out.print(out);
+        System.out.flush();
+        return true;
+    }
 
-                    for (int i = 0; i < slotsList.size(); i++) {
-                        registeredSlots[row][col][i] = slotsList.get(i);
-                    }
-                }
-            }
+    /**
+     * Returns the value that follows an option.
+     *
+     * @param args The command-line arguments.
+     * @param i The index of the option.
+     * @return The value.
+     * @throws IllegalArgumentException If the option is the last argument.
+     */
+    private static String optionValue(String[] args, int i) {
+        if (i + 1 >= args.length) {
+            throw new IllegalArgumentException(args[i] + " needs a value");
         }
+        return args[i + 1];
+    }
 
-        return registeredSlots;
+    /**
+     * Returns the integer value that follows an option.
+     *
+     * @param args The command-line arguments.
+     * @param i The index of the option.
+     * @return The value.
+     * @throws IllegalArgumentException If the option is the last argument
+     * or its value is not an integer.
+     */
+    private static int intOptionValue(String[] args, int i) {
+        final String value = optionValue(args, i);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    args[i] + " needs an integer, not " + value);
+        }
     }
 
     /**
      * Main method to run the Student Employment Assignment problem solver.
+     * It solves the instance snapshot given as argument, or the text input
+     * files if there is none, with these options:
+     * <ul>
+     * <li>--report: print the solve report as JSON.</li>
+     * <li>--out file: also write the solution as .csv, .jsonl or .bin.</li>
+     * <li>--backend name: use SCIP, CBC, GLOP or CP_SAT for the MIP.</li>
+     * <li>--history dir: store of the solved terms, with --term.</li>
+     * <li>--term name: term to solve from the last one and save.</li>
+     * <li>--stability bonus: reward each kept assignment.</li>
+     * <li>--rc-fixing: fix MIP columns by LP reduced costs.</li>
+     * <li>--portfolio: race the solvers, keep the first proven answer.</li>
+     * <li>--alternatives n: list n alternative assignments, best first.</li>
+     * <li>--distance pairs: pairs in which any two alternatives differ.</li>
+     * </ul>
      *
-     * @param args Command-line arguments (not used).
+     * @param args Command-line arguments: the options and an optional
+     *             instance snapshot file.
      * @throws IOException If an I/O error occurs while reading the file.
      */
     public static void main(final String[] args) throws IOException {
-        Loader.loadNativeLibraries();
-        final int[] hoursPerClass = getHoursPerClass();
-        final int[][] profPreferences = getPreferences(PROF_PREF_PATH,
-                hoursPerClass.length);
-        final int[][] studPreferences = getPreferences(STUD_PREF_PATH,
-                hoursPerClass.length);
-        int[][][] registeredSlotsPerStudentDay = getRegisteredSlots();
-        int[][] slotsPerClass = getSlotsPerClass();
+        String snapshotPath = null;
+        String outputPath = null;
+        boolean printReport = false;
+        boolean reducedCostFixing = false;
+        boolean portfolio = false;
+        int alternatives = 0;
+        int distance = 1;
+        String historyPath = null;
+        String term = null;
+        double stability = 0.0;
+        StudentEmploymentAssignment.Backend backend =
+                StudentEmploymentAssignment.Backend.AUTO;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--report")) {
+                    printReport = true;
+                } else if (args[i].equals("--rc-fixing")) {
+                    reducedCostFixing = true;
+                } else if (args[i].equals("--portfolio")) {
+                    portfolio = true;
+                } else if (args[i].equals("--alternatives")) {
+                    alternatives = intOptionValue(args, i++);
+                } else if (args[i].equals("--distance")) {
+                    distance = intOptionValue(args, i++);
+                } else if (args[i].equals("--out")) {
+                    outputPath = optionValue(args, i++);
+                } else if (args[i].equals("--backend")) {
+                    final String name = optionValue(args, i++);
+                    try {
+                        backend = StudentEmploymentAssignment.Backend.valueOf(
+                                name);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException(
+                                "Unknown backend " + name);
+                    }
+                } else if (args[i].equals("--history")) {
+                    historyPath = optionValue(args, i++);
+                } else if (args[i].equals("--term")) {
+                    term = optionValue(args, i++);
+                } else if (args[i].equals("--stability")) {
+                    final String value = optionValue(args, i++);
+                    try {
+                        stability = Double.parseDouble(value);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException(
+                                "--stability needs a number, not " + value);
+                    }
+                } else if (args[i].startsWith("--")) {
+                    throw new IllegalArgumentException(
+                            "Unknown option " + args[i]);
+                } else if (snapshotPath != null) {
+                    throw new IllegalArgumentException(
+                            "Only one snapshot file can be given");
+                } else {
+                    snapshotPath = args[i];
+                }
+            }
+            if ((historyPath == null) != (term == null)) {
+                throw new IllegalArgumentException(
+                        "--history and --term must be given together");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return;
+        }
 
-        final StudentEmploymentAssignment problem = new
-                StudentEmploymentAssignment(
-                        profPreferences, studPreferences,
-                        hoursPerClass,
-                        registeredSlotsPerStudentDay, slotsPerClass
-        );
-        problem.solve();
+        final long parseWall = System.nanoTime();
+        final long parseCpu = SolveReport.cpuTimeNanos();
+        final ProblemInstance instance;
+        if (snapshotPath != null) {
+            instance = InstanceSnapshot.map(Paths.get(snapshotPath));
+        } else {
+            final int[] hoursPerClass = getHoursPerClass();
+            final int[][] profPreferences = getPreferences(PROF_PREF_PATH,
+                    hoursPerClass.length);
+            final int[][] studPreferences = getPreferences(STUD_PREF_PATH,
+                    hoursPerClass.length);
+            int[][][] registeredSlotsPerStudentDay = getRegisteredSlots();
+            int[][] slotsPerClass = getSlotsPerClass();
+            instance = new ArrayInstance(
+                    profPreferences, studPreferences,
+                    hoursPerClass,
+                    registeredSlotsPerStudentDay, slotsPerClass
+            );
+        }
+        final long parseWallNanos = System.nanoTime() - parseWall;
+        final long parseCpuNanos = parseCpu < 0 ? -1
+                : SolveReport.cpuTimeNanos() - parseCpu;
+
+        StudentEmploymentAssignment problem = new
+                StudentEmploymentAssignment(instance);
+        problem.setBackend(backend);
+        problem.setReducedCostFixing(reducedCostFixing);
+        SolutionHistory history = null;
+        int[] studentIds = null;
+        int[] classIds = null;
+        int[] previousAssignment = null;
+        if (historyPath != null) {
+            history = new SolutionHistory(Paths.get(historyPath));
+            if (snapshotPath != null) {
+                // Snapshots keep no ids, so rows are matched by position.
+                studentIds = IntStream.range(0, instance.numStudents())
+                        .toArray();
+                classIds = IntStream.range(0, instance.numClasses())
+                        .toArray();
+            } else {
+                studentIds = InputLoader.readIds(Paths.get(PROF_PREF_PATH));
+                classIds = InputLoader.readIds(
+                        Paths.get(HOURS_PER_CLASS_PATH));
+            }
+            final String previous = history.latestBefore(term);
+            if (previous != null) {
+                final TermDiff diff = TermDiff.between(history.load(previous),
+                        instance, studentIds, classIds);
+                System.out.println("Changes since " + previous + ": "
+                        + diff);
+                problem.setPreviousAssignment(diff.getPreviousAssignment(),
+                        stability);
+                previousAssignment = diff.getPreviousAssignment();
+            }
+        }
+        final SolveStatus status;
+        if (portfolio) {
+            final SolverPortfolio race = new SolverPortfolio(instance);
+            race.addDefaultEntries(new SolveConfig());
+            if (previousAssignment != null) {
+                race.setPreviousAssignment(previousAssignment, stability);
+            }
+            Loader.loadNativeLibraries();
+            final SolverPortfolio.Result result = race.run();
+            System.out.print(result.formatTable());
+            problem = result.getWinner().getProblem();
+            status = result.getWinner().getStatus();
+        } else if (alternatives > 0) {
+            Loader.loadNativeLibraries();
+            final StudentEmploymentAssignment solved = problem;
+            final List<StudentEmploymentAssignment.Alternative> found =
+                    problem.solveAlternatives(alternatives, distance,
+                            alternative -> printAlternative(solved,
+                                    alternative));
+            status = found.isEmpty() ? SolveStatus.NOT_SOLVED
+                    : found.get(0).isOptimal()
+                    ? SolveStatus.OPTIMAL
+                    : SolveStatus.FEASIBLE;
+        } else {
+            if (problem.usesNativeSolver()) {
+                Loader.loadNativeLibraries();
+            }
+            status = problem.optimize();
+        }
         problem.printSolution();
+        if (outputPath != null && (status == SolveStatus.OPTIMAL
+                || status == SolveStatus.FEASIBLE)) {
+            writeSolution(problem, Paths.get(outputPath));
+        }
+        if (history != null && (status == SolveStatus.OPTIMAL
+                || status == SolveStatus.FEASIBLE)) {
+            history.save(term, instance, studentIds, classIds, problem);
+        }
+        if (printReport) {
+            final SolveReport report = problem.getSolveReport();
+            report.addPhase("parse", parseWallNanos, parseCpuNanos);
+            System.out.println(report.toJson());
+        }
     }
 }
@@ -0,0 +1,251 @@
+/**
+ * This class represents a precomputed index of the student-class pairs that
+ * can be part of an assignment. Busy and required (day, slot) sets are
+ * encoded as long bitmasks, so the availability of a pair is a single AND,
+ * and the eligible classes of each student are stored as a packed bitmap.
+ * Slots outside 0..11 have no bit of their own: they set a shared marker
+ * bit, and a pair whose masks share only that bit is checked slot by slot.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class EligibilityIndex {
+    static final int NUM_WEEKDAYS = 5;  // Number of weekdays in a schedule.
+    static final int SLOTS_PER_DAY = 12;  // Bits reserved for each weekday.
+    static final long OUT_OF_RANGE = 1L << 63;  // Marker of a slot outside
+                                                // 0..SLOTS_PER_DAY - 1.
+    private final ProblemInstance instance;  // Instance, for the slot by
+                                             // slot check of marked pairs.
+    private final int numStudents;  // Total number of students.
+    private final int numClasses;  // Total number of classes.
+    private final int wordsPerStudent;  // Longs in each student's bitmap row.
+    private final long[] busyMasks;  // Busy (day, slot) bits per student.
+    private final long[] requiredMasks;  // Required (day, slot) bits per
+                                         // class.
+    private final long[] eligible;  // Row-major bitmap of eligible pairs.
+    private final int numEligible;  // Number of set bits in the bitmap.
+
+    /**
+     * Constructor to build the index from the problem input arrays.
+     *
+     * @param profPreferences The 2D array of professors' preferences for each
+     *                        student for each class.
+     * @param studPreferences The 2D array of students' preferences for each
+     *                        class.
+     * @param registeredSlotsPerStudentDay The 3D array representing registered
+     *                                     slots for each student on each day.
+     * @param slotsPerClass The 2D array representing assigned slots for each
+     *                      class.
+     */
+    public EligibilityIndex(
+            int[][] profPreferences,
+            int[][] studPreferences,
+            int[][][] registeredSlotsPerStudentDay,
+            int[][] slotsPerClass
+    ) {
+        this(new ArrayInstance(profPreferences, studPreferences,
+                new int[slotsPerClass.length], registeredSlotsPerStudentDay,
+                slotsPerClass));
+    }
+
+    /**
+     * Constructor to build the index from a problem instance.
+     *
+     * @param instance The problem instance.
+     */
+    public EligibilityIndex(ProblemInstance instance) {
+        this.instance = instance;
+        this.numStudents = instance.numStudents();
+        this.numClasses = instance.numClasses();
+        this.wordsPerStudent = (this.numClasses + 63) >>> 6;
+
+        this.busyMasks = new long[this.numStudents];
+        for (int s = 0; s < this.numStudents; s++) {
+            this.busyMasks[s] = busyMask(instance, s);
+        }
+
+        this.requiredMasks = requiredMasks(instance);
+
+        this.eligible = new long[this.numStudents * this.wordsPerStudent];
+        final int[] prof = new int[this.numClasses];
+        final int[] stud = new int[this.numClasses];
+        int count = 0;
+        for (int s = 0; s < this.numStudents; s++) {
+            final long busy = this.busyMasks[s];
+            final int row = s * this.wordsPerStudent;
+            instance.profPreferenceRow(s, prof);
+            instance.studPreferenceRow(s, stud);
+            for (int c = 0; c < this.numClasses; c++) {
+                if (prof[c] > 0 & stud[c] > 0
+                        && isFree(instance, s, c, busy,
+                        this.requiredMasks[c])) {
+                    this.eligible[row + (c >>> 6)] |= 1L << c;
+                    count++;
+                }
+            }
+        }
+        this.numEligible = count;
+    }
+
+    /**
+     * Encodes the registered slots of a student as a bitmask.
+     *
+     * @param instance The problem instance.
+     * @param s The student index.
+     * @return The busy (day, slot) bits of the student.
+     */
+    static long busyMask(ProblemInstance instance, int s) {
+        long mask = 0L;
+        for (int d = 0; d < NUM_WEEKDAYS; d++) {
+            for (int i = 0; i < instance.numRegisteredSlots(s, d); i++) {
+                mask |= slotBit(d, instance.registeredSlot(s, d, i));
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Encodes the assigned slots of every class as a bitmask.
+     *
+     * @param instance The problem instance.
+     * @return The required (day, slot) bits of each class.
+     */
+    static long[] requiredMasks(ProblemInstance instance) {
+        final long[] masks = new long[instance.numClasses()];
+        for (int c = 0; c < masks.length; c++) {
+            long mask = 0L;
+            for (int d = 0; d < NUM_WEEKDAYS; d++) {
+                final int slot = instance.classSlot(c, d);
+                if (slot > 0) {
+                    mask |= slotBit(d, slot);
+                }
+            }
+            masks[c] = mask;
+        }
+        return masks;
+    }
+
+    /**
+     * Returns the bit that encodes a slot on a weekday.
+     *
+     * @param d The weekday index.
+     * @param slot The slot value.
+     * @return The bitmask with only that (day, slot) bit set, or
+     * OUT_OF_RANGE if the slot is outside 0..SLOTS_PER_DAY - 1.
+     */
+    static long slotBit(int d, int slot) {
+        if (slot < 0 || slot >= SLOTS_PER_DAY) {
+            return OUT_OF_RANGE;
+        }
+        return 1L << (d * SLOTS_PER_DAY + slot);
+    }
+
+    /**
+     * Checks if a student is free for a class, given their masks. Only when
+     * the masks share nothing but the OUT_OF_RANGE marker are the slots of
+     * the instance compared one by one.
+     *
+     * @param instance The problem instance.
+     * @param s The student index.
+     * @param c The class index.
+     * @param busy The busy mask of the student.
+     * @param required The required mask of the class.
+     * @return true if the student is free for every slot of the class.
+     */
+    static boolean isFree(ProblemInstance instance, int s, int c, long busy,
+                          long required) {
+        final long common = busy & required;
+        if (common == 0) {
+            return true;
+        }
+        if (common != OUT_OF_RANGE) {
+            return false;
+        }
+        for (int d = 0; d < NUM_WEEKDAYS; d++) {
+            final int slot = instance.classSlot(c, d);
+            if (slot > 0) {
+                for (int i = 0; i < instance.numRegisteredSlots(s, d); i++) {
+                    if (instance.registeredSlot(s, d, i) == slot) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Getter of the number of students.
+     *
+     * @return The number of students.
+     */
+    public int numStudents() {
+        return numStudents;
+    }
+
+    /**
+     * Getter of the number of classes.
+     *
+     * @return The number of classes.
+     */
+    public int numClasses() {
+        return numClasses;
+    }
+
+    /**
+     * Getter of the number of eligible pairs.
+     *
+     * @return The number of eligible pairs.
+     */
+    public int numEligible() {
+        return numEligible;
+    }
+
+    /**
+     * Checks if a student's slot is available for a class on every day the
+     * class has slots assigned.
+     *
+     * @param s The student index.
+     * @param c The class index.
+     * @return true if the slots are available, false if student's already
+     * registered.
+     */
+    public boolean isStudentSlotFree(int s, int c) {
+        return isFree(instance, s, c, busyMasks[s], requiredMasks[c]);
+    }
+
+    /**
+     * Checks if a student-class pair is eligible.
+     *
+     * @param s The student index.
+     * @param c The class index.
+     * @return true if both sides want the pair and the student is free.
+     */
+    public boolean isEligible(int s, int c) {
+        return (eligible[s * wordsPerStudent + (c >>> 6)] & (1L << c)) != 0;
+    }
+
+    /**
+     * Returns the first eligible class of a student at or after a class.
+     * Iterating with this method visits only the set bits of the bitmap.
+     *
+     * @param s The student index.
+     * @param from The class index to start searching at.
+     * @return The next eligible class index, or -1 if there is none.
+     */
+    public int nextEligibleClass(int s, int from) {
+        if (from >= numClasses) {
+            return -1;
+        }
+        final int row = s * wordsPerStudent;
+        int w = from >>> 6;
+        long bits = eligible[row + w] & (-1L << from);
+        while (bits == 0) {
+            if (++w == wordsPerStudent) {
+                return -1;
+            }
+            bits = eligible[row + w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(bits);
+    }
+}
@@ -0,0 +1,256 @@
+import java.util.Arrays;
+
+/**
+ * This class stores the student-class pairs that can take part in an
+ * assignment as a compressed sparse row (CSR) edge list. Pairs are grouped by
+ * student and sorted by class inside each student, and a second index groups
+ * the same pairs by class.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class EligiblePairs {
+    private final int numStudents;  // Total number of students.
+    private final int numClasses;  // Total number of classes.
+    private final int[] studentStart;  // Offset of the first pair of each
+                                       // student, plus a final sentinel.
+    private final int[] pairStudent;  // Student index of each pair.
+    private final int[] pairClass;  // Class index of each pair.
+    private final double[] pairWeight;  // Objective coefficient of each pair.
+    private final int[] classStart;  // Offset of the first entry of each
+                                     // class in classPairs, plus a sentinel.
+    private final int[] classPairs;  // Pair indices grouped by class.
+
+    /**
+     * Constructor to initialize the EligiblePairs instance from its CSR
+     * arrays.
+     *
+     * @param numStudents The number of students.
+     * @param numClasses The number of classes.
+     * @param studentStart The offset of the first pair of each student, with
+     *                     numStudents + 1 entries.
+     * @param pairClass The class index of each pair.
+     * @param pairWeight The objective coefficient of each pair.
+     */
+    EligiblePairs(
+            int numStudents,
+            int numClasses,
+            int[] studentStart,
+            int[] pairClass,
+            double[] pairWeight
+    ) {
+        this.numStudents = numStudents;
+        this.numClasses = numClasses;
+        this.studentStart = studentStart;
+        this.pairClass = pairClass;
+        this.pairWeight = pairWeight;
+        final int numPairs = studentStart[numStudents];
+
+        this.pairStudent = new int[numPairs];
+        for (int s = 0; s < numStudents; s++) {
+            Arrays.fill(this.pairStudent, studentStart[s],
+                    studentStart[s + 1], s);
+        }
+
+        // Counting sort of the pairs by class.
+        this.classStart = new int[numClasses + 1];
+        for (int p = 0; p < numPairs; p++) {
+            this.classStart[pairClass[p] + 1]++;
+        }
+        for (int c = 0; c < numClasses; c++) {
+            this.classStart[c + 1] += this.classStart[c];
+        }
+        this.classPairs = new int[numPairs];
+        final int[] next = Arrays.copyOf(this.classStart, numClasses);
+        for (int p = 0; p < numPairs; p++) {
+            this.classPairs[next[pairClass[p]]++] = p;
+        }
+    }
+
+    /**
+     * Getter of the number of students.
+     *
+     * @return The number of students.
+     */
+    public int numStudents() {
+        return numStudents;
+    }
+
+    /**
+     * Getter of the number of classes.
+     *
+     * @return The number of classes.
+     */
+    public int numClasses() {
+        return numClasses;
+    }
+
+    /**
+     * Getter of the number of eligible pairs.
+     *
+     * @return The number of eligible pairs.
+     */
+    public int size() {
+        return pairClass.length;
+    }
+
+    /**
+     * Returns the index of the first pair of a student.
+     *
+     * @param s The student index.
+     * @return The index of the student's first pair.
+     */
+    public int studentStart(int s) {
+        return studentStart[s];
+    }
+
+    /**
+     * Returns the index one past the last pair of a student.
+     *
+     * @param s The student index.
+     * @return The index one past the student's last pair.
+     */
+    public int studentEnd(int s) {
+        return studentStart[s + 1];
+    }
+
+    /**
+     * Returns the first position of a class in the class-grouped order.
+     *
+     * @param c The class index.
+     * @return The first position of the class, to be used with classPair.
+     */
+    public int classStart(int c) {
+        return classStart[c];
+    }
+
+    /**
+     * Returns the position one past the last entry of a class in the
+     * class-grouped order.
+     *
+     * @param c The class index.
+     * @return The position one past the class's last entry.
+     */
+    public int classEnd(int c) {
+        return classStart[c + 1];
+    }
+
+    /**
+     * Returns the pair stored at a position of the class-grouped order.
+     *
+     * @param i The position, between classStart(c) and classEnd(c).
+     * @return The pair index.
+     */
+    public int classPair(int i) {
+        return classPairs[i];
+    }
+
+    /**
+     * Returns the student of a pair.
+     *
+     * @param p The pair index.
+     * @return The student index.
+     */
+    public int student(int p) {
+        return pairStudent[p];
+    }
+
+    /**
+     * Returns the class of a pair.
+     *
+     * @param p The pair index.
+     * @return The class index.
+     */
+    public int classOf(int p) {
+        return pairClass[p];
+    }
+
+    /**
+     * Returns the objective coefficient of a pair.
+     *
+     * @param p The pair index.
+     * @return The weighted preference of the pair.
+     */
+    public double weight(int p) {
+        return pairWeight[p];
+    }
+
+    /**
+     * Looks up the pair of a student and a class.
+     *
+     * @param s The student index.
+     * @param c The class index.
+     * @return The pair index, or -1 if the pair is not eligible.
+     */
+    public int indexOf(int s, int c) {
+        final int p = Arrays.binarySearch(
+                pairClass, studentStart[s], studentStart[s + 1], c
+        );
+        return p >= 0 ? p : -1;
+    }
+
+    /**
+     * This class accumulates pairs student by student and builds the CSR
+     * arrays.
+     */
+    static class Builder {
+        private final int numStudents;  // Total number of students.
+        private final int numClasses;  // Total number of classes.
+        private final int[] studentStart;  // CSR row offsets being filled.
+        private int[] pairClass = new int[16];  // Growing class column.
+        private double[] pairWeight = new double[16];  // Growing weights.
+        private int size;  // Number of pairs added so far.
+        private int currentStudent;  // Student of the last pair added.
+
+        /**
+         * Constructor to initialize an empty Builder.
+         *
+         * @param numStudents The number of students.
+         * @param numClasses The number of classes.
+         */
+        Builder(int numStudents, int numClasses) {
+            this.numStudents = numStudents;
+            this.numClasses = numClasses;
+            this.studentStart = new int[numStudents + 1];
+        }
+
+        /**
+         * Appends a pair. Students must be added in non-decreasing order and
+         * classes in increasing order within a student.
+         *
+         * @param s The student index.
+         * @param c The class index.
+         * @param weight The objective coefficient of the pair.
+         */
+        void add(int s, int c, double weight) {
+            if (s < currentStudent) {
+                throw new IllegalArgumentException(
+                        "Pairs must be added in student order");
+            }
+            while (currentStudent < s) {
+                studentStart[++currentStudent] = size;
+            }
+            if (size == pairClass.length) {
+                pairClass = Arrays.copyOf(pairClass, size * 2);
+                pairWeight = Arrays.copyOf(pairWeight, size * 2);
+            }
+            pairClass[size] = c;
+            pairWeight[size] = weight;
+            size++;
+        }
+
+        /**
+         * Builds the EligiblePairs instance.
+         *
+         * @return The pairs added so far.
+         */
+        EligiblePairs build() {
+            while (currentStudent < numStudents) {
+                studentStart[++currentStudent] = size;
+            }
+            return new EligiblePairs(numStudents, numClasses, studentStart,
+                    Arrays.copyOf(pairClass, size),
+                    Arrays.copyOf(pairWeight, size));
+        }
+    }
+}
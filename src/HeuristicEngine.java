@@ -0,0 +1,254 @@
+import java.util.Arrays;
+
+/**
+ * This class finds a good assignment quickly without a solver: a weighted
+ * greedy pass builds a feasible assignment, and a local search improves it
+ * with reassignments and ejection chains until no move improves it or a
+ * time budget runs out. The result is feasible but not proven optimal.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class HeuristicEngine {
+    private static final double EPSILON = 1e-9;  // Minimum improving gain.
+    private final EligiblePairs pairs;  // Eligible pairs and their weights.
+    private final int[] hoursPerClass;  // Hours per class.
+    private final int maxHoursPerStudent;  // Maximum hours per student.
+    private final int[] classPair;  // Pair assigned to each class, or -1.
+    private final int[] studentHours;  // Hours assigned to each student.
+
+    /**
+     * Constructor to initialize an empty assignment.
+     *
+     * @param pairs The eligible student-class pairs and their weights.
+     * @param instance The problem instance, for the hours per class.
+     * @param maxHoursPerStudent The maximum hours per student.
+     */
+    private HeuristicEngine(EligiblePairs pairs, ProblemInstance instance,
+                            int maxHoursPerStudent) {
+        this.pairs = pairs;
+        this.maxHoursPerStudent = maxHoursPerStudent;
+        this.hoursPerClass = new int[pairs.numClasses()];
+        for (int c = 0; c < this.hoursPerClass.length; c++) {
+            this.hoursPerClass[c] = instance.hoursPerClass(c);
+        }
+        this.classPair = new int[pairs.numClasses()];
+        Arrays.fill(this.classPair, -1);
+        this.studentHours = new int[pairs.numStudents()];
+    }
+
+    /**
+     * Builds a greedy assignment and improves it by local search.
+     *
+     * @param pairs The eligible student-class pairs and their weights.
+     * @param instance The problem instance, for the hours per class.
+     * @param maxHoursPerStudent The maximum hours per student.
+     * @param timeBudgetMillis The time allowed for the whole search.
+     * @return The solution value of each pair, 1.0 if assigned and 0.0
+     * otherwise.
+     */
+    public static double[] solve(EligiblePairs pairs, ProblemInstance instance,
+                                 int maxHoursPerStudent,
+                                 long timeBudgetMillis) {
+        final long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+        final HeuristicEngine engine = new HeuristicEngine(
+                pairs, instance, maxHoursPerStudent
+        );
+        engine.greedy();
+        engine.localSearch(deadline);
+        return engine.values();
+    }
+
+    /**
+     * Improves a feasible assignment by local search, such as one repaired
+     * from a relaxation.
+     *
+     * @param pairs The eligible student-class pairs and their weights.
+     * @param instance The problem instance, for the hours per class.
+     * @param maxHoursPerStudent The maximum hours per student.
+     * @param values The solution value of each pair of the assignment.
+     * @param timeBudgetMillis The time allowed for the search.
+     * @return The solution value of each pair, 1.0 if assigned and 0.0
+     * otherwise.
+     */
+    static double[] improve(EligiblePairs pairs, ProblemInstance instance,
+                            int maxHoursPerStudent, double[] values,
+                            long timeBudgetMillis) {
+        final long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+        final HeuristicEngine engine = new HeuristicEngine(
+                pairs, instance, maxHoursPerStudent
+        );
+        for (int p = 0; p < values.length; p++) {
+            if (values[p] > 0.5) {
+                engine.assign(p);
+            }
+        }
+        engine.localSearch(deadline);
+        return engine.values();
+    }
+
+    /**
+     * Returns the solution values of the current assignment.
+     *
+     * @return The value of each pair, 1.0 if assigned and 0.0 otherwise.
+     */
+    private double[] values() {
+        final double[] values = new double[pairs.size()];
+        for (final int p : classPair) {
+            if (p >= 0) {
+                values[p] = 1.0;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Assigns pairs by decreasing weight whenever the class is still free and
+     * the student has enough hours left.
+     */
+    private void greedy() {
+        // Sort keys: the float bits of a non-negative weight keep its order,
+        // and the low half holds the pair index.
+        final long[] order = new long[pairs.size()];
+        for (int p = 0; p < order.length; p++) {
+            order[p] = ((long) Float.floatToIntBits(
+                    (float) Math.max(0.0, pairs.weight(p))) << 32) | p;
+        }
+        Arrays.sort(order);
+        for (int i = order.length - 1; i >= 0; i--) {
+            final int p = (int) order[i];
+            final int c = pairs.classOf(p);
+            if (classPair[c] < 0 && fits(pairs.student(p), c, 0)) {
+                assign(p);
+            }
+        }
+    }
+
+    /**
+     * Checks if a student has room for a class.
+     *
+     * @param s The student index.
+     * @param c The class index.
+     * @param freed Hours the move being evaluated releases from the student.
+     * @return true if the class fits in the student's remaining hours.
+     */
+    private boolean fits(int s, int c, int freed) {
+        return studentHours[s] - freed + hoursPerClass[c]
+                <= maxHoursPerStudent;
+    }
+
+    /**
+     * Assigns a pair, which must have a free class.
+     *
+     * @param p The pair index.
+     */
+    private void assign(int p) {
+        classPair[pairs.classOf(p)] = p;
+        studentHours[pairs.student(p)] += hoursPerClass[pairs.classOf(p)];
+    }
+
+    /**
+     * Removes an assigned pair.
+     *
+     * @param p The pair index.
+     */
+    private void unassign(int p) {
+        classPair[pairs.classOf(p)] = -1;
+        studentHours[pairs.student(p)] -= hoursPerClass[pairs.classOf(p)];
+    }
+
+    /**
+     * Repeats passes over the classes until a pass finds no improving move
+     * or the deadline passes.
+     *
+     * @param deadline The System.nanoTime() value to stop at.
+     */
+    private void localSearch(long deadline) {
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int c = 0; c < classPair.length; c++) {
+                if (System.nanoTime() >= deadline) {
+                    return;
+                }
+                improved |= improveClass(c);
+            }
+        }
+    }
+
+    /**
+     * Looks for an improving move that gives a class to another student:
+     * either a direct reassignment, or an ejection chain in which the new
+     * student drops one of their classes to make room and that class moves
+     * to a third student or is left unassigned. The first improving move
+     * found is applied.
+     *
+     * @param c The class index.
+     * @return true if a move was applied.
+     */
+    private boolean improveClass(int c) {
+        final int current = classPair[c];
+        final int currentStudent = current >= 0 ? pairs.student(current) : -1;
+        final double currentWeight = current >= 0 ? pairs.weight(current) : 0.0;
+        for (int i = pairs.classStart(c); i < pairs.classEnd(c); i++) {
+            final int p = pairs.classPair(i);
+            final int s = pairs.student(p);
+            if (s == currentStudent) {
+                continue;
+            }
+            final double gain = pairs.weight(p) - currentWeight;
+            if (fits(s, c, 0)) {
+                if (gain > EPSILON) {
+                    move(current, p);
+                    return true;
+                }
+                continue;
+            }
+            // Ejection chain: s drops one of their classes to make room.
+            for (int q = pairs.studentStart(s); q < pairs.studentEnd(s);
+                 q++) {
+                final int ejected = pairs.classOf(q);
+                if (classPair[ejected] != q
+                        || !fits(s, c, hoursPerClass[ejected])) {
+                    continue;
+                }
+                int bestTarget = -1;
+                double bestWeight = 0.0;
+                for (int j = pairs.classStart(ejected);
+                     j < pairs.classEnd(ejected); j++) {
+                    final int r = pairs.classPair(j);
+                    final int t = pairs.student(r);
+                    final int freed = t == currentStudent
+                            ? hoursPerClass[c] : 0;
+                    if (t != s && pairs.weight(r) > bestWeight
+                            && fits(t, ejected, freed)) {
+                        bestTarget = r;
+                        bestWeight = pairs.weight(r);
+                    }
+                }
+                if (gain - pairs.weight(q) + bestWeight > EPSILON) {
+                    unassign(q);
+                    move(current, p);
+                    if (bestTarget >= 0) {
+                        assign(bestTarget);
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gives a class to a new pair, releasing its current pair if any.
+     *
+     * @param current The pair currently holding the class, or -1.
+     * @param p The pair that takes the class.
+     */
+    private void move(int current, int p) {
+        if (current >= 0) {
+            unassign(current);
+        }
+        assign(p);
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * This class holds the best assignment found by any of several solves of
+ * the same problem running at the same time, so that each solve can start
+ * its next search from it. Values are indexed by eligible pair, which is
+ * also the column layout of a streamed MIP model, since streaming solves
+ * the eligible pairs without presolve. Every method can be called from any
+ * thread.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class IncumbentPool {
+    private static final double TOLERANCE = 1e-9;  // Least improvement that
+                                                   // replaces the incumbent.
+    private double objectiveValue = Double.NEGATIVE_INFINITY;  // Objective of
+                                                   // the best assignment.
+    private double[] values;  // Value of each eligible pair, null if none.
+    private int improvements;  // Assignments that improved the pool.
+
+    /**
+     * Offers an assignment to the pool, which keeps it if it is better than
+     * the current one.
+     *
+     * @param objectiveValue The objective value of the assignment.
+     * @param values The value of each eligible pair.
+     * @return true if the assignment is the new incumbent.
+     */
+    public synchronized boolean offer(double objectiveValue,
+                                      double[] values) {
+        if (values == null
+                || !(objectiveValue > this.objectiveValue + TOLERANCE)) {
+            return false;
+        }
+        this.objectiveValue = objectiveValue;
+        this.values = values.clone();
+        this.improvements++;
+        return true;
+    }
+
+    /**
+     * Returns the incumbent if it is better than a given objective.
+     *
+     * @param objectiveValue The objective to beat, or negative infinity.
+     * @return A copy of the incumbent values, or null if it is not better.
+     */
+    public synchronized double[] betterThan(double objectiveValue) {
+        return this.values != null
+                && this.objectiveValue > objectiveValue + TOLERANCE
+                ? this.values.clone() : null;
+    }
+
+    /**
+     * Getter of the objective value of the incumbent.
+     *
+     * @return The objective, or negative infinity if the pool is empty.
+     */
+    public synchronized double getObjectiveValue() {
+        return objectiveValue;
+    }
+
+    /**
+     * Getter of the number of assignments that improved the pool.
+     *
+     * @return The number of improvements.
+     */
+    public synchronized int getImprovements() {
+        return improvements;
+    }
+}
@@ -0,0 +1,59 @@
+import java.io.IOException;
+
+/**
+ * This class represents a malformed input file, pointing at the line and
+ * column where parsing failed.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class InputFormatException extends IOException {
+    private static final long serialVersionUID = 1L;  // Serialized form
+                                                      // version.
+    private final String file;  // Name of the file being parsed.
+    private final int line;  // 1-based line of the error.
+    private final int column;  // 1-based column of the error.
+
+    /**
+     * Constructor to initialize the InputFormatException instance.
+     *
+     * @param file The name of the file being parsed.
+     * @param line The 1-based line of the error.
+     * @param column The 1-based column of the error.
+     * @param message The description of the problem.
+     */
+    public InputFormatException(String file, int line, int column,
+                                String message) {
+        super(file + ":" + line + ":" + column + ": " + message);
+        this.file = file;
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Getter of the file name.
+     *
+     * @return The name of the file being parsed.
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Getter of the line.
+     *
+     * @return The 1-based line of the error.
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Getter of the column.
+     *
+     * @return The 1-based column of the error.
+     */
+    public int getColumn() {
+        return column;
+    }
+}
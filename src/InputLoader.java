@@ -0,0 +1,461 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * This class reads the text input files of the Student Employment Assignment
+ * problem. Files are tokenized byte by byte over a buffered FileChannel and
+ * values are written straight into primitive arrays.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class InputLoader {
+    private static final int NUM_WEEKDAYS = 5;  // Number of weekdays.
+    private static final int[] NO_SLOTS = new int[0];  // Shared empty day.
+    static final String PROF_PREF_FILE = "professors_preferences.txt";
+                                            // Professors' preferences file.
+    static final String STUD_PREF_FILE = "students_preferences.txt";
+                                            // Students' preferences file.
+    static final String HOURS_PER_CLASS_FILE = "required_class_hours.txt";
+                                            // Class hours file.
+    static final String CLASS_SLOTS_FILE = "class_slots.txt";
+                                            // Class slots file.
+    static final String REGISTERED_SLOTS_FILE =
+            "students_registered_slots.txt";  // Registered slots file.
+
+    /**
+     * Reads the five input files of a problem instance from a directory.
+     *
+     * @param dir The directory holding the input files.
+     * @return The instance backed by the parsed arrays.
+     * @throws IOException If an I/O error occurs or a file is malformed.
+     */
+    public static ArrayInstance load(Path dir) throws IOException {
+        final int[] hoursPerClass = readHoursPerClass(
+                dir.resolve(HOURS_PER_CLASS_FILE));
+        return new ArrayInstance(
+                readPreferences(dir.resolve(PROF_PREF_FILE),
+                        hoursPerClass.length),
+                readPreferences(dir.resolve(STUD_PREF_FILE),
+                        hoursPerClass.length),
+                hoursPerClass,
+                readRegisteredSlots(dir.resolve(REGISTERED_SLOTS_FILE)),
+                readSlotsPerClass(dir.resolve(CLASS_SLOTS_FILE))
+        );
+    }
+
+    /**
+     * Reads the student ids of an input directory: the row ids of the
+     * professors' preferences file, in row order.
+     *
+     * @param dir The directory holding the input files.
+     * @return The id of each student.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    public static int[] readStudentIds(Path dir) throws IOException {
+        return readIds(dir.resolve(PROF_PREF_FILE));
+    }
+
+    /**
+     * Reads the class ids of an input directory: the class ids of the class
+     * hours file, in row order.
+     *
+     * @param dir The directory holding the input files.
+     * @return The id of each class.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    public static int[] readClassIds(Path dir) throws IOException {
+        return readIds(dir.resolve(HOURS_PER_CLASS_FILE));
+    }
+
+    /**
+     * Parses the row ids of a file whose lines hold an id, a comma and a
+     * list of values.
+     *
+     * @param path The path to the input text file.
+     * @return The id of each row.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    static int[] readIds(Path path) throws IOException {
+        int[] ids = new int[16];
+        int numRows = 0;
+        try (Tokenizer in = new Tokenizer(path)) {
+            while (in.nextRecord()) {
+                if (numRows == ids.length) {
+                    ids = Arrays.copyOf(ids, numRows * 2);
+                }
+                ids[numRows++] = in.nextInt();
+                in.expect(',');
+                while (in.hasIntOnLine()) {
+                    in.nextInt();
+                }
+                in.endLine();
+            }
+        }
+        return Arrays.copyOf(ids, numRows);
+    }
+
+    /**
+     * Parses professor/student preferences from a text file. Each line holds
+     * a row id, a comma and the preference value of each class.
+     *
+     * @param path The path to the input text file containing
+     *             professor/student preferences.
+     * @param nClasses The number of classes.
+     * @return A 2D integer array representing professor/student preferences,
+     * where each row corresponds to a professor/student and each column to a
+     * preference value.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    public static int[][] readPreferences(Path path, int nClasses)
+            throws IOException {
+        int[][] rows = new int[16][];
+        int numRows = 0;
+        try (Tokenizer in = new Tokenizer(path)) {
+            while (in.nextRecord()) {
+                in.nextInt();  // Row id.
+                in.expect(',');
+                final int[] row = new int[nClasses];
+                int c = 0;
+                while (in.hasIntOnLine()) {
+                    if (c == nClasses) {
+                        throw in.error("more than " + nClasses
+                                + " preference values");
+                    }
+                    row[c++] = in.nextInt();
+                }
+                in.endLine();
+                if (numRows == rows.length) {
+                    rows = Arrays.copyOf(rows, numRows * 2);
+                }
+                rows[numRows++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, numRows);
+    }
+
+    /**
+     * Parses class hours from a text file. Each line holds a class id, a
+     * comma and the class's hours.
+     *
+     * @param path The path to the input text file containing class hours.
+     * @return An array of integers representing the hours for each class.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    public static int[] readHoursPerClass(Path path) throws IOException {
+        int[] hours = new int[16];
+        int numClasses = 0;
+        try (Tokenizer in = new Tokenizer(path)) {
+            while (in.nextRecord()) {
+                in.nextInt();  // Class id.
+                in.expect(',');
+                if (numClasses == hours.length) {
+                    hours = Arrays.copyOf(hours, numClasses * 2);
+                }
+                hours[numClasses++] = in.nextInt();
+                in.endLine();
+            }
+        }
+        return Arrays.copyOf(hours, numClasses);
+    }
+
+    /**
+     * Parses classes' slots from a text file. Each line holds a class id, a
+     * comma and the slot of the class on each weekday.
+     *
+     * @param path The path to the input text file containing class slots.
+     * @return A 2D array of integers representing the slot in each weekday
+     * for each class.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    public static int[][] readSlotsPerClass(Path path) throws IOException {
+        int[][] slots = new int[16][];
+        int numClasses = 0;
+        try (Tokenizer in = new Tokenizer(path)) {
+            while (in.nextRecord()) {
+                in.nextInt();  // Class id.
+                in.expect(',');
+                final int[] row = new int[NUM_WEEKDAYS];
+                for (int d = 0; d < NUM_WEEKDAYS; d++) {
+                    row[d] = in.nextInt();
+                }
+                in.endLine();
+                if (numClasses == slots.length) {
+                    slots = Arrays.copyOf(slots, numClasses * 2);
+                }
+                slots[numClasses++] = row;
+            }
+        }
+        return Arrays.copyOf(slots, numClasses);
+    }
+
+    /**
+     * Parses registered slots from a text file. Each line holds a student id,
+     * a weekday and, after an optional comma, the busy slots of the student
+     * on that day. Days without a line are left empty, and the slots of a
+     * weekday outside 0..4 are ignored.
+     *
+     * @param path The path to the input text file containing registered
+     *             slots.
+     * @return A 3D integer array representing registered slots where the
+     * first dimension corresponds to students, the second dimension
+     * corresponds to weekdays, and the third dimension contains slot values.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    public static int[][][] readRegisteredSlots(Path path) throws IOException {
+        int[][][] registered = new int[16][][];
+        int numStudents = 0;
+        int[] scratch = new int[8];
+        try (Tokenizer in = new Tokenizer(path)) {
+            while (in.nextRecord()) {
+                final int s = in.nextInt();
+                if (s < 0) {
+                    throw in.error("negative student " + s);
+                }
+                in.expect(',');
+                final int d = in.nextInt();
+                in.skipIf(',');
+                int count = 0;
+                while (in.hasIntOnLine()) {
+                    if (count == scratch.length) {
+                        scratch = Arrays.copyOf(scratch, count * 2);
+                    }
+                    scratch[count++] = in.nextInt();
+                }
+                in.endLine();
+
+                if (s >= registered.length) {
+                    registered = Arrays.copyOf(registered,
+                            Math.max(s + 1, registered.length * 2));
+                }
+                while (numStudents <= s) {
+                    final int[][] days = new int[NUM_WEEKDAYS][];
+                    Arrays.fill(days, NO_SLOTS);
+                    registered[numStudents++] = days;
+                }
+                if (d >= 0 && d < NUM_WEEKDAYS) {
+                    registered[s][d] = count == 0
+                            ? NO_SLOTS : Arrays.copyOf(scratch, count);
+                }
+            }
+        }
+        return Arrays.copyOf(registered, numStudents);
+    }
+
+    /**
+     * This class splits a file into optionally signed integers and
+     * single-byte separators while tracking the current line and column.
+     */
+    private static final class Tokenizer implements Closeable {
+        private static final int EOF = -1;  // Marker for the end of the file.
+        private final FileChannel channel;  // Channel over the input file.
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+                                            // Chunk of the file being read.
+        private final String file;  // Name of the file, for error messages.
+        private int line = 1;  // 1-based line of the next byte.
+        private int column = 1;  // 1-based column of the next byte.
+
+        /**
+         * Constructor to open a file for tokenizing.
+         *
+         * @param path The path to the file.
+         * @throws IOException If the file cannot be opened.
+         */
+        Tokenizer(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.file = path.toString();
+            this.buffer.limit(0);
+        }
+
+        /**
+         * Returns the next byte without consuming it.
+         *
+         * @return The next byte, or EOF at the end of the file.
+         * @throws IOException If an I/O error occurs.
+         */
+        private int peek() throws IOException {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int n;
+                do {
+                    n = channel.read(buffer);
+                } while (n == 0);
+                buffer.flip();
+                if (n < 0) {
+                    return EOF;
+                }
+            }
+            return buffer.get(buffer.position()) & 0xFF;
+        }
+
+        /**
+         * Consumes the next byte, which must have been peeked.
+         */
+        private void advance() {
+            if (buffer.get() == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+
+        /**
+         * Skips spaces, tabs and carriage returns on the current line.
+         *
+         * @throws IOException If an I/O error occurs.
+         */
+        private void skipBlanks() throws IOException {
+            int c = peek();
+            while (c == ' ' || c == '\t' || c == '\r') {
+                advance();
+                c = peek();
+            }
+        }
+
+        /**
+         * Skips blank lines up to the start of the next record.
+         *
+         * @return true if there is a record to read, false at the end of the
+         * file.
+         * @throws IOException If an I/O error occurs.
+         */
+        boolean nextRecord() throws IOException {
+            int c = peek();
+            while (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                advance();
+                c = peek();
+            }
+            return c != EOF;
+        }
+
+        /**
+         * Checks if another integer follows on the current line.
+         *
+         * @return true if the next token is an integer.
+         * @throws IOException If an I/O error occurs.
+         */
+        boolean hasIntOnLine() throws IOException {
+            skipBlanks();
+            final int c = peek();
+            return c >= '0' && c <= '9' || c == '-' || c == '+';
+        }
+
+        /**
+         * Reads an integer with an optional sign.
+         *
+         * @return The integer read.
+         * @throws IOException If an I/O error occurs or the next token is not
+         * an integer.
+         */
+        int nextInt() throws IOException {
+            skipBlanks();
+            final int startColumn = column;
+            int c = peek();
+            final boolean negative = c == '-';
+            if (negative || c == '+') {
+                advance();
+                c = peek();
+            }
+            if (c < '0' || c > '9') {
+                throw error("expected an integer but found " + describe(c));
+            }
+            final long limit = negative
+                    ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+            long value = 0;
+            do {
+                value = value * 10 + (c - '0');
+                if (value > limit) {
+                    throw new InputFormatException(file, line, startColumn,
+                            "integer out of range");
+                }
+                advance();
+                c = peek();
+            } while (c >= '0' && c <= '9');
+            return (int) (negative ? -value : value);
+        }
+
+        /**
+         * Consumes a separator, which must be the next token.
+         *
+         * @param separator The expected separator.
+         * @throws IOException If an I/O error occurs or the next token is
+         * different.
+         */
+        void expect(char separator) throws IOException {
+            if (!skipIf(separator)) {
+                throw error("expected '" + separator + "' but found "
+                        + describe(peek()));
+            }
+        }
+
+        /**
+         * Consumes a separator if it is the next token.
+         *
+         * @param separator The separator to skip.
+         * @return true if the separator was consumed.
+         * @throws IOException If an I/O error occurs.
+         */
+        boolean skipIf(char separator) throws IOException {
+            skipBlanks();
+            if (peek() == separator) {
+                advance();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Consumes the end of the current line, which must not hold any other
+         * token.
+         *
+         * @throws IOException If an I/O error occurs or the line has
+         * trailing content.
+         */
+        void endLine() throws IOException {
+            skipBlanks();
+            final int c = peek();
+            if (c == '\n') {
+                advance();
+            } else if (c != EOF) {
+                throw error("expected end of line but found " + describe(c));
+            }
+        }
+
+        /**
+         * Creates an exception pointing at the current position.
+         *
+         * @param message The description of the problem.
+         * @return The exception to throw.
+         */
+        InputFormatException error(String message) {
+            return new InputFormatException(file, line, column, message);
+        }
+
+        /**
+         * Describes a byte for error messages.
+         *
+         * @param c The byte, or EOF.
+         * @return A readable description of the byte.
+         */
+        private static String describe(int c) {
+            if (c == EOF) {
+                return "end of file";
+            }
+            if (c == '\n') {
+                return "end of line";
+            }
+            return "'" + (char) c + "'";
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * This class generates synthetic Student Employment Assignment instances for
+ * benchmarks and scale tests. Students and classes are split into
+ * departments, students mostly rank classes of their own department,
+ * professors rank some of the students who applied, and class and student
+ * schedules overlap at a configurable rate. The same seed always gives the
+ * same instance.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class InstanceGenerator {
+    private static final int NUM_WEEKDAYS = 5;  // Number of weekdays.
+    private static final int[] HOURS = {5, 10, 10, 10, 15, 15, 20};
+                                            // Hour values drawn per class.
+    private final int numStudents;  // Number of students to generate.
+    private final int numClasses;  // Number of classes to generate.
+    private final long seed;  // Seed of the random generator.
+    private int numDepartments = 1;  // Departments students and classes are
+                                     // split into.
+    private double applicationRate = 0.1;  // Fraction of the department's
+                                           // classes each student ranks.
+    private double crossDepartmentRate = 0.02;  // Fraction of applications
+                                                // to other departments.
+    private double professorRate = 0.6;  // Probability that a professor ranks
+                                         // a student who applied.
+    private double busyRate = 0.3;  // Probability that a student is busy in
+                                    // each (day, slot).
+    private int maxRank = 3;  // Highest preference value.
+
+    /**
+     * Constructor to initialize the InstanceGenerator with the instance size.
+     *
+     * @param numStudents The number of students.
+     * @param numClasses The number of classes.
+     * @param seed The seed of the random generator.
+     */
+    public InstanceGenerator(int numStudents, int numClasses, long seed) {
+        this.numStudents = numStudents;
+        this.numClasses = numClasses;
+        this.seed = seed;
+    }
+
+    /**
+     * Parses a size written as "students x classes", such as "1000x100".
+     *
+     * @param size The size to parse.
+     * @param seed The seed of the random generator.
+     * @return The generator for that size.
+     */
+    public static InstanceGenerator ofSize(String size, long seed) {
+        final String[] parts = size.split("x");
+        return new InstanceGenerator(Integer.parseInt(parts[0]),
+                Integer.parseInt(parts[1]), seed);
+    }
+
+    /**
+     * Sets the number of departments.
+     *
+     * @param numDepartments The number of departments.
+     * @return This generator.
+     */
+    public InstanceGenerator departments(int numDepartments) {
+        this.numDepartments = numDepartments;
+        return this;
+    }
+
+    /**
+     * Sets the fraction of the department's classes each student ranks.
+     *
+     * @param applicationRate The fraction, between 0 and 1.
+     * @return This generator.
+     */
+    public InstanceGenerator applicationRate(double applicationRate) {
+        this.applicationRate = applicationRate;
+        return this;
+    }
+
+    /**
+     * Sets the fraction of applications that go to other departments.
+     *
+     * @param crossDepartmentRate The fraction, between 0 and 1.
+     * @return This generator.
+     */
+    public InstanceGenerator crossDepartmentRate(double crossDepartmentRate) {
+        this.crossDepartmentRate = crossDepartmentRate;
+        return this;
+    }
+
+    /**
+     * Sets the probability that a professor ranks a student who applied.
+     *
+     * @param professorRate The probability, between 0 and 1.
+     * @return This generator.
+     */
+    public InstanceGenerator professorRate(double professorRate) {
+        this.professorRate = professorRate;
+        return this;
+    }
+
+    /**
+     * Sets the probability that a student is busy in each (day, slot).
+     *
+     * @param busyRate The probability, between 0 and 1.
+     * @return This generator.
+     */
+    public InstanceGenerator busyRate(double busyRate) {
+        this.busyRate = busyRate;
+        return this;
+    }
+
+    /**
+     * Sets the highest preference value.
+     *
+     * @param maxRank The highest preference value, at least 1.
+     * @return This generator.
+     */
+    public InstanceGenerator maxRank(int maxRank) {
+        this.maxRank = maxRank;
+        return this;
+    }
+
+    /**
+     * Returns the first class of a department. Classes are split into
+     * contiguous, nearly equal ranges.
+     *
+     * @param department The department index, up to numDepartments.
+     * @return The first class index of the department.
+     */
+    private int departmentStart(int department) {
+        return (int) ((long) department * numClasses / numDepartments);
+    }
+
+    /**
+     * Generates the instance.
+     *
+     * @return The generated instance.
+     */
+    public ArrayInstance generate() {
+        final Random random = new Random(seed);
+
+        final int[] hoursPerClass = new int[numClasses];
+        final int[][] slotsPerClass = new int[numClasses][NUM_WEEKDAYS];
+        for (int c = 0; c < numClasses; c++) {
+            hoursPerClass[c] = HOURS[random.nextInt(HOURS.length)];
+            final int days = 1 + random.nextInt(3);
+            for (int i = 0; i < days; i++) {
+                slotsPerClass[c][random.nextInt(NUM_WEEKDAYS)] =
+                        1 + random.nextInt(2);
+            }
+        }
+
+        final int[][][] registered = new int[numStudents][NUM_WEEKDAYS][];
+        for (int s = 0; s < numStudents; s++) {
+            for (int d = 0; d < NUM_WEEKDAYS; d++) {
+                final boolean afternoon = random.nextDouble() < busyRate;
+                final boolean night = random.nextDouble() < busyRate;
+                registered[s][d] = afternoon && night ? new int[] {1, 2}
+                        : afternoon ? new int[] {1}
+                        : night ? new int[] {2} : new int[0];
+            }
+        }
+
+        final int[][] profPreferences = new int[numStudents][numClasses];
+        final int[][] studPreferences = new int[numStudents][numClasses];
+        for (int s = 0; s < numStudents; s++) {
+            final int department = random.nextInt(numDepartments);
+            final int start = departmentStart(department);
+            final int size = departmentStart(department + 1) - start;
+            final int applications = Math.max(1,
+                    (int) Math.round(applicationRate * size));
+            for (int i = 0; i < applications; i++) {
+                final int c = random.nextDouble() < crossDepartmentRate
+                        || size == 0
+                        ? random.nextInt(numClasses)
+                        : start + random.nextInt(size);
+                studPreferences[s][c] = 1 + random.nextInt(maxRank);
+                if (random.nextDouble() < professorRate) {
+                    profPreferences[s][c] = 1 + random.nextInt(maxRank);
+                }
+            }
+        }
+
+        return new ArrayInstance(profPreferences, studPreferences,
+                hoursPerClass, registered, slotsPerClass);
+    }
+
+    /**
+     * Writes an instance as the five text input files read by InputLoader.
+     *
+     * @param instance The instance to write.
+     * @param dir The directory to write the files into.
+     * @throws IOException If an I/O error occurs.
+     */
+    public static void writeText(ProblemInstance instance, Path dir)
+            throws IOException {
+        Files.createDirectories(dir);
+        try (BufferedWriter prof = Files.newBufferedWriter(
+                     dir.resolve(InputLoader.PROF_PREF_FILE));
+             BufferedWriter stud = Files.newBufferedWriter(
+                     dir.resolve(InputLoader.STUD_PREF_FILE));
+             BufferedWriter registered = Files.newBufferedWriter(
+                     dir.resolve(InputLoader.REGISTERED_SLOTS_FILE))) {
+            final StringBuilder line = new StringBuilder();
+            for (int s = 0; s < instance.numStudents(); s++) {
+                line.setLength(0);
+                line.append(s).append(',');
+                for (int c = 0; c < instance.numClasses(); c++) {
+                    line.append(' ').append(instance.profPreference(s, c));
+                }
+                prof.append(line).append('\n');
+                line.setLength(0);
+                line.append(s).append(',');
+                for (int c = 0; c < instance.numClasses(); c++) {
+                    line.append(' ').append(instance.studPreference(s, c));
+                }
+                stud.append(line).append('\n');
+                for (int d = 0; d < NUM_WEEKDAYS; d++) {
+                    line.setLength(0);
+                    line.append(s).append(", ").append(d).append(',');
+                    for (int i = 0; i < instance.numRegisteredSlots(s, d);
+                         i++) {
+                        line.append(' ')
+                                .append(instance.registeredSlot(s, d, i));
+                    }
+                    registered.append(line).append('\n');
+                }
+            }
+        }
+        try (BufferedWriter hours = Files.newBufferedWriter(
+                     dir.resolve(InputLoader.HOURS_PER_CLASS_FILE));
+             BufferedWriter slots = Files.newBufferedWriter(
+                     dir.resolve(InputLoader.CLASS_SLOTS_FILE))) {
+            for (int c = 0; c < instance.numClasses(); c++) {
+                hours.append(String.valueOf(c)).append(", ")
+                        .append(String.valueOf(instance.hoursPerClass(c)))
+                        .append('\n');
+                slots.append(String.valueOf(c)).append(',');
+                for (int d = 0; d < NUM_WEEKDAYS; d++) {
+                    slots.append(' ')
+                            .append(String.valueOf(instance.classSlot(c, d)));
+                }
+                slots.append('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,313 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class represents a problem instance stored in a compact binary
+ * snapshot file. The file is memory-mapped and every accessor reads straight
+ * from the mapping, so opening a large instance does not parse or copy it.
+ *
+ * <p>The file is little-endian and made of 32-bit integers: a header with
+ * the magic number, the format version, the number of students, classes,
+ * weekdays and registered slots, followed by the professor preferences and
+ * student preferences (row-major, students x classes), the hours per class,
+ * the class slots (row-major, classes x weekdays), the offsets of each
+ * (student, weekday) list of registered slots, and the registered slots.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class InstanceSnapshot implements ProblemInstance {
+    static final int MAGIC = 0x53414553;  // "SEAS" read as little-endian.
+    static final int VERSION = 1;  // Version of the snapshot format.
+    private static final int NUM_WEEKDAYS = 5;  // Number of weekdays.
+    private static final int HEADER_INTS = 6;  // Integers in the header.
+    private final int numStudents;  // Total number of students.
+    private final int numClasses;  // Total number of classes.
+    private final IntBuffer profPreferences;  // Students x classes section.
+    private final IntBuffer studPreferences;  // Students x classes section.
+    private final IntBuffer hoursPerClass;  // Classes section.
+    private final IntBuffer slotsPerClass;  // Classes x weekdays section.
+    private final IntBuffer registeredOffsets;  // (Students x weekdays) + 1
+                                                // offsets section.
+    private final IntBuffer registeredSlots;  // Registered slots section.
+
+    /**
+     * Constructor to initialize the snapshot views over a mapped file.
+     *
+     * @param file The name of the file, for error messages.
+     * @param data The mapped content of the file.
+     * @throws IOException If the header or the file size is invalid.
+     */
+    private InstanceSnapshot(String file, ByteBuffer data) throws IOException {
+        final IntBuffer ints = data.order(ByteOrder.LITTLE_ENDIAN)
+                .asIntBuffer();
+        if (ints.limit() < HEADER_INTS || ints.get(0) != MAGIC) {
+            throw new IOException(file + " is not an instance snapshot");
+        }
+        if (ints.get(1) != VERSION) {
+            throw new IOException(file + " has snapshot version "
+                    + ints.get(1) + ", expected " + VERSION);
+        }
+        this.numStudents = ints.get(2);
+        this.numClasses = ints.get(3);
+        final int numWeekdays = ints.get(4);
+        final int numRegistered = ints.get(5);
+        if (numStudents < 0 || numClasses < 0 || numRegistered < 0
+                || numWeekdays != NUM_WEEKDAYS) {
+            throw new IOException(file + " has an invalid header");
+        }
+
+        final long pairs = (long) numStudents * numClasses;
+        final long expected = HEADER_INTS + 2 * pairs + numClasses
+                + (long) numClasses * NUM_WEEKDAYS
+                + (long) numStudents * NUM_WEEKDAYS + 1 + numRegistered;
+        if (ints.limit() != expected) {
+            throw new IOException(file + " holds " + ints.limit()
+                    + " integers, expected " + expected);
+        }
+
+        int position = HEADER_INTS;
+        this.profPreferences = section(ints, position, (int) pairs);
+        position += (int) pairs;
+        this.studPreferences = section(ints, position, (int) pairs);
+        position += (int) pairs;
+        this.hoursPerClass = section(ints, position, numClasses);
+        position += numClasses;
+        this.slotsPerClass = section(ints, position,
+                numClasses * NUM_WEEKDAYS);
+        position += numClasses * NUM_WEEKDAYS;
+        this.registeredOffsets = section(ints, position,
+                numStudents * NUM_WEEKDAYS + 1);
+        position += numStudents * NUM_WEEKDAYS + 1;
+        this.registeredSlots = section(ints, position, numRegistered);
+    }
+
+    /**
+     * Returns a view over a section of the file.
+     *
+     * @param ints The view over the whole file.
+     * @param position The index of the first integer of the section.
+     * @param length The number of integers in the section.
+     * @return The view over the section.
+     */
+    private static IntBuffer section(IntBuffer ints, int position,
+                                     int length) {
+        return ints.duplicate().position(position).limit(position + length)
+                .slice();
+    }
+
+    /**
+     * Memory-maps a snapshot file.
+     *
+     * @param path The path to the snapshot file.
+     * @return The instance backed by the mapped file.
+     * @throws IOException If an I/O error occurs or the file is not a valid
+     * snapshot.
+     */
+    public static InstanceSnapshot map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is larger than 2 GiB");
+            }
+            final MappedByteBuffer data = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size()
+            );
+            return new InstanceSnapshot(path.toString(), data);
+        }
+    }
+
+    /**
+     * Writes a problem instance as a snapshot file.
+     *
+     * @param instance The instance to write.
+     * @param path The path to the snapshot file, replaced if it exists.
+     * @throws IOException If an I/O error occurs or the instance is too large
+     * for the format.
+     */
+    public static void write(ProblemInstance instance, Path path)
+            throws IOException {
+        final int numStudents = instance.numStudents();
+        final int numClasses = instance.numClasses();
+        long numRegistered = 0;
+        for (int s = 0; s < numStudents; s++) {
+            for (int d = 0; d < NUM_WEEKDAYS; d++) {
+                numRegistered += instance.numRegisteredSlots(s, d);
+            }
+        }
+        final long total = HEADER_INTS
+                + 2L * numStudents * numClasses + numClasses
+                + (long) numClasses * NUM_WEEKDAYS
+                + (long) numStudents * NUM_WEEKDAYS + 1 + numRegistered;
+        if (total * Integer.BYTES > Integer.MAX_VALUE) {
+            throw new IOException("Instance is larger than 2 GiB");
+        }
+
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final IntWriter out = new IntWriter(channel);
+            out.put(MAGIC);
+            out.put(VERSION);
+            out.put(numStudents);
+            out.put(numClasses);
+            out.put(NUM_WEEKDAYS);
+            out.put((int) numRegistered);
+            for (int s = 0; s < numStudents; s++) {
+                for (int c = 0; c < numClasses; c++) {
+                    out.put(instance.profPreference(s, c));
+                }
+            }
+            for (int s = 0; s < numStudents; s++) {
+                for (int c = 0; c < numClasses; c++) {
+                    out.put(instance.studPreference(s, c));
+                }
+            }
+            for (int c = 0; c < numClasses; c++) {
+                out.put(instance.hoursPerClass(c));
+            }
+            for (int c = 0; c < numClasses; c++) {
+                for (int d = 0; d < NUM_WEEKDAYS; d++) {
+                    out.put(instance.classSlot(c, d));
+                }
+            }
+            int offset = 0;
+            out.put(offset);
+            for (int s = 0; s < numStudents; s++) {
+                for (int d = 0; d < NUM_WEEKDAYS; d++) {
+                    offset += instance.numRegisteredSlots(s, d);
+                    out.put(offset);
+                }
+            }
+            for (int s = 0; s < numStudents; s++) {
+                for (int d = 0; d < NUM_WEEKDAYS; d++) {
+                    for (int i = 0; i < instance.numRegisteredSlots(s, d);
+                         i++) {
+                        out.put(instance.registeredSlot(s, d, i));
+                    }
+                }
+            }
+            out.flush();
+        }
+    }
+
+    @Override
+    public int numStudents() {
+        return numStudents;
+    }
+
+    @Override
+    public int numClasses() {
+        return numClasses;
+    }
+
+    @Override
+    public int profPreference(int s, int c) {
+        return profPreferences.get(s * numClasses + c);
+    }
+
+    @Override
+    public int studPreference(int s, int c) {
+        return studPreferences.get(s * numClasses + c);
+    }
+
+    @Override
+    public void profPreferenceRow(int s, int[] row) {
+        profPreferences.get(s * numClasses, row, 0, numClasses);
+    }
+
+    @Override
+    public void studPreferenceRow(int s, int[] row) {
+        studPreferences.get(s * numClasses, row, 0, numClasses);
+    }
+
+    @Override
+    public int hoursPerClass(int c) {
+        return hoursPerClass.get(c);
+    }
+
+    @Override
+    public int classSlot(int c, int d) {
+        return slotsPerClass.get(c * NUM_WEEKDAYS + d);
+    }
+
+    @Override
+    public int numRegisteredSlots(int s, int d) {
+        final int i = s * NUM_WEEKDAYS + d;
+        return registeredOffsets.get(i + 1) - registeredOffsets.get(i);
+    }
+
+    @Override
+    public int registeredSlot(int s, int d, int i) {
+        return registeredSlots.get(
+                registeredOffsets.get(s * NUM_WEEKDAYS + d) + i
+        );
+    }
+
+    /**
+     * Converts the text input files of a directory into a snapshot file.
+     *
+     * @param args The input directory and the snapshot file to write.
+     * @throws IOException If an I/O error occurs or an input file is
+     * malformed.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: InstanceSnapshot <input dir> "
+                    + "<snapshot file>");
+            return;
+        }
+        write(InputLoader.load(Paths.get(args[0])), Paths.get(args[1]));
+    }
+
+    /**
+     * This class buffers little-endian integers on their way to a channel.
+     */
+    static final class IntWriter {
+        private final FileChannel channel;  // Channel of the snapshot file.
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16)
+                .order(ByteOrder.LITTLE_ENDIAN);  // Pending bytes.
+
+        /**
+         * Constructor to initialize the IntWriter over a channel.
+         *
+         * @param channel The channel to write to.
+         */
+        IntWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Appends an integer.
+         *
+         * @param value The integer to write.
+         * @throws IOException If an I/O error occurs.
+         */
+        void put(int value) throws IOException {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+
+        /**
+         * Writes the pending bytes to the channel.
+         *
+         * @throws IOException If an I/O error occurs.
+         */
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,422 @@
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * This class bounds and solves the problem by Lagrangian relaxation of the
+ * maximum hours rows. With a multiplier per student, the relaxed problem
+ * splits into one independent choice per class: the pair with the largest
+ * weight minus its student's multiplier times the class hours, or none if
+ * that is not positive. Its value is an upper bound on the objective for any
+ * non-negative multipliers, so the smallest value seen is a certified bound.
+ *
+ * <p>The multipliers are updated by projected subgradient steps with the
+ * Polyak step length, halved whenever the bound stalls. After each step a
+ * repair pass turns the relaxed choices into a feasible assignment, keeping
+ * chosen pairs by decreasing weight while their students have room and then
+ * filling the free classes by reduced weight. The best assignment and the
+ * smallest bound are returned, which gives a certified gap without a
+ * solver.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class LagrangianEngine {
+    private static final int MAX_ITERATIONS = 2000;  // Subgradient steps.
+    private static final int STALL_ITERATIONS = 40;  // Steps without a
+                                    // better bound before the step halves.
+    private static final double MIN_STEP_SCALE = 1e-4;  // Step scale at
+                                                        // which to stop.
+    private static final double DEFAULT_GAP = 1e-4;  // Relative gap at which
+                                    // to stop when the config sets none.
+    private static final int PARALLEL_MIN_PAIRS = 100_000;  // Pairs from
+                                    // which classes are priced in parallel.
+    private static final int BLOCK_CLASSES = 256;  // Classes per parallel
+                                                   // task.
+    private final EligiblePairs pairs;  // Eligible pairs and their weights.
+    private final int[] hoursPerClass;  // Hours per class.
+    private final int maxHoursPerStudent;  // Maximum hours per student.
+    private final boolean parallel;  // Whether classes are priced in
+                                     // parallel.
+    private final double[] multipliers;  // Multiplier of each student's
+                                         // hours row.
+    private final int[] choice;  // Pair chosen for each class by the
+                                 // relaxation, or -1.
+    private final double[] blockSums;  // Relaxed value of each class block.
+    private final int[] studentHours;  // Hours of each student in the
+                                       // current assignment or choice.
+    private final int[] classPair;  // Pair of each class in the repaired
+                                    // assignment, or -1.
+
+    /**
+     * This class represents the outcome of a Lagrangian solve, also used by
+     * the ColumnGenerationEngine, whose bound relaxes the class rows.
+     */
+    public static final class Result {
+        private final double[] values;  // Solution value of each pair.
+        private final double objectiveValue;  // Objective of the solution.
+        private final double bound;  // Smallest Lagrangian bound.
+        private final int iterations;  // Subgradient steps or pricing
+                                       // rounds performed.
+        private final boolean optimal;  // Whether the gap was closed.
+
+        /**
+         * Constructor to initialize the result.
+         *
+         * @param values The solution value of each pair.
+         * @param objectiveValue The objective of the solution.
+         * @param bound The smallest Lagrangian bound.
+         * @param iterations The subgradient steps or pricing rounds
+         *                   performed.
+         * @param optimal Whether the gap was closed.
+         */
+        Result(double[] values, double objectiveValue, double bound,
+               int iterations, boolean optimal) {
+            this.values = values;
+            this.objectiveValue = objectiveValue;
+            this.bound = bound;
+            this.iterations = iterations;
+            this.optimal = optimal;
+        }
+
+        /**
+         * Getter of the solution values.
+         *
+         * @return The value of each pair, 1.0 if assigned and 0.0 otherwise.
+         */
+        public double[] getValues() {
+            return values;
+        }
+
+        /**
+         * Getter of the objective value of the solution.
+         *
+         * @return The sum of the weights of the assigned pairs.
+         */
+        public double getObjectiveValue() {
+            return objectiveValue;
+        }
+
+        /**
+         * Getter of the Lagrangian bound.
+         *
+         * @return An upper bound on the optimal objective.
+         */
+        public double getBound() {
+            return bound;
+        }
+
+        /**
+         * Getter of the number of subgradient steps or pricing rounds.
+         *
+         * @return The iterations performed.
+         */
+        public int getIterations() {
+            return iterations;
+        }
+
+        /**
+         * Checks if the solution is optimal within the relative gap of the
+         * configuration.
+         *
+         * @return true if the gap to the bound was closed.
+         */
+        public boolean isOptimal() {
+            return optimal;
+        }
+    }
+
+    /**
+     * Constructor to initialize the multipliers at zero.
+     *
+     * @param pairs The eligible student-class pairs and their weights.
+     * @param instance The problem instance, for the hours per class.
+     * @param maxHoursPerStudent The maximum hours per student.
+     * @param parallel Whether to price the classes in parallel.
+     */
+    private LagrangianEngine(EligiblePairs pairs, ProblemInstance instance,
+                             int maxHoursPerStudent, boolean parallel) {
+        this.pairs = pairs;
+        this.maxHoursPerStudent = maxHoursPerStudent;
+        this.parallel = parallel;
+        this.hoursPerClass = new int[pairs.numClasses()];
+        for (int c = 0; c < this.hoursPerClass.length; c++) {
+            this.hoursPerClass[c] = instance.hoursPerClass(c);
+        }
+        this.multipliers = new double[pairs.numStudents()];
+        this.choice = new int[pairs.numClasses()];
+        this.blockSums = new double[
+                (pairs.numClasses() + BLOCK_CLASSES - 1) / BLOCK_CLASSES];
+        this.studentHours = new int[pairs.numStudents()];
+        this.classPair = new int[pairs.numClasses()];
+    }
+
+    /**
+     * Runs subgradient steps until the gap is closed, the step vanishes, the
+     * iterations or time limit run out, the listener of the configuration
+     * asks to stop or a stop is requested.
+     *
+     * @param pairs The eligible student-class pairs and their weights.
+     * @param instance The problem instance, for the hours per class.
+     * @param maxHoursPerStudent The maximum hours per student.
+     * @param config The solve configuration: time limit, relative gap,
+     *               threads (1 prices the classes on the calling thread
+     *               only) and incumbent listener.
+     * @param stop Returns true when the solve should stop.
+     * @return The best assignment found and the smallest bound.
+     */
+    public static Result solve(EligiblePairs pairs, ProblemInstance instance,
+                               int maxHoursPerStudent, SolveConfig config,
+                               BooleanSupplier stop) {
+        final long start = System.nanoTime();
+        final long deadline = config.getTimeLimit() > 0
+                ? start + config.getTimeLimit() * 1_000_000L : Long.MAX_VALUE;
+        final double gap = Double.isNaN(config.getRelativeGap())
+                ? DEFAULT_GAP : config.getRelativeGap();
+        final SolveConfig.IncumbentListener listener =
+                config.getIncumbentListener();
+        final LagrangianEngine engine = new LagrangianEngine(pairs, instance,
+                maxHoursPerStudent, config.getThreads() != 1
+                && pairs.size() >= PARALLEL_MIN_PAIRS);
+
+        final int[] best = new int[pairs.numClasses()];
+        Arrays.fill(best, -1);
+        double lower = 0.0;
+        double bound = Double.POSITIVE_INFINITY;
+        double scale = 2.0;
+        int stalled = 0;
+        int iterations = 0;
+        boolean optimal = false;
+        while (iterations < MAX_ITERATIONS && !stop.getAsBoolean()
+                && System.nanoTime() < deadline) {
+            final double value = engine.price();
+            iterations++;
+            final boolean tighter =
+                    value < bound - 1e-9 * Math.max(1.0, Math.abs(value));
+            bound = Math.min(bound, value);
+            final double repaired = engine.repair();
+            final boolean better = repaired > lower;
+            if (better) {
+                lower = repaired;
+                System.arraycopy(engine.classPair, 0, best, 0, best.length);
+            }
+            if ((tighter || better) && listener != null
+                    && !listener.onIncumbent(lower, bound,
+                    (System.nanoTime() - start) / 1_000_000L)) {
+                break;
+            }
+            if (bound - lower <= gap * Math.max(Math.abs(bound), 1e-9)) {
+                optimal = true;
+                break;
+            }
+            if (tighter) {
+                stalled = 0;
+            } else if (++stalled >= STALL_ITERATIONS) {
+                scale /= 2.0;
+                stalled = 0;
+                if (scale < MIN_STEP_SCALE) {
+                    break;
+                }
+            }
+            if (!engine.step(scale * (value - lower))) {
+                break;
+            }
+        }
+
+        final double[] values = new double[pairs.size()];
+        for (final int p : best) {
+            if (p >= 0) {
+                values[p] = 1.0;
+            }
+        }
+        return new Result(values, lower,
+                Double.isInfinite(bound) ? Double.NaN : bound, iterations,
+                optimal);
+    }
+
+    /**
+     * Solves the relaxed problem for the current multipliers: each class
+     * takes its pair of largest positive reduced weight. Classes longer than
+     * the maximum hours cannot be assigned and take none.
+     *
+     * @return The Lagrangian bound of the current multipliers.
+     */
+    private double price() {
+        if (this.parallel) {
+            IntStream.range(0, this.blockSums.length).parallel()
+                    .forEach(this::priceBlock);
+        } else {
+            for (int b = 0; b < this.blockSums.length; b++) {
+                this.priceBlock(b);
+            }
+        }
+        double value = 0.0;
+        for (final double sum : this.blockSums) {
+            value += sum;
+        }
+        for (final double multiplier : this.multipliers) {
+            value += multiplier * this.maxHoursPerStudent;
+        }
+        return value;
+    }
+
+    /**
+     * Chooses the pair of each class of a block and stores the relaxed
+     * value of the block.
+     *
+     * @param b The block index.
+     */
+    private void priceBlock(int b) {
+        final int end = Math.min((b + 1) * BLOCK_CLASSES,
+                this.pairs.numClasses());
+        double sum = 0.0;
+        for (int c = b * BLOCK_CLASSES; c < end; c++) {
+            final int hours = this.hoursPerClass[c];
+            double bestValue = 0.0;
+            int bestPair = -1;
+            if (hours <= this.maxHoursPerStudent) {
+                for (int i = this.pairs.classStart(c);
+                     i < this.pairs.classEnd(c); i++) {
+                    final int p = this.pairs.classPair(i);
+                    final double reduced = this.pairs.weight(p)
+                            - this.multipliers[this.pairs.student(p)] * hours;
+                    if (reduced > bestValue) {
+                        bestValue = reduced;
+                        bestPair = p;
+                    }
+                }
+            }
+            this.choice[c] = bestPair;
+            sum += bestValue;
+        }
+        this.blockSums[b] = sum;
+    }
+
+    /**
+     * Returns the reduced weight of a pair under the current multipliers.
+     *
+     * @param p The pair index.
+     * @return The weight minus the student's multiplier times the hours.
+     */
+    private double reducedWeight(int p) {
+        return this.pairs.weight(p) - this.multipliers[this.pairs.student(p)]
+                * this.hoursPerClass[this.pairs.classOf(p)];
+    }
+
+    /**
+     * Turns the relaxed choices into a feasible assignment in classPair:
+     * chosen pairs are kept by decreasing weight while their students have
+     * room, then each free class takes the fitting pair of largest reduced
+     * weight among those with a positive weight.
+     *
+     * @return The objective of the assignment.
+     */
+    private double repair() {
+        Arrays.fill(this.studentHours, 0);
+        Arrays.fill(this.classPair, -1);
+        // Sort keys: the float bits of a chosen pair's weight, positive
+        // since it exceeds a non-negative penalty, keep its order, and the
+        // low half holds the pair index.
+        final long[] order = new long[this.choice.length];
+        int count = 0;
+        for (final int p : this.choice) {
+            if (p >= 0) {
+                order[count++] = ((long) Float.floatToIntBits(
+                        (float) this.pairs.weight(p)) << 32) | p;
+            }
+        }
+        Arrays.sort(order, 0, count);
+        double objective = 0.0;
+        for (int i = count - 1; i >= 0; i--) {
+            final int p = (int) order[i];
+            if (this.fits(p)) {
+                this.assign(p);
+                objective += this.pairs.weight(p);
+            }
+        }
+        for (int c = 0; c < this.classPair.length; c++) {
+            if (this.classPair[c] >= 0) {
+                continue;
+            }
+            int bestPair = -1;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = this.pairs.classStart(c); i < this.pairs.classEnd(c);
+                 i++) {
+                final int p = this.pairs.classPair(i);
+                final double reduced = this.reducedWeight(p);
+                if (this.pairs.weight(p) > 0.0 && reduced > bestValue
+                        && this.fits(p)) {
+                    bestValue = reduced;
+                    bestPair = p;
+                }
+            }
+            if (bestPair >= 0) {
+                this.assign(bestPair);
+                objective += this.pairs.weight(bestPair);
+            }
+        }
+        return objective;
+    }
+
+    /**
+     * Checks if the student of a pair has room for its class.
+     *
+     * @param p The pair index.
+     * @return true if the class fits in the student's remaining hours.
+     */
+    private boolean fits(int p) {
+        return this.studentHours[this.pairs.student(p)]
+                + this.hoursPerClass[this.pairs.classOf(p)]
+                <= this.maxHoursPerStudent;
+    }
+
+    /**
+     * Assigns a pair in the repaired assignment.
+     *
+     * @param p The pair index.
+     */
+    private void assign(int p) {
+        final int c = this.pairs.classOf(p);
+        this.classPair[c] = p;
+        this.studentHours[this.pairs.student(p)] += this.hoursPerClass[c];
+    }
+
+    /**
+     * Moves the multipliers along the projected subgradient of the relaxed
+     * choices: the hours each student is chosen for beyond the maximum
+     * raise their multiplier, spare hours lower it down to zero.
+     *
+     * @param target The Polyak numerator: the step scale times the distance
+     *               between the bound and the best objective.
+     * @return false if the subgradient is zero, in which case the relaxed
+     * choices are feasible and complementary, so the bound is optimal.
+     */
+    private boolean step(double target) {
+        Arrays.fill(this.studentHours, 0);
+        for (int c = 0; c < this.choice.length; c++) {
+            if (this.choice[c] >= 0) {
+                this.studentHours[this.pairs.student(this.choice[c])] +=
+                        this.hoursPerClass[c];
+            }
+        }
+        double norm = 0.0;
+        for (int s = 0; s < this.multipliers.length; s++) {
+            final double slack = this.maxHoursPerStudent
+                    - this.studentHours[s];
+            if (slack < 0.0 || this.multipliers[s] > 0.0) {
+                norm += slack * slack;
+            }
+        }
+        if (norm == 0.0) {
+            return false;
+        }
+        final double length = target / norm;
+        for (int s = 0; s < this.multipliers.length; s++) {
+            final double slack = this.maxHoursPerStudent
+                    - this.studentHours[s];
+            this.multipliers[s] = Math.max(0.0,
+                    this.multipliers[s] - length * slack);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,399 @@
+import com.google.ortools.linearsolver.MPConstraint;
+import com.google.ortools.linearsolver.MPObjective;
+import com.google.ortools.linearsolver.MPSolutionResponse;
+import com.google.ortools.linearsolver.MPSolver;
+import com.google.ortools.linearsolver.MPSolverParameters;
+import com.google.ortools.linearsolver.MPVariable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class expresses the model with the OR-Tools linear solver wrapper,
+ * for SCIP and CBC, or for GLOP, in which case the variables are relaxed to
+ * [0, 1] and the solve gives the LP relaxation: its objective is a bound and
+ * its values may be fractional.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+class LinearBackend implements SolverBackend {
+    private final MPSolver solver;  // Wrapped linear solver.
+    private final boolean relaxed;  // Whether variables are continuous.
+    private MPVariable[] variables = new MPVariable[0];  // Model variables.
+    private int numVariables;  // Number of variables added.
+    private MPVariable zero;  // Variable fixed to 0 outside the model
+                              // variables, or null until zero() is called.
+    private final List<MPConstraint> constraints = new ArrayList<>();
+                                            // Model constraints, by index.
+    private volatile boolean interrupted;  // Whether interrupt() was called.
+    private double[] bestValues;  // Values of the best solution, or null.
+    private double bestObjective;  // Objective of the best solution.
+    private double bound = Double.NaN;  // Best bound of the solve.
+    private long nodes;  // Branch-and-bound nodes of the last solve.
+    private long iterations;  // Simplex iterations of the last solve.
+
+    /**
+     * Constructor to wrap a created solver.
+     *
+     * @param solver The linear solver.
+     * @param relaxed true to create continuous variables.
+     */
+    private LinearBackend(MPSolver solver, boolean relaxed) {
+        this.solver = solver;
+        this.relaxed = relaxed;
+    }
+
+    /**
+     * Creates a backend over an OR-Tools linear solver.
+     *
+     * @param solverId The solver id, such as "SCIP", "CBC" or "GLOP".
+     * @return The backend, or null if the solver is not available.
+     */
+    static LinearBackend create(String solverId) {
+        final MPSolver solver = MPSolver.createSolver(solverId);
+        if (solver == null) {
+            System.out.println("Could not create solver " + solverId);
+            return null;
+        }
+        return new LinearBackend(solver, solverId.equals("GLOP"));
+    }
+
+    /**
+     * Getter of the wrapped solver.
+     *
+     * @return The linear solver.
+     */
+    MPSolver solver() {
+        return solver;
+    }
+
+    /**
+     * Returns a variable of the wrapped solver.
+     *
+     * @param i The variable index.
+     * @return The variable.
+     */
+    MPVariable variable(int i) {
+        return variables[i];
+    }
+
+    /**
+     * Returns a variable fixed to 0 that is not one of the model variables,
+     * such as an entry for a pair the model has no variable for. It is
+     * created on the first call, which must come before the solve for its
+     * value to be read.
+     *
+     * @return The variable.
+     */
+    MPVariable zero() {
+        if (zero == null) {
+            zero = solver.makeNumVar(0.0, 0.0, "");
+        }
+        return zero;
+    }
+
+    /**
+     * Returns a constraint of the wrapped solver.
+     *
+     * @param i The constraint index.
+     * @return The constraint.
+     */
+    MPConstraint constraint(int i) {
+        return constraints.get(i);
+    }
+
+    /**
+     * Returns the dual value of each constraint after a solve of the LP
+     * relaxation.
+     *
+     * @return The dual values, by constraint index.
+     */
+    double[] duals() {
+        final double[] duals = new double[constraints.size()];
+        for (int i = 0; i < duals.length; i++) {
+            duals[i] = constraints.get(i).dualValue();
+        }
+        return duals;
+    }
+
+    @Override
+    public void addVariables(int[] upperBounds, int count) {
+        if (numVariables + count > variables.length) {
+            variables = Arrays.copyOf(variables, numVariables + count);
+        }
+        for (int i = 0; i < count; i++) {
+            variables[numVariables++] = relaxed
+                    ? solver.makeNumVar(0.0, upperBounds[i], "")
+                    : solver.makeIntVar(0.0, upperBounds[i], "");
+        }
+    }
+
+    @Override
+    public int addAtMostOne(int[] indices, int size) {
+        final MPConstraint constraint = solver.makeConstraint(0.0, 1.0, "");
+        for (int i = 0; i < size; i++) {
+            constraint.setCoefficient(variables[indices[i]], 1.0);
+        }
+        constraints.add(constraint);
+        return constraints.size() - 1;
+    }
+
+    @Override
+    public int addCapacity(int[] indices, int[] weights, int size,
+                           int capacity) {
+        final MPConstraint constraint =
+                solver.makeConstraint(0.0, capacity, "");
+        for (int i = 0; i < size; i++) {
+            constraint.setCoefficient(variables[indices[i]], weights[i]);
+        }
+        constraints.add(constraint);
+        return constraints.size() - 1;
+    }
+
+    @Override
+    public int addCut(int[] indices, int[] weights, int size, int bound) {
+        final MPConstraint constraint = solver.makeConstraint(
+                Double.NEGATIVE_INFINITY, bound, "");
+        for (int i = 0; i < size; i++) {
+            constraint.setCoefficient(variables[indices[i]], weights[i]);
+        }
+        constraints.add(constraint);
+        return constraints.size() - 1;
+    }
+
+    @Override
+    public void maximize(double[] coefficients) {
+        final MPObjective objective = solver.objective();
+        for (int i = 0; i < numVariables; i++) {
+            objective.setCoefficient(variables[i], coefficients[i]);
+        }
+        objective.setMaximization();
+    }
+
+    @Override
+    public void hint(double[] values) {
+        solver.setHint(Arrays.copyOf(variables, numVariables),
+                Arrays.copyOf(values, numVariables));
+    }
+
+    /**
+     * Fetches the solution value of every variable of a solver in one bulk
+     * call, instead of one native call per variable.
+     *
+     * @param solver The solver, after a successful solve.
+     * @return The solution values, indexed by variable index.
+     */
+    static double[] solutionValues(MPSolver solver) {
+        final MPSolutionResponse response =
+                solver.createSolutionResponseProto();
+        final double[] values = new double[response.getVariableValueCount()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = response.getVariableValue(i);
+        }
+        return values;
+    }
+
+    /**
+     * Fetches the solution value of every model variable, leaving out the
+     * zero variable.
+     *
+     * @return The solution values, by variable index.
+     */
+    private double[] modelValues() {
+        final double[] values = solutionValues(solver);
+        return values.length == numVariables
+                ? values : Arrays.copyOf(values, numVariables);
+    }
+
+    /**
+     * Checks if a status comes with a solution.
+     *
+     * @param status The result status.
+     * @return true if the status is OPTIMAL or FEASIBLE.
+     */
+    private static boolean hasSolution(MPSolver.ResultStatus status) {
+        return status == MPSolver.ResultStatus.OPTIMAL
+                || status == MPSolver.ResultStatus.FEASIBLE;
+    }
+
+    @Override
+    public MPSolver.ResultStatus solve(SolveConfig config, boolean stream) {
+        config.applyTo(solver);
+        final MPSolverParameters parameters = config.toParameters();
+        bestValues = null;
+        if (stream && config.getIncumbentListener() != null) {
+            return solveInSlices(config, parameters);
+        }
+        if (config.getTimeLimit() > 0) {
+            solver.setTimeLimit(config.getTimeLimit());
+        }
+        final MPSolver.ResultStatus status = solver.solve(parameters);
+        this.recordStatistics();
+        if (hasSolution(status)) {
+            bestValues = modelValues();
+            bestObjective = solver.objective().value();
+            bound = relaxed ? bestObjective : solver.objective().bestBound();
+        }
+        return status;
+    }
+
+    /**
+     * Solves in time slices of doubling length, warm-starting each slice
+     * from the best incumbent so far and passing every improvement to the
+     * incumbent listener. Each slice is a full solve of the same model, so
+     * its bound is valid and the smallest one is kept. The best incumbent is
+     * kept apart, since a later slice may end with a worse solution in the
+     * solver. With an incumbent pool, every improvement is offered to it and
+     * a slice starts from the pool's incumbent when that one is better.
+     *
+     * @param config The configuration, with its listener.
+     * @param parameters The solver parameters.
+     * @return OPTIMAL if a slice proved optimality, FEASIBLE if it stopped
+     * with an incumbent, or the status of the last slice otherwise.
+     */
+    private MPSolver.ResultStatus solveInSlices(
+            SolveConfig config, MPSolverParameters parameters
+    ) {
+        final SolveConfig.IncumbentListener listener =
+                config.getIncumbentListener();
+        final IncumbentPool pool = config.getIncumbentPool();
+        final long timeLimit = config.getTimeLimit();
+        final double gap = config.getRelativeGap();
+        final MPVariable[] all = Arrays.copyOf(variables, numVariables);
+        final long start = System.currentTimeMillis();
+        MPSolver.ResultStatus status = MPSolver.ResultStatus.NOT_SOLVED;
+        double sliceBound = Double.POSITIVE_INFINITY;
+        long slice = Math.max(1, config.getFirstSlice());
+        while (!interrupted) {
+            long budget = slice;
+            if (timeLimit > 0) {
+                budget = Math.min(slice,
+                        timeLimit - (System.currentTimeMillis() - start));
+                if (budget <= 0) {
+                    break;
+                }
+            }
+            solver.setTimeLimit(budget);
+            final MPSolver.ResultStatus sliceStatus = solver.solve(parameters);
+            this.recordStatistics();
+            if (!hasSolution(sliceStatus)) {
+                if (sliceStatus != MPSolver.ResultStatus.NOT_SOLVED
+                        || bestValues == null) {
+                    status = sliceStatus;
+                }
+                if (sliceStatus != MPSolver.ResultStatus.NOT_SOLVED) {
+                    break;
+                }
+                this.hintBest(all, pool);
+                slice *= 2;
+                continue;
+            }
+            final double value = solver.objective().value();
+            sliceBound = Math.min(sliceBound, relaxed
+                    ? value : solver.objective().bestBound());
+            bound = sliceBound;
+            boolean keepSolving = true;
+            if (bestValues == null || value > bestObjective + 1e-9) {
+                bestValues = modelValues();
+                bestObjective = value;
+                if (pool != null) {
+                    pool.offer(value, bestValues);
+                }
+                keepSolving = listener.onIncumbent(value, sliceBound,
+                        System.currentTimeMillis() - start);
+            }
+            status = sliceStatus;
+            if (sliceStatus == MPSolver.ResultStatus.OPTIMAL) {
+                break;
+            }
+            if (!keepSolving || (!Double.isNaN(gap)
+                    && sliceBound - bestObjective
+                    <= gap * Math.max(Math.abs(sliceBound), 1e-9))) {
+                break;
+            }
+            this.hintBest(all, pool);
+            slice *= 2;
+        }
+        if (bestValues != null && status != MPSolver.ResultStatus.OPTIMAL) {
+            status = MPSolver.ResultStatus.FEASIBLE;
+        }
+        return status;
+    }
+
+    /**
+     * Copies the node and iteration counts of the solve that just ended.
+     * OR-Tools only returns them while the model is unchanged since that
+     * solve, and a cut or a stop before any solve would make it log an
+     * error instead.
+     */
+    private void recordStatistics() {
+        nodes = relaxed ? 0 : solver.nodes();
+        iterations = solver.iterations();
+    }
+
+    /**
+     * Warm-starts the next slice from the better of the best incumbent and
+     * the incumbent of the pool.
+     *
+     * @param all The variables of the solver.
+     * @param pool The shared incumbent pool, or null if none.
+     */
+    private void hintBest(MPVariable[] all, IncumbentPool pool) {
+        final double[] shared = pool == null ? null : pool.betterThan(
+                bestValues == null ? Double.NEGATIVE_INFINITY : bestObjective);
+        if (shared != null && shared.length == all.length) {
+            solver.setHint(all, shared);
+        } else if (bestValues != null) {
+            solver.setHint(all, bestValues);
+        }
+    }
+
+    @Override
+    public void interrupt() {
+        interrupted = true;
+        solver.interruptSolve();
+    }
+
+    @Override
+    public double[] values() {
+        return bestValues;
+    }
+
+    @Override
+    public double objectiveValue() {
+        return bestObjective;
+    }
+
+    @Override
+    public double bestBound() {
+        return bound;
+    }
+
+    @Override
+    public long numVariables() {
+        return zero == null ? solver.numVariables()
+                : solver.numVariables() - 1;
+    }
+
+    @Override
+    public long numConstraints() {
+        return solver.numConstraints();
+    }
+
+    @Override
+    public long wallMillis() {
+        return solver.wallTime();
+    }
+
+    @Override
+    public long nodes() {
+        return nodes;
+    }
+
+    @Override
+    public long iterations() {
+        return iterations;
+    }
+}
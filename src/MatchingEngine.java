@@ -0,0 +1,278 @@
+import java.util.Arrays;
+
+/**
+ * This class solves the special case of the Student Employment Assignment
+ * problem in which no student can take two classes, because every class
+ * needs more than half of the maximum hours per student. The model then
+ * reduces to a maximum-weight bipartite matching, solved exactly with the
+ * Hungarian method in its sparse shortest-augmenting-path form, on
+ * primitive arrays and without any native solver.
+ *
+ * <p>Classes are inserted one at a time. Each class also owns a dummy
+ * column of weight 0 that stands for leaving it unassigned, so every
+ * insertion finds an augmenting path, and node potentials keep the reduced
+ * costs non-negative for Dijkstra's algorithm.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class MatchingEngine {
+    private static final double INF = Double.POSITIVE_INFINITY;  // Unreached.
+
+    /**
+     * Checks if every class needs more than half of the maximum hours per
+     * student, so that no student can be assigned two classes.
+     *
+     * @param instance The problem instance.
+     * @param maxHoursPerStudent The maximum hours per student.
+     * @return true if the problem is a bipartite matching.
+     */
+    public static boolean applies(ProblemInstance instance,
+                                  int maxHoursPerStudent) {
+        for (int c = 0; c < instance.numClasses(); c++) {
+            if (2 * instance.hoursPerClass(c) <= maxHoursPerStudent) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds a maximum-weight assignment in which each class gets at most one
+     * student and each student at most one class. Classes that need more
+     * than the maximum hours per student are left unassigned. When the
+     * problem is not a matching (see applies), the result is the best
+     * assignment with at most one class per student.
+     *
+     * @param pairs The eligible student-class pairs and their weights.
+     * @param instance The problem instance, for the hours per class.
+     * @param maxHoursPerStudent The maximum hours per student.
+     * @return The solution value of each pair, 1.0 if assigned and 0.0
+     * otherwise.
+     */
+    public static double[] solve(EligiblePairs pairs, ProblemInstance instance,
+                                 int maxHoursPerStudent) {
+        final int numStudents = pairs.numStudents();
+        final int numClasses = pairs.numClasses();
+        // Nodes: classes [0, C), students [C, C + S), dummies [C + S, 2C + S).
+        final int studentBase = numClasses;
+        final int dummyBase = numClasses + numStudents;
+        final int numNodes = dummyBase + numClasses;
+
+        // Free columns keep a potential of 0, so the first free column popped
+        // by Dijkstra ends the shortest augmenting path.
+        final double[] potential = new double[numNodes];
+        for (int p = 0; p < pairs.size(); p++) {
+            final int c = pairs.classOf(p);
+            potential[c] = Math.max(potential[c], pairs.weight(p));
+        }
+
+        final int[] matchOfClass = new int[numClasses];  // Column node.
+        final int[] pairOfClass = new int[numClasses];  // Pair, or -1.
+        final int[] matchOfColumn = new int[numNodes];  // Class, or -1.
+        Arrays.fill(matchOfClass, -1);
+        Arrays.fill(pairOfClass, -1);
+        Arrays.fill(matchOfColumn, -1);
+
+        final double[] dist = new double[numNodes];
+        Arrays.fill(dist, INF);
+        final int[] predClass = new int[numNodes];  // Class a column was
+                                                    // reached from.
+        final int[] predPair = new int[numNodes];  // Pair it was reached by.
+        final boolean[] settled = new boolean[numNodes];
+        final int[] touched = new int[numNodes];
+        final Heap heap = new Heap();
+
+        for (int r = 0; r < numClasses; r++) {
+            if (instance.hoursPerClass(r) > maxHoursPerStudent) {
+                continue;
+            }
+            int numTouched = 0;
+            heap.clear();
+            dist[r] = 0.0;
+            touched[numTouched++] = r;
+            heap.push(0.0, r);
+            int target = -1;
+            double targetDist = 0.0;
+
+            while (!heap.isEmpty()) {
+                final double d = heap.peekKey();
+                final int node = heap.pop();
+                if (settled[node] || d > dist[node]) {
+                    continue;
+                }
+                settled[node] = true;
+                if (node >= numClasses) {
+                    // Column: stop at a free one, else move to its class.
+                    final int matched = matchOfColumn[node];
+                    if (matched < 0) {
+                        target = node;
+                        targetDist = d;
+                        break;
+                    }
+                    if (d < dist[matched]) {
+                        if (dist[matched] == INF) {
+                            touched[numTouched++] = matched;
+                        }
+                        dist[matched] = d;
+                        heap.push(d, matched);
+                    }
+                    continue;
+                }
+                // Class: relax its unmatched edges, including its dummy.
+                final int c = node;
+                for (int i = pairs.classStart(c); i < pairs.classEnd(c);
+                     i++) {
+                    final int p = pairs.classPair(i);
+                    final int column = studentBase + pairs.student(p);
+                    if (column == matchOfClass[c] || settled[column]) {
+                        continue;
+                    }
+                    final double nd = d - pairs.weight(p) + potential[c]
+                            - potential[column];
+                    if (nd < dist[column]) {
+                        if (dist[column] == INF) {
+                            touched[numTouched++] = column;
+                        }
+                        dist[column] = nd;
+                        predClass[column] = c;
+                        predPair[column] = p;
+                        heap.push(nd, column);
+                    }
+                }
+                final int dummy = dummyBase + c;
+                if (dummy != matchOfClass[c] && !settled[dummy]) {
+                    final double nd = d + potential[c] - potential[dummy];
+                    if (nd < dist[dummy]) {
+                        if (dist[dummy] == INF) {
+                            touched[numTouched++] = dummy;
+                        }
+                        dist[dummy] = nd;
+                        predClass[dummy] = c;
+                        predPair[dummy] = -1;
+                        heap.push(nd, dummy);
+                    }
+                }
+            }
+
+            // Keep reduced costs non-negative and the new path tight.
+            for (int i = 0; i < numTouched; i++) {
+                final int node = touched[i];
+                if (settled[node] && dist[node] <= targetDist) {
+                    potential[node] += dist[node] - targetDist;
+                }
+                dist[node] = INF;
+                settled[node] = false;
+            }
+
+            // Augment along the path back to class r.
+            int column = target;
+            while (column >= 0) {
+                final int c = predClass[column];
+                final int previous = matchOfClass[c];
+                matchOfClass[c] = column;
+                pairOfClass[c] = predPair[column];
+                matchOfColumn[column] = c;
+                column = c == r ? -1 : previous;
+            }
+        }
+
+        final double[] values = new double[pairs.size()];
+        for (int c = 0; c < numClasses; c++) {
+            if (pairOfClass[c] >= 0) {
+                values[pairOfClass[c]] = 1.0;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * This class is a binary min-heap of (key, node) entries on primitive
+     * arrays. Stale entries are skipped by the caller.
+     */
+    private static final class Heap {
+        private double[] keys = new double[64];  // Entry keys.
+        private int[] nodes = new int[64];  // Entry nodes.
+        private int size;  // Number of entries.
+
+        /**
+         * Removes every entry.
+         */
+        void clear() {
+            size = 0;
+        }
+
+        /**
+         * Checks if the heap is empty.
+         *
+         * @return true if there are no entries.
+         */
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Returns the smallest key.
+         *
+         * @return The key of the top entry.
+         */
+        double peekKey() {
+            return keys[0];
+        }
+
+        /**
+         * Adds an entry.
+         *
+         * @param key The key of the entry.
+         * @param node The node of the entry.
+         */
+        void push(double key, int node) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                final int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                nodes[i] = nodes[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+        }
+
+        /**
+         * Removes the entry with the smallest key.
+         *
+         * @return The node of the removed entry.
+         */
+        int pop() {
+            final int top = nodes[0];
+            final double key = keys[--size];
+            final int node = nodes[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (keys[child] >= key) {
+                    break;
+                }
+                keys[i] = keys[child];
+                nodes[i] = nodes[child];
+                i = child;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+            return top;
+        }
+    }
+}
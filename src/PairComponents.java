@@ -0,0 +1,119 @@
+import java.util.Arrays;
+
+/**
+ * This class represents the connected components of the bipartite graph
+ * whose nodes are students and classes and whose edges are the eligible
+ * pairs. Pairs in different components share no constraint, so each
+ * component can be solved on its own.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class PairComponents {
+    private final int numComponents;  // Number of components with pairs.
+    private final int[] componentStart;  // Offset of the first pair of each
+                                         // component, plus a final sentinel.
+    private final int[] componentPairs;  // Pair indices grouped by component,
+                                         // ascending within each component.
+
+    /**
+     * Constructor to find the connected components of the eligible pairs.
+     *
+     * @param pairs The eligible student-class pairs.
+     */
+    public PairComponents(EligiblePairs pairs) {
+        final int numStudents = pairs.numStudents();
+        final int[] parent = new int[numStudents + pairs.numClasses()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (int p = 0; p < pairs.size(); p++) {
+            final int a = find(parent, pairs.student(p));
+            final int b = find(parent, numStudents + pairs.classOf(p));
+            if (a != b) {
+                parent[Math.max(a, b)] = Math.min(a, b);
+            }
+        }
+
+        // Number the roots in order of their first pair.
+        final int[] componentOfRoot = new int[parent.length];
+        Arrays.fill(componentOfRoot, -1);
+        final int[] pairComponent = new int[pairs.size()];
+        int count = 0;
+        for (int p = 0; p < pairs.size(); p++) {
+            final int root = find(parent, pairs.student(p));
+            if (componentOfRoot[root] < 0) {
+                componentOfRoot[root] = count++;
+            }
+            pairComponent[p] = componentOfRoot[root];
+        }
+        this.numComponents = count;
+
+        this.componentStart = new int[count + 1];
+        for (final int k : pairComponent) {
+            this.componentStart[k + 1]++;
+        }
+        for (int k = 0; k < count; k++) {
+            this.componentStart[k + 1] += this.componentStart[k];
+        }
+        this.componentPairs = new int[pairs.size()];
+        final int[] next = Arrays.copyOf(this.componentStart, count);
+        for (int p = 0; p < pairs.size(); p++) {
+            this.componentPairs[next[pairComponent[p]]++] = p;
+        }
+    }
+
+    /**
+     * Finds the root of a node, halving the path on the way.
+     *
+     * @param parent The union-find parent array.
+     * @param i The node.
+     * @return The root of the node's set.
+     */
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * Getter of the number of components.
+     *
+     * @return The number of components that hold at least one pair.
+     */
+    public int size() {
+        return numComponents;
+    }
+
+    /**
+     * Returns the first position of a component, to be used with pair.
+     *
+     * @param k The component index.
+     * @return The position of the component's first pair.
+     */
+    public int start(int k) {
+        return componentStart[k];
+    }
+
+    /**
+     * Returns the position one past the last pair of a component.
+     *
+     * @param k The component index.
+     * @return The position one past the component's last pair.
+     */
+    public int end(int k) {
+        return componentStart[k + 1];
+    }
+
+    /**
+     * Returns the pair stored at a position of the component-grouped order.
+     *
+     * @param i The position, between start(k) and end(k).
+     * @return The pair index.
+     */
+    public int pair(int i) {
+        return componentPairs[i];
+    }
+}
@@ -0,0 +1,196 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * This class builds the eligible pairs of an instance and their objective
+ * coefficients in one pass over the students. The pass is split into blocks
+ * of students, scanned in parallel on large instances: each block reads the
+ * preference rows of its students once, tests eligibility and computes the
+ * weight of each pair in the same loop, and appends the pairs to its own
+ * primitive buffers. The buffers are then copied, in block order, into the
+ * CSR arrays of the pairs, so the result does not depend on the threads.
+ *
+ * <p>Only this pass runs in parallel. The solver models are then filled
+ * from the finished arrays on a single thread, since native models are not
+ * thread-safe.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public final class PairScanner {
+    private static final int BLOCK_STUDENTS = 256;  // Students per block.
+    private static final long PARALLEL_MIN_CELLS = 1L << 20;  // Student-class
+                            // cells from which blocks are scanned in
+                            // parallel.
+    private final ProblemInstance instance;  // Instance being scanned.
+    private final EligibilityIndex index;  // Precomputed eligibility, or
+                                           // null to test it in the scan.
+    private final PairWeight weight;  // Objective coefficient of a pair.
+    private final long[] requiredMasks;  // Required (day, slot) bits per
+                                         // class, when there is no index.
+
+    /**
+     * This interface computes the objective coefficient of an eligible pair.
+     * It is called concurrently from several threads.
+     */
+    @FunctionalInterface
+    public interface PairWeight {
+        /**
+         * Computes the objective coefficient of a pair.
+         *
+         * @param s The student index.
+         * @param c The class index.
+         * @param profPreference The professor's preference for the student.
+         * @param studPreference The student's preference for the class.
+         * @return The objective coefficient of the pair.
+         */
+        double weight(int s, int c, int profPreference, int studPreference);
+    }
+
+    /**
+     * Constructor to initialize a scan.
+     *
+     * @param instance The problem instance.
+     * @param index The eligibility index of the instance, or null.
+     * @param weight The objective coefficient of a pair.
+     */
+    private PairScanner(ProblemInstance instance, EligibilityIndex index,
+                        PairWeight weight) {
+        this.instance = instance;
+        this.index = index;
+        this.weight = weight;
+        this.requiredMasks = index == null
+                ? EligibilityIndex.requiredMasks(instance) : null;
+    }
+
+    /**
+     * Builds the eligible pairs of an instance: the professor wants the
+     * student, the student wants the class and the student is free for the
+     * class's assigned slots.
+     *
+     * @param instance The problem instance.
+     * @param index The eligibility index of the instance, or null to test
+     *              eligibility during the scan.
+     * @param weight The objective coefficient of a pair.
+     * @param parallel Whether large instances may be scanned in parallel.
+     * @return The eligible pairs, grouped by student and sorted by class.
+     */
+    public static EligiblePairs scan(ProblemInstance instance,
+                                     EligibilityIndex index, PairWeight weight,
+                                     boolean parallel) {
+        final int numStudents = instance.numStudents();
+        final PairScanner scanner = new PairScanner(instance, index, weight);
+        final Block[] blocks =
+                new Block[(numStudents + BLOCK_STUDENTS - 1) / BLOCK_STUDENTS];
+        if (parallel && blocks.length > 1 && (long) numStudents
+                * instance.numClasses() >= PARALLEL_MIN_CELLS) {
+            IntStream.range(0, blocks.length).parallel()
+                    .forEach(b -> blocks[b] = scanner.scanBlock(b));
+        } else {
+            for (int b = 0; b < blocks.length; b++) {
+                blocks[b] = scanner.scanBlock(b);
+            }
+        }
+
+        int numPairs = 0;
+        for (final Block block : blocks) {
+            numPairs += block.size;
+        }
+        final int[] studentStart = new int[numStudents + 1];
+        final int[] pairClass = new int[numPairs];
+        final double[] pairWeight = new double[numPairs];
+        int offset = 0;
+        for (int b = 0; b < blocks.length; b++) {
+            final Block block = blocks[b];
+            final int first = b * BLOCK_STUDENTS;
+            for (int i = 0; i < block.counts.length; i++) {
+                studentStart[first + i + 1] =
+                        studentStart[first + i] + block.counts[i];
+            }
+            System.arraycopy(block.classes, 0, pairClass, offset, block.size);
+            System.arraycopy(block.weights, 0, pairWeight, offset, block.size);
+            offset += block.size;
+        }
+        return new EligiblePairs(numStudents, instance.numClasses(),
+                studentStart, pairClass, pairWeight);
+    }
+
+    /**
+     * Scans the students of one block.
+     *
+     * @param b The block index.
+     * @return The pairs of the block's students.
+     */
+    private Block scanBlock(int b) {
+        final int numClasses = this.instance.numClasses();
+        final int first = b * BLOCK_STUDENTS;
+        final int last = Math.min(first + BLOCK_STUDENTS,
+                this.instance.numStudents());
+        final Block block = new Block(last - first);
+        final int[] prof = new int[numClasses];
+        final int[] stud = new int[numClasses];
+        for (int s = first; s < last; s++) {
+            final int before = block.size;
+            if (this.index != null) {
+                int c = this.index.nextEligibleClass(s, 0);
+                if (c >= 0) {
+                    this.instance.profPreferenceRow(s, prof);
+                    this.instance.studPreferenceRow(s, stud);
+                }
+                for (; c >= 0; c = this.index.nextEligibleClass(s, c + 1)) {
+                    block.add(c, this.weight.weight(s, c, prof[c], stud[c]));
+                }
+            } else {
+                final long busy = EligibilityIndex.busyMask(this.instance, s);
+                this.instance.profPreferenceRow(s, prof);
+                this.instance.studPreferenceRow(s, stud);
+                for (int c = 0; c < numClasses; c++) {
+                    if (prof[c] > 0 & stud[c] > 0
+                            && EligibilityIndex.isFree(this.instance, s, c,
+                            busy, this.requiredMasks[c])) {
+                        block.add(c, this.weight.weight(s, c, prof[c],
+                                stud[c]));
+                    }
+                }
+            }
+            block.counts[s - first] = block.size - before;
+        }
+        return block;
+    }
+
+    /**
+     * This class holds the pairs found in one block of students.
+     */
+    private static final class Block {
+        private final int[] counts;  // Number of pairs of each student.
+        private int[] classes = new int[64];  // Class of each pair, then
+                                              // spare room.
+        private double[] weights = new double[64];  // Weight of each pair.
+        private int size;  // Number of pairs found.
+
+        /**
+         * Constructor to initialize an empty block.
+         *
+         * @param numStudents The number of students of the block.
+         */
+        Block(int numStudents) {
+            this.counts = new int[numStudents];
+        }
+
+        /**
+         * Appends a pair of the current student.
+         *
+         * @param c The class index.
+         * @param weight The objective coefficient of the pair.
+         */
+        void add(int c, double weight) {
+            if (this.size == this.classes.length) {
+                this.classes = Arrays.copyOf(this.classes, this.size * 2);
+                this.weights = Arrays.copyOf(this.weights, this.size * 2);
+            }
+            this.classes[this.size] = c;
+            this.weights[this.size] = weight;
+            this.size++;
+        }
+    }
+}
@@ -0,0 +1,599 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class represents the model the MIP engine solves, after an optional
+ * presolve of the eligible pairs. The presolve
+ * <ul>
+ *     <li>drops pairs that can never pay off: a non-positive weight, or a
+ *     class longer than the hours limit;</li>
+ *     <li>fixes forced assignments: when the best student of a class can
+ *     take every class they are still eligible for, giving them the class is
+ *     never worse, and the other pairs of the class are dropped;</li>
+ *     <li>merges identical classes, with the same hours and the same
+ *     students at the same weights, into groups. A group of k classes has
+ *     one integer column per student, bounded by k and by the hours the
+ *     student has left, and a row that admits k students.</li>
+ * </ul>
+ * Classes are compared by a hash of their hours and eligible column, and
+ * classes with the same hash are checked entry by entry. A solution of the
+ * reduced model is expanded back to the individual classes by handing out
+ * the classes of each group in order.
+ *
+ * <p>Students with identical rows are not merged: each keeps their own hours
+ * limit, which a single aggregated row cannot express exactly.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class PresolvedModel {
+    private final EligiblePairs pairs;  // Eligible pairs of the problem.
+    private final EligiblePairs columns;  // Columns of the reduced model, as
+                                          // student-group pairs.
+    private final int[] columnUpper;  // Upper bound of each column.
+    private final int[] groupStart;  // Offset of the first class of each
+                                     // group, plus a final sentinel.
+    private final int[] groupClasses;  // Classes grouped by group, ascending.
+    private final int[] groupHours;  // Hours per week of each group's classes.
+    private final int[] studentCapacity;  // Hours left to each student.
+    private final boolean[] studentRow;  // Whether each student needs a row.
+    private final int[] fixedPairs;  // Pairs fixed to 1 by the presolve.
+    private final double fixedObjective;  // Weight of the fixed pairs.
+    private final int droppedPairs;  // Pairs removed by the presolve.
+
+    /**
+     * Constructor to initialize a model from its arrays.
+     *
+     * @param pairs The eligible pairs.
+     * @param columns The columns of the reduced model.
+     * @param columnUpper The upper bound of each column.
+     * @param groupStart The offset of the first class of each group.
+     * @param groupClasses The classes grouped by group.
+     * @param groupHours The hours per week of each group's classes.
+     * @param studentCapacity The hours left to each student.
+     * @param studentRow Whether each student needs a row.
+     * @param fixedPairs The pairs fixed to 1.
+     * @param droppedPairs The number of pairs removed.
+     */
+    private PresolvedModel(
+            EligiblePairs pairs,
+            EligiblePairs columns,
+            int[] columnUpper,
+            int[] groupStart,
+            int[] groupClasses,
+            int[] groupHours,
+            int[] studentCapacity,
+            boolean[] studentRow,
+            int[] fixedPairs,
+            int droppedPairs
+    ) {
+        this.pairs = pairs;
+        this.columns = columns;
+        this.columnUpper = columnUpper;
+        this.groupStart = groupStart;
+        this.groupClasses = groupClasses;
+        this.groupHours = groupHours;
+        this.studentCapacity = studentCapacity;
+        this.studentRow = studentRow;
+        this.fixedPairs = fixedPairs;
+        this.droppedPairs = droppedPairs;
+        double total = 0.0;
+        for (final int p : fixedPairs) {
+            total += pairs.weight(p);
+        }
+        this.fixedObjective = total;
+    }
+
+    /**
+     * Creates the model of the eligible pairs without reductions: one binary
+     * column per pair, numbered like the pairs, and one group per class.
+     *
+     * @param pairs The eligible pairs.
+     * @param instance The problem instance, for the class hours.
+     * @param maxHours The maximum hours per student.
+     * @return The unreduced model.
+     */
+    public static PresolvedModel unreduced(EligiblePairs pairs,
+                                           ProblemInstance instance,
+                                           int maxHours) {
+        final int numClasses = pairs.numClasses();
+        final int[] groupStart = new int[numClasses + 1];
+        final int[] groupClasses = new int[numClasses];
+        final int[] groupHours = new int[numClasses];
+        for (int c = 0; c < numClasses; c++) {
+            groupStart[c + 1] = c + 1;
+            groupClasses[c] = c;
+            groupHours[c] = instance.hoursPerClass(c);
+        }
+        final int[] columnUpper = new int[pairs.size()];
+        Arrays.fill(columnUpper, 1);
+        final int[] studentCapacity = new int[pairs.numStudents()];
+        Arrays.fill(studentCapacity, maxHours);
+        final boolean[] studentRow = new boolean[pairs.numStudents()];
+        Arrays.fill(studentRow, true);
+        return new PresolvedModel(pairs, pairs, columnUpper, groupStart,
+                groupClasses, groupHours, studentCapacity, studentRow,
+                new int[0], 0);
+    }
+
+    /**
+     * Presolves the eligible pairs.
+     *
+     * @param pairs The eligible pairs.
+     * @param instance The problem instance, for the class hours.
+     * @param maxHours The maximum hours per student.
+     * @return The reduced model.
+     */
+    public static PresolvedModel presolve(EligiblePairs pairs,
+                                          ProblemInstance instance,
+                                          int maxHours) {
+        final int numStudents = pairs.numStudents();
+        final int numClasses = pairs.numClasses();
+        final int[] hours = new int[numClasses];
+        for (int c = 0; c < numClasses; c++) {
+            hours[c] = instance.hoursPerClass(c);
+        }
+
+        // Drop the pairs that can never pay off.
+        final boolean[] alive = new boolean[pairs.size()];
+        final int[] load = new int[numStudents];  // Hours of the alive pairs.
+        int dropped = 0;
+        for (int p = 0; p < pairs.size(); p++) {
+            final int c = pairs.classOf(p);
+            alive[p] = pairs.weight(p) > 0.0 && hours[c] <= maxHours;
+            if (alive[p]) {
+                load[pairs.student(p)] += hours[c];
+            } else {
+                dropped++;
+            }
+        }
+
+        // Fix forced assignments until none is left. A student whose alive
+        // pairs fit in the limit keeps fitting as pairs are dropped, so each
+        // class only needs another look when one of its students becomes
+        // free.
+        final boolean[] fixed = new boolean[numClasses];
+        final int[] fixedHours = new int[numStudents];
+        final int[] fixedPairs = new int[numClasses];
+        int numFixed = 0;
+        final ArrayDeque<Integer> queue = new ArrayDeque<>();
+        final boolean[] queued = new boolean[numClasses];
+        for (int c = 0; c < numClasses; c++) {
+            queue.add(c);
+            queued[c] = true;
+        }
+        while (!queue.isEmpty()) {
+            final int c = queue.poll();
+            queued[c] = false;
+            if (fixed[c]) {
+                continue;
+            }
+            int best = -1;
+            for (int i = pairs.classStart(c); i < pairs.classEnd(c); i++) {
+                final int p = pairs.classPair(i);
+                if (alive[p] && (best < 0
+                        || pairs.weight(p) > pairs.weight(best)
+                        || pairs.weight(p) == pairs.weight(best)
+                        && load[pairs.student(p)] <= maxHours
+                        && load[pairs.student(best)] > maxHours)) {
+                    best = p;
+                }
+            }
+            if (best < 0 || load[pairs.student(best)] > maxHours) {
+                continue;
+            }
+            fixed[c] = true;
+            fixedPairs[numFixed++] = best;
+            fixedHours[pairs.student(best)] += hours[c];
+            for (int i = pairs.classStart(c); i < pairs.classEnd(c); i++) {
+                final int p = pairs.classPair(i);
+                if (p == best || !alive[p]) {
+                    continue;
+                }
+                alive[p] = false;
+                dropped++;
+                final int s = pairs.student(p);
+                final boolean wasFree = load[s] <= maxHours;
+                load[s] -= hours[c];
+                if (!wasFree && load[s] <= maxHours) {
+                    for (int q = pairs.studentStart(s);
+                         q < pairs.studentEnd(s); q++) {
+                        final int other = pairs.classOf(q);
+                        if (alive[q] && !fixed[other] && !queued[other]) {
+                            queue.add(other);
+                            queued[other] = true;
+                        }
+                    }
+                }
+            }
+            alive[best] = false;
+        }
+
+        // Merge identical classes among the ones left.
+        final int[] groupOf = new int[numClasses];
+        Arrays.fill(groupOf, -1);
+        final int[] groupFirst = new int[numClasses];
+        final int[] groupSize = new int[numClasses];
+        final Map<Long, Integer> firstByHash = new HashMap<>();
+        final Map<Integer, Integer> nextWithHash = new HashMap<>();
+        int numGroups = 0;
+        for (int c = 0; c < numClasses; c++) {
+            if (fixed[c] || !hasAlivePair(pairs, alive, c)) {
+                continue;
+            }
+            final long hash = fingerprint(pairs, alive, hours, c);
+            Integer candidate = firstByHash.get(hash);
+            int last = -1;
+            while (candidate != null && groupOf[c] < 0) {
+                if (sameColumn(pairs, alive, hours, candidate, c)) {
+                    groupOf[c] = groupOf[candidate];
+                    groupSize[groupOf[c]]++;
+                }
+                last = candidate;
+                candidate = nextWithHash.get(candidate);
+            }
+            if (groupOf[c] < 0) {
+                groupOf[c] = numGroups;
+                groupFirst[numGroups] = c;
+                groupSize[numGroups] = 1;
+                numGroups++;
+                if (last < 0) {
+                    firstByHash.put(hash, c);
+                } else {
+                    nextWithHash.put(last, c);
+                }
+            }
+        }
+        final int[] groupStart = new int[numGroups + 1];
+        for (int g = 0; g < numGroups; g++) {
+            groupStart[g + 1] = groupStart[g] + groupSize[g];
+        }
+        final int[] groupClasses = new int[groupStart[numGroups]];
+        final int[] next = Arrays.copyOf(groupStart, numGroups);
+        final int[] groupHours = new int[numGroups];
+        for (int c = 0; c < numClasses; c++) {
+            if (groupOf[c] >= 0) {
+                groupClasses[next[groupOf[c]]++] = c;
+                groupHours[groupOf[c]] = hours[c];
+            }
+        }
+
+        // One column per student and group, bounded by the group size and
+        // the hours the student has left. Groups are numbered by their first
+        // class, so each student's columns come out in group order.
+        final EligiblePairs.Builder builder =
+                new EligiblePairs.Builder(numStudents, numGroups);
+        int[] columnUpper = new int[16];
+        int numColumns = 0;
+        final int[] studentCapacity = new int[numStudents];
+        final boolean[] studentRow = new boolean[numStudents];
+        for (int s = 0; s < numStudents; s++) {
+            studentCapacity[s] = maxHours - fixedHours[s];
+            int columnHours = 0;
+            for (int p = pairs.studentStart(s); p < pairs.studentEnd(s); p++) {
+                final int c = pairs.classOf(p);
+                if (!alive[p]) {
+                    continue;
+                }
+                final int g = groupOf[c];
+                if (groupFirst[g] != c) {
+                    // Counted with the column of the group's first class.
+                    continue;
+                }
+                final int upper = hours[c] == 0 ? groupSize[g]
+                        : Math.min(groupSize[g],
+                        studentCapacity[s] / hours[c]);
+                if (upper == 0) {
+                    dropped += groupSize[g];
+                    continue;
+                }
+                if (numColumns == columnUpper.length) {
+                    columnUpper = Arrays.copyOf(columnUpper, 2 * numColumns);
+                }
+                builder.add(s, g, pairs.weight(p));
+                columnUpper[numColumns++] = upper;
+                columnHours += upper * hours[c];
+            }
+            studentRow[s] = columnHours > studentCapacity[s];
+        }
+        return new PresolvedModel(pairs, builder.build(),
+                Arrays.copyOf(columnUpper, numColumns), groupStart,
+                groupClasses, groupHours, studentCapacity, studentRow,
+                Arrays.copyOf(fixedPairs, numFixed), dropped);
+    }
+
+    /**
+     * Removes columns from the model, such as the columns reduced-cost
+     * fixing proved to be 0 in any better solution. Groups, fixed pairs and
+     * capacities are kept, and a student no longer needs a row once their
+     * remaining columns fit in their capacity.
+     *
+     * @param removed Whether each column is removed.
+     * @return The model without the removed columns.
+     */
+    public PresolvedModel withoutColumns(boolean[] removed) {
+        final int numStudents = pairs.numStudents();
+        final EligiblePairs.Builder builder =
+                new EligiblePairs.Builder(numStudents, columns.numClasses());
+        final int[] upper = new int[columns.size()];
+        final boolean[] rows = new boolean[numStudents];
+        int numColumns = 0;
+        for (int s = 0; s < numStudents; s++) {
+            int columnHours = 0;
+            for (int q = columns.studentStart(s); q < columns.studentEnd(s);
+                 q++) {
+                if (removed[q]) {
+                    continue;
+                }
+                final int g = columns.classOf(q);
+                builder.add(s, g, columns.weight(q));
+                upper[numColumns++] = columnUpper[q];
+                columnHours += columnUpper[q] * groupHours[g];
+            }
+            rows[s] = studentRow[s] && columnHours > studentCapacity[s];
+        }
+        return new PresolvedModel(pairs, builder.build(),
+                Arrays.copyOf(upper, numColumns), groupStart, groupClasses,
+                groupHours, studentCapacity, rows, fixedPairs, droppedPairs);
+    }
+
+    /**
+     * Checks if a class has an alive pair.
+     *
+     * @param pairs The eligible pairs.
+     * @param alive Whether each pair is alive.
+     * @param c The class index.
+     * @return true if some pair of the class is alive.
+     */
+    private static boolean hasAlivePair(EligiblePairs pairs, boolean[] alive,
+                                        int c) {
+        for (int i = pairs.classStart(c); i < pairs.classEnd(c); i++) {
+            if (alive[pairs.classPair(i)]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hashes the hours of a class and the students and weights of its alive
+     * pairs, in student order.
+     *
+     * @param pairs The eligible pairs.
+     * @param alive Whether each pair is alive.
+     * @param hours The hours per week of each class.
+     * @param c The class index.
+     * @return The fingerprint of the class.
+     */
+    private static long fingerprint(EligiblePairs pairs, boolean[] alive,
+                                    int[] hours, int c) {
+        long hash = hours[c];
+        for (int i = pairs.classStart(c); i < pairs.classEnd(c); i++) {
+            final int p = pairs.classPair(i);
+            if (alive[p]) {
+                hash = 31 * hash + pairs.student(p);
+                hash = 31 * hash
+                        + Double.doubleToLongBits(pairs.weight(p));
+            }
+        }
+        // Final mix so that nearby columns spread over the hash table.
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Checks if two classes have the same hours and the same alive pairs,
+     * with the same weights.
+     *
+     * @param pairs The eligible pairs.
+     * @param alive Whether each pair is alive.
+     * @param hours The hours per week of each class.
+     * @param a The first class.
+     * @param b The second class.
+     * @return true if the classes are interchangeable.
+     */
+    private static boolean sameColumn(EligiblePairs pairs, boolean[] alive,
+                                      int[] hours, int a, int b) {
+        if (hours[a] != hours[b]) {
+            return false;
+        }
+        int i = pairs.classStart(a);
+        int j = pairs.classStart(b);
+        while (true) {
+            while (i < pairs.classEnd(a) && !alive[pairs.classPair(i)]) {
+                i++;
+            }
+            while (j < pairs.classEnd(b) && !alive[pairs.classPair(j)]) {
+                j++;
+            }
+            if (i == pairs.classEnd(a) || j == pairs.classEnd(b)) {
+                return i == pairs.classEnd(a) && j == pairs.classEnd(b);
+            }
+            final int p = pairs.classPair(i);
+            final int q = pairs.classPair(j);
+            if (pairs.student(p) != pairs.student(q)
+                    || pairs.weight(p) != pairs.weight(q)) {
+                return false;
+            }
+            i++;
+            j++;
+        }
+    }
+
+    /**
+     * Getter of the columns of the reduced model, as pairs of students and
+     * groups with the weight of one class of the group.
+     *
+     * @return The columns.
+     */
+    public EligiblePairs columns() {
+        return columns;
+    }
+
+    /**
+     * Returns the upper bound of a column.
+     *
+     * @param q The column index.
+     * @return The most classes of the group the student can take.
+     */
+    public int upperBound(int q) {
+        return columnUpper[q];
+    }
+
+    /**
+     * Returns the number of classes of a group, which is the number of
+     * students its row admits.
+     *
+     * @param g The group index.
+     * @return The size of the group.
+     */
+    public int groupSize(int g) {
+        return groupStart[g + 1] - groupStart[g];
+    }
+
+    /**
+     * Returns the hours per week of each class of a group.
+     *
+     * @param g The group index.
+     * @return The hours of the group's classes.
+     */
+    public int groupHours(int g) {
+        return groupHours[g];
+    }
+
+    /**
+     * Returns the hours a student has left after the fixed assignments.
+     *
+     * @param s The student index.
+     * @return The capacity of the student's row.
+     */
+    public int studentCapacity(int s) {
+        return studentCapacity[s];
+    }
+
+    /**
+     * Checks if a student needs a row: a student whose columns fit in their
+     * capacity at their upper bounds does not.
+     *
+     * @param s The student index.
+     * @return true if the student's hours must be constrained.
+     */
+    public boolean needsStudentRow(int s) {
+        return studentRow[s];
+    }
+
+    /**
+     * Checks if the model is the unreduced one, whose columns are the
+     * eligible pairs and whose groups are the classes.
+     *
+     * @return true if no reduction was applied.
+     */
+    public boolean isUnreduced() {
+        return columns == pairs;
+    }
+
+    /**
+     * Returns the number of pairs fixed to 1 by the presolve.
+     *
+     * @return The number of forced assignments.
+     */
+    public int getFixedPairs() {
+        return fixedPairs.length;
+    }
+
+    /**
+     * Returns the number of pairs removed by the presolve, including the
+     * other pairs of fixed classes.
+     *
+     * @return The number of dropped pairs.
+     */
+    public int getDroppedPairs() {
+        return droppedPairs;
+    }
+
+    /**
+     * Returns the number of classes merged into the group of an identical
+     * class.
+     *
+     * @return The number of classes minus the number of groups, among the
+     * classes left in the reduced model.
+     */
+    public int getMergedClasses() {
+        return groupClasses.length - columns.numClasses();
+    }
+
+    /**
+     * Returns the weight of the fixed pairs, to add to the objective of the
+     * reduced model.
+     *
+     * @return The objective offset.
+     */
+    public double fixedObjective() {
+        return fixedObjective;
+    }
+
+    /**
+     * Restricts a solution of the eligible pairs to the columns of the
+     * reduced model, the inverse of expand: each column counts the assigned
+     * pairs of its student in its group, up to its upper bound. Fixed and
+     * dropped pairs have no column and are skipped.
+     *
+     * @param pairValues The value of each eligible pair.
+     * @return The value of each column.
+     */
+    public double[] restrict(double[] pairValues) {
+        if (isUnreduced()) {
+            return Arrays.copyOf(pairValues, columns.size());
+        }
+        final int[] classGroup = new int[pairs.numClasses()];
+        Arrays.fill(classGroup, -1);
+        for (int g = 0; g < columns.numClasses(); g++) {
+            for (int i = groupStart[g]; i < groupStart[g + 1]; i++) {
+                classGroup[groupClasses[i]] = g;
+            }
+        }
+        final double[] values = new double[columns.size()];
+        for (int p = 0; p < pairs.size(); p++) {
+            final int g = classGroup[pairs.classOf(p)];
+            if (pairValues[p] < 0.5 || g < 0) {
+                continue;
+            }
+            final int q = columns.indexOf(pairs.student(p), g);
+            if (q >= 0) {
+                values[q] = Math.min(values[q] + 1.0, columnUpper[q]);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Expands a solution of the reduced model to the eligible pairs. Fixed
+     * pairs are set, and each column's count is handed out as the next
+     * unassigned classes of its group.
+     *
+     * @param values The value of each column.
+     * @return The value of each eligible pair.
+     */
+    public double[] expand(double[] values) {
+        if (isUnreduced()) {
+            return Arrays.copyOf(values, pairs.size());
+        }
+        final double[] pairValues = new double[pairs.size()];
+        for (final int p : fixedPairs) {
+            pairValues[p] = 1.0;
+        }
+        final int[] next = Arrays.copyOf(groupStart, columns.numClasses());
+        for (int q = 0; q < columns.size(); q++) {
+            final int g = columns.classOf(q);
+            final int s = columns.student(q);
+            final long count = Math.round(values[q]);
+            for (int k = 0; k < count; k++) {
+                pairValues[pairs.indexOf(s, groupClasses[next[g]++])] = 1.0;
+            }
+        }
+        return pairValues;
+    }
+}
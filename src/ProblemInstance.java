@@ -0,0 +1,107 @@
+/**
+ * This interface represents the input data of a Student Employment
+ * Assignment problem: preferences, class hours, class slots and the slots
+ * each student is already registered for. Implementations may keep the data
+ * in Java arrays or expose views over other storage.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public interface ProblemInstance {
+    /**
+     * Getter of the number of students.
+     *
+     * @return The number of students.
+     */
+    int numStudents();
+
+    /**
+     * Getter of the number of classes.
+     *
+     * @return The number of classes.
+     */
+    int numClasses();
+
+    /**
+     * Returns the professor's preference for a student in a class.
+     *
+     * @param s The student index.
+     * @param c The class index.
+     * @return The preference value, 0 if the professor does not want the
+     * student.
+     */
+    int profPreference(int s, int c);
+
+    /**
+     * Returns a student's preference for a class.
+     *
+     * @param s The student index.
+     * @param c The class index.
+     * @return The preference value, 0 if the student does not want the class.
+     */
+    int studPreference(int s, int c);
+
+    /**
+     * Copies the professor's preferences for a student in every class into
+     * an array. Implementations with flat storage override this to avoid one
+     * call per class.
+     *
+     * @param s The student index.
+     * @param row The array to fill, of at least numClasses() entries.
+     */
+    default void profPreferenceRow(int s, int[] row) {
+        for (int c = 0; c < this.numClasses(); c++) {
+            row[c] = this.profPreference(s, c);
+        }
+    }
+
+    /**
+     * Copies a student's preferences for every class into an array.
+     * Implementations with flat storage override this to avoid one call per
+     * class.
+     *
+     * @param s The student index.
+     * @param row The array to fill, of at least numClasses() entries.
+     */
+    default void studPreferenceRow(int s, int[] row) {
+        for (int c = 0; c < this.numClasses(); c++) {
+            row[c] = this.studPreference(s, c);
+        }
+    }
+
+    /**
+     * Returns the required hours of a class.
+     *
+     * @param c The class index.
+     * @return The hours per week of the class.
+     */
+    int hoursPerClass(int c);
+
+    /**
+     * Returns the slot assigned to a class on a weekday.
+     *
+     * @param c The class index.
+     * @param d The weekday index.
+     * @return The slot, 0 if the class has no slot that day.
+     */
+    int classSlot(int c, int d);
+
+    /**
+     * Returns how many slots a student is registered for on a weekday.
+     *
+     * @param s The student index.
+     * @param d The weekday index.
+     * @return The number of registered slots.
+     */
+    int numRegisteredSlots(int s, int d);
+
+    /**
+     * Returns one of the slots a student is registered for on a weekday.
+     *
+     * @param s The student index.
+     * @param d The weekday index.
+     * @param i The position of the slot, below numRegisteredSlots(s, d).
+     * @return The registered slot.
+     */
+    int registeredSlot(int s, int d, int i);
+}
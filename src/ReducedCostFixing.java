@@ -0,0 +1,193 @@
+import com.google.ortools.linearsolver.MPSolver;
+
+import java.util.Arrays;
+
+/**
+ * This class fixes to 0 the columns of a model that cannot take part in an
+ * assignment better than a known incumbent. Any non-negative multipliers y
+ * of the group rows and u of the student rows bound the objective:
+ * <pre>
+ *     w x &lt;= D + sum over q of d_q x_q, with d_q = w_q - y_g - h_g u_s
+ * </pre>
+ * where D adds the multipliers times the row capacities and the positive
+ * reduced costs d_q times the column bounds. A column with d_q &lt; 0 and
+ * D + d_q at most the incumbent can only be positive in assignments no
+ * better than the incumbent, so it is removed. The multipliers are the
+ * duals of the LP relaxation, where D is the LP bound and the reduced costs
+ * are as large as they get; since the bound holds for any multipliers, the
+ * fixing stays valid when the LP duals are inexact.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class ReducedCostFixing {
+    private static final double TOLERANCE = 1e-6;  // Relative margin below
+                                    // the incumbent, against round-off.
+    private final PresolvedModel model;  // Model the columns belong to.
+    private final boolean[] fixed;  // Whether each column is fixed to 0.
+    private final int numFixed;  // Number of columns fixed to 0.
+    private final double bound;  // Upper bound D of the multipliers.
+
+    /**
+     * Constructor to fix the columns of a model with given multipliers.
+     *
+     * @param model The model.
+     * @param groupDuals The multiplier of each group row.
+     * @param studentDuals The multiplier of each student row, unused for
+     *                     students without one.
+     * @param incumbent The objective of a known assignment, in the objective
+     *                  of the model's columns.
+     */
+    public ReducedCostFixing(PresolvedModel model, double[] groupDuals,
+                             double[] studentDuals, double incumbent) {
+        this.model = model;
+        final EligiblePairs columns = model.columns();
+        final double[] reducedCosts = new double[columns.size()];
+        double total = 0.0;
+        for (int g = 0; g < columns.numClasses(); g++) {
+            total += Math.max(0.0, groupDuals[g]) * model.groupSize(g);
+        }
+        for (int s = 0; s < columns.numStudents(); s++) {
+            if (model.needsStudentRow(s)) {
+                total += Math.max(0.0, studentDuals[s])
+                        * model.studentCapacity(s);
+            }
+        }
+        for (int q = 0; q < reducedCosts.length; q++) {
+            final int g = columns.classOf(q);
+            final int s = columns.student(q);
+            reducedCosts[q] = columns.weight(q)
+                    - Math.max(0.0, groupDuals[g])
+                    - (model.needsStudentRow(s)
+                    ? model.groupHours(g) * Math.max(0.0, studentDuals[s])
+                    : 0.0);
+            total += Math.max(0.0, reducedCosts[q]) * model.upperBound(q);
+        }
+        this.bound = total;
+
+        final double threshold = incumbent
+                - TOLERANCE * Math.max(1.0, Math.abs(incumbent));
+        this.fixed = new boolean[reducedCosts.length];
+        int count = 0;
+        for (int q = 0; q < reducedCosts.length; q++) {
+            if (reducedCosts[q] < 0.0 && total + reducedCosts[q] < threshold) {
+                this.fixed[q] = true;
+                count++;
+            }
+        }
+        this.numFixed = count;
+    }
+
+    /**
+     * Solves the LP relaxation of a model with GLOP and fixes its columns
+     * with the duals of its rows.
+     *
+     * @param model The model.
+     * @param config The solve configuration of the LP.
+     * @param incumbent The objective of a known assignment, in the objective
+     *                  of the model's columns.
+     * @return The fixing, or null if the LP could not be solved.
+     */
+    public static ReducedCostFixing solve(PresolvedModel model,
+                                          SolveConfig config,
+                                          double incumbent) {
+        final LinearBackend lp = LinearBackend.create("GLOP");
+        if (lp == null) {
+            return null;
+        }
+        final EligiblePairs columns = model.columns();
+        final int numGroups = columns.numClasses();
+        final int numStudents = columns.numStudents();
+        final int[] upperBounds = new int[columns.size()];
+        final double[] weights = new double[columns.size()];
+        for (int q = 0; q < upperBounds.length; q++) {
+            upperBounds[q] = model.upperBound(q);
+            weights[q] = columns.weight(q);
+        }
+        lp.addVariables(upperBounds, upperBounds.length);
+
+        int[] row = new int[16];
+        int[] coefficients = new int[16];
+        for (int g = 0; g < numGroups; g++) {
+            final int size = columns.classEnd(g) - columns.classStart(g);
+            if (size > row.length) {
+                row = new int[Math.max(size, 2 * row.length)];
+                coefficients = new int[row.length];
+            }
+            for (int i = 0; i < size; i++) {
+                row[i] = columns.classPair(columns.classStart(g) + i);
+                coefficients[i] = 1;
+            }
+            lp.addCapacity(row, coefficients, size, model.groupSize(g));
+        }
+        final int[] studentRow = new int[numStudents];
+        Arrays.fill(studentRow, -1);
+        for (int s = 0; s < numStudents; s++) {
+            if (!model.needsStudentRow(s)) {
+                continue;
+            }
+            final int start = columns.studentStart(s);
+            final int size = columns.studentEnd(s) - start;
+            if (size > row.length) {
+                row = new int[Math.max(size, 2 * row.length)];
+                coefficients = new int[row.length];
+            }
+            for (int i = 0; i < size; i++) {
+                row[i] = start + i;
+                coefficients[i] = model.groupHours(columns.classOf(start + i));
+            }
+            studentRow[s] = lp.addCapacity(row, coefficients, size,
+                    model.studentCapacity(s));
+        }
+        lp.maximize(weights);
+
+        final MPSolver.ResultStatus status = lp.solve(config, false);
+        if (status != MPSolver.ResultStatus.OPTIMAL) {
+            return null;
+        }
+        final double[] duals = lp.duals();
+        final double[] studentDuals = new double[numStudents];
+        for (int s = 0; s < numStudents; s++) {
+            studentDuals[s] = studentRow[s] < 0 ? 0.0 : duals[studentRow[s]];
+        }
+        return new ReducedCostFixing(model, Arrays.copyOf(duals, numGroups),
+                studentDuals, incumbent);
+    }
+
+    /**
+     * Checks if a column was fixed to 0.
+     *
+     * @param q The column index.
+     * @return true if the column cannot be positive in a better assignment.
+     */
+    public boolean isFixed(int q) {
+        return fixed[q];
+    }
+
+    /**
+     * Getter of the number of columns fixed to 0.
+     *
+     * @return The number of fixed columns.
+     */
+    public int getFixedColumns() {
+        return numFixed;
+    }
+
+    /**
+     * Getter of the upper bound given by the multipliers.
+     *
+     * @return The bound on the objective of the model's columns.
+     */
+    public double getBound() {
+        return bound;
+    }
+
+    /**
+     * Returns the model without the fixed columns.
+     *
+     * @return The reduced model, or the model itself if no column was fixed.
+     */
+    public PresolvedModel reduce() {
+        return numFixed == 0 ? model : model.withoutColumns(fixed);
+    }
+}
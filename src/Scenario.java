@@ -0,0 +1,181 @@
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class represents a what-if scenario over a parsed instance: its own
+ * preference weights, maximum hours per student and class hour
+ * requirements. Settings that are not overridden keep the defaults of
+ * StudentEmploymentAssignment and the instance's hours.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class Scenario {
+    private final String name;  // Name shown in the comparison table.
+    private double profWeight = Double.NaN;  // Weight of professor
+                                             // preferences, NaN for default.
+    private double studWeight = Double.NaN;  // Weight of student
+                                             // preferences, NaN for default.
+    private int maxHoursPerStudent;  // Maximum hours per student, 0 for the
+                                     // default.
+    private final Map<Integer, Integer> hoursOverrides = new HashMap<>();
+                                            // New hours, keyed by class.
+
+    /**
+     * Constructor to initialize a scenario with no overrides.
+     *
+     * @param name The name of the scenario.
+     */
+    public Scenario(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Overrides the relative weights of professor and student preferences.
+     *
+     * @param profWeight The weight of professor preferences.
+     * @param studWeight The weight of student preferences.
+     * @return This scenario.
+     */
+    public Scenario weights(double profWeight, double studWeight) {
+        this.profWeight = profWeight;
+        this.studWeight = studWeight;
+        return this;
+    }
+
+    /**
+     * Overrides the maximum hours per student.
+     *
+     * @param maxHoursPerStudent The maximum hours per week.
+     * @return This scenario.
+     */
+    public Scenario maxHoursPerStudent(int maxHoursPerStudent) {
+        this.maxHoursPerStudent = maxHoursPerStudent;
+        return this;
+    }
+
+    /**
+     * Overrides the hours required by a class.
+     *
+     * @param c The class index.
+     * @param hours The new hours per week of the class.
+     * @return This scenario.
+     */
+    public Scenario hoursPerClass(int c, int hours) {
+        this.hoursOverrides.put(c, hours);
+        return this;
+    }
+
+    /**
+     * Getter of the scenario name.
+     *
+     * @return The name of the scenario.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Getter of the class hour overrides.
+     *
+     * @return The new hours, keyed by class.
+     */
+    public Map<Integer, Integer> getHoursOverrides() {
+        return Collections.unmodifiableMap(hoursOverrides);
+    }
+
+    /**
+     * Creates the problem of this scenario. The base instance is shared, not
+     * copied: hour overrides are applied through a view.
+     *
+     * @param base The parsed instance.
+     * @return The problem with the scenario's settings, not yet solved.
+     */
+    StudentEmploymentAssignment newProblem(ProblemInstance base) {
+        final StudentEmploymentAssignment problem =
+                new StudentEmploymentAssignment(this.hoursOverrides.isEmpty()
+                        ? base : new HoursView(base, this.hoursOverrides));
+        if (!Double.isNaN(this.profWeight)) {
+            problem.setPreferenceWeights(this.profWeight, this.studWeight);
+        }
+        if (this.maxHoursPerStudent > 0) {
+            problem.setMaxHoursPerStudent(this.maxHoursPerStudent);
+        }
+        return problem;
+    }
+
+    /**
+     * This class is a view of an instance with some class hours replaced.
+     */
+    private static final class HoursView implements ProblemInstance {
+        private final ProblemInstance base;  // Instance being viewed.
+        private final int[] hoursPerClass;  // Hours per class, with the
+                                            // overrides applied.
+
+        /**
+         * Constructor to initialize the view.
+         *
+         * @param base The instance being viewed.
+         * @param overrides The new hours, keyed by class.
+         */
+        HoursView(ProblemInstance base, Map<Integer, Integer> overrides) {
+            this.base = base;
+            this.hoursPerClass = new int[base.numClasses()];
+            for (int c = 0; c < this.hoursPerClass.length; c++) {
+                this.hoursPerClass[c] = overrides.getOrDefault(
+                        c, base.hoursPerClass(c));
+            }
+        }
+
+        @Override
+        public int numStudents() {
+            return base.numStudents();
+        }
+
+        @Override
+        public int numClasses() {
+            return base.numClasses();
+        }
+
+        @Override
+        public int profPreference(int s, int c) {
+            return base.profPreference(s, c);
+        }
+
+        @Override
+        public int studPreference(int s, int c) {
+            return base.studPreference(s, c);
+        }
+
+        @Override
+        public void profPreferenceRow(int s, int[] row) {
+            base.profPreferenceRow(s, row);
+        }
+
+        @Override
+        public void studPreferenceRow(int s, int[] row) {
+            base.studPreferenceRow(s, row);
+        }
+
+        @Override
+        public int hoursPerClass(int c) {
+            return hoursPerClass[c];
+        }
+
+        @Override
+        public int classSlot(int c, int d) {
+            return base.classSlot(c, d);
+        }
+
+        @Override
+        public int numRegisteredSlots(int s, int d) {
+            return base.numRegisteredSlots(s, d);
+        }
+
+        @Override
+        public int registeredSlot(int s, int d, int i) {
+            return base.registeredSlot(s, d, i);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class solves many what-if scenarios of one parsed instance
+ * concurrently. The instance and its eligibility index are shared by every
+ * scenario, since eligibility depends only on preferences and slots. Each
+ * scenario is solved as a single model on one worker thread, so each worker
+ * drives one MPSolver at a time.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class ScenarioRunner {
+    private final ProblemInstance instance;  // Parsed instance.
+    private final EligibilityIndex eligibility;  // Shared eligibility index.
+    private SolveConfig config = new SolveConfig();  // Settings of every
+                                                     // scenario solve.
+    private StudentEmploymentAssignment.Engine engine =
+            StudentEmploymentAssignment.Engine.AUTO;  // Engine of every
+                                                      // scenario.
+
+    /**
+     * This class represents the outcome of one scenario.
+     */
+    public static final class Result {
+        private final String name;  // Name of the scenario.
+        private final SolveStatus status;  // Result status.
+        private final double objectiveValue;  // Total satisfaction.
+        private final int assignedClasses;  // Classes with a student.
+        private final int numClasses;  // Number of classes.
+        private final int assignedStudents;  // Students with a class.
+        private final long runtimeMillis;  // Wall time of the solve.
+
+        /**
+         * Constructor to initialize a result.
+         *
+         * @param name The name of the scenario.
+         * @param status The result status.
+         * @param objectiveValue The total satisfaction.
+         * @param assignedClasses The classes with a student.
+         * @param numClasses The number of classes.
+         * @param assignedStudents The students with a class.
+         * @param runtimeMillis The wall time of the solve.
+         */
+        Result(String name, SolveStatus status,
+               double objectiveValue, int assignedClasses, int numClasses,
+               int assignedStudents, long runtimeMillis) {
+            this.name = name;
+            this.status = status;
+            this.objectiveValue = objectiveValue;
+            this.assignedClasses = assignedClasses;
+            this.numClasses = numClasses;
+            this.assignedStudents = assignedStudents;
+            this.runtimeMillis = runtimeMillis;
+        }
+
+        /**
+         * Getter of the scenario name.
+         *
+         * @return The name of the scenario.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Getter of the result status.
+         *
+         * @return The result status of the solve.
+         */
+        public SolveStatus getStatus() {
+            return status;
+        }
+
+        /**
+         * Getter of the objective value.
+         *
+         * @return The total satisfaction.
+         */
+        public double getObjectiveValue() {
+            return objectiveValue;
+        }
+
+        /**
+         * Getter of the number of assigned classes.
+         *
+         * @return The classes with a student.
+         */
+        public int getAssignedClasses() {
+            return assignedClasses;
+        }
+
+        /**
+         * Returns the fraction of classes that have a student.
+         *
+         * @return The coverage, between 0 and 1.
+         */
+        public double getCoverage() {
+            return numClasses == 0 ? 0.0
+                    : (double) assignedClasses / numClasses;
+        }
+
+        /**
+         * Getter of the number of assigned students.
+         *
+         * @return The students with at least one class.
+         */
+        public int getAssignedStudents() {
+            return assignedStudents;
+        }
+
+        /**
+         * Getter of the runtime.
+         *
+         * @return The wall time of the solve in milliseconds.
+         */
+        public long getRuntimeMillis() {
+            return runtimeMillis;
+        }
+    }
+
+    /**
+     * Constructor to prepare the shared data of an instance.
+     *
+     * @param instance The parsed instance.
+     */
+    public ScenarioRunner(ProblemInstance instance) {
+        this.instance = instance;
+        this.eligibility = new EligibilityIndex(instance);
+    }
+
+    /**
+     * Sets the solve configuration of every scenario, such as a time limit.
+     *
+     * @param config The solve configuration.
+     */
+    public void setSolveConfig(SolveConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Sets the engine of every scenario.
+     *
+     * @param engine The engine.
+     */
+    public void setEngine(StudentEmploymentAssignment.Engine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Solves the scenarios on a fixed pool of worker threads. The OR-Tools
+     * native libraries must be loaded beforehand when a scenario uses the
+     * MIP engine.
+     *
+     * @param scenarios The scenarios to solve.
+     * @param numThreads The number of worker threads.
+     * @return The results, in the order of the scenarios.
+     */
+    public List<Result> run(List<Scenario> scenarios, int numThreads) {
+        final ExecutorService workers = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(numThreads, scenarios.size())));
+        try {
+            final List<Future<Result>> futures =
+                    new ArrayList<>(scenarios.size());
+            for (final Scenario scenario : scenarios) {
+                futures.add(workers.submit(() -> solve(scenario)));
+            }
+            final List<Result> results = new ArrayList<>(scenarios.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(
+                            "Interrupted while solving scenarios", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Scenario "
+                            + scenarios.get(i).getName() + " failed",
+                            e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Solves one scenario on the calling thread.
+     *
+     * @param scenario The scenario.
+     * @return The result of the scenario.
+     */
+    private Result solve(Scenario scenario) {
+        final long start = System.nanoTime();
+        final StudentEmploymentAssignment problem =
+                scenario.newProblem(this.instance);
+        problem.eligibility = this.eligibility;
+        problem.setDecomposition(false);
+        problem.setSolveConfig(this.config);
+        problem.setEngine(this.engine);
+        final SolveStatus status = problem.optimize();
+        final long runtimeMillis = (System.nanoTime() - start) / 1_000_000;
+
+        final EligiblePairs pairs = problem.getPairs();
+        int assignedClasses = 0;
+        int assignedStudents = 0;
+        for (int s = 0; s < pairs.numStudents(); s++) {
+            boolean assigned = false;
+            for (int p = pairs.studentStart(s); p < pairs.studentEnd(s);
+                 p++) {
+                if (problem.isAssigned(s, pairs.classOf(p))) {
+                    assignedClasses++;
+                    assigned = true;
+                }
+            }
+            if (assigned) {
+                assignedStudents++;
+            }
+        }
+        final boolean solved = status == SolveStatus.OPTIMAL
+                || status == SolveStatus.FEASIBLE;
+        return new Result(scenario.getName(), status,
+                solved ? problem.getObjectiveValue() : Double.NaN,
+                assignedClasses, pairs.numClasses(), assignedStudents,
+                runtimeMillis);
+    }
+
+    /**
+     * Formats results as a comparison table, one row per scenario.
+     *
+     * @param results The results to compare.
+     * @return The table text.
+     */
+    public static String formatTable(List<Result> results) {
+        int nameWidth = "Scenario".length();
+        for (final Result result : results) {
+            nameWidth = Math.max(nameWidth, result.getName().length());
+        }
+        final String format = "%-" + nameWidth
+                + "s  %-10s  %10s  %9s  %8s  %8s  %9s%n";
+        final StringBuilder table = new StringBuilder();
+        table.append(String.format(format, "Scenario", "Status",
+                "Objective", "Classes", "Coverage", "Students", "Time (ms)"));
+        for (final Result result : results) {
+            table.append(String.format(format, result.getName(),
+                    result.getStatus(),
+                    String.format("%.2f", result.getObjectiveValue()),
+                    result.getAssignedClasses() + "/" + result.numClasses,
+                    String.format("%.1f%%", 100.0 * result.getCoverage()),
+                    result.getAssignedStudents(),
+                    result.getRuntimeMillis()));
+        }
+        return table.toString();
+    }
+}
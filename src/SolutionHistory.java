@@ -0,0 +1,296 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * This class represents an on-disk store of solved terms, so that each term
+ * can start from the assignment of the one before. A term is kept as two
+ * files in the store directory: its inputs as an instance snapshot
+ * ({@code <term>.instance}) and its outcome as an assignment file
+ * ({@code <term>.assignment}). The names of the saved terms are listed in
+ * save order in {@code terms.txt}.
+ *
+ * <p>The assignment file is little-endian and made of 32-bit integers: the
+ * magic number, the format version, the number of students and classes,
+ * the id of each student, the id of each class, and the student index
+ * assigned to each class, -1 if none. The ids are those of the input files,
+ * which identify students and classes across terms.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class SolutionHistory {
+    static final int MAGIC = 0x41534553;  // "SESA" read as little-endian.
+    static final int VERSION = 1;  // Version of the assignment format.
+    private static final int HEADER_INTS = 4;  // Integers in the header.
+    static final String INSTANCE_SUFFIX = ".instance";  // Input snapshot.
+    static final String ASSIGNMENT_SUFFIX = ".assignment";  // Assignment.
+    static final String INDEX_FILE = "terms.txt";  // Saved term names.
+    private static final Pattern TERM_NAME =
+            Pattern.compile("[A-Za-z0-9._-]+");  // Valid term names.
+    private final Path dir;  // Directory of the store.
+
+    /**
+     * This class represents a saved term: its inputs, ids and assignment.
+     */
+    public static final class Term {
+        private final String name;  // Name of the term.
+        private final ProblemInstance instance;  // Inputs of the term.
+        private final int[] studentIds;  // Id of each student.
+        private final int[] classIds;  // Id of each class.
+        private final int[] classStudents;  // Student of each class, or -1.
+
+        /**
+         * Constructor to initialize a term.
+         *
+         * @param name The name of the term.
+         * @param instance The inputs of the term.
+         * @param studentIds The id of each student.
+         * @param classIds The id of each class.
+         * @param classStudents The student of each class, or -1.
+         */
+        Term(String name, ProblemInstance instance, int[] studentIds,
+             int[] classIds, int[] classStudents) {
+            this.name = name;
+            this.instance = instance;
+            this.studentIds = studentIds;
+            this.classIds = classIds;
+            this.classStudents = classStudents;
+        }
+
+        /**
+         * Getter of the name of the term.
+         *
+         * @return The name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Getter of the inputs of the term.
+         *
+         * @return The instance, memory-mapped from the store.
+         */
+        public ProblemInstance getInstance() {
+            return instance;
+        }
+
+        /**
+         * Getter of the student ids.
+         *
+         * @return The id of each student, by index.
+         */
+        public int[] getStudentIds() {
+            return studentIds;
+        }
+
+        /**
+         * Getter of the class ids.
+         *
+         * @return The id of each class, by index.
+         */
+        public int[] getClassIds() {
+            return classIds;
+        }
+
+        /**
+         * Getter of the assignment of the term.
+         *
+         * @return The student index assigned to each class, or -1.
+         */
+        public int[] getClassStudents() {
+            return classStudents;
+        }
+    }
+
+    /**
+     * Constructor to open a store. The directory is created on the first
+     * save.
+     *
+     * @param dir The directory of the store.
+     */
+    public SolutionHistory(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Saves the inputs and the assignment of a solved term, replacing a
+     * saved term of the same name. Each file is written to a temporary file
+     * first and then moved into place.
+     *
+     * @param term The name of the term, made of letters, digits, '.', '_'
+     *             and '-'.
+     * @param instance The inputs of the term.
+     * @param studentIds The id of each student.
+     * @param classIds The id of each class.
+     * @param problem The problem solved over the instance.
+     * @throws IOException If an I/O error occurs.
+     * @throws IllegalArgumentException If the name is invalid or the ids do
+     * not match the instance.
+     */
+    public void save(String term, ProblemInstance instance, int[] studentIds,
+                     int[] classIds, StudentEmploymentAssignment problem)
+            throws IOException {
+        checkName(term);
+        if (studentIds.length != instance.numStudents()
+                || classIds.length != instance.numClasses()) {
+            throw new IllegalArgumentException("Ids of " + studentIds.length
+                    + " students and " + classIds.length + " classes do not"
+                    + " match the instance");
+        }
+        final int[] classStudents = new int[instance.numClasses()];
+        Arrays.fill(classStudents, -1);
+        final EligiblePairs pairs = problem.getPairs();
+        for (int p = 0; p < pairs.size(); p++) {
+            if (problem.isAssigned(pairs.student(p), pairs.classOf(p))) {
+                classStudents[pairs.classOf(p)] = pairs.student(p);
+            }
+        }
+
+        Files.createDirectories(this.dir);
+        final Path instanceTemp = Files.createTempFile(this.dir,
+                term + INSTANCE_SUFFIX, ".tmp");
+        InstanceSnapshot.write(instance, instanceTemp);
+        final Path assignmentTemp = Files.createTempFile(this.dir,
+                term + ASSIGNMENT_SUFFIX, ".tmp");
+        try (FileChannel channel = FileChannel.open(assignmentTemp,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final InstanceSnapshot.IntWriter out =
+                    new InstanceSnapshot.IntWriter(channel);
+            out.put(MAGIC);
+            out.put(VERSION);
+            out.put(studentIds.length);
+            out.put(classIds.length);
+            for (final int id : studentIds) {
+                out.put(id);
+            }
+            for (final int id : classIds) {
+                out.put(id);
+            }
+            for (final int s : classStudents) {
+                out.put(s);
+            }
+            out.flush();
+        }
+        Files.move(instanceTemp, this.dir.resolve(term + INSTANCE_SUFFIX),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        Files.move(assignmentTemp, this.dir.resolve(term + ASSIGNMENT_SUFFIX),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        final List<String> terms = this.terms();
+        terms.remove(term);
+        terms.add(term);
+        final Path indexTemp = Files.createTempFile(this.dir, INDEX_FILE,
+                ".tmp");
+        Files.write(indexTemp, terms, StandardCharsets.UTF_8);
+        Files.move(indexTemp, this.dir.resolve(INDEX_FILE),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lists the saved terms.
+     *
+     * @return The names of the saved terms, in save order, the last saved
+     * term last.
+     * @throws IOException If an I/O error occurs.
+     */
+    public List<String> terms() throws IOException {
+        final Path index = this.dir.resolve(INDEX_FILE);
+        if (!Files.exists(index)) {
+            return new ArrayList<>();
+        }
+        final List<String> terms = new ArrayList<>();
+        for (final String line : Files.readAllLines(index,
+                StandardCharsets.UTF_8)) {
+            if (!line.isEmpty()) {
+                terms.add(line);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Returns the last saved term other than a given one, such as the term
+     * being solved.
+     *
+     * @param term The term to skip, or null.
+     * @return The name of the term, or null if there is none.
+     * @throws IOException If an I/O error occurs.
+     */
+    public String latestBefore(String term) throws IOException {
+        final List<String> terms = this.terms();
+        for (int i = terms.size() - 1; i >= 0; i--) {
+            if (!terms.get(i).equals(term)) {
+                return terms.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Loads a saved term. Its inputs are memory-mapped.
+     *
+     * @param term The name of the term.
+     * @return The term.
+     * @throws IOException If an I/O error occurs or a file of the term is
+     * missing or invalid.
+     */
+    public Term load(String term) throws IOException {
+        checkName(term);
+        final ProblemInstance instance = InstanceSnapshot.map(
+                this.dir.resolve(term + INSTANCE_SUFFIX));
+        final Path path = this.dir.resolve(term + ASSIGNMENT_SUFFIX);
+        final IntBuffer ints = ByteBuffer.wrap(Files.readAllBytes(path))
+                .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        if (ints.limit() < HEADER_INTS || ints.get(0) != MAGIC) {
+            throw new IOException(path + " is not an assignment file");
+        }
+        if (ints.get(1) != VERSION) {
+            throw new IOException(path + " has assignment version "
+                    + ints.get(1) + ", expected " + VERSION);
+        }
+        final int numStudents = ints.get(2);
+        final int numClasses = ints.get(3);
+        if (numStudents != instance.numStudents()
+                || numClasses != instance.numClasses()
+                || ints.limit() != HEADER_INTS + numStudents
+                + 2L * numClasses) {
+            throw new IOException(path + " does not match the inputs of "
+                    + term);
+        }
+        final int[] studentIds = new int[numStudents];
+        final int[] classIds = new int[numClasses];
+        final int[] classStudents = new int[numClasses];
+        ints.position(HEADER_INTS);
+        ints.get(studentIds).get(classIds).get(classStudents);
+        return new Term(term, instance, studentIds, classIds, classStudents);
+    }
+
+    /**
+     * Checks that a term name can be used as a file name.
+     *
+     * @param term The name of the term.
+     * @throws IllegalArgumentException If the name is invalid.
+     */
+    private static void checkName(String term) {
+        if (!TERM_NAME.matcher(term).matches()) {
+            throw new IllegalArgumentException("Invalid term name: " + term);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * This class checks an extracted solution against the problem instance,
+ * without the solver, the eligibility index or the eligible pairs, so that
+ * a bug in a faster code path cannot hide itself. It is a SolutionWriter
+ * sink: write the solution into it, then call verify. Every assignment must
+ * have both preferences positive and no registered slot of the student on
+ * an assigned slot of the class, every class may have one student, every
+ * student may work the maximum hours, and the satisfaction is recomputed
+ * from the preferences. The solution is also compared with a bound that
+ * gives each class its best eligible student. The students and classes are
+ * checked in parallel.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class SolutionVerifier implements SolutionWriter.Sink {
+    private static final int NUM_WEEKDAYS = 5;  // Weekdays with slots.
+    private static final int MAX_MESSAGES = 20;  // Violations described.
+    private static final double TOLERANCE = 1e-6;  // Relative tolerance of
+                                                   // objective comparisons.
+    private final ProblemInstance instance;  // Instance of the solution.
+    private final int maxHoursPerStudent;  // Maximum hours per student.
+    private final double profWeight;  // Relative weight for professor
+                                      // preferences.
+    private final double studWeight;  // Relative weight for student
+                                      // preferences.
+    private final int[] classStudents;  // Student of each class, or -1.
+    private final List<String> messages = new ArrayList<>();  // Violations
+                                            // found while reading records.
+    private int violations;  // Violations found while reading records.
+
+    /**
+     * This class represents the outcome of a verification.
+     */
+    public static final class Result {
+        private final int violations;  // Number of violations.
+        private final List<String> messages;  // The first violations.
+        private final double objectiveValue;  // Recomputed satisfaction.
+        private final double upperBound;  // Independent upper bound.
+
+        /**
+         * Constructor to initialize a result.
+         *
+         * @param violations The number of violations.
+         * @param messages The descriptions of the first violations.
+         * @param objectiveValue The recomputed satisfaction.
+         * @param upperBound The independent upper bound.
+         */
+        Result(int violations, List<String> messages, double objectiveValue,
+               double upperBound) {
+            this.violations = violations;
+            this.messages = Collections.unmodifiableList(messages);
+            this.objectiveValue = objectiveValue;
+            this.upperBound = upperBound;
+        }
+
+        /**
+         * Checks if the solution passed every check.
+         *
+         * @return true if there is no violation.
+         */
+        public boolean isValid() {
+            return violations == 0;
+        }
+
+        /**
+         * Getter of the number of violations.
+         *
+         * @return The number of violations.
+         */
+        public int getViolations() {
+            return violations;
+        }
+
+        /**
+         * Getter of the descriptions of the first violations.
+         *
+         * @return The descriptions, at most MAX_MESSAGES.
+         */
+        public List<String> getMessages() {
+            return messages;
+        }
+
+        /**
+         * Getter of the recomputed objective value.
+         *
+         * @return The satisfaction of the assignments, from the instance.
+         */
+        public double getObjectiveValue() {
+            return objectiveValue;
+        }
+
+        /**
+         * Getter of the independent upper bound.
+         *
+         * @return The sum over classes of the best eligible weight.
+         */
+        public double getUpperBound() {
+            return upperBound;
+        }
+    }
+
+    /**
+     * Constructor to verify a solution with the default weights.
+     *
+     * @param instance The problem instance.
+     * @param maxHoursPerStudent The maximum hours per student.
+     */
+    public SolutionVerifier(ProblemInstance instance, int maxHoursPerStudent) {
+        this(instance, maxHoursPerStudent,
+                StudentEmploymentAssignment.preferenceWeight(1, 0),
+                StudentEmploymentAssignment.preferenceWeight(0, 1));
+    }
+
+    /**
+     * Constructor to verify a solution with given weights.
+     *
+     * @param instance The problem instance.
+     * @param maxHoursPerStudent The maximum hours per student.
+     * @param profWeight The relative weight for professor preferences.
+     * @param studWeight The relative weight for student preferences.
+     */
+    public SolutionVerifier(ProblemInstance instance, int maxHoursPerStudent,
+                            double profWeight, double studWeight) {
+        this.instance = instance;
+        this.maxHoursPerStudent = maxHoursPerStudent;
+        this.profWeight = profWeight;
+        this.studWeight = studWeight;
+        this.classStudents = new int[instance.numClasses()];
+        Arrays.fill(this.classStudents, -1);
+    }
+
+    /**
+     * Verifies the solution of a solved problem with the default preference
+     * weights, against the objective and bound the problem reports.
+     *
+     * @param problem The solved problem.
+     * @return The result of the checks.
+     */
+    public static Result check(StudentEmploymentAssignment problem) {
+        final SolutionVerifier verifier = new SolutionVerifier(
+                problem.getInstance(), problem.getMaxHoursPerStudent());
+        try {
+            SolutionWriter.write(problem, verifier, false, false);
+        } catch (IOException e) {
+            // The verifier takes every record without I/O.
+            throw new UncheckedIOException(e);
+        }
+        return verifier.verify(problem.getObjectiveValue(),
+                problem.getBestBound());
+    }
+
+    @Override
+    public void assignment(int s, int c, int hours, double weight) {
+        if (s < 0 || s >= this.instance.numStudents()
+                || c < 0 || c >= this.classStudents.length) {
+            this.violation("Student " + s + " or class " + c
+                    + " does not exist");
+        } else if (this.classStudents[c] >= 0) {
+            this.violation("Class " + c + " is assigned to students "
+                    + this.classStudents[c] + " and " + s);
+        } else {
+            this.classStudents[c] = s;
+        }
+    }
+
+    @Override
+    public void studentSummary(int s, int classes, int hours,
+                               double satisfaction) {
+    }
+
+    @Override
+    public void unassignedClass(int c, int hours) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Records a violation found while reading records.
+     *
+     * @param message The description of the violation.
+     */
+    private void violation(String message) {
+        this.violations++;
+        if (this.messages.size() < MAX_MESSAGES) {
+            this.messages.add(message);
+        }
+    }
+
+    /**
+     * Checks the assignments written so far and compares their satisfaction
+     * with what the solver reported.
+     *
+     * @param reportedObjective The objective value the solver reported.
+     * @param reportedBound The best bound the solver reported, or NaN.
+     * @return The result of the checks.
+     */
+    public Result verify(double reportedObjective, double reportedBound) {
+        final int numStudents = this.instance.numStudents();
+        final int numClasses = this.classStudents.length;
+        // Classes of each student, in CSR form, from the class students.
+        final int[] start = new int[numStudents + 1];
+        for (final int s : this.classStudents) {
+            if (s >= 0) {
+                start[s + 1]++;
+            }
+        }
+        for (int s = 0; s < numStudents; s++) {
+            start[s + 1] += start[s];
+        }
+        final int[] classes = new int[start[numStudents]];
+        final int[] next = Arrays.copyOf(start, numStudents);
+        for (int c = 0; c < numClasses; c++) {
+            if (this.classStudents[c] >= 0) {
+                classes[next[this.classStudents[c]]++] = c;
+            }
+        }
+
+        final String[] studentMessages = new String[numStudents];
+        final double[] satisfaction = new double[numStudents];
+        IntStream.range(0, numStudents).parallel().forEach(s -> {
+            int hours = 0;
+            for (int i = start[s]; i < start[s + 1]; i++) {
+                final int c = classes[i];
+                if (!this.isEligible(s, c)) {
+                    studentMessages[s] = "Student " + s
+                            + " cannot take class " + c;
+                }
+                hours += this.instance.hoursPerClass(c);
+                satisfaction[s] += this.weight(s, c);
+            }
+            if (hours > this.maxHoursPerStudent) {
+                studentMessages[s] = "Student " + s + " works " + hours
+                        + " hours";
+            }
+        });
+        final double upperBound = IntStream.range(0, numClasses).parallel()
+                .mapToDouble(this::bestWeight).sum();
+
+        int count = this.violations;
+        final List<String> found = new ArrayList<>(this.messages);
+        for (final String message : studentMessages) {
+            if (message != null) {
+                count++;
+                if (found.size() < MAX_MESSAGES) {
+                    found.add(message);
+                }
+            }
+        }
+        double objectiveValue = 0.0;
+        for (final double value : satisfaction) {
+            objectiveValue += value;
+        }
+        final double tolerance =
+                TOLERANCE * Math.max(1.0, Math.abs(objectiveValue));
+        if (Math.abs(objectiveValue - reportedObjective) > tolerance) {
+            count++;
+            found.add("Reported objective " + reportedObjective
+                    + " differs from the recomputed " + objectiveValue);
+        }
+        if (objectiveValue > upperBound + tolerance) {
+            count++;
+            found.add("Objective " + objectiveValue
+                    + " exceeds the upper bound " + upperBound);
+        }
+        if (reportedBound < objectiveValue - tolerance) {
+            count++;
+            found.add("Reported bound " + reportedBound
+                    + " is below the objective " + objectiveValue);
+        }
+        return new Result(count, found, objectiveValue, upperBound);
+    }
+
+    /**
+     * Checks if a student can take a class: both preferences are positive
+     * and the student has no registered slot on an assigned slot of the
+     * class.
+     *
+     * @param s The student index.
+     * @param c The class index.
+     * @return true if the pair can be assigned.
+     */
+    private boolean isEligible(int s, int c) {
+        if (this.instance.profPreference(s, c) <= 0
+                || this.instance.studPreference(s, c) <= 0) {
+            return false;
+        }
+        for (int d = 0; d < NUM_WEEKDAYS; d++) {
+            final int slot = this.instance.classSlot(c, d);
+            if (slot == 0) {
+                continue;
+            }
+            for (int i = 0; i < this.instance.numRegisteredSlots(s, d); i++) {
+                if (this.instance.registeredSlot(s, d, i) == slot) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the weighted preference of a pair.
+     *
+     * @param s The student index.
+     * @param c The class index.
+     * @return The weight of the pair.
+     */
+    private double weight(int s, int c) {
+        return this.instance.profPreference(s, c) * this.profWeight
+                + this.instance.studPreference(s, c) * this.studWeight;
+    }
+
+    /**
+     * Finds the best weight of a class over the students who can take it.
+     *
+     * @param c The class index.
+     * @return The best weight, or 0 if no student can take the class.
+     */
+    private double bestWeight(int c) {
+        double best = 0.0;
+        for (int s = 0; s < this.instance.numStudents(); s++) {
+            final double weight = this.weight(s, c);
+            if (weight > best && this.isEligible(s, c)) {
+                best = weight;
+            }
+        }
+        return best;
+    }
+}
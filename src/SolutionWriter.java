@@ -0,0 +1,306 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * This class streams a solution to a pluggable sink. Only the eligible pairs
+ * are visited, in student order: the assignments of each student, then the
+ * student's summary if requested, and finally the classes left unassigned
+ * if requested. Sinks for CSV, JSON Lines and a binary format are provided.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class SolutionWriter {
+    static final byte ASSIGNMENT_RECORD = 1;  // Binary tag of an assignment.
+    static final byte STUDENT_RECORD = 2;  // Binary tag of a summary.
+    static final byte UNASSIGNED_RECORD = 3;  // Binary tag of an unassigned
+                                              // class.
+
+    /**
+     * This interface receives the records of a solution.
+     */
+    public interface Sink extends Closeable {
+        /**
+         * Receives an assigned student-class pair.
+         *
+         * @param s The student index.
+         * @param c The class index.
+         * @param hours The hours per week of the class.
+         * @param weight The weighted preference of the pair.
+         * @throws IOException If an I/O error occurs.
+         */
+        void assignment(int s, int c, int hours, double weight)
+                throws IOException;
+
+        /**
+         * Receives the summary of a student, after their assignments.
+         *
+         * @param s The student index.
+         * @param classes The number of classes assigned to the student.
+         * @param hours The total hours assigned to the student.
+         * @param satisfaction The total weighted preference of the student.
+         * @throws IOException If an I/O error occurs.
+         */
+        void studentSummary(int s, int classes, int hours,
+                            double satisfaction) throws IOException;
+
+        /**
+         * Receives a class that has no student.
+         *
+         * @param c The class index.
+         * @param hours The hours per week of the class.
+         * @throws IOException If an I/O error occurs.
+         */
+        void unassignedClass(int c, int hours) throws IOException;
+    }
+
+    /**
+     * This class builds each text record of a sink in one reused buffer and
+     * copies it to the writer, so that no String is created per record.
+     */
+    private static final class RecordBuffer {
+        private final BufferedWriter writer;  // Destination of the records.
+        private final StringBuilder line;  // Record being built.
+        private char[] chars = new char[128];  // Characters of the record,
+                                               // as the writer takes them.
+
+        /**
+         * Constructor to initialize a buffer for a writer.
+         *
+         * @param writer The destination of the records.
+         */
+        RecordBuffer(BufferedWriter writer) {
+            this.writer = writer;
+            this.line = new StringBuilder(chars.length);
+        }
+
+        /**
+         * Starts a new record.
+         *
+         * @return The empty buffer to append the record to.
+         */
+        StringBuilder start() {
+            line.setLength(0);
+            return line;
+        }
+
+        /**
+         * Writes the record built since start().
+         *
+         * @throws IOException If an I/O error occurs.
+         */
+        void write() throws IOException {
+            final int length = line.length();
+            if (length > chars.length) {
+                chars = new char[Math.max(length, 2 * chars.length)];
+            }
+            line.getChars(0, length, chars, 0);
+            writer.write(chars, 0, length);
+        }
+    }
+
+    /**
+     * Private constructor, since this class only holds static helpers.
+     */
+    private SolutionWriter() {
+    }
+
+    /**
+     * Streams the solution of a solved problem to a sink. The sink is not
+     * closed.
+     *
+     * @param problem The solved problem.
+     * @param sink The receiver of the records.
+     * @param studentSummaries true to write a summary after each student.
+     * @param unassignedClasses true to write the classes with no student.
+     * @throws IOException If the sink fails.
+     */
+    public static void write(StudentEmploymentAssignment problem, Sink sink,
+                             boolean studentSummaries,
+                             boolean unassignedClasses) throws IOException {
+        final EligiblePairs pairs = problem.pairs;
+        final double[] values = problem.pairValues;
+        final ProblemInstance instance = problem.getInstance();
+        final boolean[] covered = new boolean[pairs.numClasses()];
+        for (int s = 0; s < pairs.numStudents(); s++) {
+            int classes = 0;
+            int hours = 0;
+            double satisfaction = 0.0;
+            for (int p = pairs.studentStart(s); p < pairs.studentEnd(s);
+                 p++) {
+                if (values[p] > 0.5) {
+                    final int c = pairs.classOf(p);
+                    final int classHours = instance.hoursPerClass(c);
+                    sink.assignment(s, c, classHours, pairs.weight(p));
+                    covered[c] = true;
+                    classes++;
+                    hours += classHours;
+                    satisfaction += pairs.weight(p);
+                }
+            }
+            if (studentSummaries) {
+                sink.studentSummary(s, classes, hours, satisfaction);
+            }
+        }
+        if (unassignedClasses) {
+            for (int c = 0; c < covered.length; c++) {
+                if (!covered[c]) {
+                    sink.unassignedClass(c, instance.hoursPerClass(c));
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a CSV sink. Every row has the columns record, student, class,
+     * classes, hours and satisfaction, and columns that do not apply to a
+     * record are left empty.
+     *
+     * @param out The writer to write to. It is buffered by the sink and
+     *            closed when the sink is closed.
+     * @return The sink.
+     * @throws IOException If the header cannot be written.
+     */
+    public static Sink csv(Writer out) throws IOException {
+        final BufferedWriter writer = new BufferedWriter(out, 1 << 16);
+        writer.write("record,student,class,classes,hours,satisfaction\n");
+        final RecordBuffer record = new RecordBuffer(writer);
+        return new Sink() {
+            @Override
+            public void assignment(int s, int c, int hours, double weight)
+                    throws IOException {
+                record.start().append("assignment,").append(s).append(',')
+                        .append(c).append(",,").append(hours).append(',')
+                        .append(weight).append('\n');
+                record.write();
+            }
+
+            @Override
+            public void studentSummary(int s, int classes, int hours,
+                                       double satisfaction)
+                    throws IOException {
+                record.start().append("student,").append(s).append(",,")
+                        .append(classes).append(',').append(hours)
+                        .append(',').append(satisfaction).append('\n');
+                record.write();
+            }
+
+            @Override
+            public void unassignedClass(int c, int hours) throws IOException {
+                record.start().append("unassigned,,").append(c).append(",,")
+                        .append(hours).append(",\n");
+                record.write();
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+            }
+        };
+    }
+
+    /**
+     * Creates a JSON Lines sink, one object per record with a "type" field
+     * of "assignment", "student" or "unassigned".
+     *
+     * @param out The writer to write to. It is buffered by the sink and
+     *            closed when the sink is closed.
+     * @return The sink.
+     */
+    public static Sink jsonLines(Writer out) {
+        final BufferedWriter writer = new BufferedWriter(out, 1 << 16);
+        final RecordBuffer record = new RecordBuffer(writer);
+        return new Sink() {
+            @Override
+            public void assignment(int s, int c, int hours, double weight)
+                    throws IOException {
+                record.start().append("{\"type\":\"assignment\",\"student\":")
+                        .append(s).append(",\"class\":").append(c)
+                        .append(",\"hours\":").append(hours)
+                        .append(",\"weight\":").append(weight).append("}\n");
+                record.write();
+            }
+
+            @Override
+            public void studentSummary(int s, int classes, int hours,
+                                       double satisfaction)
+                    throws IOException {
+                record.start().append("{\"type\":\"student\",\"student\":")
+                        .append(s).append(",\"classes\":").append(classes)
+                        .append(",\"hours\":").append(hours)
+                        .append(",\"satisfaction\":").append(satisfaction)
+                        .append("}\n");
+                record.write();
+            }
+
+            @Override
+            public void unassignedClass(int c, int hours) throws IOException {
+                record.start().append("{\"type\":\"unassigned\",\"class\":")
+                        .append(c).append(",\"hours\":").append(hours)
+                        .append("}\n");
+                record.write();
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+            }
+        };
+    }
+
+    /**
+     * Creates a binary sink. Each record is a tag byte followed by its
+     * fields, big-endian as written by DataOutputStream: an assignment
+     * (tag 1) holds the student, class and hours as ints and the weight as a
+     * double; a summary (tag 2) holds the student, classes and hours as ints
+     * and the satisfaction as a double; an unassigned class (tag 3) holds
+     * the class and hours as ints.
+     *
+     * @param out The stream to write to. It is buffered by the sink and
+     *            closed when the sink is closed.
+     * @return The sink.
+     */
+    public static Sink binary(OutputStream out) {
+        final DataOutputStream data = new DataOutputStream(
+                new BufferedOutputStream(out, 1 << 16));
+        return new Sink() {
+            @Override
+            public void assignment(int s, int c, int hours, double weight)
+                    throws IOException {
+                data.writeByte(ASSIGNMENT_RECORD);
+                data.writeInt(s);
+                data.writeInt(c);
+                data.writeInt(hours);
+                data.writeDouble(weight);
+            }
+
+            @Override
+            public void studentSummary(int s, int classes, int hours,
+                                       double satisfaction)
+                    throws IOException {
+                data.writeByte(STUDENT_RECORD);
+                data.writeInt(s);
+                data.writeInt(classes);
+                data.writeInt(hours);
+                data.writeDouble(satisfaction);
+            }
+
+            @Override
+            public void unassignedClass(int c, int hours) throws IOException {
+                data.writeByte(UNASSIGNED_RECORD);
+                data.writeInt(c);
+                data.writeInt(hours);
+            }
+
+            @Override
+            public void close() throws IOException {
+                data.close();
+            }
+        };
+    }
+}
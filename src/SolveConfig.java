@@ -0,0 +1,321 @@
+import com.google.ortools.linearsolver.MPSolver;
+import com.google.ortools.linearsolver.MPSolverParameters;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds the settings passed to the MIP solver: wall-clock limit,
+ * relative gap, thread count, any other MPSolverParameters and
+ * solver-specific parameters, plus an optional listener that receives each
+ * improved incumbent while the solve runs.
+ *
+ * <p>OR-Tools does not call back into Java during a solve, so incumbents are
+ * streamed by solving in time slices: each slice is warm-started from the
+ * previous incumbent, the listener is called whenever a slice improves it,
+ * and slices double in length until the problem is solved, the gap is
+ * reached, the time limit runs out or the listener asks to stop.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class SolveConfig {
+    private long timeLimitMillis;  // Wall-clock limit, 0 for none.
+    private double relativeGap = Double.NaN;  // Relative MIP gap, NaN for
+                                              // the solver default.
+    private int numThreads;  // Solver threads, 0 for the solver default.
+    // Plain maps, since an EnumMap reads the constants of its enum, which
+    // are native values, and configurations are created before the native
+    // libraries are loaded, or without them for the pure-Java engines.
+    private final Map<MPSolverParameters.DoubleParam, Double> doubleParams =
+            new HashMap<>();  // Other double parameters.
+    private final Map<MPSolverParameters.IntegerParam, Integer> intParams =
+            new HashMap<>();  // Other integer parameters.
+    private String solverSpecificParameters;  // Solver-specific parameters
+                                              // text, null for none.
+    private IncumbentListener listener;  // Receiver of improved incumbents.
+    private long firstSliceMillis = 1000;  // Length of the first time slice
+                                           // when a listener is set.
+    private IncumbentPool pool;  // Incumbents shared with concurrent solves.
+
+    /**
+     * This interface receives the improved incumbents of a running solve.
+     */
+    public interface IncumbentListener {
+        /**
+         * Called when a better solution has been found.
+         *
+         * @param objectiveValue The objective value of the incumbent.
+         * @param bestBound The best bound known when it was found.
+         * @param elapsedMillis The time since the solve started.
+         * @return true to keep solving, false to stop and keep the
+         * incumbent.
+         */
+        boolean onIncumbent(double objectiveValue, double bestBound,
+                            long elapsedMillis);
+    }
+
+    /**
+     * Sets the wall-clock limit of the solve. When components are solved
+     * separately, they share this limit: each component gets the time left
+     * until the limit of the whole solve.
+     *
+     * @param millis The limit in milliseconds, 0 for none.
+     * @return This configuration.
+     */
+    public SolveConfig timeLimit(long millis) {
+        this.timeLimitMillis = millis;
+        return this;
+    }
+
+    /**
+     * Sets the relative MIP gap at which the solver stops.
+     *
+     * @param gap The gap as a fraction of the bound, such as 0.01.
+     * @return This configuration.
+     */
+    public SolveConfig relativeGap(double gap) {
+        this.relativeGap = gap;
+        return this;
+    }
+
+    /**
+     * Sets the number of solver threads. For CP-SAT this is the number of
+     * search workers. SCIP always runs on one thread, since OR-Tools runs
+     * its concurrent mode for more than one, and that mode intermittently
+     * crashes the JVM when a solve stops on its time limit, so a SCIP solve
+     * lists "threads" under the ignored settings of its SolveReport.
+     *
+     * @param threads The number of threads, 0 for the solver default.
+     * @return This configuration.
+     */
+    public SolveConfig threads(int threads) {
+        this.numThreads = threads;
+        return this;
+    }
+
+    /**
+     * Sets another double parameter of MPSolverParameters. CP-SAT does not
+     * read MPSolverParameters, so a CP-SAT solve lists "parameters" under
+     * the ignored settings of its SolveReport.
+     *
+     * @param param The parameter.
+     * @param value The value.
+     * @return This configuration.
+     */
+    public SolveConfig parameter(MPSolverParameters.DoubleParam param,
+                                 double value) {
+        this.doubleParams.put(param, value);
+        return this;
+    }
+
+    /**
+     * Sets another integer parameter of MPSolverParameters. CP-SAT does not
+     * read MPSolverParameters, so a CP-SAT solve lists "parameters" under
+     * the ignored settings of its SolveReport.
+     *
+     * @param param The parameter.
+     * @param value The value.
+     * @return This configuration.
+     */
+    public SolveConfig parameter(MPSolverParameters.IntegerParam param,
+                                 int value) {
+        this.intParams.put(param, value);
+        return this;
+    }
+
+    /**
+     * Sets solver-specific parameters, in the solver's own text format.
+     *
+     * @param parameters The parameters, such as "limits/nodes = 1000" for
+     *                   SCIP or "log_search_progress: true" for CP-SAT.
+     * @return This configuration.
+     */
+    public SolveConfig solverSpecificParameters(String parameters) {
+        this.solverSpecificParameters = parameters;
+        return this;
+    }
+
+    /**
+     * Sets the listener of improved incumbents.
+     *
+     * @param listener The listener, null for none.
+     * @return This configuration.
+     */
+    public SolveConfig incumbentListener(IncumbentListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Sets the length of the first time slice used to stream incumbents.
+     *
+     * @param millis The length in milliseconds.
+     * @return This configuration.
+     */
+    public SolveConfig firstSlice(long millis) {
+        this.firstSliceMillis = millis;
+        return this;
+    }
+
+    /**
+     * Sets the pool of incumbents shared with concurrent solves of the same
+     * problem. Streamed MIP solves offer each improved incumbent to it and
+     * warm-start their next slice from the pool when it holds a better one.
+     *
+     * @param pool The pool, null for none.
+     * @return This configuration.
+     */
+    public SolveConfig incumbentPool(IncumbentPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Returns a copy of this configuration, so that one solve can change
+     * its settings without affecting others.
+     *
+     * @return The copy.
+     */
+    public SolveConfig copy() {
+        final SolveConfig copy = new SolveConfig();
+        copy.timeLimitMillis = this.timeLimitMillis;
+        copy.relativeGap = this.relativeGap;
+        copy.numThreads = this.numThreads;
+        copy.doubleParams.putAll(this.doubleParams);
+        copy.intParams.putAll(this.intParams);
+        copy.solverSpecificParameters = this.solverSpecificParameters;
+        copy.listener = this.listener;
+        copy.firstSliceMillis = this.firstSliceMillis;
+        copy.pool = this.pool;
+        return copy;
+    }
+
+    /**
+     * Getter of the wall-clock limit.
+     *
+     * @return The limit in milliseconds, 0 for none.
+     */
+    public long getTimeLimit() {
+        return timeLimitMillis;
+    }
+
+    /**
+     * Getter of the relative gap.
+     *
+     * @return The gap, or NaN for the solver default.
+     */
+    public double getRelativeGap() {
+        return relativeGap;
+    }
+
+    /**
+     * Getter of the number of threads.
+     *
+     * @return The number of threads, 0 for the solver default.
+     */
+    public int getThreads() {
+        return numThreads;
+    }
+
+    /**
+     * Getter of the solver-specific parameters.
+     *
+     * @return The parameters text, or null if none.
+     */
+    public String getSolverSpecificParameters() {
+        return solverSpecificParameters;
+    }
+
+    /**
+     * Getter of the incumbent listener.
+     *
+     * @return The listener, or null if none.
+     */
+    public IncumbentListener getIncumbentListener() {
+        return listener;
+    }
+
+    /**
+     * Getter of the length of the first time slice.
+     *
+     * @return The length in milliseconds.
+     */
+    public long getFirstSlice() {
+        return firstSliceMillis;
+    }
+
+    /**
+     * Getter of the shared incumbent pool.
+     *
+     * @return The pool, or null if none.
+     */
+    public IncumbentPool getIncumbentPool() {
+        return pool;
+    }
+
+    /**
+     * Lists the settings of this configuration that a backend does not
+     * apply: the thread count on SCIP, and the MPSolverParameters on CP-SAT.
+     *
+     * @param backend The backend the models are solved with.
+     * @return The names of the ignored settings, empty if none.
+     */
+    List<String> ignoredBy(StudentEmploymentAssignment.Backend backend) {
+        final List<String> ignored = new ArrayList<>();
+        if (this.numThreads > 1
+                && backend == StudentEmploymentAssignment.Backend.SCIP) {
+            ignored.add("threads");
+        }
+        if ((!this.doubleParams.isEmpty() || !this.intParams.isEmpty())
+                && backend == StudentEmploymentAssignment.Backend.CP_SAT) {
+            ignored.add("parameters");
+        }
+        return ignored;
+    }
+
+    /**
+     * Applies the thread count and solver-specific parameters to a solver.
+     * The time limit is set by the caller, since it changes per slice.
+     *
+     * @param solver The solver.
+     */
+    void applyTo(MPSolver solver) {
+        if (this.numThreads > 0 && solver.problemType()
+                != MPSolver.OptimizationProblemType
+                .SCIP_MIXED_INTEGER_PROGRAMMING) {
+            solver.setNumThreads(this.numThreads);
+        }
+        if (this.solverSpecificParameters != null) {
+            solver.setSolverSpecificParametersAsString(
+                    this.solverSpecificParameters
+            );
+        }
+    }
+
+    /**
+     * Creates the MPSolverParameters of this configuration.
+     *
+     * @return The parameters to pass to MPSolver.solve.
+     */
+    MPSolverParameters toParameters() {
+        final MPSolverParameters parameters = new MPSolverParameters();
+        if (!Double.isNaN(this.relativeGap)) {
+            parameters.setDoubleParam(
+                    MPSolverParameters.DoubleParam.RELATIVE_MIP_GAP,
+                    this.relativeGap
+            );
+        }
+        for (final Map.Entry<MPSolverParameters.DoubleParam, Double> entry
+                : this.doubleParams.entrySet()) {
+            parameters.setDoubleParam(entry.getKey(), entry.getValue());
+        }
+        for (final Map.Entry<MPSolverParameters.IntegerParam, Integer> entry
+                : this.intParams.entrySet()) {
+            parameters.setIntegerParam(entry.getKey(), entry.getValue());
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,541 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents the report of one solve: wall and CPU time of each
+ * phase, size of the model, number of filtered pairs, solver statistics and
+ * the final objective and bound. It can be written as JSON or exported as
+ * tagged metrics.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class SolveReport {
+    private static final ThreadMXBean THREADS =
+            ManagementFactory.getThreadMXBean();  // Source of CPU times.
+    private final List<Phase> phases = new ArrayList<>();  // Timed phases in
+                                                           // recording order.
+    private long lastWall;  // Wall time at the end of the last lap.
+    private long lastCpu;  // CPU time at the end of the last lap.
+    private final int numStudents;  // Number of students.
+    private final int numClasses;  // Number of classes.
+    private int eligiblePairs;  // Pairs that passed the eligibility filter.
+    private int fixedPairs;  // Pairs fixed to 1 by the presolve.
+    private int droppedPairs;  // Pairs removed by the presolve.
+    private int mergedClasses;  // Classes merged into identical ones.
+    private int reducedCostFixed;  // Columns fixed to 0 by reduced costs.
+    private int components;  // Models solved, one per connected component.
+    private long variables;  // Variables of the solver models.
+    private long constraints;  // Constraints of the solver models.
+    private long nonZeros;  // Non-zero coefficients of the constraints.
+    private long solverWallMillis;  // Wall time reported by the solvers.
+    private long nodes;  // Branch-and-bound nodes explored.
+    private long iterations;  // Simplex iterations.
+    private String engine;  // Engine that produced the solution.
+    private String backend;  // Backend of the MIP models, or null.
+    private List<String> ignoredSettings =
+            Collections.emptyList();  // Settings the backend did not apply.
+    private SolveStatus status;  // Result status of the solve.
+    private double objectiveValue = Double.NaN;  // Final objective value.
+    private double bestBound = Double.NaN;  // Final best bound.
+
+    /**
+     * This interface receives exported metrics. A Micrometer registry can be
+     * plugged in with a lambda that registers a gauge per call.
+     */
+    public interface MetricSink {
+        /**
+         * Records one metric value.
+         *
+         * @param name The dotted metric name.
+         * @param tags The tags of the metric.
+         * @param value The value of the metric.
+         */
+        void record(String name, Map<String, String> tags, double value);
+    }
+
+    /**
+     * This class represents the wall and CPU time of one phase.
+     */
+    public static final class Phase {
+        private final String name;  // Name of the phase.
+        private final long wallNanos;  // Wall time of the phase.
+        private final long cpuNanos;  // CPU time of the calling thread, or -1
+                                      // if unavailable.
+
+        /**
+         * Constructor to initialize a phase.
+         *
+         * @param name The name of the phase.
+         * @param wallNanos The wall time in nanoseconds.
+         * @param cpuNanos The CPU time in nanoseconds, or -1.
+         */
+        Phase(String name, long wallNanos, long cpuNanos) {
+            this.name = name;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+        }
+
+        /**
+         * Getter of the phase name.
+         *
+         * @return The name of the phase.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Getter of the wall time.
+         *
+         * @return The wall time in nanoseconds.
+         */
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        /**
+         * Getter of the CPU time of the thread that ran the phase. Work done
+         * on other threads, such as component solves, is not included.
+         *
+         * @return The CPU time in nanoseconds, or -1 if unavailable.
+         */
+        public long getCpuNanos() {
+            return cpuNanos;
+        }
+    }
+
+    /**
+     * Constructor to start a report. The first lap is measured from here.
+     *
+     * @param numStudents The number of students.
+     * @param numClasses The number of classes.
+     */
+    public SolveReport(int numStudents, int numClasses) {
+        this.numStudents = numStudents;
+        this.numClasses = numClasses;
+        this.lastWall = System.nanoTime();
+        this.lastCpu = cpuTimeNanos();
+    }
+
+    /**
+     * Returns the CPU time of the current thread.
+     *
+     * @return The CPU time in nanoseconds, or -1 if the JVM does not measure
+     * it.
+     */
+    public static long cpuTimeNanos() {
+        return THREADS.isCurrentThreadCpuTimeSupported()
+                ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    /**
+     * Records a phase that ends now and started at the end of the previous
+     * lap.
+     *
+     * @param name The name of the phase.
+     */
+    void lap(String name) {
+        final long wall = System.nanoTime();
+        final long cpu = cpuTimeNanos();
+        this.addPhase(name, wall - this.lastWall,
+                cpu < 0 || this.lastCpu < 0 ? -1 : cpu - this.lastCpu);
+        this.lastWall = wall;
+        this.lastCpu = cpu;
+    }
+
+    /**
+     * Records a phase timed by the caller, such as parsing the input before
+     * the solve.
+     *
+     * @param name The name of the phase.
+     * @param wallNanos The wall time in nanoseconds.
+     * @param cpuNanos The CPU time in nanoseconds, or -1.
+     */
+    public void addPhase(String name, long wallNanos, long cpuNanos) {
+        this.phases.add(new Phase(name, wallNanos, cpuNanos));
+    }
+
+    /**
+     * Records the number of pairs that passed the eligibility filter.
+     *
+     * @param eligiblePairs The number of eligible pairs.
+     */
+    void setEligiblePairs(int eligiblePairs) {
+        this.eligiblePairs = eligiblePairs;
+    }
+
+    /**
+     * Records the reductions of the presolve.
+     *
+     * @param fixedPairs The pairs fixed to 1.
+     * @param droppedPairs The pairs removed.
+     * @param mergedClasses The classes merged into an identical class.
+     */
+    void setPresolve(int fixedPairs, int droppedPairs, int mergedClasses) {
+        this.fixedPairs = fixedPairs;
+        this.droppedPairs = droppedPairs;
+        this.mergedClasses = mergedClasses;
+    }
+
+    /**
+     * Records the columns removed by reduced-cost fixing.
+     *
+     * @param columns The columns fixed to 0.
+     */
+    void setReducedCostFixed(int columns) {
+        this.reducedCostFixed = columns;
+    }
+
+    /**
+     * Adds the size and statistics of a solved model. Called once per
+     * component when components are solved separately.
+     *
+     * @param model The model, after solve.
+     * @param nonZeros The non-zero coefficients of the model's constraints.
+     */
+    void addModel(SolverBackend model, long nonZeros) {
+        this.components++;
+        this.variables += model.numVariables();
+        this.constraints += model.numConstraints();
+        this.nonZeros += nonZeros;
+        this.solverWallMillis += model.wallMillis();
+        this.nodes += model.nodes();
+        this.iterations += model.iterations();
+    }
+
+    /**
+     * Adds the iterations of an engine that builds no solver model, such as
+     * the subgradient steps of the Lagrangian engine or the pricing rounds
+     * of column generation.
+     *
+     * @param iterations The iterations performed.
+     */
+    void addIterations(long iterations) {
+        this.iterations += iterations;
+    }
+
+    /**
+     * Records the backend the MIP models were expressed against, and the
+     * settings of the solve configuration it did not apply.
+     *
+     * @param backend The name of the backend.
+     * @param ignoredSettings The names of the ignored settings.
+     */
+    void setBackend(String backend, List<String> ignoredSettings) {
+        this.backend = backend;
+        this.ignoredSettings = Collections.unmodifiableList(
+                new ArrayList<>(ignoredSettings));
+    }
+
+    /**
+     * Records the outcome of the solve.
+     *
+     * @param engine The engine that produced the solution.
+     * @param status The result status.
+     * @param objectiveValue The objective value.
+     * @param bestBound The best bound, or NaN if none.
+     */
+    void setResult(String engine, SolveStatus status,
+                   double objectiveValue, double bestBound) {
+        this.engine = engine;
+        this.status = status;
+        this.objectiveValue = objectiveValue;
+        this.bestBound = bestBound;
+    }
+
+    /**
+     * Getter of the timed phases.
+     *
+     * @return The phases in recording order.
+     */
+    public List<Phase> getPhases() {
+        return Collections.unmodifiableList(phases);
+    }
+
+    /**
+     * Getter of the number of eligible pairs.
+     *
+     * @return The pairs that passed the eligibility filter.
+     */
+    public int getEligiblePairs() {
+        return eligiblePairs;
+    }
+
+    /**
+     * Returns the number of pairs filtered out as ineligible.
+     *
+     * @return The student-class pairs without a variable.
+     */
+    public long getIneligiblePairs() {
+        return (long) numStudents * numClasses - eligiblePairs;
+    }
+
+    /**
+     * Getter of the number of pairs fixed by the presolve.
+     *
+     * @return The forced assignments, 0 if the presolve did not run.
+     */
+    public int getFixedPairs() {
+        return fixedPairs;
+    }
+
+    /**
+     * Getter of the number of pairs dropped by the presolve.
+     *
+     * @return The pairs removed, 0 if the presolve did not run.
+     */
+    public int getDroppedPairs() {
+        return droppedPairs;
+    }
+
+    /**
+     * Getter of the number of classes merged by the presolve.
+     *
+     * @return The classes merged into an identical class, 0 if the presolve
+     * did not run.
+     */
+    public int getMergedClasses() {
+        return mergedClasses;
+    }
+
+    /**
+     * Getter of the number of columns fixed to 0 by reduced-cost fixing.
+     *
+     * @return The columns removed, 0 if the stage did not run.
+     */
+    public int getReducedCostFixed() {
+        return reducedCostFixed;
+    }
+
+    /**
+     * Getter of the number of solver models.
+     *
+     * @return The models solved, 0 if the engine builds none.
+     */
+    public int getComponents() {
+        return components;
+    }
+
+    /**
+     * Getter of the number of variables.
+     *
+     * @return The variables of all solver models.
+     */
+    public long getVariables() {
+        return variables;
+    }
+
+    /**
+     * Getter of the number of constraints.
+     *
+     * @return The constraints of all solver models.
+     */
+    public long getConstraints() {
+        return constraints;
+    }
+
+    /**
+     * Getter of the number of non-zero coefficients.
+     *
+     * @return The non-zero constraint coefficients of all solver models.
+     */
+    public long getNonZeros() {
+        return nonZeros;
+    }
+
+    /**
+     * Getter of the solver wall time, summed over components.
+     *
+     * @return The wall time reported by the solvers, in milliseconds.
+     */
+    public long getSolverWallMillis() {
+        return solverWallMillis;
+    }
+
+    /**
+     * Getter of the number of branch-and-bound nodes, or of branches for
+     * CP-SAT.
+     *
+     * @return The nodes explored by all solvers.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Getter of the number of simplex iterations, of conflicts for CP-SAT,
+     * of subgradient steps for the Lagrangian engine or of pricing rounds
+     * for column generation.
+     *
+     * @return The iterations of all solvers.
+     */
+    public long getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Getter of the engine.
+     *
+     * @return The name of the engine that produced the solution.
+     */
+    public String getEngine() {
+        return engine;
+    }
+
+    /**
+     * Getter of the backend.
+     *
+     * @return The name of the backend of the MIP models, or null if the
+     * engine builds none.
+     */
+    public String getBackend() {
+        return backend;
+    }
+
+    /**
+     * Getter of the settings the backend did not apply, such as "threads"
+     * for SCIP or "parameters" for CP-SAT.
+     *
+     * @return The names of the ignored settings, empty if none.
+     */
+    public List<String> getIgnoredSettings() {
+        return ignoredSettings;
+    }
+
+    /**
+     * Getter of the result status.
+     *
+     * @return The result status of the solve.
+     */
+    public SolveStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Getter of the objective value.
+     *
+     * @return The final objective value.
+     */
+    public double getObjectiveValue() {
+        return objectiveValue;
+    }
+
+    /**
+     * Getter of the best bound.
+     *
+     * @return The final best bound, or NaN if none.
+     */
+    public double getBestBound() {
+        return bestBound;
+    }
+
+    /**
+     * Writes a double as a JSON value, with null for NaN and infinities.
+     *
+     * @param value The value.
+     * @return The JSON text of the value.
+     */
+    private static String jsonNumber(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value)
+                ? "null" : Double.toString(value);
+    }
+
+    /**
+     * Writes the report as a JSON object.
+     *
+     * @return The JSON text.
+     */
+    public String toJson() {
+        final StringBuilder json = new StringBuilder();
+        json.append("{\"engine\":")
+                .append(engine == null ? "null" : "\"" + engine + "\"")
+                .append(",\"backend\":")
+                .append(backend == null ? "null" : "\"" + backend + "\"")
+                .append(",\"ignoredSettings\":[");
+        for (int i = 0; i < ignoredSettings.size(); i++) {
+            json.append(i == 0 ? "\"" : ",\"")
+                    .append(ignoredSettings.get(i)).append('"');
+        }
+        json.append(']')
+                .append(",\"status\":")
+                .append(status == null ? "null" : "\"" + status + "\"")
+                .append(",\"objective\":").append(jsonNumber(objectiveValue))
+                .append(",\"bestBound\":").append(jsonNumber(bestBound))
+                .append(",\"students\":").append(numStudents)
+                .append(",\"classes\":").append(numClasses)
+                .append(",\"eligiblePairs\":").append(eligiblePairs)
+                .append(",\"ineligiblePairs\":").append(getIneligiblePairs())
+                .append(",\"presolve\":{\"fixedPairs\":").append(fixedPairs)
+                .append(",\"droppedPairs\":").append(droppedPairs)
+                .append(",\"mergedClasses\":").append(mergedClasses)
+                .append(",\"reducedCostFixed\":").append(reducedCostFixed)
+                .append("},\"model\":{\"components\":").append(components)
+                .append(",\"variables\":").append(variables)
+                .append(",\"constraints\":").append(constraints)
+                .append(",\"nonZeros\":").append(nonZeros)
+                .append("},\"solver\":{\"wallMillis\":")
+                .append(solverWallMillis)
+                .append(",\"nodes\":").append(nodes)
+                .append(",\"iterations\":").append(iterations)
+                .append("},\"phases\":[");
+        for (int i = 0; i < phases.size(); i++) {
+            final Phase phase = phases.get(i);
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"name\":\"").append(phase.name)
+                    .append("\",\"wallNanos\":").append(phase.wallNanos)
+                    .append(",\"cpuNanos\":").append(phase.cpuNanos)
+                    .append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Exports the report as metrics. Every metric is tagged with the engine
+     * and status, and phase times are also tagged with the phase name. Times
+     * are exported in seconds.
+     *
+     * @param prefix The prefix of the metric names, such as "sea".
+     * @param sink The receiver of the metrics.
+     */
+    public void exportMetrics(String prefix, MetricSink sink) {
+        final Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("engine", String.valueOf(engine));
+        tags.put("status", String.valueOf(status));
+        for (final Phase phase : phases) {
+            final Map<String, String> phaseTags = new LinkedHashMap<>(tags);
+            phaseTags.put("phase", phase.name);
+            sink.record(prefix + ".phase.wall", phaseTags,
+                    phase.wallNanos / 1e9);
+            if (phase.cpuNanos >= 0) {
+                sink.record(prefix + ".phase.cpu", phaseTags,
+                        phase.cpuNanos / 1e9);
+            }
+        }
+        sink.record(prefix + ".pairs.eligible", tags, eligiblePairs);
+        sink.record(prefix + ".pairs.ineligible", tags, getIneligiblePairs());
+        sink.record(prefix + ".presolve.fixed", tags, fixedPairs);
+        sink.record(prefix + ".presolve.dropped", tags, droppedPairs);
+        sink.record(prefix + ".presolve.merged", tags, mergedClasses);
+        sink.record(prefix + ".presolve.reducedCostFixed", tags,
+                reducedCostFixed);
+        sink.record(prefix + ".model.components", tags, components);
+        sink.record(prefix + ".model.variables", tags, variables);
+        sink.record(prefix + ".model.constraints", tags, constraints);
+        sink.record(prefix + ".model.nonzeros", tags, nonZeros);
+        sink.record(prefix + ".solver.wall", tags, solverWallMillis / 1e3);
+        sink.record(prefix + ".solver.nodes", tags, nodes);
+        sink.record(prefix + ".solver.iterations", tags, iterations);
+        if (!Double.isNaN(objectiveValue)) {
+            sink.record(prefix + ".objective", tags, objectiveValue);
+        }
+        if (!Double.isNaN(bestBound)) {
+            sink.record(prefix + ".bound", tags, bestBound);
+        }
+    }
+}
@@ -0,0 +1,569 @@
+import com.google.ortools.Loader;
+import com.google.ortools.linearsolver.MPSolver;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class runs a long-lived solve service on a local HTTP endpoint, so
+ * callers pay for JVM startup and the native libraries once instead of per
+ * solve.
+ *
+ * <p>{@code POST /solve?dir=<input dir>} solves the five text files of a
+ * directory. Optional parameters are engine, backend and timeout, in
+ * milliseconds. The response is JSON Lines: the solve report, then the
+ * records of SolutionWriter.jsonLines if a solution was found. Parsed
+ * instances and their eligibility indexes are kept in an LRU cache keyed by
+ * the SHA-256 of the input files, so a repeated input is not parsed again.
+ *
+ * <p>Solves run on a bounded pool with a bounded queue. A request that does
+ * not fit in the queue gets 503 with Retry-After, and one that does not
+ * finish within its timeout, counted from its arrival, is stopped and gets
+ * 504. A solve that fails gets 500 with a JSON object whose error member
+ * holds the message. {@code GET /stats} reports the cache and queue
+ * counters.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class SolveService implements Closeable {
+    private static final long TIMEOUT_GRACE_MILLIS = 2000;  // Time allowed
+                                    // past the solver limit to parse and
+                                    // write the response.
+    private final int port;  // Requested port, 0 for any free port.
+    private int solveThreads =
+            Runtime.getRuntime().availableProcessors();  // Concurrent solves.
+    private int queueCapacity = 64;  // Solves that can wait for a thread.
+    private int cacheSize = 16;  // Parsed instances kept in the cache.
+    private long defaultTimeoutMillis = 60_000;  // Timeout of requests that
+                                                 // set none.
+    private SolveConfig solveConfig = new SolveConfig();  // Configuration
+                                    // every solve starts from.
+    private ExecutorService handlerExecutor;  // Executor of the HTTP
+                                              // handlers, null for a cached
+                                              // thread pool.
+    private HttpServer server;  // Running server, null until start().
+    private ThreadPoolExecutor solveExecutor;  // Bounded pool of solves.
+    private Map<String, CachedInstance> cache;  // LRU cache by content hash,
+                                                // guarded by itself.
+    private final AtomicLong cacheHits = new AtomicLong();  // Cache hits.
+    private final AtomicLong cacheMisses = new AtomicLong();  // Cache misses.
+    private final AtomicLong rejected = new AtomicLong();  // Requests refused
+                                                           // by backpressure.
+    private final AtomicLong timedOut = new AtomicLong();  // Requests stopped
+                                                           // by timeout.
+    private final AtomicLong failed = new AtomicLong();  // Requests whose
+                                                         // solve failed.
+
+    /**
+     * This class represents a parsed instance with its eligibility index.
+     */
+    private static final class CachedInstance {
+        private final CompactInstance instance;  // Parsed instance, in
+                                                 // compact storage.
+        private final EligibilityIndex eligibility;  // Eligibility index,
+                                                     // shared by its solves.
+
+        /**
+         * Constructor to parse the instance of an input directory. The
+         * parsed arrays are copied into compact storage, since the cache
+         * holds the instance for many solves.
+         *
+         * @param dir The directory with the five input files.
+         * @throws IOException If a file cannot be read or is malformed.
+         */
+        CachedInstance(Path dir) throws IOException {
+            this.instance = CompactInstance.of(InputLoader.load(dir));
+            this.eligibility = new EligibilityIndex(this.instance);
+        }
+    }
+
+    /**
+     * This class represents an HTTP response.
+     */
+    private static final class Response {
+        private final int code;  // HTTP status code.
+        private final String contentType;  // MIME type of the body.
+        private final byte[] body;  // Body of the response.
+
+        /**
+         * Constructor to initialize a response.
+         *
+         * @param code The HTTP status code.
+         * @param contentType The MIME type of the body.
+         * @param body The body text.
+         */
+        Response(int code, String contentType, String body) {
+            this.code = code;
+            this.contentType = contentType;
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Constructor to configure a service. Nothing runs until start().
+     *
+     * @param port The local port to listen on, 0 for any free port.
+     */
+    public SolveService(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Sets the number of solves that run at once.
+     *
+     * @param threads The number of solve threads.
+     * @return This service.
+     */
+    public SolveService solveThreads(int threads) {
+        this.solveThreads = threads;
+        return this;
+    }
+
+    /**
+     * Sets the number of solves that can wait for a thread before requests
+     * are refused.
+     *
+     * @param capacity The queue capacity, at least 1.
+     * @return This service.
+     */
+    public SolveService queueCapacity(int capacity) {
+        this.queueCapacity = capacity;
+        return this;
+    }
+
+    /**
+     * Sets the number of parsed instances kept in the cache.
+     *
+     * @param size The cache size.
+     * @return This service.
+     */
+    public SolveService cacheSize(int size) {
+        this.cacheSize = size;
+        return this;
+    }
+
+    /**
+     * Sets the timeout of requests that do not set their own.
+     *
+     * @param millis The timeout in milliseconds.
+     * @return This service.
+     */
+    public SolveService defaultTimeout(long millis) {
+        this.defaultTimeoutMillis = millis;
+        return this;
+    }
+
+    /**
+     * Sets the configuration every solve starts from, for the threads, gap
+     * or solver-specific parameters. The timeout of each request replaces
+     * its time limit.
+     *
+     * @param config The configuration.
+     * @return This service.
+     */
+    public SolveService solveConfig(SolveConfig config) {
+        this.solveConfig = config;
+        return this;
+    }
+
+    /**
+     * Sets the executor the HTTP handlers run on. Handlers mostly wait for
+     * their solve, so on Java 21 a virtual thread per task executor fits
+     * them well.
+     *
+     * @param executor The executor, null for a cached thread pool.
+     * @return This service.
+     */
+    public SolveService handlerExecutor(ExecutorService executor) {
+        this.handlerExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Loads the native libraries and starts listening on the loopback
+     * interface.
+     *
+     * @return This service.
+     * @throws IOException If the port cannot be bound.
+     */
+    public SolveService start() throws IOException {
+        Loader.loadNativeLibraries();
+        final int capacity = this.cacheSize;
+        this.cache = new LinkedHashMap<String, CachedInstance>(
+                16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<String, CachedInstance> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.solveExecutor = new ThreadPoolExecutor(
+                this.solveThreads, this.solveThreads, 0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity));
+        if (this.handlerExecutor == null) {
+            this.handlerExecutor = Executors.newCachedThreadPool();
+        }
+        this.server = HttpServer.create(new InetSocketAddress(
+                InetAddress.getLoopbackAddress(), this.port), 0);
+        this.server.createContext("/solve", exchange -> this.respond(exchange,
+                "POST", () -> this.solve(query(exchange))));
+        this.server.createContext("/stats", exchange -> this.respond(exchange,
+                "GET", this::stats));
+        this.server.setExecutor(this.handlerExecutor);
+        this.server.start();
+        return this;
+    }
+
+    /**
+     * Returns the port the service listens on.
+     *
+     * @return The bound port.
+     */
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * Stops listening, waits for the running solves and shuts the executors
+     * down.
+     */
+    @Override
+    public void close() {
+        if (this.server == null) {
+            return;
+        }
+        this.server.stop(0);
+        this.solveExecutor.shutdown();
+        this.handlerExecutor.shutdown();
+        try {
+            this.solveExecutor.awaitTermination(
+                    this.defaultTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.server = null;
+    }
+
+    /**
+     * This interface computes the response of a request.
+     */
+    private interface Handler {
+        /**
+         * Computes the response.
+         *
+         * @return The response.
+         * @throws IOException If the request cannot be served.
+         */
+        Response handle() throws IOException;
+    }
+
+    /**
+     * Runs a handler for a request with the expected method and sends its
+     * response. Malformed input is answered with 400, and any other failure
+     * with 500 and a JSON error, so the client always gets a response.
+     *
+     * @param exchange The HTTP exchange.
+     * @param method The expected request method.
+     * @param handler The handler of the request.
+     * @throws IOException If the response cannot be sent.
+     */
+    private void respond(HttpExchange exchange, String method,
+                         Handler handler) throws IOException {
+        Response response;
+        if (!exchange.getRequestMethod().equals(method)) {
+            response = new Response(405, "text/plain", method + " only\n");
+        } else {
+            try {
+                response = handler.handle();
+            } catch (IOException | IllegalArgumentException e) {
+                response = new Response(400, "text/plain",
+                        e.getMessage() + "\n");
+            } catch (RuntimeException e) {
+                this.failed.incrementAndGet();
+                response = new Response(500, "application/json",
+                        "{\"error\":" + jsonString(String.valueOf(
+                                e.getMessage())) + "}\n");
+            }
+        }
+        exchange.getResponseHeaders().set("Content-Type",
+                response.contentType);
+        if (response.code == 503) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+        }
+        exchange.sendResponseHeaders(response.code, response.body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response.body);
+        }
+    }
+
+    /**
+     * Parses the query parameters of a request.
+     *
+     * @param exchange The HTTP exchange.
+     * @return The parameters by name.
+     */
+    private static Map<String, String> query(HttpExchange exchange) {
+        final Map<String, String> parameters = new HashMap<>();
+        final String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (final String parameter : query.split("&")) {
+            final int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                parameters.put(
+                        URLDecoder.decode(parameter.substring(0, equals),
+                                StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(equals + 1),
+                                StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Queues a solve request and waits for it within its timeout.
+     *
+     * @param parameters The query parameters.
+     * @return The response.
+     * @throws IOException If the input cannot be read or is malformed.
+     */
+    private Response solve(Map<String, String> parameters) throws IOException {
+        final String dir = parameters.get("dir");
+        if (dir == null) {
+            throw new IllegalArgumentException("Missing parameter dir");
+        }
+        final StudentEmploymentAssignment.Engine engine =
+                StudentEmploymentAssignment.Engine.valueOf(
+                        parameters.getOrDefault("engine", "AUTO"));
+        final StudentEmploymentAssignment.Backend backend =
+                StudentEmploymentAssignment.Backend.valueOf(
+                        parameters.getOrDefault("backend", "AUTO"));
+        final long timeout = parameters.containsKey("timeout")
+                ? Long.parseLong(parameters.get("timeout"))
+                : this.defaultTimeoutMillis;
+        final long deadline = System.currentTimeMillis() + timeout;
+
+        final AtomicReference<StudentEmploymentAssignment> running =
+                new AtomicReference<>();
+        final Future<Response> future;
+        try {
+            future = this.solveExecutor.submit(() -> this.solve(
+                    Paths.get(dir), engine, backend, deadline, running));
+        } catch (RejectedExecutionException e) {
+            this.rejected.incrementAndGet();
+            return new Response(503, "text/plain", "Solve queue is full\n");
+        }
+        try {
+            return future.get(Math.max(0, deadline
+                    - System.currentTimeMillis()) + TIMEOUT_GRACE_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            this.timedOut.incrementAndGet();
+            future.cancel(true);
+            final StudentEmploymentAssignment problem = running.get();
+            if (problem != null) {
+                problem.requestStop();
+            }
+            return new Response(504, "text/plain", "Solve timed out\n");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while solving", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(
+                    "Solve failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    /**
+     * Solves the instance of an input directory on a solve thread.
+     *
+     * @param dir The directory with the five input files.
+     * @param engine The engine of the solve.
+     * @param backend The MIP backend of the solve.
+     * @param deadline The time by which the solve must end.
+     * @param running The reference where the problem is published, so the
+     *                caller can stop it.
+     * @return The response.
+     * @throws IOException If the input cannot be read or is malformed.
+     */
+    private Response solve(Path dir, StudentEmploymentAssignment.Engine engine,
+                           StudentEmploymentAssignment.Backend backend,
+                           long deadline,
+                           AtomicReference<StudentEmploymentAssignment> running)
+            throws IOException {
+        final long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+            return new Response(504, "text/plain",
+                    "Solve timed out in the queue\n");
+        }
+        final CachedInstance cached = this.instance(dir);
+        final StudentEmploymentAssignment problem =
+                new StudentEmploymentAssignment(cached.instance);
+        problem.eligibility = cached.eligibility;
+        problem.setEngine(engine);
+        problem.setBackend(backend);
+        problem.setSolveConfig(this.solveConfig.copy().timeLimit(remaining));
+        running.set(problem);
+        final MPSolver.ResultStatus status = problem.solve();
+
+        final StringWriter body = new StringWriter();
+        body.write(problem.getSolveReport().toJson());
+        body.write('\n');
+        if (status == MPSolver.ResultStatus.OPTIMAL
+                || status == MPSolver.ResultStatus.FEASIBLE) {
+            try (SolutionWriter.Sink sink = SolutionWriter.jsonLines(body)) {
+                SolutionWriter.write(problem, sink, false, true);
+            }
+        }
+        return new Response(200, "application/x-ndjson", body.toString());
+    }
+
+    /**
+     * Returns the cached instance of an input directory, parsing it if its
+     * content hash is not cached.
+     *
+     * @param dir The directory with the five input files.
+     * @return The parsed instance and its eligibility index.
+     * @throws IOException If a file cannot be read or is malformed.
+     */
+    private CachedInstance instance(Path dir) throws IOException {
+        final String key = contentHash(dir);
+        synchronized (this.cache) {
+            final CachedInstance cached = this.cache.get(key);
+            if (cached != null) {
+                this.cacheHits.incrementAndGet();
+                return cached;
+            }
+        }
+        this.cacheMisses.incrementAndGet();
+        // Parsed outside the lock, so a slow parse does not block hits.
+        final CachedInstance parsed = new CachedInstance(dir);
+        synchronized (this.cache) {
+            this.cache.put(key, parsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * Computes the SHA-256 of the five input files of a directory.
+     *
+     * @param dir The directory with the five input files.
+     * @return The hash as hexadecimal text.
+     * @throws IOException If a file cannot be read.
+     */
+    static String contentHash(Path dir) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        for (final String file : new String[] {InputLoader.PROF_PREF_FILE,
+                InputLoader.STUD_PREF_FILE, InputLoader.HOURS_PER_CLASS_FILE,
+                InputLoader.CLASS_SLOTS_FILE,
+                InputLoader.REGISTERED_SLOTS_FILE}) {
+            final byte[] content = Files.readAllBytes(dir.resolve(file));
+            // The length separates the files, so moving bytes from one file
+            // to the next changes the hash.
+            digest.update(Long.toString(content.length)
+                    .getBytes(StandardCharsets.US_ASCII));
+            digest.update((byte) 0);
+            digest.update(content);
+        }
+        final StringBuilder hex = new StringBuilder();
+        for (final byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Reports the cache and queue counters.
+     *
+     * @return The response, a JSON object.
+     */
+    private Response stats() {
+        final int cached;
+        synchronized (this.cache) {
+            cached = this.cache.size();
+        }
+        return new Response(200, "application/json",
+                "{\"cachedInstances\":" + cached
+                + ",\"cacheHits\":" + this.cacheHits.get()
+                + ",\"cacheMisses\":" + this.cacheMisses.get()
+                + ",\"activeSolves\":" + this.solveExecutor.getActiveCount()
+                + ",\"queuedSolves\":" + this.solveExecutor.getQueue().size()
+                + ",\"rejected\":" + this.rejected.get()
+                + ",\"timedOut\":" + this.timedOut.get()
+                + ",\"failed\":" + this.failed.get() + "}\n");
+    }
+
+    /**
+     * Quotes a text as a JSON string.
+     *
+     * @param text The text.
+     * @return The text in double quotes, with quotes, backslashes and
+     * control characters escaped.
+     */
+    private static String jsonString(String text) {
+        final StringBuilder quoted = new StringBuilder(text.length() + 2);
+        quoted.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            final char ch = text.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                quoted.append('\\').append(ch);
+            } else if (ch < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) ch));
+            } else {
+                quoted.append(ch);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Main method to run the service until the process is stopped.
+     *
+     * @param args Command-line arguments: the port, 8080 by default.
+     * @throws IOException If the port cannot be bound.
+     */
+    public static void main(final String[] args) throws IOException {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        final SolveService service = new SolveService(port).start();
+        System.out.println("Listening on http://localhost:"
+                + service.getPort() + "/solve");
+    }
+}
@@ -0,0 +1,50 @@
+import com.google.ortools.linearsolver.MPSolver;
+
+/**
+ * This enum represents the result status of a solve, with the constants of
+ * MPSolver.ResultStatus. That enum reads its values from the native OR-Tools
+ * library when first used, so the engines that need no native library
+ * report this one instead, and it is only converted when a caller asks for
+ * an MPSolver.ResultStatus.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public enum SolveStatus {
+    OPTIMAL,  // Proven optimal solution.
+    FEASIBLE,  // Solution found without a proof of optimality.
+    INFEASIBLE,  // Proven infeasible problem.
+    UNBOUNDED,  // Proven unbounded problem.
+    ABNORMAL,  // Solver error.
+    MODEL_INVALID,  // Model rejected by the solver.
+    NOT_SOLVED;  // Solve not run or stopped before any solution.
+
+    /**
+     * Converts a status of the OR-Tools linear solver.
+     *
+     * @param status The status, or null.
+     * @return The status with the same name, or NOT_SOLVED if null.
+     */
+    public static SolveStatus of(MPSolver.ResultStatus status) {
+        return status == null ? NOT_SOLVED : valueOf(status.name());
+    }
+
+    /**
+     * Converts the status to the one of the OR-Tools linear solver, which
+     * needs the native libraries to be loaded.
+     *
+     * @return The MPSolver.ResultStatus with the same name.
+     */
+    public MPSolver.ResultStatus toResultStatus() {
+        return MPSolver.ResultStatus.valueOf(name());
+    }
+
+    /**
+     * Checks if the status comes with a solution.
+     *
+     * @return true if the status is OPTIMAL or FEASIBLE.
+     */
+    public boolean hasSolution() {
+        return this == OPTIMAL || this == FEASIBLE;
+    }
+}
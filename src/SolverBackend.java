@@ -0,0 +1,149 @@
+import com.google.ortools.linearsolver.MPSolver;
+
+/**
+ * This interface represents a solver the assignment model is expressed
+ * against: bounded integer variables, at-most-one rows for classes,
+ * capacity rows for class groups and student hours, and a maximized
+ * objective. Each backend maps these to
+ * its own native constraints.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+interface SolverBackend {
+    /**
+     * Adds integer variables with a lower bound of 0, numbered from the
+     * number of variables already added. A variable with an upper bound of 1
+     * is binary.
+     *
+     * @param upperBounds The upper bound of each variable, in the first
+     *                    count entries.
+     * @param count The number of variables to add.
+     */
+    void addVariables(int[] upperBounds, int count);
+
+    /**
+     * Adds the constraint that at most one of some variables is set.
+     *
+     * @param variables The variable indices, in the first size entries.
+     * @param size The number of variables.
+     * @return The index of the constraint.
+     */
+    int addAtMostOne(int[] variables, int size);
+
+    /**
+     * Adds the constraint that the weighted sum of some variables does not
+     * exceed a capacity.
+     *
+     * @param variables The variable indices, in the first size entries.
+     * @param weights The weight of each variable.
+     * @param size The number of variables.
+     * @param capacity The capacity.
+     * @return The index of the constraint.
+     */
+    int addCapacity(int[] variables, int[] weights, int size, int capacity);
+
+    /**
+     * Adds the constraint that the weighted sum of some variables does not
+     * exceed a bound, where weights and bound may be negative, such as a
+     * cut that excludes a solution found earlier. Cuts may be added between
+     * solves.
+     *
+     * @param variables The variable indices, in the first size entries.
+     * @param weights The weight of each variable.
+     * @param size The number of variables.
+     * @param bound The bound.
+     * @return The index of the constraint.
+     */
+    int addCut(int[] variables, int[] weights, int size, int bound);
+
+    /**
+     * Sets the objective to maximize.
+     *
+     * @param coefficients The coefficient of each variable, by index.
+     */
+    void maximize(double[] coefficients);
+
+    /**
+     * Suggests a solution for the search to start from, such as the
+     * assignment of a previous term. The hint need not be feasible, and it
+     * replaces any earlier hint.
+     *
+     * @param values The suggested value of each variable, by index.
+     */
+    void hint(double[] values);
+
+    /**
+     * Solves the model with a configuration.
+     *
+     * @param config The time limit, gap, threads and parameters.
+     * @param stream true to pass improved incumbents to the configuration's
+     *               listener while solving.
+     * @return The result status, in linear solver terms.
+     */
+    MPSolver.ResultStatus solve(SolveConfig config, boolean stream);
+
+    /**
+     * Asks a running solve to stop and keep its best solution. Can be called
+     * from any thread.
+     */
+    void interrupt();
+
+    /**
+     * Returns the values of the best solution found.
+     *
+     * @return The value of each variable, by index.
+     */
+    double[] values();
+
+    /**
+     * Returns the objective value of the best solution found.
+     *
+     * @return The objective value.
+     */
+    double objectiveValue();
+
+    /**
+     * Returns the best bound proven by the solve.
+     *
+     * @return The bound on the objective.
+     */
+    double bestBound();
+
+    /**
+     * Getter of the number of variables.
+     *
+     * @return The number of variables of the model.
+     */
+    long numVariables();
+
+    /**
+     * Getter of the number of constraints.
+     *
+     * @return The number of constraints of the model.
+     */
+    long numConstraints();
+
+    /**
+     * Returns the wall time of the last solve.
+     *
+     * @return The wall time in milliseconds.
+     */
+    long wallMillis();
+
+    /**
+     * Returns the search nodes of the last solve: branch-and-bound nodes
+     * for linear solvers, branches for CP-SAT.
+     *
+     * @return The number of nodes.
+     */
+    long nodes();
+
+    /**
+     * Returns the iterations of the last solve: simplex iterations for
+     * linear solvers, conflicts for CP-SAT.
+     *
+     * @return The number of iterations.
+     */
+    long iterations();
+}
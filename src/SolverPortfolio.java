@@ -0,0 +1,600 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class races several engines, backends or solver settings on one
+ * parsed instance and returns the first answer that is good enough. Each
+ * entry builds its own model on its own thread, sharing only the instance
+ * and its eligibility index. As soon as one entry proves optimality, or
+ * ends within the target gap of the best bound any entry has found, the
+ * others are asked to stop and that entry wins; if none does, the best
+ * assignment wins once every entry has finished.
+ *
+ * <p>When incumbents are shared, every entry streams its incumbents, so
+ * MIP entries are solved as single unpresolved models in time slices:
+ * each improvement is offered to a common IncumbentPool, each SCIP or CBC
+ * slice starts from the pool's incumbent when it is better than its own,
+ * and every entry that finishes offers its assignment, so a fast heuristic
+ * entry gives the MIP entries a start.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class SolverPortfolio {
+    private final ProblemInstance instance;  // Parsed instance.
+    private final EligibilityIndex eligibility;  // Shared eligibility index.
+    private final List<Entry> entries = new ArrayList<>();  // Entries in the
+                                                            // race.
+    private double targetGap;  // Relative gap at which an entry wins.
+    private boolean shareIncumbents = true;  // Whether entries stream and
+                                             // share their incumbents.
+    private int maxHoursPerStudent = -1;  // Maximum hours per student, or
+                                          // -1 for the solver default.
+    private int[] previousStudents;  // Student of each class in a previous
+                                     // assignment, or null if none.
+    private double stabilityWeight;  // Bonus of each kept assignment.
+
+    /**
+     * This class represents one engine configuration of the portfolio.
+     */
+    private static final class Entry {
+        private final String name;  // Name of the entry.
+        private final StudentEmploymentAssignment.Engine engine;  // Engine.
+        private final StudentEmploymentAssignment.Backend backend;  // MIP
+                                                                    // backend.
+        private final SolveConfig config;  // Solve configuration.
+
+        /**
+         * Constructor to initialize an entry.
+         *
+         * @param name The name of the entry.
+         * @param engine The engine.
+         * @param backend The MIP backend.
+         * @param config The solve configuration.
+         */
+        private Entry(String name, StudentEmploymentAssignment.Engine engine,
+                      StudentEmploymentAssignment.Backend backend,
+                      SolveConfig config) {
+            this.name = name;
+            this.engine = engine;
+            this.backend = backend;
+            this.config = config;
+        }
+    }
+
+    /**
+     * This class holds the state the entries of one race share: the best
+     * bound found so far and whether a winner was decided.
+     */
+    private static final class Race {
+        private final double targetGap;  // Relative gap at which an entry
+                                         // wins.
+        private double bound = Double.POSITIVE_INFINITY;  // Best bound of
+                                                          // any entry.
+        private volatile boolean decided;  // Whether a winner was decided.
+
+        /**
+         * Constructor to start a race.
+         *
+         * @param targetGap The relative gap at which an entry wins.
+         */
+        private Race(double targetGap) {
+            this.targetGap = targetGap;
+        }
+
+        /**
+         * Records a bound of an entry, keeping the smallest one.
+         *
+         * @param bound The bound, ignored if NaN.
+         * @return The best bound so far.
+         */
+        private synchronized double offerBound(double bound) {
+            if (bound < this.bound) {
+                this.bound = bound;
+            }
+            return this.bound;
+        }
+
+        /**
+         * Checks if an objective is within the target gap of a bound.
+         *
+         * @param objectiveValue The objective value.
+         * @param bound The bound.
+         * @return true if the gap is closed.
+         */
+        private boolean closes(double objectiveValue, double bound) {
+            return bound - objectiveValue
+                    <= this.targetGap * Math.max(Math.abs(bound), 1.0)
+                    + 1e-9;
+        }
+    }
+
+    /**
+     * This class represents the outcome of one entry of the race.
+     */
+    public static final class Run {
+        private final String name;  // Name of the entry.
+        private final StudentEmploymentAssignment problem;  // Solved
+                                                            // problem.
+        private final SolveStatus status;  // Result status.
+        private final double objectiveValue;  // Total satisfaction.
+        private final double bestBound;  // Upper bound, NaN if none.
+        private final long runtimeMillis;  // Wall time of the solve.
+        private final boolean stopped;  // Whether the race stopped it.
+
+        /**
+         * Constructor to initialize a run.
+         *
+         * @param name The name of the entry.
+         * @param problem The solved problem.
+         * @param status The result status.
+         * @param objectiveValue The total satisfaction.
+         * @param bestBound The upper bound, NaN if none.
+         * @param runtimeMillis The wall time of the solve.
+         * @param stopped Whether the race stopped it.
+         */
+        Run(String name, StudentEmploymentAssignment problem,
+            SolveStatus status, double objectiveValue,
+            double bestBound, long runtimeMillis, boolean stopped) {
+            this.name = name;
+            this.problem = problem;
+            this.status = status;
+            this.objectiveValue = objectiveValue;
+            this.bestBound = bestBound;
+            this.runtimeMillis = runtimeMillis;
+            this.stopped = stopped;
+        }
+
+        /**
+         * Getter of the entry name.
+         *
+         * @return The name of the entry.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Getter of the solved problem, with its assignment and solve
+         * report.
+         *
+         * @return The problem of the entry.
+         */
+        public StudentEmploymentAssignment getProblem() {
+            return problem;
+        }
+
+        /**
+         * Getter of the result status.
+         *
+         * @return The result status of the solve.
+         */
+        public SolveStatus getStatus() {
+            return status;
+        }
+
+        /**
+         * Checks if the entry found an assignment.
+         *
+         * @return true if the status is OPTIMAL or FEASIBLE.
+         */
+        public boolean isSolved() {
+            return status == SolveStatus.OPTIMAL
+                    || status == SolveStatus.FEASIBLE;
+        }
+
+        /**
+         * Getter of the objective value.
+         *
+         * @return The total satisfaction, or NaN if not solved.
+         */
+        public double getObjectiveValue() {
+            return objectiveValue;
+        }
+
+        /**
+         * Getter of the best bound.
+         *
+         * @return The upper bound of the entry, or NaN if none.
+         */
+        public double getBestBound() {
+            return bestBound;
+        }
+
+        /**
+         * Getter of the runtime.
+         *
+         * @return The wall time of the solve in milliseconds.
+         */
+        public long getRuntimeMillis() {
+            return runtimeMillis;
+        }
+
+        /**
+         * Checks if the entry was asked to stop because another one won.
+         *
+         * @return true if the race stopped the entry.
+         */
+        public boolean isStopped() {
+            return stopped;
+        }
+    }
+
+    /**
+     * This class represents the outcome of a race.
+     */
+    public static final class Result {
+        private final Run winner;  // Winning run.
+        private final boolean proven;  // Whether the winner closed the gap.
+        private final double bestBound;  // Best bound of any entry.
+        private final List<Run> runs;  // Runs in the order of the entries.
+        private final int sharedIncumbents;  // Incumbents that improved the
+                                             // shared pool.
+
+        /**
+         * Constructor to initialize a result.
+         *
+         * @param winner The winning run.
+         * @param proven Whether the winner closed the target gap.
+         * @param bestBound The best bound of any entry.
+         * @param runs The runs in the order of the entries.
+         * @param sharedIncumbents The incumbents that improved the pool.
+         */
+        Result(Run winner, boolean proven, double bestBound, List<Run> runs,
+               int sharedIncumbents) {
+            this.winner = winner;
+            this.proven = proven;
+            this.bestBound = bestBound;
+            this.runs = Collections.unmodifiableList(runs);
+            this.sharedIncumbents = sharedIncumbents;
+        }
+
+        /**
+         * Getter of the winning run: the first entry that closed the target
+         * gap, otherwise the entry with the best assignment, otherwise the
+         * first entry.
+         *
+         * @return The winning run.
+         */
+        public Run getWinner() {
+            return winner;
+        }
+
+        /**
+         * Checks if the winner closed the target gap.
+         *
+         * @return true if the winner is optimal or within the target gap.
+         */
+        public boolean isProven() {
+            return proven;
+        }
+
+        /**
+         * Getter of the best bound found by any entry.
+         *
+         * @return The smallest upper bound, or NaN if none.
+         */
+        public double getBestBound() {
+            return bestBound;
+        }
+
+        /**
+         * Getter of the runs.
+         *
+         * @return The run of each entry, in the order they were added.
+         */
+        public List<Run> getRuns() {
+            return runs;
+        }
+
+        /**
+         * Getter of the number of incumbents that improved the shared pool.
+         *
+         * @return The number of shared incumbents.
+         */
+        public int getSharedIncumbents() {
+            return sharedIncumbents;
+        }
+
+        /**
+         * Formats the runs as a comparison table, one row per entry.
+         *
+         * @return The table text.
+         */
+        public String formatTable() {
+            int nameWidth = "Entry".length();
+            for (final Run run : runs) {
+                nameWidth = Math.max(nameWidth, run.getName().length());
+            }
+            final String format = "%-" + nameWidth
+                    + "s  %-10s  %10s  %10s  %9s  %s%n";
+            final StringBuilder table = new StringBuilder();
+            table.append(String.format(format, "Entry", "Status",
+                    "Objective", "Bound", "Time (ms)", ""));
+            for (final Run run : runs) {
+                table.append(String.format(format, run.getName(),
+                        run.getStatus(),
+                        String.format("%.2f", run.getObjectiveValue()),
+                        String.format("%.2f", run.getBestBound()),
+                        run.getRuntimeMillis(),
+                        run == winner ? "winner"
+                                : run.isStopped() ? "stopped" : ""));
+            }
+            return table.toString();
+        }
+    }
+
+    /**
+     * Constructor to prepare the shared data of an instance.
+     *
+     * @param instance The parsed instance.
+     */
+    public SolverPortfolio(ProblemInstance instance) {
+        this.instance = instance;
+        this.eligibility = new EligibilityIndex(instance);
+    }
+
+    /**
+     * Adds an entry to the race.
+     *
+     * @param name The name of the entry, shown in the results.
+     * @param engine The engine, other than AUTO.
+     * @param backend The MIP backend, other than GLOP, whose values may be
+     *                fractional.
+     * @param config The solve configuration of the entry, which is copied.
+     */
+    public void add(String name, StudentEmploymentAssignment.Engine engine,
+                    StudentEmploymentAssignment.Backend backend,
+                    SolveConfig config) {
+        if (engine == StudentEmploymentAssignment.Engine.AUTO
+                || backend == StudentEmploymentAssignment.Backend.GLOP) {
+            throw new IllegalArgumentException(
+                    "Entry " + name + " needs an exact engine and backend");
+        }
+        this.entries.add(new Entry(name, engine, backend, config.copy()));
+    }
+
+    /**
+     * Adds the default entries: the MIP with SCIP, CP-SAT and CBC, the
+     * Lagrangian relaxation and the heuristic, each with a configuration.
+     *
+     * @param config The solve configuration of every entry, which is
+     *               copied.
+     */
+    public void addDefaultEntries(SolveConfig config) {
+        this.add("SCIP", StudentEmploymentAssignment.Engine.MIP,
+                StudentEmploymentAssignment.Backend.SCIP, config);
+        this.add("CP_SAT", StudentEmploymentAssignment.Engine.MIP,
+                StudentEmploymentAssignment.Backend.CP_SAT, config);
+        this.add("CBC", StudentEmploymentAssignment.Engine.MIP,
+                StudentEmploymentAssignment.Backend.CBC, config);
+        this.add("LAGRANGIAN", StudentEmploymentAssignment.Engine.LAGRANGIAN,
+                StudentEmploymentAssignment.Backend.AUTO, config);
+        this.add("HEURISTIC", StudentEmploymentAssignment.Engine.HEURISTIC,
+                StudentEmploymentAssignment.Backend.AUTO, config);
+    }
+
+    /**
+     * Sets the relative gap at which an entry wins the race.
+     *
+     * @param gap The gap as a fraction of the bound, 0 to require proven
+     *            optimality.
+     */
+    public void setTargetGap(double gap) {
+        this.targetGap = gap;
+    }
+
+    /**
+     * Sets whether the entries stream and share their incumbents.
+     *
+     * @param share true to share incumbents, false to solve each entry as
+     *              it would be solved alone.
+     */
+    public void setShareIncumbents(boolean share) {
+        this.shareIncumbents = share;
+    }
+
+    /**
+     * Sets the maximum hours per student of every entry.
+     *
+     * @param maxHoursPerStudent The maximum hours per student.
+     */
+    public void setMaxHoursPerStudent(int maxHoursPerStudent) {
+        this.maxHoursPerStudent = maxHoursPerStudent;
+    }
+
+    /**
+     * Sets the previous assignment every entry starts from.
+     *
+     * @param classStudents The student of each class in the previous
+     *                      assignment, or -1.
+     * @param stabilityWeight The bonus of each kept assignment.
+     */
+    public void setPreviousAssignment(int[] classStudents,
+                                      double stabilityWeight) {
+        this.previousStudents = classStudents;
+        this.stabilityWeight = stabilityWeight;
+    }
+
+    /**
+     * Checks if an entry needs the native OR-Tools libraries, so callers
+     * can skip loading them when none does.
+     *
+     * @return true if an entry uses a native solver.
+     */
+    public boolean usesNativeSolver() {
+        for (final Entry entry : this.entries) {
+            if (entry.engine == StudentEmploymentAssignment.Engine.MIP
+                    || entry.engine
+                    == StudentEmploymentAssignment.Engine.COLUMN_GENERATION) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates the problem of an entry, with a configuration that reports
+     * its incumbents to the race.
+     *
+     * @param entry The entry.
+     * @param race The race.
+     * @param pool The shared incumbent pool, or null if none.
+     * @return The problem, ready to solve.
+     */
+    private StudentEmploymentAssignment newProblem(Entry entry, Race race,
+                                                   IncumbentPool pool) {
+        final StudentEmploymentAssignment problem =
+                new StudentEmploymentAssignment(this.instance);
+        problem.eligibility = this.eligibility;
+        problem.setDecomposition(false);
+        problem.setEngine(entry.engine);
+        problem.setBackend(entry.backend);
+        if (this.maxHoursPerStudent >= 0) {
+            problem.setMaxHoursPerStudent(this.maxHoursPerStudent);
+        }
+        if (this.previousStudents != null) {
+            problem.setPreviousAssignment(this.previousStudents,
+                    this.stabilityWeight);
+        }
+        final SolveConfig config = entry.config.copy();
+        if (pool != null) {
+            final SolveConfig.IncumbentListener own =
+                    entry.config.getIncumbentListener();
+            config.incumbentPool(pool).incumbentListener(
+                    (objectiveValue, bestBound, elapsedMillis) -> {
+                        final double bound = race.offerBound(bestBound);
+                        final boolean keepSolving = own == null
+                                || own.onIncumbent(objectiveValue,
+                                        bestBound, elapsedMillis);
+                        return keepSolving && !race.decided
+                                && !race.closes(objectiveValue, bound);
+                    });
+        }
+        problem.setSolveConfig(config);
+        return problem;
+    }
+
+    /**
+     * Runs every entry on its own thread until one wins. The OR-Tools
+     * native libraries must be loaded beforehand when an entry uses a
+     * native solver.
+     *
+     * @return The result of the race.
+     */
+    public Result run() {
+        if (this.entries.isEmpty()) {
+            throw new IllegalStateException("The portfolio has no entries");
+        }
+        final int size = this.entries.size();
+        final Race race = new Race(this.targetGap);
+        final IncumbentPool pool =
+                this.shareIncumbents ? new IncumbentPool() : null;
+        final StudentEmploymentAssignment[] problems =
+                new StudentEmploymentAssignment[size];
+        for (int i = 0; i < size; i++) {
+            problems[i] = this.newProblem(this.entries.get(i), race, pool);
+        }
+        final SolveStatus[] statuses = new SolveStatus[size];
+        final long[] runtimes = new long[size];
+        final boolean[] stopped = new boolean[size];
+        final boolean[] finished = new boolean[size];
+
+        final ExecutorService workers = Executors.newFixedThreadPool(size);
+        int winner = -1;
+        try {
+            final CompletionService<Integer> completion =
+                    new ExecutorCompletionService<>(workers);
+            for (int i = 0; i < size; i++) {
+                final int index = i;
+                completion.submit(() -> {
+                    final long start = System.nanoTime();
+                    statuses[index] = race.decided
+                            ? SolveStatus.NOT_SOLVED
+                            : problems[index].optimize();
+                    runtimes[index] = (System.nanoTime() - start) / 1_000_000;
+                    if (pool != null && isSolved(statuses[index])) {
+                        pool.offer(problems[index].getObjectiveValue(),
+                                problems[index].pairValues);
+                    }
+                    return index;
+                });
+            }
+            for (int k = 0; k < size; k++) {
+                final int index;
+                try {
+                    index = completion.take().get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(
+                            "Interrupted while racing the portfolio", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(
+                            "Portfolio entry failed", e.getCause());
+                }
+                finished[index] = true;
+                stopped[index] = race.decided;
+                final StudentEmploymentAssignment problem = problems[index];
+                if (!isSolved(statuses[index])) {
+                    continue;
+                }
+                final double bound = race.offerBound(problem.getBestBound());
+                if (winner < 0 && !Double.isNaN(problem.getBestBound())
+                        && (statuses[index] == SolveStatus.OPTIMAL
+                        || race.closes(problem.getObjectiveValue(), bound))) {
+                    winner = index;
+                    race.decided = true;
+                    for (int j = 0; j < size; j++) {
+                        if (!finished[j]) {
+                            problems[j].requestStop();
+                        }
+                    }
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        final boolean proven = winner >= 0;
+        if (!proven) {
+            winner = 0;
+            for (int i = 0; i < size; i++) {
+                if (isSolved(statuses[i]) && (!isSolved(statuses[winner])
+                        || problems[i].getObjectiveValue()
+                        > problems[winner].getObjectiveValue())) {
+                    winner = i;
+                }
+            }
+        }
+        final List<Run> runs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            runs.add(new Run(this.entries.get(i).name, problems[i],
+                    statuses[i], isSolved(statuses[i])
+                    ? problems[i].getObjectiveValue() : Double.NaN,
+                    isSolved(statuses[i])
+                    ? problems[i].getBestBound() : Double.NaN,
+                    runtimes[i], stopped[i]));
+        }
+        final double bestBound = race.offerBound(Double.NaN);
+        return new Result(runs.get(winner), proven,
+                Double.isInfinite(bestBound) ? Double.NaN : bestBound,
+                runs, pool == null ? 0 : pool.getImprovements());
+    }
+
+    /**
+     * Checks if a status comes with an assignment.
+     *
+     * @param status The result status.
+     * @return true if the status is OPTIMAL or FEASIBLE.
+     */
+    private static boolean isSolved(SolveStatus status) {
+        return status == SolveStatus.OPTIMAL
+                || status == SolveStatus.FEASIBLE;
+    }
+}
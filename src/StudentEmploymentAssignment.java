@@ -1,7 +1,15 @@
 import com.google.ortools.linearsolver.MPConstraint;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.stream.IntStream;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import com.google.ortools.linearsolver.MPObjective;
 import com.google.ortools.linearsolver.MPSolver;
@@ -14,28 +22,199 @@ import com.google.ortools.linearsolver.MPVariable;
  * @version 1.0
  */
 public class StudentEmploymentAssignment {
+    /**
+     * The engines that can solve the problem.
+     */
+    public enum Engine {
+        AUTO,  // MATCHING when it is exact for the instance, MIP otherwise.
+        MIP,  // Mixed-integer model solved by the selected backend.
+        MATCHING,  // Pure-Java maximum-weight bipartite matching, exact
+                   // when no student can take two classes.
+        HEURISTIC,  // Pure-Java greedy and local search under a time budget.
+        LAGRANGIAN,  // Pure-Java Lagrangian relaxation of the hours rows:
+                     // a repaired assignment and a certified bound.
+        COLUMN_GENERATION  // Master problem over per-student class bundles,
+                           // priced by knapsacks with GLOP duals: a bound
+                           // at least as tight as the MIP's LP relaxation.
+    }
+
+    /**
+     * The solvers the MIP engine can express its model against.
+     */
+    public enum Backend {
+        AUTO,  // CP_SAT for large models on multi-core machines, SCIP
+               // otherwise.
+        SCIP,  // SCIP through the linear solver wrapper.
+        CBC,  // CBC through the linear solver wrapper.
+        GLOP,  // LP relaxation solved by GLOP: gives a bound, and its values
+               // may be fractional.
+        CP_SAT  // CP-SAT with native at-most-one constraints and parallel
+                // search workers.
+    }
+
+    /**
+     * This interface receives the alternative assignments of
+     * solveAlternatives as soon as each one is found.
+     */
+    public interface AlternativeListener {
+        /**
+         * Called when the next alternative has been found.
+         *
+         * @param alternative The alternative.
+         * @return true to look for the next alternative, false to stop.
+         */
+        boolean onAlternative(Alternative alternative);
+    }
+
+    /**
+     * This class represents one of the alternative assignments found by
+     * solveAlternatives.
+     */
+    public static final class Alternative {
+        private final int rank;  // Position in the order found, from 0.
+        private final double objectiveValue;  // Total satisfaction.
+        private final double[] pairValues;  // Value of each eligible pair.
+        private final int distance;  // Pairs that differ from the first
+                                     // alternative.
+        private final boolean optimal;  // Whether it is the best assignment
+                                        // left by the earlier cuts.
+
+        /**
+         * Constructor to initialize an alternative.
+         *
+         * @param rank The position in the order found, from 0.
+         * @param objectiveValue The total satisfaction.
+         * @param pairValues The value of each eligible pair, 0 or 1.
+         * @param distance The pairs that differ from the first alternative.
+         * @param optimal Whether the solve that found it was optimal.
+         */
+        Alternative(int rank, double objectiveValue, double[] pairValues,
+                    int distance, boolean optimal) {
+            this.rank = rank;
+            this.objectiveValue = objectiveValue;
+            this.pairValues = pairValues;
+            this.distance = distance;
+            this.optimal = optimal;
+        }
+
+        /**
+         * Getter of the rank.
+         *
+         * @return The position of the alternative in the order found, 0 for
+         * the best one.
+         */
+        public int getRank() {
+            return rank;
+        }
+
+        /**
+         * Getter of the objective value.
+         *
+         * @return The total satisfaction of the alternative.
+         */
+        public double getObjectiveValue() {
+            return objectiveValue;
+        }
+
+        /**
+         * Checks if a pair is assigned in the alternative.
+         *
+         * @param p The eligible pair index.
+         * @return true if the pair is assigned.
+         */
+        public boolean isAssigned(int p) {
+            return pairValues[p] > 0.5;
+        }
+
+        /**
+         * Getter of the Hamming distance to the first alternative.
+         *
+         * @return The number of pairs assigned in one of the two only.
+         */
+        public int getDistance() {
+            return distance;
+        }
+
+        /**
+         * Checks if the alternative is the best assignment that the cuts of
+         * the earlier alternatives leave, rather than the best one found
+         * within the time limit.
+         *
+         * @return true if the solve that found it was optimal.
+         */
+        public boolean isOptimal() {
+            return optimal;
+        }
+    }
+
+    private static final int CP_SAT_MIN_PAIRS = 50_000;  // Eligible pairs
+                                            // from which AUTO picks CP_SAT.
+    private static final int CP_SAT_MIN_CORES = 4;  // Cores from which AUTO
+                                                    // picks CP_SAT.
     private static final int MAX_HOURS_PER_STUDENT = 20;  // Maximum hours per
                                                                     // student.
     private static final double REL_WEIGHT_PROF_PREFERENCES = 0.75;  // Relative
                                             // weight for professor preferences.
     private static final double REL_WEIGHT_STUD_PREFERENCES = 0.25;  // Relative
                                             // weight for student preferences.
+    private int maxHoursPerStudent = MAX_HOURS_PER_STUDENT;  // Maximum hours
+                                                            // per student.
+    private double profWeight = REL_WEIGHT_PROF_PREFERENCES;  // Relative
+                                            // weight for professor preferences.
+    private double studWeight = REL_WEIGHT_STUD_PREFERENCES;  // Relative
+                                            // weight for student preferences.
     private final int numStudents;  // Total number of students.
-    private final int[] allStudents;  // Array containing all student indices.
     private final int numClasses;  // Total number of classes.
-    private final int[] allClasses;  // Array containing all class indices.
-    private final int[][] profPreferences;  // Professor preferences for
-    // classes.
-    private final int[][] studPreferences;  // Student preferences for classes.
-    private final int[] hoursPerClass;  // Hours per class.
-
-    int[][][] registeredSlotsPerStudentDay; // Registered slots for each
-                                            // student on each day
-    int[][] slotsPerClass; // Assigned slots for each class
-    MPVariable[][] assignments;  // Matrix of assignment variables.
-    MPSolver solver;  // Solver for the optimization problem.
-    MPObjective objective;  // Objective function for optimization.
-    MPSolver.ResultStatus resultStatus;  // Result status of the optimization.
+    private final ProblemInstance instance;  // Preferences, hours and slots
+                                             // of the problem.
+    EligibilityIndex eligibility;  // Bitmap index of the eligible pairs.
+    EligiblePairs pairs;  // Student-class pairs that can be assigned.
+    PresolvedModel presolved;  // Model of the MIP engine, reduced by the
+                               // presolve if it ran.
+    MPVariable[] pairVariables;  // Assignment variable of each eligible pair.
+    MPVariable zeroVariable;  // Variable fixed to 0 in the solved model, the
+                              // entry of every ineligible pair.
+    MPConstraint[] classConstraints;  // At most one student per class rows.
+    MPConstraint[] studentConstraints;  // Maximum hours per student rows.
+    SolverBackend model;  // Single model the problem is expressed against.
+    MPSolver solver;  // Solver of the single model, null unless it is a
+                      // linear backend.
+    MPObjective objective;  // Objective of the single model, null unless it
+                            // is a linear backend.
+    SolveStatus resultStatus;  // Result status of the optimization.
+    double objectiveValue;  // Objective value of the solution.
+    double[] pairValues;  // Solution value of each eligible pair.
+    double bestBound = Double.NaN;  // Best known upper bound on the
+                                    // objective, NaN if none.
+    private long heuristicTimeBudgetMillis = 100;  // Time budget of the
+                                                   // HEURISTIC engine.
+    private Engine engine = Engine.AUTO;  // Engine requested for solve().
+    private Engine engineUsed;  // Engine that produced the solution.
+    List<SolverBackend> componentModels;  // Models of the independent
+                                          // components, kept alive while
+                                          // their variables are in use.
+    private Backend backend = Backend.AUTO;  // Backend requested for MIP.
+    private Backend backendUsed;  // Backend of the last model built.
+    private boolean presolve = true;  // Whether solve() presolves the MIP
+                                      // model.
+    private boolean reducedCostFixing;  // Whether solve() fixes columns by
+                                        // LP reduced costs before the MIP.
+    private int[] previousStudents;  // Student of each class in a previous
+                                     // assignment, or -1; null if none.
+    private double stabilityWeight;  // Objective bonus of each pair of the
+                                     // previous assignment.
+    private double[] columnHint;  // Previous assignment as values of the
+                                  // MIP columns, null if none.
+    private boolean decompose = true;  // Whether solve() splits the model into
+                                       // connected components.
+    private ExecutorService componentExecutor = ForkJoinPool.commonPool();
+                                    // Executor the components are solved on.
+    private SolveReport report;  // Report of the last solve.
+    private SolveConfig config = new SolveConfig();  // Solver settings.
+    private final Set<SolverBackend> activeModels =
+            ConcurrentHashMap.newKeySet();  // Models currently solving.
+    private volatile boolean stopRequested;  // Whether requestStop() was
+                                             // called during the solve.
 
     /**
      * Constructor to initialize the StudentEmploymentAssignment instance with
@@ -58,199 +237,1324 @@ public class StudentEmploymentAssignment {
             int[][][] registeredSlotsPerStudentDay,
             int[][] slotsPerClass
     ) {
-        this.numClasses = profPreferences[0].length;
-        this.numStudents = profPreferences.length;
-        this.profPreferences = profPreferences;
-        this.studPreferences = studPreferences;
-        this.hoursPerClass = hoursPerClass;
-        this.registeredSlotsPerStudentDay = registeredSlotsPerStudentDay;
-        this.slotsPerClass = slotsPerClass;
-        this.allClasses = IntStream.range(0, this.numClasses).toArray();
-        this.allStudents = IntStream.range(0, this.numStudents).toArray();
+        this(new ArrayInstance(
+                profPreferences, studPreferences, hoursPerClass,
+                registeredSlotsPerStudentDay, slotsPerClass
+        ));
+    }
+
+    /**
+     * Constructor to initialize the StudentEmploymentAssignment instance from
+     * a problem instance, such as a memory-mapped snapshot.
+     *
+     * @param instance The preferences, hours and slots of the problem.
+     */
+    public StudentEmploymentAssignment(ProblemInstance instance) {
+        this.numClasses = instance.numClasses();
+        this.numStudents = instance.numStudents();
+        this.instance = instance;
     }
 
 
     /**
-     * Getter of the assignments array
+     * Getter of the assignments array, with the variables of the linear
+     * model that was solved. Only eligible pairs have a variable of their
+     * own; every other pair gets a shared variable of the same model that is
+     * fixed to 0, so that solutionValue() can be read for any entry. Only a
+     * SCIP, CBC or GLOP model
+     * that was not reduced by the presolve has a variable per pair; after a
+     * presolve that reduced the model, a CP-SAT solve or an engine without a
+     * solver model, isAssigned gives the solution instead.
      *
-     * @return 2D array of assignments for each student, class
+     * @return 2D array of assignments for each student, class, or null if
+     * the last solve built no linear model of the eligible pairs.
      */
     public MPVariable[][] getAssignments() {
+        if (this.pairVariables == null) {
+            return null;
+        }
+        final MPVariable[][] assignments =
+                new MPVariable[this.numStudents][this.numClasses];
+        for (final MPVariable[] row : assignments) {
+            Arrays.fill(row, this.zeroVariable);
+        }
+        for (int p = 0; p < this.pairs.size(); p++) {
+            assignments[this.pairs.student(p)][this.pairs.classOf(p)] =
+                    this.pairVariables[p];
+        }
         return assignments;
     }
 
     /**
-     * Creates the solver instance for the problem.
+     * Getter of the eligible student-class pairs of the model.
+     *
+     * @return The eligible pairs.
+     */
+    public EligiblePairs getPairs() {
+        return pairs;
+    }
+
+    /**
+     * Getter of the problem instance.
+     *
+     * @return The preferences, hours and slots of the problem.
      */
-    private void createSolver() {
-        this.solver = MPSolver.createSolver("SCIP");
-        if (this.solver == null) {
-            System.out.println("Could not create solver SCIP");
+    public ProblemInstance getInstance() {
+        return instance;
+    }
+
+    /**
+     * Checks if a student was assigned to a class in the solution.
+     *
+     * @param s The student index.
+     * @param c The class index.
+     * @return true if the pair is eligible and its variable is set, false
+     * otherwise.
+     */
+    public boolean isAssigned(int s, int c) {
+        final int p = this.pairs.indexOf(s, c);
+        return p >= 0 && this.pairValues[p] > 0.5;
+    }
+
+    /**
+     * Getter of the objective value of the solution.
+     *
+     * @return The total satisfaction of the solution.
+     */
+    public double getObjectiveValue() {
+        return objectiveValue;
+    }
+
+    /**
+     * Sets the engine used by solve().
+     *
+     * @param engine The engine to use. MATCHING may be selected for any
+     *               instance, in which case each student gets at most one
+     *               class.
+     */
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Getter of the engine that produced the last solution.
+     *
+     * @return The engine used by the last call to solve().
+     */
+    public Engine getEngineUsed() {
+        return engineUsed;
+    }
+
+    /**
+     * Sets the time budget of the HEURISTIC engine, also used by the
+     * LAGRANGIAN and COLUMN_GENERATION engines to improve their assignment.
+     *
+     * @param millis The time allowed for the greedy and local search.
+     */
+    public void setHeuristicTimeBudget(long millis) {
+        this.heuristicTimeBudgetMillis = millis;
+    }
+
+    /**
+     * Getter of the best known upper bound on the objective. It is set by
+     * exact engines and kept by later heuristic solves of the same problem.
+     *
+     * @return The bound, or NaN if no exact engine has run.
+     */
+    public double getBestBound() {
+        return bestBound;
+    }
+
+    /**
+     * Returns the relative gap between the solution and the best known
+     * bound.
+     *
+     * @return The gap as a fraction of the bound, or NaN if no bound is
+     * known.
+     */
+    public double getRelativeGap() {
+        if (Double.isNaN(this.bestBound)) {
+            return Double.NaN;
         }
+        return (this.bestBound - this.objectiveValue)
+                / Math.max(Math.abs(this.bestBound), 1e-9);
     }
 
     /**
-     * Creates the binary decision variables for student-class assignments.
+     * Sets the maximum hours per week a student can be assigned. Defaults to
+     * 20.
+     *
+     * @param maxHoursPerStudent The maximum hours per student.
      */
-    private void createVariables() {
-        this.assignments = new MPVariable[this.numStudents][this.numClasses];
-        for (final int s : this.allStudents) {
-            for (final int c : this.allClasses) {
-                this.assignments[s][c] = this.solver.makeIntVar(0.0, 1.0, "");
-            }
+    public void setMaxHoursPerStudent(int maxHoursPerStudent) {
+        this.maxHoursPerStudent = maxHoursPerStudent;
+    }
+
+    /**
+     * Getter of the maximum hours per student.
+     *
+     * @return The maximum hours per week a student can be assigned.
+     */
+    public int getMaxHoursPerStudent() {
+        return maxHoursPerStudent;
+    }
+
+    /**
+     * Sets the relative weights of professor and student preferences in the
+     * objective. Defaults to 0.75 and 0.25.
+     *
+     * @param profWeight The weight of professor preferences.
+     * @param studWeight The weight of student preferences.
+     */
+    public void setPreferenceWeights(double profWeight, double studWeight) {
+        this.profWeight = profWeight;
+        this.studWeight = studWeight;
+    }
+
+    /**
+     * Sets a previous assignment, such as the one of the last term, to start
+     * the next solves from. The MIP engine passes it to the solver as a hint
+     * and the HEURISTIC engine improves it instead of a greedy assignment.
+     * Pairs that are no longer eligible or no longer fit their student's
+     * hours are left out of the hint. A positive stability weight is added
+     * to the objective coefficient of every pair of the previous assignment,
+     * which penalizes reassignments; the objective value then includes the
+     * bonus of the pairs kept.
+     *
+     * @param classStudents The student of each class, or -1 if the class was
+     *                      not assigned, or null to clear the assignment.
+     * @param stabilityWeight The bonus of each kept pair, 0 for none.
+     */
+    public void setPreviousAssignment(int[] classStudents,
+                                      double stabilityWeight) {
+        if (classStudents != null
+                && classStudents.length != this.numClasses) {
+            throw new IllegalArgumentException("Previous assignment has "
+                    + classStudents.length + " classes, expected "
+                    + this.numClasses);
         }
+        this.previousStudents = classStudents;
+        this.stabilityWeight = stabilityWeight;
     }
 
     /**
-     * Adds the constraint that each class is assigned to exactly one student.
+     * Sets the backend the MIP engine expresses its model against.
+     *
+     * @param backend The backend, or AUTO to choose by model size.
      */
-    private void addExactlyOneStudentPerClass() {
-        for (final int c : this.allClasses) {
-            final MPConstraint constraint = this.solver.makeConstraint(
-                    0.0, 1.0, ""
-            );
-            for (final int s : this.allStudents) {
-                constraint.setCoefficient(this.assignments[s][c], 1.0);
-            }
+    public void setBackend(Backend backend) {
+        this.backend = backend;
+    }
+
+    /**
+     * Getter of the backend of the last model built.
+     *
+     * @return The backend, or null if no model was built.
+     */
+    public Backend getBackendUsed() {
+        return backendUsed;
+    }
+
+    /**
+     * Resolves the AUTO backend for the columns of the model: CP-SAT's
+     * parallel search pays off on large models when there are cores for it.
+     *
+     * @return The backend the next model will use.
+     */
+    private Backend selectBackend() {
+        if (this.backend != Backend.AUTO) {
+            return this.backend;
         }
+        return this.presolved.columns().size() >= CP_SAT_MIN_PAIRS
+                && Runtime.getRuntime().availableProcessors()
+                >= CP_SAT_MIN_CORES ? Backend.CP_SAT : Backend.SCIP;
+    }
+
+    /**
+     * Creates an empty model of a backend.
+     *
+     * @param kind The backend, other than AUTO.
+     * @return The model, or null if the solver is not available.
+     */
+    private static SolverBackend newBackend(Backend kind) {
+        return kind == Backend.CP_SAT ? new CpSatBackend()
+                : LinearBackend.create(kind.name());
     }
 
     /**
-     * Adds the constraint that each student does not work more than 20 hours
-     * per week.
+     * Sets the time limit, gap, threads, parameters and incumbent listener
+     * of MIP solves. When a listener is set, the model is solved as a single
+     * model so that incumbents cover the whole problem.
+     *
+     * @param config The solve configuration.
      */
-    private void addMaxHoursPerStudent() {
-        for (final int s : this.allStudents) {
-            final MPConstraint constraint = this.solver.makeConstraint(
-                    0.0, MAX_HOURS_PER_STUDENT, ""
-            );
-            for (final int c : this.allClasses) {
-                constraint.setCoefficient(
-                        this.assignments[s][c], hoursPerClass[c]
-                );
-            }
+    public void setSolveConfig(SolveConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Asks a running solve to stop as soon as possible and keep its best
+     * solution. Can be called from any thread, such as an incumbent listener
+     * or an operator's request.
+     */
+    public void requestStop() {
+        this.stopRequested = true;
+        for (final SolverBackend active : this.activeModels) {
+            active.interrupt();
         }
     }
+
     /**
-     * Checks if a professor wants a specific student for a class.
+     * Getter of the report of the last solve: phase timings, model size,
+     * solver statistics and result.
      *
-     * @param s The student index.
-     * @param c The class index.
-     * @return true if the professor wants the student for the class, false otherwise.
+     * @return The report, or null before the first solve.
      */
-    private boolean profWantsStudent(int s, int c) {
-        return this.profPreferences[s][c] > 0;
+    public SolveReport getSolveReport() {
+        return report;
     }
 
     /**
-     * Checks if a student wants a specific class.
+     * Checks if solve() will call the native OR-Tools solver, so callers can
+     * skip loading the native libraries when it will not.
      *
-     * @param s The student index.
-     * @param c The class index.
-     * @return true if the student wants the class, false otherwise.
+     * @return true if the selected engine needs the native libraries.
      */
-    private boolean studWantsClass(int s, int c) {
-        return this.studPreferences[s][c] > 0;
+    public boolean usesNativeSolver() {
+        final Engine selected = this.selectEngine();
+        return selected == Engine.MIP
+                || selected == Engine.COLUMN_GENERATION;
     }
 
-    private boolean intArrayContains(int[] arr, int value) {
-        for (int c : arr)
-            if (c == value)
-                return true;
-        return false;
+    /**
+     * Resolves the AUTO engine for this instance.
+     *
+     * @return The engine solve() will run.
+     */
+    private Engine selectEngine() {
+        if (this.engine != Engine.AUTO) {
+            return this.engine;
+        }
+        return MatchingEngine.applies(this.instance, this.maxHoursPerStudent)
+                ? Engine.MATCHING : Engine.MIP;
     }
 
     /**
-     * Checks if a student's slot is available for a class on every day the
-     * class has slots assigned.
+     * Sets whether solve() splits the model into the connected components of
+     * the eligible pairs and solves each one with its own solver.
      *
-     * @param s The student index.
-     * @param c The class index.
-     * @return true if the slots are available, false if student's already
-     * registered.
-     */
-    private boolean isStudentSlotFree(int s, int c) {
-        final int NUM_WEEKDAYS = 5;
-        int[][] studentRegisteredSlots = registeredSlotsPerStudentDay[s];
-        int[] classSlots = slotsPerClass[c];
-        for (int d = 0; d < NUM_WEEKDAYS; d++) {
-            if (classSlots[d] > 0) {
-                if (intArrayContains(studentRegisteredSlots[d], classSlots[d]))
-                    return false;
-                }
+     * @param decompose true to solve components separately, false to build a
+     *                  single model.
+     */
+    public void setDecomposition(boolean decompose) {
+        this.decompose = decompose;
+    }
+
+    /**
+     * Sets whether solve() presolves the MIP model: drops pairs that cannot
+     * pay off, fixes forced assignments and merges identical classes before
+     * the variables are created.
+     *
+     * @param presolve true to presolve, false to solve the eligible pairs as
+     *                 they are.
+     */
+    public void setPresolve(boolean presolve) {
+        this.presolve = presolve;
+    }
+
+    /**
+     * Sets whether solve() shrinks the MIP model by reduced-cost fixing: the
+     * LP relaxation is solved with GLOP, an incumbent is found by the
+     * HEURISTIC engine within its time budget, and every column whose
+     * reduced cost proves it cannot improve on the incumbent is removed
+     * before the MIP is built. The better of the incumbent and the MIP
+     * solution is kept.
+     *
+     * @param reducedCostFixing true to fix columns, false to solve the
+     *                          presolved model as it is.
+     */
+    public void setReducedCostFixing(boolean reducedCostFixing) {
+        this.reducedCostFixing = reducedCostFixing;
+    }
+
+    /**
+     * Sets the executor the connected components are solved on.
+     *
+     * @param executor The executor, such as a fixed thread pool or a
+     *                 ForkJoinPool.
+     */
+    public void setComponentExecutor(ExecutorService executor) {
+        this.componentExecutor = executor;
+    }
+
+    /**
+     * Creates the model of the selected backend for the problem.
+     */
+    void createSolver() {
+        this.backendUsed = this.selectBackend();
+        this.model = newBackend(this.backendUsed);
+        this.solver = this.model instanceof LinearBackend
+                ? ((LinearBackend) this.model).solver() : null;
+    }
+
+    /**
+     * Creates the decision variables for the columns of the model: one
+     * binary variable per eligible pair, with index p for pair p, unless a
+     * presolve merged classes into groups.
+     */
+    void createVariables() {
+        final int numColumns = this.presolved.columns().size();
+        final int[] upperBounds = new int[numColumns];
+        for (int q = 0; q < numColumns; q++) {
+            upperBounds[q] = this.presolved.upperBound(q);
+        }
+        this.model.addVariables(upperBounds, numColumns);
+        this.pairVariables = null;
+        this.zeroVariable = null;
+        if (this.model instanceof LinearBackend
+                && this.presolved.isUnreduced()) {
+            final LinearBackend linear = (LinearBackend) this.model;
+            this.pairVariables = new MPVariable[numColumns];
+            for (int p = 0; p < numColumns; p++) {
+                this.pairVariables[p] = linear.variable(p);
             }
-        return true;
-    }
-
-    /**
-     * Creates the objective function based on student preferences.
-     */
-    private void createObjectiveFunction() {
-        this.objective = this.solver.objective();
-        for (final int s : this.allStudents) {
-            for (final int c : this.allClasses) {
-                // If student is interested in the class
-                boolean profWants = profWantsStudent(s, c);
-                // If professor is interested in the student for this class
-                boolean studWants = studWantsClass(s, c);
-                // If student is free for class's assigned slots
-                boolean studIsFree = isStudentSlotFree(s, c);
-                if (profWants & studWants & studIsFree) {
-                    this.objective.setCoefficient(
-                            this.assignments[s][c],
-                            this.profPreferences[s][c]
-                                    * REL_WEIGHT_PROF_PREFERENCES
-                    );
-                    this.objective.setCoefficient(
-                            this.assignments[s][c],
-                            this.studPreferences[s][c]
-                                    * REL_WEIGHT_STUD_PREFERENCES
-                    );
+            this.zeroVariable = linear.zero();
+        }
+    }
+
+    /**
+     * Adds the constraint that each class is assigned to exactly one student.
+     */
+    void addExactlyOneStudentPerClass() {
+        final int numGroups = this.presolved.columns().numClasses();
+        this.classConstraints = new MPConstraint[this.numClasses];
+        this.addClassRows(this.model, null, numGroups, null);
+    }
+
+    /**
+     * Adds the constraint that each student does not work more than the
+     * maximum hours per week.
+     */
+    void addMaxHoursPerStudent() {
+        this.studentConstraints = new MPConstraint[this.numStudents];
+        this.addStudentRows(this.model, null, this.numStudents, null);
+    }
+
+    /**
+     * Adds the row of each of some class groups to a model: at most one
+     * student for a single class, at most k for a group of k classes. Rows
+     * of an unreduced model are also stored in classConstraints when the
+     * backend is linear.
+     *
+     * @param target The model.
+     * @param groups The groups, in the first count entries, or null for
+     *               groups 0 to count - 1.
+     * @param count The number of groups.
+     * @param local The model variable index of each column, or null if it is
+     *              the column index.
+     */
+    private void addClassRows(SolverBackend target, int[] groups, int count,
+                              int[] local) {
+        final EligiblePairs columns = this.presolved.columns();
+        final boolean keep = this.presolved.isUnreduced()
+                && target instanceof LinearBackend;
+        int[] row = new int[16];
+        int[] ones = new int[0];
+        for (int k = 0; k < count; k++) {
+            final int g = groups == null ? k : groups[k];
+            final int start = columns.classStart(g);
+            final int size = columns.classEnd(g) - start;
+            if (size > row.length) {
+                row = new int[Math.max(size, 2 * row.length)];
+            }
+            for (int i = 0; i < size; i++) {
+                final int q = columns.classPair(start + i);
+                row[i] = local == null ? q : local[q];
+            }
+            final int capacity = this.presolved.groupSize(g);
+            final int index;
+            if (capacity == 1) {
+                index = target.addAtMostOne(row, size);
+            } else {
+                if (ones.length < size) {
+                    ones = new int[row.length];
+                    Arrays.fill(ones, 1);
                 }
+                index = target.addCapacity(row, ones, size, capacity);
+            }
+            if (keep) {
+                this.classConstraints[g] =
+                        ((LinearBackend) target).constraint(index);
             }
         }
-        this.objective.setMaximization();
     }
 
     /**
-     * Prints the solution to the problem.
+     * Adds the maximum hours row of each of some students to a model,
+     * skipping the students the presolve found to need none. Rows of an
+     * unreduced model are also stored in studentConstraints when the backend
+     * is linear.
+     *
+     * @param target The model.
+     * @param students The students, in the first count entries, or null
+     *                 for students 0 to count - 1.
+     * @param count The number of students.
+     * @param local The model variable index of each column, or null if it is
+     *              the column index.
+     */
+    private void addStudentRows(SolverBackend target, int[] students,
+                                int count, int[] local) {
+        final EligiblePairs columns = this.presolved.columns();
+        final boolean keep = this.presolved.isUnreduced()
+                && target instanceof LinearBackend;
+        int[] row = new int[16];
+        int[] hours = new int[16];
+        for (int k = 0; k < count; k++) {
+            final int s = students == null ? k : students[k];
+            if (!this.presolved.needsStudentRow(s)) {
+                continue;
+            }
+            final int start = columns.studentStart(s);
+            final int size = columns.studentEnd(s) - start;
+            if (size > row.length) {
+                row = new int[Math.max(size, 2 * row.length)];
+                hours = new int[row.length];
+            }
+            for (int i = 0; i < size; i++) {
+                final int q = start + i;
+                row[i] = local == null ? q : local[q];
+                hours[i] = this.presolved.groupHours(columns.classOf(q));
+            }
+            final int index = target.addCapacity(row, hours, size,
+                    this.presolved.studentCapacity(s));
+            if (keep) {
+                this.studentConstraints[s] =
+                        ((LinearBackend) target).constraint(index);
+            }
+        }
+    }
+
+    /**
+     * Counts the constraint coefficients of a column: one in its group row
+     * and one in its student's row, if the student has one.
+     *
+     * @param q The column index.
+     * @return The number of non-zero coefficients of the column.
+     */
+    private int nonZeros(int q) {
+        return this.presolved.needsStudentRow(
+                this.presolved.columns().student(q)) ? 2 : 1;
+    }
+
+    /**
+     * Computes the objective coefficient of a pair from both preferences,
+     * with the default weights.
+     *
+     * @param profPreference The professor's preference for the student.
+     * @param studPreference The student's preference for the class.
+     * @return The weighted preference of the pair.
+     */
+    static double preferenceWeight(int profPreference, int studPreference) {
+        return profPreference * REL_WEIGHT_PROF_PREFERENCES
+                + studPreference * REL_WEIGHT_STUD_PREFERENCES;
+    }
+
+    /**
+     * Computes the objective coefficient of a pair with this problem's
+     * weights.
+     *
+     * @param profPreference The professor's preference for the student.
+     * @param studPreference The student's preference for the class.
+     * @return The weighted preference of the pair.
+     */
+    double weightOf(int profPreference, int studPreference) {
+        return profPreference * this.profWeight
+                + studPreference * this.studWeight;
+    }
+
+    /**
+     * Filters the student-class pairs that can be part of an assignment: the
+     * professor wants the student, the student wants the class and the
+     * student is free for the class's assigned slots. Eligibility and
+     * weights are computed in one scan over the students, in parallel on
+     * large instances unless the configuration asks for one thread. A
+     * shared eligibility index, if set, replaces the eligibility tests.
+     */
+    void filterEligiblePairs() {
+        final int[] previous = this.previousStudents;
+        final double bonus = this.stabilityWeight;
+        this.pairs = PairScanner.scan(this.instance, this.eligibility,
+                (s, c, profPreference, studPreference) ->
+                        this.weightOf(profPreference, studPreference)
+                                + (previous != null && previous[c] == s
+                                ? bonus : 0.0),
+                this.config.getThreads() != 1);
+        // Until a presolve runs, the model is the eligible pairs themselves.
+        this.presolved = PresolvedModel.unreduced(this.pairs, this.instance,
+                this.maxHoursPerStudent);
+    }
+
+    /**
+     * Creates the objective function based on student and professor
+     * preferences.
+     */
+    void createObjectiveFunction() {
+        final EligiblePairs columns = this.presolved.columns();
+        final double[] coefficients = new double[columns.size()];
+        for (int q = 0; q < coefficients.length; q++) {
+            coefficients[q] = columns.weight(q);
+        }
+        this.model.maximize(coefficients);
+        this.objective = this.solver != null ? this.solver.objective() : null;
+    }
+
+    /**
+     * Prints the solution to the problem. The text is built in one buffer
+     * and written once, since formatting each line separately is slow on
+     * large instances. Use SolutionWriter for output read by other
+     * programs.
      */
     public void printSolution() {
-        if (resultStatus == MPSolver.ResultStatus.OPTIMAL ||
-                resultStatus == MPSolver.ResultStatus.FEASIBLE) {
-            System.out.printf("Total satisfaction: " + this.objective.value()
-                    + "\n\n");
-            for (final int s : this.allStudents) {
+        if (resultStatus == SolveStatus.OPTIMAL ||
+                resultStatus == SolveStatus.FEASIBLE) {
+            final StringBuilder out = new StringBuilder();
+            out.append("Total satisfaction: ").append(this.objectiveValue)
+                    .append('\n');
+            if ((this.engineUsed == Engine.HEURISTIC
+                    || this.engineUsed == Engine.LAGRANGIAN
+                    || this.engineUsed == Engine.COLUMN_GENERATION)
+                    && !Double.isNaN(this.bestBound)) {
+                out.append(String.format("Gap to best bound: %.2f%%\n",
+                        100.0 * this.getRelativeGap()));
+            }
+            out.append('\n');
+            for (int s = 0; s < this.numStudents; s++) {
                 boolean assigned = false;
-                for (final int c : this.allClasses) {
-                    if (this.assignments[s][c].solutionValue() > 0.5) {
+                for (int p = this.pairs.studentStart(s);
+                     p < this.pairs.studentEnd(s); p++) {
+                    if (this.pairValues[p] > 0.5) {
                         assigned = true;
-                        System.out.printf("Student %d was assigned to " +
-                                "class %d.\n", s, c);
+                        out.append("Student ").append(s)
+                                .append(" was assigned to class ")
+                                .append(this.pairs.classOf(p)).append(".\n");
                     }
                 }
                 if (!assigned) {
-                    System.out.printf("Student %d was not assigned.\n", s);
+                    out.append("Student ").append(s)
+                            .append(" was not assigned.\n");
                 }
             }
+            System.out.print(out);
+            System.out.flush();
         } else {
             System.err.println("No solution found.");
         }
     }
 
     /**
-     * Solves the Student Employment Assignment problem.
-     *
-     * @return The result status of the solver.
+     * Builds the solver model: variables, constraints and objective.
      */
-    public MPSolver.ResultStatus solve() {
+    void buildModel() {
+        this.filterEligiblePairs();
+        this.buildSolverModel();
+    }
+
+    /**
+     * Builds a single solver model over all the eligible pairs.
+     */
+    private void buildSolverModel() {
         this.createSolver();
         this.createVariables();
         this.addExactlyOneStudentPerClass();
         this.addMaxHoursPerStudent();
         this.createObjectiveFunction();
-        resultStatus = this.solver.solve();
+    }
+
+    /**
+     * Builds and solves a separate model for one connected component of the
+     * columns, within the time left until the deadline of the whole solve.
+     * Each group and student belongs to a single component, so components
+     * fill disjoint entries of the shared arrays.
+     *
+     * @param components The connected components of the columns.
+     * @param k The component index.
+     * @param config The solve configuration of the components.
+     * @param deadline The time the solve must end by, in milliseconds since
+     *                 the epoch, or 0 for none.
+     * @param models The array where the component's model is stored.
+     * @param local The array where the model variable index of each column
+     *              is stored.
+     * @param values The array where the value of each column is stored.
+     * @return The result status of the component's solver, NOT_SOLVED if
+     * the deadline passed before it started.
+     */
+    private MPSolver.ResultStatus solveComponent(
+            PairComponents components, int k, SolveConfig config,
+            long deadline, SolverBackend[] models, int[] local,
+            double[] values
+    ) {
+        SolveConfig componentConfig = config;
+        if (deadline > 0) {
+            final long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return MPSolver.ResultStatus.NOT_SOLVED;
+            }
+            componentConfig = config.copy().timeLimit(remaining);
+        }
+        final SolverBackend target = newBackend(this.backendUsed);
+        if (target == null) {
+            return MPSolver.ResultStatus.NOT_SOLVED;
+        }
+        models[k] = target;
+        final EligiblePairs columns = this.presolved.columns();
+        final int start = components.start(k);
+        final int size = components.end(k) - start;
+        final int[] groups = new int[size];
+        final int[] students = new int[size];
+        int numComponentGroups = 0;
+        int numComponentStudents = 0;
+        final int[] upperBounds = new int[size];
+        final double[] coefficients = new double[size];
+        for (int i = 0; i < size; i++) {
+            // Columns are in ascending order, so the first column of a
+            // student or group in its CSR list is the first one seen here.
+            final int q = components.pair(start + i);
+            local[q] = i;
+            upperBounds[i] = this.presolved.upperBound(q);
+            coefficients[i] = columns.weight(q);
+            final int s = columns.student(q);
+            if (columns.studentStart(s) == q) {
+                students[numComponentStudents++] = s;
+            }
+            final int g = columns.classOf(q);
+            if (columns.classPair(columns.classStart(g)) == q) {
+                groups[numComponentGroups++] = g;
+            }
+        }
+
+        target.addVariables(upperBounds, size);
+        if (this.presolved.isUnreduced() && target instanceof LinearBackend) {
+            final LinearBackend linear = (LinearBackend) target;
+            for (int i = 0; i < size; i++) {
+                this.pairVariables[components.pair(start + i)] =
+                        linear.variable(i);
+            }
+            if (k == 0) {
+                this.zeroVariable = linear.zero();
+            }
+        }
+        this.addClassRows(target, groups, numComponentGroups, local);
+        this.addStudentRows(target, students, numComponentStudents, local);
+        target.maximize(coefficients);
+        if (this.columnHint != null) {
+            final double[] hint = new double[size];
+            for (int i = 0; i < size; i++) {
+                hint[i] = this.columnHint[components.pair(start + i)];
+            }
+            target.hint(hint);
+        }
+
+        final MPSolver.ResultStatus status =
+                this.runModel(target, componentConfig, false);
+        if (status == MPSolver.ResultStatus.OPTIMAL
+                || status == MPSolver.ResultStatus.FEASIBLE) {
+            final double[] componentValues = target.values();
+            for (int i = 0; i < size; i++) {
+                values[components.pair(start + i)] = componentValues[i];
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Solves the connected components concurrently on the component executor
+     * and merges their results. The components share the time limit of the
+     * configuration: each one that starts gets the time left until the end
+     * of the whole solve, so that components queued behind others do not
+     * extend it. CP-SAT components split the configured search workers, or
+     * the available cores, among the components that run at once. The
+     * merged status is OPTIMAL only if every component is optimal. A
+     * component stopped without a solution leaves its columns unassigned,
+     * which is always feasible, and bounds them by their total weight, so
+     * the merged status is then FEASIBLE with the other components' results.
+     *
+     * @param components The connected components of the columns.
+     * @param values The array where the value of each column is stored.
+     * @return The merged result status.
+     */
+    private MPSolver.ResultStatus solveComponents(PairComponents components,
+                                                  double[] values) {
+        this.model = null;
+        this.solver = null;
+        this.objective = null;
+        this.backendUsed = this.selectBackend();
+        // Components fill in their variables if they are linear ones.
+        this.pairVariables = this.presolved.isUnreduced()
+                && this.backendUsed != Backend.CP_SAT
+                ? new MPVariable[values.length] : null;
+        this.zeroVariable = null;
+        this.classConstraints = new MPConstraint[this.numClasses];
+        this.studentConstraints = new MPConstraint[this.numStudents];
+        this.report.setBackend(this.backendUsed.name(),
+                this.config.ignoredBy(this.backendUsed));
+        final long deadline = this.config.getTimeLimit() > 0
+                ? System.currentTimeMillis() + this.config.getTimeLimit() : 0;
+        SolveConfig componentConfig = this.config;
+        if (this.backendUsed == Backend.CP_SAT) {
+            final int workers = this.config.getThreads() > 0
+                    ? this.config.getThreads()
+                    : Runtime.getRuntime().availableProcessors();
+            final int concurrent = Math.min(components.size(),
+                    this.componentParallelism());
+            componentConfig = this.config.copy()
+                    .threads(Math.max(1, workers / concurrent));
+        }
+        final SolveConfig shared = componentConfig;
+        final int[] local = new int[values.length];
+        final SolverBackend[] models = new SolverBackend[components.size()];
+        final List<Future<MPSolver.ResultStatus>> futures =
+                new ArrayList<>(components.size());
+        for (int k = 0; k < components.size(); k++) {
+            final int component = k;
+            futures.add(this.componentExecutor.submit(
+                    () -> solveComponent(components, component, shared,
+                            deadline, models, local, values)
+            ));
+        }
+
+        MPSolver.ResultStatus status = MPSolver.ResultStatus.OPTIMAL;
+        boolean stopped = false;
+        boolean found = false;
+        double total = 0.0;
+        double bound = 0.0;
+        for (int k = 0; k < components.size(); k++) {
+            final MPSolver.ResultStatus componentStatus;
+            try {
+                componentStatus = futures.get(k).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(
+                        "Interrupted while solving components", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(
+                        "Component " + k + " failed", e.getCause());
+            }
+            if (componentStatus == MPSolver.ResultStatus.OPTIMAL
+                    || componentStatus == MPSolver.ResultStatus.FEASIBLE) {
+                found = true;
+                total += models[k].objectiveValue();
+                bound += models[k].bestBound();
+                if (componentStatus == MPSolver.ResultStatus.FEASIBLE
+                        && status == MPSolver.ResultStatus.OPTIMAL) {
+                    status = MPSolver.ResultStatus.FEASIBLE;
+                }
+            } else if (componentStatus == MPSolver.ResultStatus.NOT_SOLVED) {
+                stopped = true;
+                for (int i = components.start(k); i < components.end(k);
+                     i++) {
+                    final int q = components.pair(i);
+                    bound += this.presolved.columns().weight(q)
+                            * this.presolved.upperBound(q);
+                }
+            } else {
+                status = componentStatus;
+            }
+        }
+        if (stopped && status == MPSolver.ResultStatus.OPTIMAL) {
+            status = found ? MPSolver.ResultStatus.FEASIBLE
+                    : MPSolver.ResultStatus.NOT_SOLVED;
+        }
+        for (int k = 0; k < components.size(); k++) {
+            if (models[k] != null) {
+                long nonZeros = 0;
+                for (int i = components.start(k); i < components.end(k);
+                     i++) {
+                    nonZeros += this.nonZeros(components.pair(i));
+                }
+                this.report.addModel(models[k], nonZeros);
+            }
+        }
+        this.componentModels = Arrays.asList(models);
+        this.objectiveValue = total;
+        if (status == MPSolver.ResultStatus.OPTIMAL
+                || status == MPSolver.ResultStatus.FEASIBLE) {
+            this.bestBound = bound;
+        }
+        return status;
+    }
+
+    /**
+     * Returns the number of tasks the component executor runs at once.
+     *
+     * @return The parallelism of a ForkJoinPool, the maximum size of a
+     * ThreadPoolExecutor, or the number of available cores otherwise.
+     */
+    private int componentParallelism() {
+        if (this.componentExecutor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) this.componentExecutor).getParallelism();
+        }
+        if (this.componentExecutor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) this.componentExecutor)
+                    .getMaximumPoolSize();
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Runs a model with the solve configuration. A stop requested before the
+     * call returns NOT_SOLVED without solving.
+     *
+     * @param target The model.
+     * @param stream true to stream incumbents to the configured listener.
+     * @return The result status of the solver.
+     */
+    private MPSolver.ResultStatus runModel(SolverBackend target,
+                                           boolean stream) {
+        return this.runModel(target, this.config, stream);
+    }
+
+    /**
+     * Runs a model with a solve configuration. A stop requested before the
+     * call returns NOT_SOLVED without solving.
+     *
+     * @param target The model.
+     * @param config The solve configuration.
+     * @param stream true to stream incumbents to the configured listener.
+     * @return The result status of the solver.
+     */
+    private MPSolver.ResultStatus runModel(SolverBackend target,
+                                           SolveConfig config,
+                                           boolean stream) {
+        this.activeModels.add(target);
+        try {
+            if (this.stopRequested) {
+                return MPSolver.ResultStatus.NOT_SOLVED;
+            }
+            return target.solve(config, stream);
+        } finally {
+            this.activeModels.remove(target);
+        }
+    }
+
+    /**
+     * Solves the mixed-integer model. Unless incumbents are streamed, the
+     * eligible pairs are presolved, if presolve is on, columns are fixed by
+     * reduced costs, if that is on, and the columns are split into connected
+     * components, if decomposition is on, each solved as its own model. The
+     * solution of the columns is then expanded back to the eligible pairs.
+     *
+     * @return The result status of the solver.
+     */
+    private MPSolver.ResultStatus solveMip() {
+        final boolean streaming =
+                this.config.getIncumbentListener() != null;
+        this.componentModels = null;
+        if (this.presolve && !streaming) {
+            this.presolved = PresolvedModel.presolve(this.pairs, this.instance,
+                    this.maxHoursPerStudent);
+            this.report.setPresolve(this.presolved.getFixedPairs(),
+                    this.presolved.getDroppedPairs(),
+                    this.presolved.getMergedClasses());
+            this.report.lap("presolve");
+        }
+        double[] incumbent = null;
+        double incumbentValue = Double.NEGATIVE_INFINITY;
+        if (this.reducedCostFixing && !streaming) {
+            incumbent = HeuristicEngine.solve(this.pairs, this.instance,
+                    this.maxHoursPerStudent, this.heuristicTimeBudgetMillis);
+            incumbentValue = 0.0;
+            for (int p = 0; p < incumbent.length; p++) {
+                incumbentValue += incumbent[p] * this.pairs.weight(p);
+            }
+            final ReducedCostFixing fixing = ReducedCostFixing.solve(
+                    this.presolved, this.config,
+                    incumbentValue - this.presolved.fixedObjective());
+            if (fixing != null) {
+                this.presolved = fixing.reduce();
+                this.report.setReducedCostFixed(fixing.getFixedColumns());
+            }
+            this.report.lap("fixing");
+        }
+        final EligiblePairs columns = this.presolved.columns();
+        this.columnHint = this.previousStudents != null
+                ? this.presolved.restrict(this.previousPairValues())
+                : incumbent != null ? this.presolved.restrict(incumbent)
+                : null;
+        MPSolver.ResultStatus status = null;
+        double[] values = null;
+        if (this.decompose && !streaming) {
+            final PairComponents components = new PairComponents(columns);
+            this.report.lap("decompose");
+            if (components.size() > 1) {
+                // Components copy their own values out as they finish.
+                values = new double[columns.size()];
+                status = this.solveComponents(components, values);
+                this.report.lap("solve");
+            }
+        }
+        if (status == null) {
+            this.buildSolverModel();
+            if (this.columnHint != null) {
+                this.model.hint(this.columnHint);
+            }
+            this.report.lap("build");
+            this.report.setBackend(this.backendUsed.name(),
+                    this.config.ignoredBy(this.backendUsed));
+            status = this.runModel(this.model, streaming);
+            this.report.lap("solve");
+            long nonZeros = 0;
+            for (int q = 0; q < columns.size(); q++) {
+                nonZeros += this.nonZeros(q);
+            }
+            this.report.addModel(this.model, nonZeros);
+            if (status == MPSolver.ResultStatus.OPTIMAL ||
+                    status == MPSolver.ResultStatus.FEASIBLE) {
+                this.objectiveValue = this.model.objectiveValue();
+                this.bestBound = this.model.bestBound();
+                values = this.model.values();
+            }
+        }
+        if (status == MPSolver.ResultStatus.OPTIMAL ||
+                status == MPSolver.ResultStatus.FEASIBLE) {
+            this.objectiveValue += this.presolved.fixedObjective();
+            this.bestBound += this.presolved.fixedObjective();
+            this.pairValues = this.presolved.expand(values);
+            this.report.lap("extract");
+        }
+        final boolean solved = status == MPSolver.ResultStatus.OPTIMAL
+                || status == MPSolver.ResultStatus.FEASIBLE;
+        if (incumbent != null
+                && (!solved || this.objectiveValue < incumbentValue)) {
+            // Removed columns only pay off in assignments worse than the
+            // incumbent, so the bound of the reduced model, or the
+            // incumbent itself, bounds the whole model.
+            this.bestBound = solved
+                    ? Math.max(this.bestBound, incumbentValue) : Double.NaN;
+            if (!solved) {
+                status = MPSolver.ResultStatus.FEASIBLE;
+            }
+            this.pairValues = incumbent;
+            this.objectiveValue = incumbentValue;
+        }
+        return status;
+    }
+
+    /**
+     * Returns the previous assignment as values of the eligible pairs. Pairs
+     * are taken in class order while their student has hours left, so the
+     * values are a feasible assignment.
+     *
+     * @return The value of each eligible pair, 1.0 if it is kept.
+     */
+    private double[] previousPairValues() {
+        final double[] values = new double[this.pairs.size()];
+        final int[] hours = new int[this.numStudents];
+        for (int c = 0; c < this.numClasses; c++) {
+            final int s = this.previousStudents[c];
+            final int p = s >= 0 && s < this.numStudents
+                    ? this.pairs.indexOf(s, c) : -1;
+            if (p >= 0 && hours[s] + this.instance.hoursPerClass(c)
+                    <= this.maxHoursPerStudent) {
+                hours[s] += this.instance.hoursPerClass(c);
+                values[p] = 1.0;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Sums the weights of the assigned pairs of the current solution.
+     *
+     * @return The objective value of pairValues.
+     */
+    private double objectiveOfPairValues() {
+        double total = 0.0;
+        for (int p = 0; p < this.pairs.size(); p++) {
+            total += this.pairValues[p] * this.pairs.weight(p);
+        }
+        return total;
+    }
+
+    /**
+     * Drops the solver model of a previous solve, for engines that do not
+     * build one.
+     */
+    private void clearSolverModel() {
+        this.model = null;
+        this.solver = null;
+        this.objective = null;
+        this.pairVariables = null;
+        this.zeroVariable = null;
+        this.componentModels = null;
+    }
+
+    /**
+     * Solves the problem as a bipartite matching, without a solver model.
+     *
+     * @return OPTIMAL, since the matching engine is exact for the problems it
+     * applies to.
+     */
+    private SolveStatus solveMatching() {
+        this.clearSolverModel();
+        this.pairValues = MatchingEngine.solve(
+                this.pairs, this.instance, this.maxHoursPerStudent
+        );
+        this.objectiveValue = this.objectiveOfPairValues();
+        if (MatchingEngine.applies(this.instance, this.maxHoursPerStudent)) {
+            this.bestBound = this.objectiveValue;
+        }
+        return SolveStatus.OPTIMAL;
+    }
+
+    /**
+     * Solves the problem with the greedy and local search heuristic, without
+     * a solver model. The best bound of an earlier exact solve is kept.
+     *
+     * @return FEASIBLE, since the heuristic does not prove optimality.
+     */
+    private SolveStatus solveHeuristic() {
+        this.clearSolverModel();
+        this.pairValues = this.previousStudents != null
+                ? HeuristicEngine.improve(this.pairs, this.instance,
+                        this.maxHoursPerStudent, this.previousPairValues(),
+                        this.heuristicTimeBudgetMillis)
+                : HeuristicEngine.solve(this.pairs, this.instance,
+                        this.maxHoursPerStudent,
+                        this.heuristicTimeBudgetMillis);
+        this.objectiveValue = this.objectiveOfPairValues();
+        return SolveStatus.FEASIBLE;
+    }
+
+    /**
+     * Solves the problem by Lagrangian relaxation, without a solver model.
+     * The time limit, relative gap, threads and incumbent listener of the
+     * solve configuration apply, and requestStop() stops the iterations.
+     * Unless the gap was closed, the best repaired assignment is then
+     * improved by the local search of the HEURISTIC engine within its time
+     * budget.
+     *
+     * @return OPTIMAL if the assignment is within the relative gap of the
+     * Lagrangian bound, FEASIBLE otherwise.
+     */
+    private SolveStatus solveLagrangian() {
+        this.clearSolverModel();
+        final LagrangianEngine.Result result = LagrangianEngine.solve(
+                this.pairs, this.instance, this.maxHoursPerStudent,
+                this.config, () -> this.stopRequested
+        );
+        this.pairValues = result.isOptimal() ? result.getValues()
+                : HeuristicEngine.improve(this.pairs, this.instance,
+                        this.maxHoursPerStudent, result.getValues(),
+                        this.heuristicTimeBudgetMillis);
+        this.objectiveValue = this.objectiveOfPairValues();
+        this.bestBound = result.getBound();
+        this.report.addIterations(result.getIterations());
+        return result.isOptimal() ? SolveStatus.OPTIMAL
+                : SolveStatus.FEASIBLE;
+    }
+
+    /**
+     * Solves the problem by column generation over per-student bundles. The
+     * time limit, relative gap, threads and incumbent listener of the solve
+     * configuration apply, and requestStop() stops the pricing rounds.
+     * Unless the gap was closed, the assignment is then improved by the
+     * local search of the HEURISTIC engine within its time budget.
+     *
+     * @return OPTIMAL if the assignment is within the relative gap of the
+     * bound, FEASIBLE otherwise, or NOT_SOLVED if GLOP is not available.
+     */
+    private SolveStatus solveColumnGeneration() {
+        this.clearSolverModel();
+        final LagrangianEngine.Result result = ColumnGenerationEngine.solve(
+                this.pairs, this.instance, this.maxHoursPerStudent,
+                this.config, () -> this.stopRequested
+        );
+        if (result == null) {
+            return SolveStatus.NOT_SOLVED;
+        }
+        this.pairValues = result.isOptimal() ? result.getValues()
+                : HeuristicEngine.improve(this.pairs, this.instance,
+                        this.maxHoursPerStudent, result.getValues(),
+                        this.heuristicTimeBudgetMillis);
+        this.objectiveValue = this.objectiveOfPairValues();
+        this.bestBound = result.getBound();
+        this.report.addIterations(result.getIterations());
+        return result.isOptimal() ? SolveStatus.OPTIMAL
+                : SolveStatus.FEASIBLE;
+    }
+
+    /**
+     * Solves the Student Employment Assignment problem with the selected
+     * engine. The phase timings and model size of the solve are available
+     * from getSolveReport afterwards.
+     *
+     * @return The result status of the solver.
+     */
+    public MPSolver.ResultStatus solve() {
+        return this.optimize().toResultStatus();
+    }
+
+    /**
+     * Solves the problem as solve() does, but returns the status as a
+     * SolveStatus. The MATCHING, HEURISTIC and LAGRANGIAN engines then
+     * make no native call, so they run without
+     * Loader.loadNativeLibraries().
+     *
+     * @return The result status of the solve.
+     */
+    public SolveStatus optimize() {
+        this.stopRequested = false;
+        this.report = new SolveReport(this.numStudents, this.numClasses);
+        this.filterEligiblePairs();
+        this.report.setEligiblePairs(this.pairs.size());
+        this.report.lap("filter");
+        this.engineUsed = this.selectEngine();
+        if (this.engineUsed == Engine.MATCHING) {
+            resultStatus = this.solveMatching();
+            this.report.lap("solve");
+        } else if (this.engineUsed == Engine.HEURISTIC) {
+            resultStatus = this.solveHeuristic();
+            this.report.lap("solve");
+        } else if (this.engineUsed == Engine.LAGRANGIAN) {
+            resultStatus = this.solveLagrangian();
+            this.report.lap("solve");
+        } else if (this.engineUsed == Engine.COLUMN_GENERATION) {
+            resultStatus = this.solveColumnGeneration();
+            this.report.lap("solve");
+        } else {
+            resultStatus = SolveStatus.of(this.solveMip());
+        }
+        this.report.setResult(this.engineUsed.name(), resultStatus,
+                resultStatus.hasSolution() ? this.objectiveValue : Double.NaN,
+                this.bestBound);
 
         return resultStatus;
     }
+
+    /**
+     * Finds up to count distinct assignments in order of satisfaction, with
+     * the MIP engine on a single model of the eligible pairs. After each
+     * assignment S is found, the cut
+     * <pre>
+     *     sum over p in S of x_p - sum over p not in S of x_p
+     *         &lt;= |S| - minDistance
+     * </pre>
+     * is added to the same model, so that every later assignment differs
+     * from S in at least minDistance pairs, and the model is solved again
+     * without being rebuilt. With a minimum distance of 1 the alternatives
+     * are the k best assignments; larger distances make them more diverse.
+     * The time limit applies to each solve, and requestStop() ends the
+     * enumeration. The first alternative becomes the solution of the
+     * problem; pass another one to useAlternative to read it with
+     * isAssigned or SolutionWriter.
+     *
+     * @param count The maximum number of alternatives.
+     * @param minDistance The minimum number of pairs in which any two
+     *                    alternatives differ, at least 1.
+     * @param listener The receiver of each alternative as it is found, or
+     *                 null for none.
+     * @return The alternatives, best first. There are fewer than count if
+     * no other assignment is far enough from the earlier ones, a solve found
+     * none, or the listener or requestStop() ended the enumeration.
+     */
+    public List<Alternative> solveAlternatives(int count, int minDistance,
+                                               AlternativeListener listener) {
+        if (minDistance < 1) {
+            throw new IllegalArgumentException(
+                    "The minimum distance must be at least 1");
+        }
+        this.stopRequested = false;
+        this.report = new SolveReport(this.numStudents, this.numClasses);
+        this.filterEligiblePairs();
+        this.report.setEligiblePairs(this.pairs.size());
+        this.report.lap("filter");
+        if (this.selectBackend() == Backend.GLOP) {
+            throw new IllegalStateException(
+                    "Alternatives need an integer backend, not GLOP");
+        }
+        this.engineUsed = Engine.MIP;
+        this.componentModels = null;
+        this.buildSolverModel();
+        if (this.previousStudents != null) {
+            this.model.hint(this.previousPairValues());
+        }
+        this.report.lap("build");
+        this.report.setBackend(this.backendUsed.name(),
+                this.config.ignoredBy(this.backendUsed));
+
+        final int size = this.pairs.size();
+        final boolean streaming =
+                this.config.getIncumbentListener() != null;
+        final List<Alternative> alternatives = new ArrayList<>();
+        final int[] all = new int[size];
+        final int[] signs = new int[size];
+        for (int p = 0; p < size; p++) {
+            all[p] = p;
+        }
+        MPSolver.ResultStatus status = MPSolver.ResultStatus.NOT_SOLVED;
+        while (alternatives.size() < count) {
+            final MPSolver.ResultStatus solveStatus =
+                    this.runModel(this.model, streaming);
+            if (solveStatus != MPSolver.ResultStatus.OPTIMAL
+                    && solveStatus != MPSolver.ResultStatus.FEASIBLE) {
+                if (alternatives.isEmpty()) {
+                    status = solveStatus;
+                }
+                break;
+            }
+            final double[] values = new double[size];
+            final double[] solution = this.model.values();
+            int assigned = 0;
+            int distance = 0;
+            for (int p = 0; p < size; p++) {
+                values[p] = solution[p] > 0.5 ? 1.0 : 0.0;
+                assigned += (int) values[p];
+                signs[p] = values[p] > 0.5 ? 1 : -1;
+                if (!alternatives.isEmpty()
+                        && alternatives.get(0).isAssigned(p)
+                        != (values[p] > 0.5)) {
+                    distance++;
+                }
+            }
+            if (alternatives.isEmpty()) {
+                status = solveStatus;
+                this.bestBound = this.model.bestBound();
+            }
+            final Alternative alternative = new Alternative(
+                    alternatives.size(), this.model.objectiveValue(), values,
+                    distance, solveStatus == MPSolver.ResultStatus.OPTIMAL);
+            alternatives.add(alternative);
+            if (listener != null && !listener.onAlternative(alternative)) {
+                break;
+            }
+            this.model.addCut(all, signs, size, assigned - minDistance);
+        }
+        this.report.lap("solve");
+        long nonZeros = 0;
+        for (int p = 0; p < size; p++) {
+            nonZeros += this.nonZeros(p);
+        }
+        this.report.addModel(this.model, nonZeros);
+
+        this.resultStatus = SolveStatus.of(status);
+        if (!alternatives.isEmpty()) {
+            this.useAlternative(alternatives.get(0));
+        }
+        final boolean solved = !alternatives.isEmpty();
+        this.report.setResult(this.engineUsed.name(), this.resultStatus,
+                solved ? this.objectiveValue : Double.NaN, this.bestBound);
+        return alternatives;
+    }
+
+    /**
+     * Makes an alternative found by the last solveAlternatives call the
+     * solution of the problem, for isAssigned, printSolution and
+     * SolutionWriter. The best bound stays that of the first alternative.
+     *
+     * @param alternative The alternative.
+     */
+    public void useAlternative(Alternative alternative) {
+        this.pairValues = alternative.pairValues;
+        this.objectiveValue = alternative.getObjectiveValue();
+    }
 }
@@ -0,0 +1,347 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class represents the changes between the inputs of a saved term and
+ * those of the next one. Students and classes are matched by the ids of the
+ * input files. A class has changed if its hours or slots differ, and a
+ * student has changed if their registered slots differ or a preference
+ * differs on either side for a class of both terms. The previous assignment
+ * is carried over to the indices of the new term, for the pairs whose
+ * student and class are still there.
+ *
+ * @author cgarcialm
+ * @version 1.0
+ */
+public class TermDiff {
+    private static final int NUM_WEEKDAYS = EligibilityIndex.NUM_WEEKDAYS;
+    private final int[] newStudents;  // Ids of the students added.
+    private final int[] removedStudents;  // Ids of the students removed.
+    private final int[] changedStudents;  // Ids of the students changed.
+    private final int[] newClasses;  // Ids of the classes added.
+    private final int[] removedClasses;  // Ids of the classes removed.
+    private final int[] changedClasses;  // Ids of the classes changed.
+    private final int[] previousStudents;  // Student index of each class of
+                                // the new term in the previous assignment,
+                                // or -1.
+
+    /**
+     * Constructor to initialize the TermDiff from its id lists.
+     *
+     * @param newStudents The ids of the students added.
+     * @param removedStudents The ids of the students removed.
+     * @param changedStudents The ids of the students changed.
+     * @param newClasses The ids of the classes added.
+     * @param removedClasses The ids of the classes removed.
+     * @param changedClasses The ids of the classes changed.
+     * @param previousStudents The carried previous assignment.
+     */
+    private TermDiff(int[] newStudents, int[] removedStudents,
+                     int[] changedStudents, int[] newClasses,
+                     int[] removedClasses, int[] changedClasses,
+                     int[] previousStudents) {
+        this.newStudents = newStudents;
+        this.removedStudents = removedStudents;
+        this.changedStudents = changedStudents;
+        this.newClasses = newClasses;
+        this.removedClasses = removedClasses;
+        this.changedClasses = changedClasses;
+        this.previousStudents = previousStudents;
+    }
+
+    /**
+     * Compares the inputs of the next term with a saved term.
+     *
+     * @param previous The saved term.
+     * @param current The inputs of the next term.
+     * @param studentIds The id of each student of the next term.
+     * @param classIds The id of each class of the next term.
+     * @return The changes between the terms.
+     * @throws IllegalArgumentException If the ids do not match the instance
+     * or an id is repeated.
+     */
+    public static TermDiff between(SolutionHistory.Term previous,
+                                   ProblemInstance current, int[] studentIds,
+                                   int[] classIds) {
+        if (studentIds.length != current.numStudents()
+                || classIds.length != current.numClasses()) {
+            throw new IllegalArgumentException("Ids of " + studentIds.length
+                    + " students and " + classIds.length + " classes do not"
+                    + " match the instance");
+        }
+        final ProblemInstance old = previous.getInstance();
+        final int[] oldStudent = match(studentIds, previous.getStudentIds());
+        final int[] oldClass = match(classIds, previous.getClassIds());
+        final int[] newStudent = match(previous.getStudentIds(), studentIds);
+        final int[] newClass = match(previous.getClassIds(), classIds);
+
+        final IdList addedClasses = new IdList();
+        final IdList changedClasses = new IdList();
+        for (int c = 0; c < classIds.length; c++) {
+            final int o = oldClass[c];
+            if (o < 0) {
+                addedClasses.add(classIds[c]);
+            } else if (old.hoursPerClass(o) != current.hoursPerClass(c)
+                    || !sameSlots(old, o, current, c)) {
+                changedClasses.add(classIds[c]);
+            }
+        }
+
+        final IdList addedStudents = new IdList();
+        final IdList changedStudents = new IdList();
+        final int[] oldRow = new int[old.numClasses()];
+        final int[] row = new int[current.numClasses()];
+        for (int s = 0; s < studentIds.length; s++) {
+            final int o = oldStudent[s];
+            if (o < 0) {
+                addedStudents.add(studentIds[s]);
+                continue;
+            }
+            boolean changed = !sameRegistered(old, o, current, s);
+            old.profPreferenceRow(o, oldRow);
+            current.profPreferenceRow(s, row);
+            changed = changed || !sameRow(oldRow, row, oldClass);
+            if (!changed) {
+                old.studPreferenceRow(o, oldRow);
+                current.studPreferenceRow(s, row);
+                changed = !sameRow(oldRow, row, oldClass);
+            }
+            if (changed) {
+                changedStudents.add(studentIds[s]);
+            }
+        }
+
+        final IdList removedStudents = new IdList();
+        for (int o = 0; o < newStudent.length; o++) {
+            if (newStudent[o] < 0) {
+                removedStudents.add(previous.getStudentIds()[o]);
+            }
+        }
+        final IdList removedClasses = new IdList();
+        for (int o = 0; o < newClass.length; o++) {
+            if (newClass[o] < 0) {
+                removedClasses.add(previous.getClassIds()[o]);
+            }
+        }
+
+        final int[] previousStudents = new int[classIds.length];
+        Arrays.fill(previousStudents, -1);
+        final int[] classStudents = previous.getClassStudents();
+        for (int c = 0; c < classIds.length; c++) {
+            if (oldClass[c] >= 0 && classStudents[oldClass[c]] >= 0) {
+                previousStudents[c] = newStudent[classStudents[oldClass[c]]];
+            }
+        }
+        return new TermDiff(addedStudents.toArray(),
+                removedStudents.toArray(), changedStudents.toArray(),
+                addedClasses.toArray(), removedClasses.toArray(),
+                changedClasses.toArray(), previousStudents);
+    }
+
+    /**
+     * Finds the index of each id in another id list.
+     *
+     * @param ids The ids to look up.
+     * @param from The ids looked up in.
+     * @return The index in from of each id of ids, or -1 if it is not there.
+     * @throws IllegalArgumentException If an id of from is repeated.
+     */
+    private static int[] match(int[] ids, int[] from) {
+        final Map<Integer, Integer> index = new HashMap<>(from.length * 2);
+        for (int i = 0; i < from.length; i++) {
+            if (index.put(from[i], i) != null) {
+                throw new IllegalArgumentException("Id " + from[i]
+                        + " is repeated");
+            }
+        }
+        final int[] matched = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            matched[i] = index.getOrDefault(ids[i], -1);
+        }
+        return matched;
+    }
+
+    /**
+     * Checks if two classes have the same slot on every weekday.
+     *
+     * @param a The first instance.
+     * @param ca The class in the first instance.
+     * @param b The second instance.
+     * @param cb The class in the second instance.
+     * @return true if the slots are equal.
+     */
+    private static boolean sameSlots(ProblemInstance a, int ca,
+                                     ProblemInstance b, int cb) {
+        for (int d = 0; d < NUM_WEEKDAYS; d++) {
+            if (a.classSlot(ca, d) != b.classSlot(cb, d)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if two students are registered for the same slots on every
+     * weekday, in the same order.
+     *
+     * @param a The first instance.
+     * @param sa The student in the first instance.
+     * @param b The second instance.
+     * @param sb The student in the second instance.
+     * @return true if the registered slots are equal.
+     */
+    private static boolean sameRegistered(ProblemInstance a, int sa,
+                                          ProblemInstance b, int sb) {
+        for (int d = 0; d < NUM_WEEKDAYS; d++) {
+            final int count = a.numRegisteredSlots(sa, d);
+            if (count != b.numRegisteredSlots(sb, d)) {
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                if (a.registeredSlot(sa, d, i) != b.registeredSlot(sb, d, i)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if two preference rows agree on the classes of both terms.
+     *
+     * @param oldRow The row of the saved term.
+     * @param row The row of the next term.
+     * @param oldClass The index in the saved term of each class of the next
+     *                 term, or -1.
+     * @return true if the rows agree.
+     */
+    private static boolean sameRow(int[] oldRow, int[] row, int[] oldClass) {
+        for (int c = 0; c < row.length; c++) {
+            if (oldClass[c] >= 0 && oldRow[oldClass[c]] != row[c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Getter of the students added.
+     *
+     * @return The ids of the students of the next term only.
+     */
+    public int[] getNewStudents() {
+        return newStudents;
+    }
+
+    /**
+     * Getter of the students removed.
+     *
+     * @return The ids of the students of the saved term only.
+     */
+    public int[] getRemovedStudents() {
+        return removedStudents;
+    }
+
+    /**
+     * Getter of the students changed.
+     *
+     * @return The ids of the students of both terms whose inputs differ.
+     */
+    public int[] getChangedStudents() {
+        return changedStudents;
+    }
+
+    /**
+     * Getter of the classes added.
+     *
+     * @return The ids of the classes of the next term only.
+     */
+    public int[] getNewClasses() {
+        return newClasses;
+    }
+
+    /**
+     * Getter of the classes removed.
+     *
+     * @return The ids of the classes of the saved term only.
+     */
+    public int[] getRemovedClasses() {
+        return removedClasses;
+    }
+
+    /**
+     * Getter of the classes changed.
+     *
+     * @return The ids of the classes of both terms whose inputs differ.
+     */
+    public int[] getChangedClasses() {
+        return changedClasses;
+    }
+
+    /**
+     * Returns the previous assignment in the indices of the next term, to
+     * pass to StudentEmploymentAssignment.setPreviousAssignment.
+     *
+     * @return The student index of each class of the next term in the saved
+     * assignment, or -1 if the class, its student or the assignment is not
+     * in both terms.
+     */
+    public int[] getPreviousAssignment() {
+        return previousStudents;
+    }
+
+    /**
+     * Checks if the inputs of both terms are the same.
+     *
+     * @return true if no student or class was added, removed or changed.
+     */
+    public boolean isEmpty() {
+        return newStudents.length + removedStudents.length
+                + changedStudents.length + newClasses.length
+                + removedClasses.length + changedClasses.length == 0;
+    }
+
+    /**
+     * Returns a one-line summary of the changes.
+     *
+     * @return The number of students and classes added, removed and changed.
+     */
+    @Override
+    public String toString() {
+        return "Students: " + newStudents.length + " new, "
+                + changedStudents.length + " changed, "
+                + removedStudents.length + " removed. Classes: "
+                + newClasses.length + " new, " + changedClasses.length
+                + " changed, " + removedClasses.length + " removed.";
+    }
+
+    /**
+     * This class collects ids into a growing array.
+     */
+    private static final class IdList {
+        private int[] ids = new int[16];  // Collected ids, then spare room.
+        private int size;  // Number of ids collected.
+
+        /**
+         * Appends an id.
+         *
+         * @param id The id.
+         */
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        /**
+         * Returns the collected ids.
+         *
+         * @return The ids, in the order they were added.
+         */
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
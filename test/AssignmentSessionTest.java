@@ -0,0 +1,74 @@
+import com.google.ortools.Loader;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the AssignmentSession class.
+ */
+class AssignmentSessionTest {
+
+    /**
+     * Creates a session over a small instance where every student is free and
+     * each class takes 10 hours.
+     *
+     * @return The session, not yet solved.
+     */
+    private AssignmentSession createSession() {
+        Loader.loadNativeLibraries();
+        return new AssignmentSession(new ArrayInstance(
+                new int[][] {{1, 2}, {2, 1}, {3, 2}},
+                new int[][] {{1, 2}, {2, 1}, {3, 2}},
+                new int[] {10, 10},
+                new int[][][] {
+                        {{}, {}, {}, {}, {}},
+                        {{}, {}, {}, {}, {}},
+                        {{}, {}, {}, {}, {}}
+                },
+                new int[][] {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0}}
+        ));
+    }
+
+    /**
+     * Tests that disabling the winning pairs moves the assignment on the next
+     * solve, and enabling them again restores it.
+     */
+    @Test
+    public void testToggleEligibility() {
+        AssignmentSession session = createSession();
+        session.solve();
+        assertTrue(session.isAssigned(2, 0));
+        assertTrue(session.isAssigned(0, 1));
+
+        session.setPairEnabled(2, 0, false);
+        session.solve();
+        assertFalse(session.isAssigned(2, 0));
+        assertTrue(session.isAssigned(1, 0));
+
+        session.setPairEnabled(2, 0, true);
+        session.solve();
+        assertTrue(session.isAssigned(2, 0));
+    }
+
+    /**
+     * Tests that preference and hours edits are reflected by the next solve.
+     */
+    @Test
+    public void testUpdatePreferencesAndHours() {
+        AssignmentSession session = createSession();
+        session.solve();
+
+        session.updatePreferences(1, 1, 4, 4);
+        session.solve();
+        assertTrue(session.isAssigned(1, 1));
+        assertEquals(3.0 * 0.75 + 3.0 * 0.25 + 4.0, session.getObjectiveValue(),
+                1e-9);
+
+        session.setHoursPerClass(0, 15);
+        session.setHoursPerClass(1, 15);
+        session.updatePreferences(1, 1, 0, 4);
+        session.solve();
+        assertFalse(session.isAssigned(1, 1));
+        assertFalse(session.isAssigned(2, 0) && session.isAssigned(2, 1));
+    }
+}
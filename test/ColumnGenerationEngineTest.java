@@ -0,0 +1,66 @@
+import com.google.ortools.Loader;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the ColumnGenerationEngine class.
+ */
+class ColumnGenerationEngineTest {
+
+    @Test
+    void testContendedStudentTakesOneBundle() {
+        // Student 0 is the first choice of both classes but has hours for
+        // only one, so no bundle holds both.
+        Loader.loadNativeLibraries();
+        StudentEmploymentAssignment problem = new StudentEmploymentAssignment(
+                new int[][] {{3, 3}, {1, 0}, {0, 2}},
+                new int[][] {{3, 3}, {1, 0}, {0, 2}},
+                new int[] {20, 20},
+                new int[3][5][0],
+                new int[][] {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0}}
+        );
+        problem.setEngine(
+                StudentEmploymentAssignment.Engine.COLUMN_GENERATION);
+        problem.solve();
+
+        assertTrue(problem.isAssigned(0, 0));
+        assertFalse(problem.isAssigned(0, 1));
+        assertTrue(problem.isAssigned(2, 1));
+        assertEquals(5.0, problem.getObjectiveValue(), 1e-9);
+        assertTrue(problem.getBestBound()
+                >= problem.getObjectiveValue() - 1e-9);
+        assertEquals(
+                StudentEmploymentAssignment.Engine.COLUMN_GENERATION.name(),
+                problem.getSolveReport().getEngine());
+    }
+
+    @Test
+    void testWideGapStopReturnsTheSolvedAssignment() {
+        // A gap of 1.0 stops the pricing loop right after it adds bundles,
+        // so the values must come from the master solved before that.
+        Loader.loadNativeLibraries();
+        for (long seed = 1; seed <= 10; seed++) {
+            StudentEmploymentAssignment problem =
+                    new StudentEmploymentAssignment(
+                            new InstanceGenerator(6, 4, seed)
+                                    .applicationRate(0.5)
+                                    .generate());
+            problem.setEngine(
+                    StudentEmploymentAssignment.Engine.COLUMN_GENERATION);
+            problem.setSolveConfig(new SolveConfig().relativeGap(1.0));
+            problem.solve();
+
+            EligiblePairs pairs = problem.getPairs();
+            double total = 0.0;
+            for (int p = 0; p < pairs.size(); p++) {
+                double value = problem.pairValues[p];
+                assertTrue(value == 0.0 || value == 1.0, "value " + value);
+                total += value * pairs.weight(p);
+            }
+            assertEquals(total, problem.getObjectiveValue(), 1e-9);
+            assertTrue(problem.getBestBound()
+                    >= problem.getObjectiveValue() - 1e-9);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+import com.google.ortools.Loader;
+import com.google.ortools.linearsolver.MPSolver;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the CompactInstance class.
+ */
+class CompactInstanceTest {
+
+    /**
+     * Checks that two instances hold the same data.
+     *
+     * @param expected The original instance.
+     * @param actual The copied instance.
+     */
+    private void assertSameInstance(ProblemInstance expected,
+                                    ProblemInstance actual) {
+        assertEquals(expected.numStudents(), actual.numStudents());
+        assertEquals(expected.numClasses(), actual.numClasses());
+        for (int c = 0; c < expected.numClasses(); c++) {
+            assertEquals(expected.hoursPerClass(c), actual.hoursPerClass(c));
+            for (int d = 0; d < 5; d++) {
+                assertEquals(expected.classSlot(c, d), actual.classSlot(c, d));
+            }
+        }
+        int[] row = new int[expected.numClasses()];
+        for (int s = 0; s < expected.numStudents(); s++) {
+            actual.profPreferenceRow(s, row);
+            for (int c = 0; c < expected.numClasses(); c++) {
+                assertEquals(expected.profPreference(s, c),
+                        actual.profPreference(s, c));
+                assertEquals(expected.profPreference(s, c), row[c]);
+            }
+            actual.studPreferenceRow(s, row);
+            for (int c = 0; c < expected.numClasses(); c++) {
+                assertEquals(expected.studPreference(s, c),
+                        actual.studPreference(s, c));
+                assertEquals(expected.studPreference(s, c), row[c]);
+            }
+            for (int d = 0; d < 5; d++) {
+                assertEquals(expected.numRegisteredSlots(s, d),
+                        actual.numRegisteredSlots(s, d));
+                for (int i = 0; i < expected.numRegisteredSlots(s, d); i++) {
+                    assertEquals(expected.registeredSlot(s, d, i),
+                            actual.registeredSlot(s, d, i));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCopyMatchesGeneratedInstance() {
+        ProblemInstance source = new InstanceGenerator(40, 15, 3).generate();
+        CompactInstance compact = CompactInstance.of(source);
+
+        assertFalse(compact.isWide());
+        assertFalse(compact.isOffHeap());
+        assertSameInstance(source, compact);
+    }
+
+    @Test
+    void testWideRanksOffHeap() {
+        ArrayInstance source = new ArrayInstance(
+                new int[][] {{300, 2}, {-200, 1}, {3, 0}},
+                new int[][] {{1, 2}, {0, 1000}, {3, 2}},
+                new int[] {10, 15},
+                new int[][][] {
+                        {{}, {2}, {}, {}, {}},
+                        {{1, 2}, {}, {}, {}, {1}},
+                        {{}, {}, {}, {}, {}}
+                },
+                new int[][] {{0, 1, 0, 0, 0}, {0, 2, 0, 2, 0}}
+        );
+        CompactInstance compact = CompactInstance.of(source, true);
+
+        assertTrue(compact.isWide());
+        assertTrue(compact.isOffHeap());
+        assertSameInstance(source, compact);
+    }
+
+    @Test
+    void testOutOfRangeValuesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () ->
+                CompactInstance.of(new ArrayInstance(
+                        new int[][] {{40000}}, new int[][] {{1}},
+                        new int[] {10}, new int[1][5][0],
+                        new int[][] {{0, 1, 0, 0, 0}})));
+        assertThrows(IllegalArgumentException.class, () ->
+                CompactInstance.of(new ArrayInstance(
+                        new int[][] {{1}}, new int[][] {{1}},
+                        new int[] {10}, new int[1][5][0],
+                        new int[][] {{0, 200, 0, 0, 0}})));
+    }
+
+    @Test
+    void testSolveMatchesArrayInstance() {
+        Loader.loadNativeLibraries();
+        ProblemInstance source = new InstanceGenerator(12, 6, 5).generate();
+        StudentEmploymentAssignment arrays =
+                new StudentEmploymentAssignment(source);
+        arrays.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        StudentEmploymentAssignment compact = new StudentEmploymentAssignment(
+                CompactInstance.of(source, true));
+        compact.setEngine(StudentEmploymentAssignment.Engine.MIP);
+
+        assertEquals(MPSolver.ResultStatus.OPTIMAL, arrays.solve());
+        assertEquals(MPSolver.ResultStatus.OPTIMAL, compact.solve());
+        assertEquals(arrays.getPairs().size(), compact.getPairs().size());
+        assertEquals(arrays.getObjectiveValue(), compact.getObjectiveValue(),
+                1e-9);
+    }
+}
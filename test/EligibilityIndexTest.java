@@ -0,0 +1,123 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the EligibilityIndex class.
+ */
+class EligibilityIndexTest {
+
+    /**
+     * Tests that a student busy on a class's required slot is not eligible
+     * for it, while other pairs are.
+     */
+    @Test
+    public void testBusySlotMakesPairIneligible() {
+        EligibilityIndex index = new EligibilityIndex(
+                new int[][] {{1, 2}, {2, 1}},
+                new int[][] {{1, 2}, {2, 1}},
+                new int[][][] {
+                        {{}, {2}, {}, {}, {}},
+                        {{}, {}, {}, {}, {}}
+                },
+                new int[][] {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0}}
+        );
+
+        assertTrue(index.isStudentSlotFree(0, 0));
+        assertFalse(index.isStudentSlotFree(0, 1));
+        assertTrue(index.isEligible(0, 0));
+        assertFalse(index.isEligible(0, 1));
+        assertTrue(index.isEligible(1, 1));
+        assertEquals(3, index.numEligible());
+    }
+
+    /**
+     * Tests that iterating the set bits visits exactly the pairs accepted by
+     * a direct per-pair check, across several bitmap words.
+     */
+    @Test
+    public void testNextEligibleClassMatchesPerPairCheck() {
+        final int numStudents = 20;
+        final int numClasses = 150;
+        Random random = new Random(7);
+        int[][] prof = new int[numStudents][numClasses];
+        int[][] stud = new int[numStudents][numClasses];
+        int[][][] registered = new int[numStudents][5][];
+        int[][] slots = new int[numClasses][5];
+        for (int s = 0; s < numStudents; s++) {
+            for (int c = 0; c < numClasses; c++) {
+                prof[s][c] = random.nextInt(3);
+                stud[s][c] = random.nextInt(3);
+            }
+            for (int d = 0; d < 5; d++) {
+                registered[s][d] = random.nextBoolean()
+                        ? new int[] {1 + random.nextInt(2)} : new int[] {};
+            }
+        }
+        for (int c = 0; c < numClasses; c++) {
+            slots[c][random.nextInt(5)] = 1 + random.nextInt(2);
+        }
+
+        EligibilityIndex index = new EligibilityIndex(
+                prof, stud, registered, slots
+        );
+
+        for (int s = 0; s < numStudents; s++) {
+            int expected = 0;
+            for (int c = 0; c < numClasses; c++) {
+                boolean free = true;
+                for (int d = 0; d < 5; d++) {
+                    for (int slot : registered[s][d]) {
+                        if (slots[c][d] > 0 && slot == slots[c][d]) {
+                            free = false;
+                        }
+                    }
+                }
+                boolean eligible = prof[s][c] > 0 && stud[s][c] > 0 && free;
+                assertEquals(eligible, index.isEligible(s, c));
+                if (eligible) {
+                    assertEquals(c, index.nextEligibleClass(s, expected));
+                    expected = c + 1;
+                }
+            }
+            assertEquals(-1, index.nextEligibleClass(s, expected));
+        }
+    }
+
+    /**
+     * Tests that slots outside the bitmask range are compared one by one,
+     * like any other slot, both by the index and by a scan without it.
+     */
+    @Test
+    public void testOutOfRangeSlotsAreCheckedPerPair() {
+        ArrayInstance instance = new ArrayInstance(
+                new int[][] {{1, 1, 1}, {1, 1, 1}},
+                new int[][] {{1, 1, 1}, {1, 1, 1}},
+                new int[] {5, 5, 5},
+                new int[][][] {
+                        {{}, {14, -1}, {}, {}, {}},
+                        {{}, {15}, {}, {}, {}}
+                },
+                new int[][] {{0, 14, 0, 0, 0}, {0, 15, 0, 0, 0},
+                        {0, 1, 0, 0, 0}}
+        );
+
+        EligibilityIndex index = new EligibilityIndex(instance);
+
+        assertFalse(index.isStudentSlotFree(0, 0));
+        assertTrue(index.isStudentSlotFree(0, 1));
+        assertTrue(index.isStudentSlotFree(1, 0));
+        assertFalse(index.isStudentSlotFree(1, 1));
+        assertTrue(index.isStudentSlotFree(0, 2));
+        assertEquals(4, index.numEligible());
+        EligiblePairs scanned = PairScanner.scan(instance, null,
+                (s, c, prof, stud) -> 1.0, false);
+        assertEquals(4, scanned.size());
+        for (int p = 0; p < scanned.size(); p++) {
+            assertTrue(index.isEligible(scanned.student(p),
+                    scanned.classOf(p)));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the HeuristicEngine class.
+ */
+class HeuristicEngineTest {
+
+    /**
+     * Builds the eligible pairs of an instance.
+     *
+     * @param instance The problem instance.
+     * @return The eligible pairs with their weights.
+     */
+    private EligiblePairs pairsOf(ArrayInstance instance) {
+        EligibilityIndex index = new EligibilityIndex(instance);
+        EligiblePairs.Builder builder = new EligiblePairs.Builder(
+                instance.numStudents(), instance.numClasses());
+        for (int s = 0; s < instance.numStudents(); s++) {
+            for (int c = index.nextEligibleClass(s, 0); c >= 0;
+                 c = index.nextEligibleClass(s, c + 1)) {
+                builder.add(s, c, StudentEmploymentAssignment.preferenceWeight(
+                        instance.profPreference(s, c),
+                        instance.studPreference(s, c)));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Tests that the local search escapes the greedy assignment with an
+     * ejection chain: student 0 drops class 1 to take class 0, and class 1
+     * moves to student 1.
+     */
+    @Test
+    public void testEjectionChainImprovesGreedy() {
+        ArrayInstance instance = new ArrayInstance(
+                new int[][] {{3, 3}, {1, 3}},
+                new int[][] {{1, 3}, {1, 2}},
+                new int[] {10, 15},
+                new int[2][5][0],
+                new int[2][5]
+        );
+        EligiblePairs pairs = pairsOf(instance);
+
+        double[] values = HeuristicEngine.solve(pairs, instance, 20, 1000);
+
+        assertEquals(1.0, values[pairs.indexOf(0, 0)]);
+        assertEquals(1.0, values[pairs.indexOf(1, 1)]);
+        assertEquals(0.0, values[pairs.indexOf(0, 1)]);
+        assertEquals(0.0, values[pairs.indexOf(1, 0)]);
+    }
+
+    /**
+     * Tests that the assignment respects class capacity and student hours on
+     * random instances.
+     */
+    @Test
+    public void testAssignmentIsFeasible() {
+        Random random = new Random(3);
+        int numStudents = 200;
+        int numClasses = 60;
+        int[][] prof = new int[numStudents][numClasses];
+        int[][] stud = new int[numStudents][numClasses];
+        int[] hours = new int[numClasses];
+        for (int s = 0; s < numStudents; s++) {
+            for (int c = 0; c < numClasses; c++) {
+                prof[s][c] = random.nextInt(10) < 2 ? 1 + random.nextInt(3) : 0;
+                stud[s][c] = random.nextInt(10) < 3 ? 1 + random.nextInt(3) : 0;
+            }
+        }
+        for (int c = 0; c < numClasses; c++) {
+            hours[c] = 5 + random.nextInt(16);
+        }
+        ArrayInstance instance = new ArrayInstance(prof, stud, hours,
+                new int[numStudents][5][0], new int[numClasses][5]);
+        EligiblePairs pairs = pairsOf(instance);
+
+        double[] values = HeuristicEngine.solve(pairs, instance, 20, 100);
+
+        int[] studentHours = new int[numStudents];
+        int[] perClass = new int[numClasses];
+        for (int p = 0; p < pairs.size(); p++) {
+            if (values[p] > 0.5) {
+                studentHours[pairs.student(p)] += hours[pairs.classOf(p)];
+                perClass[pairs.classOf(p)]++;
+            }
+        }
+        for (int total : studentHours) {
+            assertTrue(total <= 20);
+        }
+        for (int count : perClass) {
+            assertTrue(count <= 1);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the InputLoader class.
+ */
+class InputLoaderTest {
+    @TempDir
+    Path dir;  // Directory for the input files written by each test.
+
+    /**
+     * Writes a text file into the test directory.
+     *
+     * @param name The file name.
+     * @param content The file content.
+     * @return The path to the file.
+     * @throws IOException If the file cannot be written.
+     */
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(dir.resolve(name), content);
+    }
+
+    /**
+     * Tests that preferences, hours and class slots are parsed into rows in
+     * file order, tolerating blank lines and CRLF line endings.
+     */
+    @Test
+    public void testReadsRowFormats() throws IOException {
+        assertArrayEquals(
+                new int[][] {{1, 2}, {2, 0}, {3, 2}},
+                InputLoader.readPreferences(
+                        write("prefs.txt", "0, 1 2\r\n1, 2\n\n2,3  2"), 2)
+        );
+        assertArrayEquals(
+                new int[] {10, 15},
+                InputLoader.readHoursPerClass(
+                        write("hours.txt", "0, 10\n1, 15\n"))
+        );
+        assertArrayEquals(
+                new int[][] {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0}},
+                InputLoader.readSlotsPerClass(
+                        write("slots.txt", "0, 0 1 0 0 0\n1, 0 2 0 0 0\n"))
+        );
+    }
+
+    /**
+     * Tests that registered slots are placed by student and weekday, with
+     * missing days left empty.
+     */
+    @Test
+    public void testReadsRegisteredSlots() throws IOException {
+        int[][][] registered = InputLoader.readRegisteredSlots(write(
+                "registered.txt",
+                "0, 0, 1 2\n0, 1,\n0, 2\n1, 4, 2\n"
+        ));
+
+        assertArrayEquals(new int[][][] {
+                {{1, 2}, {}, {}, {}, {}},
+                {{}, {}, {}, {}, {2}}
+        }, registered);
+    }
+
+    /**
+     * Tests that malformed input reports the line and column of the
+     * offending token.
+     */
+    @Test
+    public void testReportsPositionOfMalformedInput() throws IOException {
+        Path prefs = write("bad.txt", "0, 1 2\n1, 2 x\n");
+
+        InputFormatException e = assertThrows(InputFormatException.class,
+                () -> InputLoader.readPreferences(prefs, 2));
+
+        assertEquals(2, e.getLine());
+        assertEquals(6, e.getColumn());
+    }
+
+    /**
+     * Tests that a preference row longer than the number of classes is
+     * rejected.
+     */
+    @Test
+    public void testRejectsTooManyPreferences() throws IOException {
+        Path prefs = write("long.txt", "0, 1 2 3\n");
+
+        InputFormatException e = assertThrows(InputFormatException.class,
+                () -> InputLoader.readPreferences(prefs, 2));
+
+        assertEquals(1, e.getLine());
+        assertEquals(8, e.getColumn());
+    }
+
+    /**
+     * Tests that signed integers are read, and that the slots of a weekday
+     * outside 0..4 are ignored rather than rejected.
+     */
+    @Test
+    public void testAcceptsSignedValuesAndIgnoresOtherWeekdays()
+            throws IOException {
+        assertArrayEquals(
+                new int[][] {{-1, 2}, {0, -3}},
+                InputLoader.readPreferences(
+                        write("signed.txt", "0, -1 +2\n1, 0 -3\n"), 2)
+        );
+
+        int[][][] registered = InputLoader.readRegisteredSlots(write(
+                "weekdays.txt",
+                "0, 5, 1\n0, -1, 2\n0, 3, 1\n1, 7, 2\n"
+        ));
+
+        assertArrayEquals(new int[][][] {
+                {{}, {}, {}, {1}, {}},
+                {{}, {}, {}, {}, {}}
+        }, registered);
+    }
+}
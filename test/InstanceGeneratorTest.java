@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the InstanceGenerator class.
+ */
+class InstanceGeneratorTest {
+
+    /**
+     * Checks that two instances have the same data.
+     *
+     * @param expected The expected instance.
+     * @param actual The actual instance.
+     */
+    private void assertSameInstance(ProblemInstance expected,
+                                    ProblemInstance actual) {
+        assertEquals(expected.numStudents(), actual.numStudents());
+        assertEquals(expected.numClasses(), actual.numClasses());
+        for (int c = 0; c < expected.numClasses(); c++) {
+            assertEquals(expected.hoursPerClass(c), actual.hoursPerClass(c));
+            for (int d = 0; d < 5; d++) {
+                assertEquals(expected.classSlot(c, d), actual.classSlot(c, d));
+            }
+        }
+        for (int s = 0; s < expected.numStudents(); s++) {
+            for (int c = 0; c < expected.numClasses(); c++) {
+                assertEquals(expected.profPreference(s, c),
+                        actual.profPreference(s, c));
+                assertEquals(expected.studPreference(s, c),
+                        actual.studPreference(s, c));
+            }
+            for (int d = 0; d < 5; d++) {
+                assertEquals(expected.numRegisteredSlots(s, d),
+                        actual.numRegisteredSlots(s, d));
+                for (int i = 0; i < expected.numRegisteredSlots(s, d); i++) {
+                    assertEquals(expected.registeredSlot(s, d, i),
+                            actual.registeredSlot(s, d, i));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSameSeedGivesSameInstance() {
+        ArrayInstance a = new InstanceGenerator(200, 40, 7L).departments(4)
+                .generate();
+        ArrayInstance b = InstanceGenerator.ofSize("200x40", 7L).departments(4)
+                .generate();
+        assertSameInstance(a, b);
+    }
+
+    @Test
+    void testEveryStudentAppliesAndValuesAreInRange() {
+        ArrayInstance instance = new InstanceGenerator(300, 60, 1L)
+                .departments(3).maxRank(4).generate();
+        for (int s = 0; s < instance.numStudents(); s++) {
+            int applications = 0;
+            for (int c = 0; c < instance.numClasses(); c++) {
+                int stud = instance.studPreference(s, c);
+                int prof = instance.profPreference(s, c);
+                assertTrue(stud >= 0 && stud <= 4);
+                assertTrue(prof >= 0 && prof <= 4);
+                assertTrue(prof == 0 || stud > 0);
+                applications += stud > 0 ? 1 : 0;
+            }
+            assertTrue(applications > 0);
+        }
+        for (int c = 0; c < instance.numClasses(); c++) {
+            assertTrue(instance.hoursPerClass(c) >= 5
+                    && instance.hoursPerClass(c) <= 20);
+        }
+    }
+
+    @Test
+    void testWrittenTextFilesLoadBack(@TempDir Path dir) throws IOException {
+        ArrayInstance instance = new InstanceGenerator(50, 12, 3L)
+                .departments(2).generate();
+        InstanceGenerator.writeText(instance, dir);
+        assertSameInstance(instance, InputLoader.load(dir));
+    }
+}
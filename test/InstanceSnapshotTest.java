@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the InstanceSnapshot class.
+ */
+class InstanceSnapshotTest {
+    @TempDir
+    Path dir;  // Directory for the snapshot files written by each test.
+
+    /**
+     * Tests that a written snapshot maps back to the same instance.
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        ArrayInstance original = new ArrayInstance(
+                new int[][] {{1, 2}, {2, 1}, {3, 0}},
+                new int[][] {{1, 2}, {0, 1}, {3, 2}},
+                new int[] {10, 15},
+                new int[][][] {
+                        {{}, {2}, {}, {}, {}},
+                        {{1, 2}, {}, {}, {}, {1}},
+                        {{}, {}, {}, {}, {}}
+                },
+                new int[][] {{0, 1, 0, 0, 0}, {0, 2, 0, 2, 0}}
+        );
+        Path file = dir.resolve("instance.bin");
+
+        InstanceSnapshot.write(original, file);
+        InstanceSnapshot mapped = InstanceSnapshot.map(file);
+
+        assertEquals(original.numStudents(), mapped.numStudents());
+        assertEquals(original.numClasses(), mapped.numClasses());
+        for (int c = 0; c < original.numClasses(); c++) {
+            assertEquals(original.hoursPerClass(c), mapped.hoursPerClass(c));
+            for (int d = 0; d < 5; d++) {
+                assertEquals(original.classSlot(c, d), mapped.classSlot(c, d));
+            }
+        }
+        for (int s = 0; s < original.numStudents(); s++) {
+            for (int c = 0; c < original.numClasses(); c++) {
+                assertEquals(original.profPreference(s, c),
+                        mapped.profPreference(s, c));
+                assertEquals(original.studPreference(s, c),
+                        mapped.studPreference(s, c));
+            }
+            for (int d = 0; d < 5; d++) {
+                assertEquals(original.numRegisteredSlots(s, d),
+                        mapped.numRegisteredSlots(s, d));
+                for (int i = 0; i < original.numRegisteredSlots(s, d); i++) {
+                    assertEquals(original.registeredSlot(s, d, i),
+                            mapped.registeredSlot(s, d, i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that files that are not snapshots, or are truncated, are
+     * rejected.
+     */
+    @Test
+    public void testRejectsInvalidFiles() throws IOException {
+        Path text = Files.writeString(dir.resolve("text.bin"), "0, 1 2\n");
+        assertThrows(IOException.class, () -> InstanceSnapshot.map(text));
+
+        Path file = dir.resolve("instance.bin");
+        InstanceSnapshot.write(new ArrayInstance(
+                new int[][] {{1}}, new int[][] {{1}}, new int[] {10},
+                new int[][][] {{{}, {}, {}, {}, {}}},
+                new int[][] {{0, 1, 0, 0, 0}}
+        ), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Path truncated = Files.write(dir.resolve("truncated.bin"),
+                Arrays.copyOf(bytes, bytes.length - 4));
+        assertThrows(IOException.class,
+                () -> InstanceSnapshot.map(truncated));
+    }
+}
@@ -0,0 +1,58 @@
+import com.google.ortools.Loader;
+import com.google.ortools.linearsolver.MPSolver;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the LagrangianEngine class.
+ */
+class LagrangianEngineTest {
+
+    @Test
+    void testContendedStudentClosesTheGap() {
+        // Student 0 is the first choice of both classes but has hours for
+        // only one, so the bound is only tight once its multiplier is
+        // raised.
+        Loader.loadNativeLibraries();
+        StudentEmploymentAssignment problem = new StudentEmploymentAssignment(
+                new int[][] {{3, 3}, {1, 0}, {0, 2}},
+                new int[][] {{3, 3}, {1, 0}, {0, 2}},
+                new int[] {20, 20},
+                new int[3][5][0],
+                new int[][] {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0}}
+        );
+        problem.setEngine(StudentEmploymentAssignment.Engine.LAGRANGIAN);
+
+        assertEquals(MPSolver.ResultStatus.OPTIMAL, problem.solve());
+        assertEquals(problem.getObjectiveValue(), problem.getBestBound(),
+                1e-4 * problem.getBestBound());
+        assertTrue(problem.isAssigned(0, 0) ^ problem.isAssigned(0, 1));
+        assertEquals(StudentEmploymentAssignment.Engine.LAGRANGIAN.name(),
+                problem.getSolveReport().getEngine());
+    }
+
+    @Test
+    void testListenerStopsTheIterations() {
+        ProblemInstance instance = new InstanceGenerator(30, 12, 4)
+                .applicationRate(0.5)
+                .generate();
+        StudentEmploymentAssignment problem =
+                new StudentEmploymentAssignment(instance);
+        problem.setEngine(StudentEmploymentAssignment.Engine.LAGRANGIAN);
+        final int[] calls = {0};
+        problem.setSolveConfig(new SolveConfig()
+                .relativeGap(0.0)
+                .incumbentListener((objective, bound, elapsed) -> {
+                    assertTrue(bound >= objective - 1e-9);
+                    calls[0]++;
+                    return false;
+                }));
+        problem.solve();
+
+        assertEquals(1, calls[0]);
+        assertEquals(1, problem.getSolveReport().getIterations());
+        SolutionVerifier.Result result = SolutionVerifier.check(problem);
+        assertTrue(result.isValid(), result.getMessages().toString());
+    }
+}
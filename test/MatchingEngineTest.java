@@ -0,0 +1,148 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the MatchingEngine class.
+ */
+class MatchingEngineTest {
+
+    /**
+     * Builds the eligible pairs of an instance with no registered slots.
+     *
+     * @param instance The problem instance.
+     * @return The eligible pairs with their weights.
+     */
+    private EligiblePairs pairsOf(ArrayInstance instance) {
+        EligibilityIndex index = new EligibilityIndex(instance);
+        EligiblePairs.Builder builder = new EligiblePairs.Builder(
+                instance.numStudents(), instance.numClasses());
+        for (int s = 0; s < instance.numStudents(); s++) {
+            for (int c = index.nextEligibleClass(s, 0); c >= 0;
+                 c = index.nextEligibleClass(s, c + 1)) {
+                builder.add(s, c, StudentEmploymentAssignment.preferenceWeight(
+                        instance.profPreference(s, c),
+                        instance.studPreference(s, c)));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Finds the best matching value by enumerating every subset of pairs.
+     *
+     * @param pairs The eligible pairs.
+     * @param hours The hours per class.
+     * @param p The next pair to decide.
+     * @param usedStudents The students already matched.
+     * @param usedClasses The classes already matched.
+     * @return The best total weight of the remaining pairs.
+     */
+    private double bruteForce(EligiblePairs pairs, int[] hours, int p,
+                              boolean[] usedStudents, boolean[] usedClasses) {
+        if (p == pairs.size()) {
+            return 0.0;
+        }
+        double best = bruteForce(pairs, hours, p + 1, usedStudents,
+                usedClasses);
+        int s = pairs.student(p);
+        int c = pairs.classOf(p);
+        if (!usedStudents[s] && !usedClasses[c] && hours[c] <= 20) {
+            usedStudents[s] = true;
+            usedClasses[c] = true;
+            best = Math.max(best, pairs.weight(p) + bruteForce(pairs, hours,
+                    p + 1, usedStudents, usedClasses));
+            usedStudents[s] = false;
+            usedClasses[c] = false;
+        }
+        return best;
+    }
+
+    /**
+     * Tests that the matching is detected when every class needs more than
+     * half of the maximum hours.
+     */
+    @Test
+    public void testApplies() {
+        int[][] prefs = {{1, 1}};
+        int[][][] registered = {{{}, {}, {}, {}, {}}};
+        int[][] slots = {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0}};
+        assertTrue(MatchingEngine.applies(new ArrayInstance(
+                prefs, prefs, new int[] {15, 11}, registered, slots), 20));
+        assertFalse(MatchingEngine.applies(new ArrayInstance(
+                prefs, prefs, new int[] {15, 10}, registered, slots), 20));
+    }
+
+    /**
+     * Tests that the matching is feasible and optimal on random instances.
+     */
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(1);
+        for (int t = 0; t < 500; t++) {
+            int numStudents = 1 + random.nextInt(5);
+            int numClasses = 1 + random.nextInt(4);
+            int[][] prof = new int[numStudents][numClasses];
+            int[][] stud = new int[numStudents][numClasses];
+            int[] hours = new int[numClasses];
+            for (int s = 0; s < numStudents; s++) {
+                for (int c = 0; c < numClasses; c++) {
+                    prof[s][c] = random.nextInt(4);
+                    stud[s][c] = random.nextInt(4);
+                }
+            }
+            for (int c = 0; c < numClasses; c++) {
+                hours[c] = 11 + random.nextInt(12);
+            }
+            ArrayInstance instance = new ArrayInstance(prof, stud, hours,
+                    new int[numStudents][5][0], new int[numClasses][5]);
+            EligiblePairs pairs = pairsOf(instance);
+
+            double[] values = MatchingEngine.solve(pairs, instance, 20);
+
+            int[] perStudent = new int[numStudents];
+            int[] perClass = new int[numClasses];
+            double total = 0.0;
+            for (int p = 0; p < pairs.size(); p++) {
+                if (values[p] > 0.5) {
+                    perStudent[pairs.student(p)]++;
+                    perClass[pairs.classOf(p)]++;
+                    assertTrue(hours[pairs.classOf(p)] <= 20);
+                    total += pairs.weight(p);
+                }
+            }
+            for (int count : perStudent) {
+                assertTrue(count <= 1);
+            }
+            for (int count : perClass) {
+                assertTrue(count <= 1);
+            }
+            assertEquals(bruteForce(pairs, hours, 0,
+                    new boolean[numStudents], new boolean[numClasses]),
+                    total, 1e-9);
+        }
+    }
+
+    /**
+     * Tests that a problem solved by the matching engine is created and
+     * solved without the native libraries, which this class never loads.
+     */
+    @Test
+    public void testSolvesWithoutNativeLibraries() {
+        StudentEmploymentAssignment problem = new StudentEmploymentAssignment(
+                new int[][] {{3, 1}, {1, 2}},
+                new int[][] {{2, 1}, {1, 3}},
+                new int[] {15, 15},
+                new int[2][5][0],
+                new int[][] {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0}}
+        );
+        problem.setEngine(StudentEmploymentAssignment.Engine.MATCHING);
+        assertFalse(problem.usesNativeSolver());
+
+        assertEquals(SolveStatus.OPTIMAL, problem.optimize());
+        assertTrue(problem.isAssigned(0, 0));
+        assertTrue(problem.isAssigned(1, 1));
+    }
+}
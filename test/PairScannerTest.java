@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the PairScanner class.
+ */
+class PairScannerTest {
+
+    /**
+     * Asserts that two pair lists hold the same pairs, in the same order,
+     * with the same weights.
+     *
+     * @param expected The expected pairs.
+     * @param actual The pairs to check.
+     */
+    private void assertSamePairs(EligiblePairs expected,
+                                 EligiblePairs actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int s = 0; s < expected.numStudents(); s++) {
+            assertEquals(expected.studentStart(s), actual.studentStart(s));
+        }
+        for (int p = 0; p < expected.size(); p++) {
+            assertEquals(expected.classOf(p), actual.classOf(p));
+            assertEquals(expected.weight(p), actual.weight(p));
+        }
+        for (int c = 0; c < expected.numClasses(); c++) {
+            assertEquals(expected.classStart(c), actual.classStart(c));
+        }
+    }
+
+    /**
+     * Tests that the parallel scan, with and without an eligibility index,
+     * finds the pairs of a direct per-pair check on an instance large
+     * enough to be split across threads.
+     */
+    @Test
+    void testScansMatchADirectCheck() {
+        ProblemInstance instance = new InstanceGenerator(2000, 600, 9)
+                .applicationRate(0.05)
+                .generate();
+        EligibilityIndex index = new EligibilityIndex(instance);
+        PairScanner.PairWeight weight = (s, c, prof, stud) ->
+                StudentEmploymentAssignment.preferenceWeight(prof, stud)
+                        + (s == c ? 0.5 : 0.0);
+        EligiblePairs.Builder builder = new EligiblePairs.Builder(
+                instance.numStudents(), instance.numClasses());
+        for (int s = 0; s < instance.numStudents(); s++) {
+            for (int c = 0; c < instance.numClasses(); c++) {
+                if (index.isEligible(s, c)) {
+                    builder.add(s, c, weight.weight(s, c,
+                            instance.profPreference(s, c),
+                            instance.studPreference(s, c)));
+                }
+            }
+        }
+        EligiblePairs expected = builder.build();
+
+        assertTrue(expected.size() > 0);
+        assertSamePairs(expected,
+                PairScanner.scan(instance, null, weight, true));
+        assertSamePairs(expected,
+                PairScanner.scan(instance, index, weight, true));
+        assertSamePairs(expected,
+                PairScanner.scan(instance, null, weight, false));
+    }
+
+    @Test
+    void testStudentsWithoutPairs() {
+        ProblemInstance instance = new ArrayInstance(
+                new int[][] {{0, 0}, {1, 2}, {0, 0}},
+                new int[][] {{1, 1}, {2, 0}, {1, 1}},
+                new int[] {10, 15},
+                new int[3][5][0],
+                new int[][] {{0, 1, 0, 0, 0}, {0, 0, 2, 0, 0}}
+        );
+        EligiblePairs pairs = PairScanner.scan(instance, null,
+                (s, c, prof, stud) -> prof + stud, true);
+
+        assertEquals(1, pairs.size());
+        assertEquals(1, pairs.student(0));
+        assertEquals(0, pairs.classOf(0));
+        assertEquals(3.0, pairs.weight(0));
+        assertEquals(1, pairs.studentEnd(2));
+    }
+}
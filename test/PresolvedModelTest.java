@@ -0,0 +1,116 @@
+import com.google.ortools.Loader;
+import com.google.ortools.linearsolver.MPSolver;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the PresolvedModel class.
+ */
+class PresolvedModelTest {
+
+    /**
+     * Creates a problem of 3 students and 4 classes of 10 hours in which
+     * classes 0 to 2 are sections of the same course.
+     *
+     * @return The problem.
+     */
+    private StudentEmploymentAssignment newSectionsProblem() {
+        Loader.loadNativeLibraries();
+        return new StudentEmploymentAssignment(
+                new int[][] {{3, 3, 3, 1}, {2, 2, 2, 0}, {1, 1, 1, 0}},
+                new int[][] {{1, 1, 1, 2}, {2, 2, 2, 0}, {3, 3, 3, 0}},
+                new int[] {10, 10, 10, 10},
+                new int[3][5][0],
+                new int[][] {{0, 1, 0, 0, 0}, {0, 1, 0, 0, 0},
+                        {0, 1, 0, 0, 0}, {2, 0, 0, 0, 0}}
+        );
+    }
+
+    @Test
+    void testIdenticalClassesAreMerged() {
+        StudentEmploymentAssignment problem = newSectionsProblem();
+        problem.filterEligiblePairs();
+        PresolvedModel model = PresolvedModel.presolve(problem.getPairs(),
+                problem.getInstance(), 20);
+
+        assertEquals(2, model.getMergedClasses());
+        assertEquals(0, model.getFixedPairs());
+        EligiblePairs columns = model.columns();
+        assertEquals(2, columns.numClasses());
+        assertEquals(3, model.groupSize(0));
+        assertEquals(1, model.groupSize(1));
+        assertEquals(4, columns.size());
+        assertEquals(2, model.upperBound(columns.indexOf(0, 0)));
+        assertEquals(1, model.upperBound(columns.indexOf(0, 1)));
+    }
+
+    @Test
+    void testPresolveKeepsTheOptimum() {
+        StudentEmploymentAssignment plain = newSectionsProblem();
+        plain.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        plain.setPresolve(false);
+        assertEquals(MPSolver.ResultStatus.OPTIMAL, plain.solve());
+
+        StudentEmploymentAssignment presolved = newSectionsProblem();
+        presolved.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        assertEquals(MPSolver.ResultStatus.OPTIMAL, presolved.solve());
+
+        assertEquals(7.75, plain.getObjectiveValue(), 1e-9);
+        assertEquals(plain.getObjectiveValue(),
+                presolved.getObjectiveValue(), 1e-9);
+        assertEquals(2, presolved.getSolveReport().getMergedClasses());
+        assertTrue(presolved.getSolveReport().getVariables()
+                < plain.getSolveReport().getVariables());
+        SolutionVerifier.Result result = SolutionVerifier.check(presolved);
+        assertTrue(result.isValid(), result.getMessages().toString());
+    }
+
+    @Test
+    void testFreeStudentsAreFixed() {
+        Loader.loadNativeLibraries();
+        StudentEmploymentAssignment problem = new StudentEmploymentAssignment(
+                new int[][] {{1, 2}, {2, 1}, {3, 2}},
+                new int[][] {{1, 2}, {2, 1}, {3, 0}},
+                new int[] {10, 10},
+                new int[3][5][0],
+                new int[][] {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0}}
+        );
+        problem.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        assertEquals(MPSolver.ResultStatus.OPTIMAL, problem.solve());
+
+        SolveReport report = problem.getSolveReport();
+        assertEquals(2, report.getFixedPairs());
+        assertEquals(3, report.getDroppedPairs());
+        assertEquals(0, report.getVariables());
+        assertTrue(problem.isAssigned(2, 0));
+        assertTrue(problem.isAssigned(0, 1));
+        SolutionVerifier.Result result = SolutionVerifier.check(problem);
+        assertTrue(result.isValid(), result.getMessages().toString());
+    }
+
+    @Test
+    void testPresolveMatchesGeneratedInstances() {
+        Loader.loadNativeLibraries();
+        for (long seed = 1; seed <= 20; seed++) {
+            ProblemInstance instance = new InstanceGenerator(12, 6, seed)
+                    .applicationRate(0.3)
+                    .generate();
+            StudentEmploymentAssignment plain =
+                    new StudentEmploymentAssignment(instance);
+            plain.setEngine(StudentEmploymentAssignment.Engine.MIP);
+            plain.setPresolve(false);
+            plain.solve();
+            StudentEmploymentAssignment presolved =
+                    new StudentEmploymentAssignment(instance);
+            presolved.setEngine(StudentEmploymentAssignment.Engine.MIP);
+            presolved.solve();
+
+            assertEquals(plain.getObjectiveValue(),
+                    presolved.getObjectiveValue(), 1e-9);
+            SolutionVerifier.Result result =
+                    SolutionVerifier.check(presolved);
+            assertTrue(result.isValid(), result.getMessages().toString());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+import com.google.ortools.Loader;
+import com.google.ortools.linearsolver.MPSolver;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the ReducedCostFixing class.
+ */
+class ReducedCostFixingTest {
+
+    /**
+     * Creates the unreduced model of 3 students and 2 classes of 10 hours:
+     * class 0 is wanted by students 0 and 1, class 1 by student 2.
+     *
+     * @return The model.
+     */
+    private PresolvedModel newModel() {
+        EligiblePairs.Builder builder = new EligiblePairs.Builder(3, 2);
+        builder.add(0, 0, 3.0);
+        builder.add(1, 0, 1.0);
+        builder.add(2, 1, 2.0);
+        return PresolvedModel.unreduced(builder.build(), new ArrayInstance(
+                new int[3][2], new int[3][2], new int[] {10, 10},
+                new int[3][5][0], new int[2][5]), 20);
+    }
+
+    @Test
+    void testColumnsBelowTheIncumbentAreFixed() {
+        PresolvedModel model = newModel();
+        // The duals of the class rows price every column at 0 but the
+        // second student's, whose reduced cost is 1 - 3 = -2.
+        ReducedCostFixing fixing = new ReducedCostFixing(model,
+                new double[] {3.0, 2.0}, new double[3], 5.0);
+
+        assertEquals(5.0, fixing.getBound(), 1e-12);
+        assertEquals(1, fixing.getFixedColumns());
+        assertFalse(fixing.isFixed(0));
+        assertTrue(fixing.isFixed(1));
+        assertFalse(fixing.isFixed(2));
+
+        PresolvedModel reduced = fixing.reduce();
+        assertEquals(2, reduced.columns().size());
+        assertEquals(-1, reduced.columns().indexOf(1, 0));
+        assertFalse(reduced.isUnreduced());
+        double[] pairValues = reduced.expand(new double[] {1.0, 1.0});
+        assertArrayEquals(new double[] {1.0, 0.0, 1.0}, pairValues);
+    }
+
+    @Test
+    void testWeakMultipliersFixNothing() {
+        PresolvedModel model = newModel();
+        // Without multipliers the bound is the sum of all weights, 6, and
+        // setting a column to 1 never brings it below the incumbent.
+        ReducedCostFixing fixing = new ReducedCostFixing(model,
+                new double[2], new double[] {-1.0, 0.0, 0.0}, 5.0);
+
+        assertEquals(6.0, fixing.getBound(), 1e-12);
+        assertEquals(0, fixing.getFixedColumns());
+        assertSame(model, fixing.reduce());
+    }
+
+    @Test
+    void testFixingKeepsTheOptimum() {
+        Loader.loadNativeLibraries();
+        for (long seed = 1; seed <= 5; seed++) {
+            ProblemInstance instance = new InstanceGenerator(8, 4, seed)
+                    .applicationRate(0.5)
+                    .generate();
+            StudentEmploymentAssignment plain =
+                    new StudentEmploymentAssignment(instance);
+            plain.setEngine(StudentEmploymentAssignment.Engine.MIP);
+            plain.solve();
+            StudentEmploymentAssignment fixed =
+                    new StudentEmploymentAssignment(instance);
+            fixed.setEngine(StudentEmploymentAssignment.Engine.MIP);
+            fixed.setReducedCostFixing(true);
+
+            assertEquals(MPSolver.ResultStatus.OPTIMAL, fixed.solve());
+            assertEquals(plain.getObjectiveValue(),
+                    fixed.getObjectiveValue(), 1e-6);
+            assertTrue(fixed.getSolveReport().getReducedCostFixed() >= 0);
+        }
+    }
+}
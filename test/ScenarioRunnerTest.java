@@ -0,0 +1,62 @@
+import com.google.ortools.Loader;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the ScenarioRunner class.
+ */
+class ScenarioRunnerTest {
+    private final ArrayInstance instance = new ArrayInstance(
+            new int[][] {{1, 2, 3}, {2, 1, 1}, {3, 2, 0}, {1, 3, 2}},
+            new int[][] {{3, 2, 1}, {2, 1, 2}, {3, 2, 0}, {1, 2, 3}},
+            new int[] {10, 10, 5},
+            new int[4][5][0],
+            new int[][] {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0}, {1, 0, 0, 0, 0}}
+    );  // Instance shared by the scenarios.
+
+    @Test
+    void testScenariosMatchSeparateSolves() {
+        Loader.loadNativeLibraries();
+        List<Scenario> scenarios = List.of(
+                new Scenario("baseline"),
+                new Scenario("students first").weights(0.0, 1.0),
+                new Scenario("10 hours").maxHoursPerStudent(10),
+                new Scenario("long class").hoursPerClass(2, 20));
+        ScenarioRunner runner = new ScenarioRunner(instance);
+        runner.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        List<ScenarioRunner.Result> results = runner.run(scenarios, 3);
+
+        assertEquals(scenarios.size(), results.size());
+        for (int i = 0; i < scenarios.size(); i++) {
+            StudentEmploymentAssignment problem =
+                    scenarios.get(i).newProblem(instance);
+            problem.setEngine(StudentEmploymentAssignment.Engine.MIP);
+            problem.solve();
+            ScenarioRunner.Result result = results.get(i);
+            assertEquals(scenarios.get(i).getName(), result.getName());
+            assertEquals(SolveStatus.OPTIMAL, result.getStatus());
+            assertEquals(problem.getObjectiveValue(),
+                    result.getObjectiveValue(), 1e-9);
+        }
+        assertEquals(3, results.get(0).getAssignedClasses());
+        assertEquals(1.0, results.get(0).getCoverage(), 1e-9);
+        assertNotEquals(results.get(0).getObjectiveValue(),
+                results.get(1).getObjectiveValue());
+
+        String table = ScenarioRunner.formatTable(results);
+        assertEquals(scenarios.size() + 1, table.split("\n").length);
+        assertTrue(table.startsWith("Scenario"));
+        assertTrue(table.contains("students first"));
+    }
+
+    @Test
+    void testHoursOverrideDoesNotChangeBaseInstance() {
+        StudentEmploymentAssignment problem = new Scenario("override")
+                .hoursPerClass(0, 20).newProblem(instance);
+        assertNotNull(problem);
+        assertEquals(10, instance.hoursPerClass(0));
+    }
+}
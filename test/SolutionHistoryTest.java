@@ -0,0 +1,153 @@
+import com.google.ortools.Loader;
+import com.google.ortools.linearsolver.MPSolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the SolutionHistory and TermDiff
+ * classes.
+ */
+class SolutionHistoryTest {
+    @TempDir
+    Path dir;  // Directory of the store written by each test.
+
+    /**
+     * Creates the instance of a first term: 3 students and 2 classes.
+     *
+     * @return The instance.
+     */
+    private ArrayInstance firstTerm() {
+        return new ArrayInstance(
+                new int[][] {{1, 2}, {2, 1}, {3, 2}},
+                new int[][] {{1, 2}, {2, 1}, {3, 2}},
+                new int[] {10, 15},
+                new int[][][] {
+                        {{}, {2}, {}, {}, {}},
+                        {{}, {}, {}, {}, {}},
+                        {{}, {}, {}, {}, {}}
+                },
+                new int[][] {{0, 1, 0, 0, 0}, {0, 0, 2, 0, 0}}
+        );
+    }
+
+    /**
+     * Solves an instance with the MIP engine.
+     *
+     * @param instance The instance.
+     * @return The solved problem.
+     */
+    private StudentEmploymentAssignment solve(ProblemInstance instance) {
+        Loader.loadNativeLibraries();
+        StudentEmploymentAssignment problem =
+                new StudentEmploymentAssignment(instance);
+        problem.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        assertEquals(MPSolver.ResultStatus.OPTIMAL, problem.solve());
+        return problem;
+    }
+
+    @Test
+    void testSaveAndLoad() throws IOException {
+        ArrayInstance instance = firstTerm();
+        StudentEmploymentAssignment problem = solve(instance);
+        SolutionHistory history = new SolutionHistory(dir.resolve("store"));
+        int[] studentIds = {10, 11, 12};
+        int[] classIds = {100, 101};
+
+        history.save("2025-fall", instance, studentIds, classIds, problem);
+        history.save("2026-spring", instance, studentIds, classIds, problem);
+        history.save("2025-fall", instance, studentIds, classIds, problem);
+        SolutionHistory.Term term = history.load("2025-fall");
+
+        assertEquals(List.of("2026-spring", "2025-fall"), history.terms());
+        assertEquals("2026-spring", history.latestBefore("2025-fall"));
+        assertArrayEquals(studentIds, term.getStudentIds());
+        assertArrayEquals(classIds, term.getClassIds());
+        assertEquals(instance.profPreference(2, 1),
+                term.getInstance().profPreference(2, 1));
+        for (int c = 0; c < 2; c++) {
+            int s = term.getClassStudents()[c];
+            assertTrue(s >= 0 && problem.isAssigned(s, c));
+        }
+        assertThrows(IllegalArgumentException.class, () ->
+                history.load("../fall"));
+    }
+
+    @Test
+    void testDiffFindsRosterChanges() throws IOException {
+        ArrayInstance instance = firstTerm();
+        StudentEmploymentAssignment problem = solve(instance);
+        SolutionHistory history = new SolutionHistory(dir);
+        history.save("fall", instance, new int[] {10, 11, 12},
+                new int[] {100, 101}, problem);
+
+        // Student 11 leaves, 13 arrives and 12 changes a preference. Class
+        // 100 keeps its inputs, 101 gets longer and 102 is new.
+        ArrayInstance next = new ArrayInstance(
+                new int[][] {{3, 2, 1}, {1, 2, 2}, {1, 1, 1}},
+                new int[][] {{3, 1, 1}, {1, 2, 2}, {1, 1, 1}},
+                new int[] {10, 20, 5},
+                new int[][][] {
+                        {{}, {}, {}, {}, {}},
+                        {{}, {2}, {}, {}, {}},
+                        {{}, {}, {}, {}, {}}
+                },
+                new int[][] {{0, 1, 0, 0, 0}, {0, 0, 2, 0, 0},
+                        {1, 0, 0, 0, 0}}
+        );
+        int[] studentIds = {12, 10, 13};
+        TermDiff diff = TermDiff.between(history.load("fall"), next,
+                studentIds, new int[] {100, 101, 102});
+
+        assertArrayEquals(new int[] {13}, diff.getNewStudents());
+        assertArrayEquals(new int[] {11}, diff.getRemovedStudents());
+        assertArrayEquals(new int[] {12}, diff.getChangedStudents());
+        assertArrayEquals(new int[] {102}, diff.getNewClasses());
+        assertArrayEquals(new int[0], diff.getRemovedClasses());
+        assertArrayEquals(new int[] {101}, diff.getChangedClasses());
+        assertFalse(diff.isEmpty());
+
+        int[] carried = diff.getPreviousAssignment();
+        int[] saved = history.load("fall").getClassStudents();
+        for (int c = 0; c < 2; c++) {
+            int expected = saved[c] == 1 ? -1
+                    : Arrays.asList(12, 10, 13).indexOf(
+                            new int[] {10, 11, 12}[saved[c]]);
+            assertEquals(expected, carried[c]);
+        }
+        assertEquals(-1, carried[2]);
+    }
+
+    @Test
+    void testStabilityKeepsThePreviousAssignment() {
+        Loader.loadNativeLibraries();
+        // Both students rank the class the same, so the solver may pick
+        // either; the stability bonus makes it keep student 1.
+        for (StudentEmploymentAssignment.Engine engine
+                : new StudentEmploymentAssignment.Engine[] {
+                        StudentEmploymentAssignment.Engine.MIP,
+                        StudentEmploymentAssignment.Engine.HEURISTIC}) {
+            StudentEmploymentAssignment problem =
+                    new StudentEmploymentAssignment(
+                            new int[][] {{2, 1}, {2, 0}},
+                            new int[][] {{2, 1}, {2, 0}},
+                            new int[] {10, 15},
+                            new int[2][5][0],
+                            new int[][] {{0, 1, 0, 0, 0}, {0, 0, 1, 0, 0}}
+                    );
+            problem.setEngine(engine);
+            problem.setPreviousAssignment(new int[] {1, -1}, 0.5);
+            problem.solve();
+
+            assertTrue(problem.isAssigned(1, 0));
+            assertTrue(problem.isAssigned(0, 1));
+            assertEquals(2.0 + 0.5 + 1.0, problem.getObjectiveValue(), 1e-9);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import com.google.ortools.Loader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the SolutionVerifier class.
+ */
+class SolutionVerifierTest {
+
+    /**
+     * Creates an instance of 2 students and 3 classes of 10 hours, where
+     * student 1 is registered on the slot of class 2.
+     *
+     * @return The instance.
+     */
+    private ProblemInstance newInstance() {
+        int[][][] registered = new int[2][5][0];
+        registered[1][0] = new int[] {1};
+        return new ArrayInstance(
+                new int[][] {{3, 2, 1}, {1, 0, 2}},
+                new int[][] {{1, 2, 3}, {2, 1, 1}},
+                new int[] {10, 10, 10},
+                registered,
+                new int[][] {{0, 2, 0, 0, 0}, {0, 0, 1, 0, 0},
+                        {1, 0, 0, 0, 0}});
+    }
+
+    @Test
+    void testSolvedProblemPasses() throws IOException {
+        Loader.loadNativeLibraries();
+        for (long seed = 1; seed <= 5; seed++) {
+            ProblemInstance instance = new InstanceGenerator(8, 4, seed)
+                    .applicationRate(0.5)
+                    .generate();
+            StudentEmploymentAssignment problem =
+                    new StudentEmploymentAssignment(instance);
+            problem.solve();
+            SolutionVerifier verifier = new SolutionVerifier(instance,
+                    problem.getMaxHoursPerStudent());
+            SolutionWriter.write(problem, verifier, true, true);
+
+            SolutionVerifier.Result result = verifier.verify(
+                    problem.getObjectiveValue(), problem.getBestBound());
+            assertTrue(result.isValid(), result.getMessages().toString());
+            assertEquals(problem.getObjectiveValue(),
+                    result.getObjectiveValue(), 1e-9);
+            assertTrue(result.getUpperBound()
+                    >= result.getObjectiveValue() - 1e-9);
+        }
+    }
+
+    @Test
+    void testViolationsAreFound() {
+        SolutionVerifier verifier = new SolutionVerifier(newInstance(), 20);
+        // Class 0 twice, and class 2 to a student registered on its slot.
+        verifier.assignment(0, 0, 10, 0.0);
+        verifier.assignment(1, 0, 10, 0.0);
+        verifier.assignment(1, 2, 10, 0.0);
+
+        SolutionVerifier.Result result = verifier.verify(0.0, Double.NaN);
+        assertFalse(result.isValid());
+        // Double assignment, ineligible pair and wrong objective.
+        assertEquals(3, result.getViolations());
+        assertEquals(3, result.getMessages().size());
+    }
+
+    @Test
+    void testHoursAndBoundAreChecked() {
+        SolutionVerifier verifier = new SolutionVerifier(newInstance(), 20,
+                1.0, 0.0);
+        verifier.assignment(0, 0, 10, 3.0);
+        verifier.assignment(0, 1, 10, 2.0);
+        verifier.assignment(0, 2, 10, 1.0);
+
+        SolutionVerifier.Result result = verifier.verify(6.0, 5.0);
+        assertEquals(6.0, result.getObjectiveValue(), 1e-12);
+        // Student 1 cannot take classes 1 and 2 and weighs less on class
+        // 0, so the bound gives every class to student 0.
+        assertEquals(6.0, result.getUpperBound(), 1e-12);
+        // 30 hours, and a reported bound below the objective.
+        assertEquals(2, result.getViolations());
+    }
+}
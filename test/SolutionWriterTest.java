@@ -0,0 +1,88 @@
+import com.google.ortools.Loader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the SolutionWriter class.
+ */
+class SolutionWriterTest {
+
+    /**
+     * Solves a problem of 3 students and 3 classes in which class 2 has no
+     * eligible student: student 0 gets class 1 and student 2 gets class 0.
+     *
+     * @return The solved problem.
+     */
+    private StudentEmploymentAssignment solvedProblem() {
+        Loader.loadNativeLibraries();
+        StudentEmploymentAssignment problem = new StudentEmploymentAssignment(
+                new int[][] {{1, 2, 0}, {2, 1, 0}, {3, 2, 0}},
+                new int[][] {{1, 2, 1}, {2, 1, 1}, {3, 2, 1}},
+                new int[] {10, 10, 5},
+                new int[3][5][0],
+                new int[][] {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0},
+                        {1, 0, 0, 0, 0}}
+        );
+        problem.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        problem.solve();
+        return problem;
+    }
+
+    @Test
+    void testCsv() throws IOException {
+        StringWriter out = new StringWriter();
+        try (SolutionWriter.Sink sink = SolutionWriter.csv(out)) {
+            SolutionWriter.write(solvedProblem(), sink, true, true);
+        }
+        assertEquals("record,student,class,classes,hours,satisfaction\n"
+                + "assignment,0,1,,10,2.0\n"
+                + "student,0,,1,10,2.0\n"
+                + "student,1,,0,0,0.0\n"
+                + "assignment,2,0,,10,3.0\n"
+                + "student,2,,1,10,3.0\n"
+                + "unassigned,,2,,5,\n", out.toString());
+    }
+
+    @Test
+    void testJsonLinesWithoutSummaries() throws IOException {
+        StringWriter out = new StringWriter();
+        try (SolutionWriter.Sink sink = SolutionWriter.jsonLines(out)) {
+            SolutionWriter.write(solvedProblem(), sink, false, false);
+        }
+        assertEquals("{\"type\":\"assignment\",\"student\":0,\"class\":1,"
+                + "\"hours\":10,\"weight\":2.0}\n"
+                + "{\"type\":\"assignment\",\"student\":2,\"class\":0,"
+                + "\"hours\":10,\"weight\":3.0}\n", out.toString());
+    }
+
+    @Test
+    void testBinary() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SolutionWriter.Sink sink = SolutionWriter.binary(out)) {
+            SolutionWriter.write(solvedProblem(), sink, false, true);
+        }
+        DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(SolutionWriter.ASSIGNMENT_RECORD, in.readByte());
+        assertEquals(0, in.readInt());
+        assertEquals(1, in.readInt());
+        assertEquals(10, in.readInt());
+        assertEquals(2.0, in.readDouble(), 1e-9);
+        assertEquals(SolutionWriter.ASSIGNMENT_RECORD, in.readByte());
+        assertEquals(2, in.readInt());
+        assertEquals(0, in.readInt());
+        assertEquals(10, in.readInt());
+        assertEquals(3.0, in.readDouble(), 1e-9);
+        assertEquals(SolutionWriter.UNASSIGNED_RECORD, in.readByte());
+        assertEquals(2, in.readInt());
+        assertEquals(5, in.readInt());
+        assertEquals(-1, in.read());
+    }
+}
@@ -0,0 +1,87 @@
+import com.google.ortools.Loader;
+import com.google.ortools.linearsolver.MPSolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the SolveConfig class.
+ */
+class SolveConfigTest {
+
+    /**
+     * Creates a problem with two independent components.
+     *
+     * @return The problem.
+     */
+    private StudentEmploymentAssignment newProblem() {
+        Loader.loadNativeLibraries();
+        return new StudentEmploymentAssignment(
+                new int[][] {{1, 2, 0}, {2, 1, 0}, {0, 0, 3}, {0, 0, 1}},
+                new int[][] {{1, 2, 0}, {2, 1, 0}, {0, 0, 1}, {0, 0, 2}},
+                new int[] {10, 15, 10},
+                new int[4][5][0],
+                new int[][] {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0},
+                        {1, 0, 0, 0, 0}}
+        );
+    }
+
+    @Test
+    void testListenerReceivesIncumbents() {
+        StudentEmploymentAssignment plain = newProblem();
+        plain.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        plain.solve();
+
+        List<double[]> incumbents = new ArrayList<>();
+        StudentEmploymentAssignment streamed = newProblem();
+        streamed.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        streamed.setSolveConfig(new SolveConfig()
+                .timeLimit(10_000)
+                .relativeGap(0.0)
+                .threads(2)
+                .firstSlice(50)
+                .incumbentListener((objective, bound, elapsed) -> {
+                    incumbents.add(new double[] {objective, bound});
+                    return true;
+                }));
+        assertEquals(MPSolver.ResultStatus.OPTIMAL, streamed.solve());
+
+        assertFalse(incumbents.isEmpty());
+        double[] last = incumbents.get(incumbents.size() - 1);
+        assertEquals(plain.getObjectiveValue(), last[0], 1e-9);
+        assertTrue(last[1] >= last[0] - 1e-9);
+        for (int i = 1; i < incumbents.size(); i++) {
+            assertTrue(incumbents.get(i)[0] > incumbents.get(i - 1)[0]);
+        }
+        assertEquals(plain.getObjectiveValue(), streamed.getObjectiveValue(),
+                1e-9);
+        for (int s = 0; s < 4; s++) {
+            for (int c = 0; c < 3; c++) {
+                assertEquals(plain.isAssigned(s, c), streamed.isAssigned(s, c));
+            }
+        }
+        assertEquals(1, streamed.getSolveReport().getComponents());
+    }
+
+    @Test
+    void testConfigWithoutListenerKeepsDecomposition() {
+        StudentEmploymentAssignment problem = newProblem();
+        problem.setPresolve(false);
+        problem.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        problem.setSolveConfig(new SolveConfig().timeLimit(5_000)
+                .solverSpecificParameters("limits/gap = 0"));
+        assertEquals(MPSolver.ResultStatus.OPTIMAL, problem.solve());
+        assertEquals(2, problem.getSolveReport().getComponents());
+    }
+
+    @Test
+    void testRequestStopIsClearedByTheNextSolve() {
+        StudentEmploymentAssignment problem = newProblem();
+        problem.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        problem.requestStop();
+        assertEquals(MPSolver.ResultStatus.OPTIMAL, problem.solve());
+    }
+}
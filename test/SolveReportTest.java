@@ -0,0 +1,116 @@
+import com.google.ortools.Loader;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the SolveReport class.
+ */
+class SolveReportTest {
+
+    /**
+     * Creates a problem of 3 students and 2 classes in which student 2 does
+     * not want class 1.
+     *
+     * @return The problem.
+     */
+    private StudentEmploymentAssignment newProblem() {
+        Loader.loadNativeLibraries();
+        return new StudentEmploymentAssignment(
+                new int[][] {{1, 2}, {2, 1}, {3, 2}},
+                new int[][] {{1, 2}, {2, 1}, {3, 0}},
+                new int[] {10, 10},
+                new int[3][5][0],
+                new int[][] {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0}}
+        );
+    }
+
+    /**
+     * Returns the names of the phases of a report.
+     *
+     * @param report The report.
+     * @return The phase names in recording order.
+     */
+    private List<String> phaseNames(SolveReport report) {
+        List<String> names = new ArrayList<>();
+        for (SolveReport.Phase phase : report.getPhases()) {
+            names.add(phase.getName());
+            assertTrue(phase.getWallNanos() >= 0);
+        }
+        return names;
+    }
+
+    @Test
+    void testSingleModelReport() {
+        StudentEmploymentAssignment problem = newProblem();
+        problem.setDecomposition(false);
+        problem.setPresolve(false);
+        problem.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        assertNull(problem.getSolveReport());
+        problem.solve();
+
+        SolveReport report = problem.getSolveReport();
+        assertEquals(List.of("filter", "build", "solve", "extract"),
+                phaseNames(report));
+        assertEquals(5, report.getEligiblePairs());
+        assertEquals(1, report.getIneligiblePairs());
+        assertEquals(1, report.getComponents());
+        assertEquals(5, report.getVariables());
+        assertEquals(5, report.getConstraints());
+        assertEquals(10, report.getNonZeros());
+        assertEquals("MIP", report.getEngine());
+        assertEquals(SolveStatus.OPTIMAL, report.getStatus());
+        assertEquals(problem.getObjectiveValue(), report.getObjectiveValue(),
+                1e-9);
+    }
+
+    @Test
+    void testEngineWithoutModelReportsNoModel() {
+        StudentEmploymentAssignment problem = newProblem();
+        problem.setEngine(StudentEmploymentAssignment.Engine.HEURISTIC);
+        problem.solve();
+
+        SolveReport report = problem.getSolveReport();
+        assertEquals(List.of("filter", "solve"),
+                phaseNames(report));
+        assertEquals(0, report.getComponents());
+        assertEquals(0, report.getVariables());
+        assertEquals(SolveStatus.FEASIBLE, report.getStatus());
+        assertTrue(Double.isNaN(report.getBestBound()));
+    }
+
+    @Test
+    void testJsonAndMetrics() {
+        SolveReport report = new SolveReport(4, 3);
+        report.addPhase("parse", 2_000_000_000L, -1);
+        report.setEligiblePairs(5);
+        report.setResult("MATCHING", SolveStatus.OPTIMAL, 7.5,
+                Double.NaN);
+
+        String json = report.toJson();
+        assertTrue(json.startsWith("{\"engine\":\"MATCHING\""));
+        assertTrue(json.contains("\"objective\":7.5,\"bestBound\":null"));
+        assertTrue(json.contains("\"ineligiblePairs\":7"));
+        assertTrue(json.endsWith("\"phases\":[{\"name\":\"parse\","
+                + "\"wallNanos\":2000000000,\"cpuNanos\":-1}]}"));
+
+        Map<String, Double> values = new HashMap<>();
+        Map<String, Map<String, String>> tags = new HashMap<>();
+        report.exportMetrics("sea", (name, metricTags, value) -> {
+            values.put(name, value);
+            tags.put(name, metricTags);
+        });
+        assertEquals(2.0, values.get("sea.phase.wall"), 1e-9);
+        assertFalse(values.containsKey("sea.phase.cpu"));
+        assertFalse(values.containsKey("sea.bound"));
+        assertEquals(7.5, values.get("sea.objective"), 1e-9);
+        assertEquals("parse", tags.get("sea.phase.wall").get("phase"));
+        assertEquals("OPTIMAL", tags.get("sea.objective").get("status"));
+        assertEquals("MATCHING", tags.get("sea.objective").get("engine"));
+    }
+}
@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the SolveService class.
+ */
+class SolveServiceTest {
+    @TempDir
+    Path dir;
+
+    private SolveService service;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void startService() throws IOException {
+        InstanceGenerator.writeText(
+                new InstanceGenerator(12, 6, 7).generate(), dir);
+        service = new SolveService(0).solveThreads(2).queueCapacity(4)
+                .cacheSize(2).start();
+    }
+
+    @AfterEach
+    void stopService() {
+        service.close();
+    }
+
+    /**
+     * Sends a request to the service.
+     *
+     * @param method The request method.
+     * @param path The path and query of the request.
+     * @return The response.
+     * @throws IOException If the request fails.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private HttpResponse<String> send(String method, String path)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(
+                        "http://localhost:" + service.getPort() + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testSolveUsesTheCache() throws Exception {
+        String path = "/solve?engine=MIP&dir=" + URLEncoder.encode(
+                dir.toString(), StandardCharsets.UTF_8);
+        HttpResponse<String> first = send("POST", path);
+        HttpResponse<String> second = send("POST", path);
+
+        assertEquals(200, first.statusCode());
+        String[] lines = first.body().split("\n");
+        assertTrue(lines[0].startsWith("{\"engine\":\"MIP\""));
+        assertTrue(lines[0].contains("\"status\":\"OPTIMAL\""));
+        // The report times differ, the solution records do not.
+        String firstSolution = first.body().substring(lines[0].length());
+        assertEquals(firstSolution, second.body().substring(
+                second.body().indexOf('\n')));
+
+        String stats = send("GET", "/stats").body();
+        assertTrue(stats.contains("\"cachedInstances\":1"));
+        assertTrue(stats.contains("\"cacheHits\":1"));
+        assertTrue(stats.contains("\"cacheMisses\":1"));
+    }
+
+    @Test
+    void testChangedInputIsParsedAgain() throws Exception {
+        String hash = SolveService.contentHash(dir);
+        Files.writeString(dir.resolve(InputLoader.HOURS_PER_CLASS_FILE),
+                "5 5 5 5 5 5\n");
+        assertNotEquals(hash, SolveService.contentHash(dir));
+    }
+
+    @Test
+    void testBadRequests() throws Exception {
+        assertEquals(400, send("POST", "/solve").statusCode());
+        assertEquals(400, send("POST", "/solve?dir=" + URLEncoder.encode(
+                dir.resolve("missing").toString(), StandardCharsets.UTF_8))
+                .statusCode());
+        assertEquals(400, send("POST", "/solve?engine=FAST&dir=x")
+                .statusCode());
+        assertEquals(405, send("GET", "/solve").statusCode());
+    }
+
+    @Test
+    void testFailedSolveGetsAJsonError() throws Exception {
+        // CP-SAT rejects these parameters on the solve thread.
+        service.close();
+        service = new SolveService(0).solveConfig(new SolveConfig()
+                .solverSpecificParameters("no_such_parameter: 1")).start();
+        HttpResponse<String> response = send("POST",
+                "/solve?engine=MIP&backend=CP_SAT&dir=" + URLEncoder.encode(
+                        dir.toString(), StandardCharsets.UTF_8));
+
+        assertEquals(500, response.statusCode());
+        assertEquals("application/json", response.headers()
+                .firstValue("Content-Type").orElse(""));
+        assertTrue(response.body().startsWith("{\"error\":\"Solve failed"));
+        assertTrue(response.body().contains("Invalid CP-SAT parameters"));
+        assertTrue(send("GET", "/stats").body().contains("\"failed\":1"));
+    }
+}
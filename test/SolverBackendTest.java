@@ -0,0 +1,150 @@
+import com.google.ortools.Loader;
+import com.google.ortools.linearsolver.MPSolver;
+import com.google.ortools.linearsolver.MPSolverParameters;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the SolverBackend implementations.
+ */
+class SolverBackendTest {
+
+    /**
+     * Creates a problem with two independent components.
+     *
+     * @param backend The backend of the MIP engine.
+     * @return The problem.
+     */
+    private StudentEmploymentAssignment newProblem(
+            StudentEmploymentAssignment.Backend backend) {
+        Loader.loadNativeLibraries();
+        StudentEmploymentAssignment problem = new StudentEmploymentAssignment(
+                new int[][] {{1, 2, 0}, {2, 1, 0}, {0, 0, 3}, {0, 0, 1}},
+                new int[][] {{1, 2, 0}, {2, 1, 0}, {0, 0, 1}, {0, 0, 2}},
+                new int[] {10, 15, 10},
+                new int[4][5][0],
+                new int[][] {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0},
+                        {1, 0, 0, 0, 0}}
+        );
+        problem.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        problem.setBackend(backend);
+        problem.setPresolve(false);
+        return problem;
+    }
+
+    @Test
+    void testBackendsAgreeOnObjective() {
+        StudentEmploymentAssignment scip =
+                newProblem(StudentEmploymentAssignment.Backend.SCIP);
+        assertEquals(MPSolver.ResultStatus.OPTIMAL, scip.solve());
+
+        for (StudentEmploymentAssignment.Backend backend
+                : new StudentEmploymentAssignment.Backend[] {
+                        StudentEmploymentAssignment.Backend.CBC,
+                        StudentEmploymentAssignment.Backend.CP_SAT}) {
+            StudentEmploymentAssignment problem = newProblem(backend);
+            assertEquals(MPSolver.ResultStatus.OPTIMAL, problem.solve());
+            assertEquals(backend, problem.getBackendUsed());
+            assertEquals(backend.name(),
+                    problem.getSolveReport().getBackend());
+            assertEquals(scip.getObjectiveValue(),
+                    problem.getObjectiveValue(), 1e-6);
+            assertEquals(2, problem.getSolveReport().getComponents());
+        }
+    }
+
+    @Test
+    void testReportListsTheSettingsTheBackendIgnores() {
+        StudentEmploymentAssignment scip =
+                newProblem(StudentEmploymentAssignment.Backend.SCIP);
+        scip.setSolveConfig(new SolveConfig().threads(4));
+        scip.solve();
+        assertEquals(List.of("threads"),
+                scip.getSolveReport().getIgnoredSettings());
+
+        StudentEmploymentAssignment cpSat =
+                newProblem(StudentEmploymentAssignment.Backend.CP_SAT);
+        cpSat.setSolveConfig(new SolveConfig().threads(4).parameter(
+                MPSolverParameters.IntegerParam.PRESOLVE, 0));
+        cpSat.solve();
+        assertEquals(List.of("parameters"),
+                cpSat.getSolveReport().getIgnoredSettings());
+        assertTrue(cpSat.getSolveReport().toJson()
+                .contains("\"ignoredSettings\":[\"parameters\"]"));
+
+        StudentEmploymentAssignment cbc =
+                newProblem(StudentEmploymentAssignment.Backend.CBC);
+        cbc.setSolveConfig(new SolveConfig().threads(4).parameter(
+                MPSolverParameters.IntegerParam.PRESOLVE, 0));
+        cbc.solve();
+        assertTrue(cbc.getSolveReport().getIgnoredSettings().isEmpty());
+    }
+
+    @Test
+    void testGlopGivesUpperBound() {
+        StudentEmploymentAssignment scip =
+                newProblem(StudentEmploymentAssignment.Backend.SCIP);
+        scip.solve();
+        StudentEmploymentAssignment glop =
+                newProblem(StudentEmploymentAssignment.Backend.GLOP);
+        assertEquals(MPSolver.ResultStatus.OPTIMAL, glop.solve());
+
+        assertTrue(glop.getObjectiveValue()
+                >= scip.getObjectiveValue() - 1e-9);
+    }
+
+    @Test
+    void testCpSatSingleModelWithListener() {
+        StudentEmploymentAssignment scip =
+                newProblem(StudentEmploymentAssignment.Backend.SCIP);
+        scip.solve();
+        StudentEmploymentAssignment cpSat =
+                newProblem(StudentEmploymentAssignment.Backend.CP_SAT);
+        final int[] calls = {0};
+        cpSat.setSolveConfig(new SolveConfig()
+                .threads(2)
+                .incumbentListener((objective, bound, elapsed) -> {
+                    calls[0]++;
+                    return true;
+                }));
+        assertEquals(MPSolver.ResultStatus.OPTIMAL, cpSat.solve());
+
+        assertTrue(calls[0] > 0);
+        assertEquals(1, cpSat.getSolveReport().getComponents());
+        assertEquals(scip.getObjectiveValue(), cpSat.getObjectiveValue(),
+                1e-6);
+        for (int s = 0; s < 4; s++) {
+            for (int c = 0; c < 3; c++) {
+                assertEquals(scip.isAssigned(s, c), cpSat.isAssigned(s, c));
+            }
+        }
+    }
+
+    @Test
+    void testCpSatHintReplacesThePreviousOne() {
+        Loader.loadNativeLibraries();
+        CpSatBackend backend = new CpSatBackend();
+        backend.addVariables(new int[] {1, 1}, 2);
+        backend.addAtMostOne(new int[] {0, 1}, 2);
+        backend.maximize(new double[] {1.0, 2.0});
+        backend.hint(new double[] {1.0, 0.0});
+        backend.hint(new double[] {0.0, 1.0});
+
+        assertEquals(MPSolver.ResultStatus.OPTIMAL,
+                backend.solve(new SolveConfig(), false));
+        assertArrayEquals(new double[] {0.0, 1.0}, backend.values(), 1e-9);
+    }
+
+    @Test
+    void testAutoUsesScipOnSmallModels() {
+        StudentEmploymentAssignment problem =
+                newProblem(StudentEmploymentAssignment.Backend.AUTO);
+        problem.solve();
+
+        assertEquals(StudentEmploymentAssignment.Backend.SCIP,
+                problem.getBackendUsed());
+    }
+}
@@ -0,0 +1,96 @@
+import com.google.ortools.Loader;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the SolverPortfolio class.
+ */
+class SolverPortfolioTest {
+
+    @Test
+    void testWinnerIsProvenOptimal() {
+        Loader.loadNativeLibraries();
+        for (long seed = 1; seed <= 5; seed++) {
+            ProblemInstance instance = new InstanceGenerator(6, 4, seed)
+                    .applicationRate(0.5)
+                    .generate();
+            StudentEmploymentAssignment mip =
+                    new StudentEmploymentAssignment(instance);
+            mip.setEngine(StudentEmploymentAssignment.Engine.MIP);
+            mip.solve();
+
+            SolverPortfolio portfolio = new SolverPortfolio(instance);
+            portfolio.add("SCIP", StudentEmploymentAssignment.Engine.MIP,
+                    StudentEmploymentAssignment.Backend.SCIP,
+                    new SolveConfig());
+            portfolio.add("LAGRANGIAN",
+                    StudentEmploymentAssignment.Engine.LAGRANGIAN,
+                    StudentEmploymentAssignment.Backend.AUTO,
+                    new SolveConfig().timeLimit(1000));
+            portfolio.add("HEURISTIC",
+                    StudentEmploymentAssignment.Engine.HEURISTIC,
+                    StudentEmploymentAssignment.Backend.AUTO,
+                    new SolveConfig());
+            SolverPortfolio.Result result = portfolio.run();
+
+            assertTrue(result.isProven());
+            assertEquals(3, result.getRuns().size());
+            assertTrue(result.getWinner().isSolved());
+            assertEquals(mip.getObjectiveValue(),
+                    result.getWinner().getObjectiveValue(), 1e-6);
+            assertTrue(result.getBestBound()
+                    >= mip.getObjectiveValue() - 1e-6);
+            assertTrue(result.getSharedIncumbents() > 0);
+            assertTrue(result.formatTable().contains("winner"));
+        }
+    }
+
+    @Test
+    void testUnprovenRaceKeepsTheBestAssignment() {
+        ProblemInstance instance = new InstanceGenerator(6, 4, 3)
+                .applicationRate(0.5)
+                .generate();
+        SolverPortfolio portfolio = new SolverPortfolio(instance);
+        portfolio.setShareIncumbents(false);
+        portfolio.add("HEURISTIC",
+                StudentEmploymentAssignment.Engine.HEURISTIC,
+                StudentEmploymentAssignment.Backend.AUTO, new SolveConfig());
+        assertFalse(portfolio.usesNativeSolver());
+
+        SolverPortfolio.Result result = portfolio.run();
+
+        assertFalse(result.isProven());
+        assertEquals(SolveStatus.FEASIBLE,
+                result.getWinner().getStatus());
+        assertFalse(result.getWinner().isStopped());
+        assertEquals(result.getWinner().getObjectiveValue(),
+                result.getWinner().getProblem().getObjectiveValue(), 1e-12);
+        assertTrue(Double.isNaN(result.getBestBound()));
+        assertEquals(0, result.getSharedIncumbents());
+    }
+
+    @Test
+    void testPoolKeepsOnlyImprovements() {
+        IncumbentPool pool = new IncumbentPool();
+        assertNull(pool.betterThan(Double.NEGATIVE_INFINITY));
+
+        assertTrue(pool.offer(2.0, new double[] {1.0, 0.0}));
+        assertFalse(pool.offer(1.0, new double[] {0.0, 1.0}));
+
+        assertEquals(2.0, pool.getObjectiveValue(), 1e-12);
+        assertArrayEquals(new double[] {1.0, 0.0}, pool.betterThan(1.5));
+        assertNull(pool.betterThan(2.0));
+        assertEquals(1, pool.getImprovements());
+    }
+
+    @Test
+    void testFractionalBackendIsRejected() {
+        SolverPortfolio portfolio = new SolverPortfolio(
+                new InstanceGenerator(4, 2, 1).generate());
+        assertThrows(IllegalArgumentException.class, () -> portfolio.add(
+                "GLOP", StudentEmploymentAssignment.Engine.MIP,
+                StudentEmploymentAssignment.Backend.GLOP,
+                new SolveConfig()));
+    }
+}
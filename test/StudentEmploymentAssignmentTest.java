@@ -1,10 +1,18 @@
 import com.google.ortools.Loader;
+import com.google.ortools.linearsolver.MPSolver;
 import com.google.ortools.linearsolver.MPVariable;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,7 +51,10 @@ class StudentEmploymentAssignmentTest {
                     registeredSlotsPerStudentDay, slotsPerClass
         );
 
-        // Solve the problem to obtain the student-class assignments.
+        // Solve the problem to obtain the student-class assignments, with
+        // the linear model that getAssignments() reads.
+        problem.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        problem.setPresolve(false);
         problem.solve();
 
         // Retrieve the assignments as MPVariable 2D array from the solver.
@@ -151,4 +162,325 @@ class StudentEmploymentAssignmentTest {
         // Verify that the obtained assignments match the expected assignments.
         assertTrue(Arrays.deepEquals(assignments, expected));
     }
+
+    /**
+     * Tests that the model only holds variables for the student-class pairs
+     * that pass the preference and slot filters.
+     */
+    @Test
+    public void testOnlyEligiblePairsHaveVariables() {
+        Loader.loadNativeLibraries();
+        StudentEmploymentAssignment problem = new
+                StudentEmploymentAssignment(
+                    new int[][] {{0, 2}, {2, 1}, {3, 2}},
+                    new int[][] {{1, 2}, {2, 0}, {3, 2}},
+                    new int[] {10, 10},
+                    new int[][][] {
+                            {{}, {}, {}, {}, {}},
+                            {{}, {}, {}, {}, {}},
+                            {{}, {2}, {}, {}, {}}
+                    },
+                    new int[][] {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0}}
+        );
+        problem.setPresolve(false);
+        problem.solve();
+
+        EligiblePairs pairs = problem.getPairs();
+        assertEquals(3, pairs.size());
+        assertEquals(-1, pairs.indexOf(0, 0));
+        assertEquals(-1, pairs.indexOf(1, 1));
+        assertEquals(-1, pairs.indexOf(2, 1));
+
+        MPVariable[][] assignments = problem.getAssignments();
+        assertSame(assignments[0][0], assignments[1][1]);
+        assertSame(assignments[0][0], assignments[2][1]);
+        assertEquals(0.0, assignments[0][0].solutionValue(), 1e-9);
+        assertNotSame(assignments[0][0], assignments[0][1]);
+        assertNotSame(assignments[0][1], assignments[1][0]);
+        assertNotSame(assignments[1][0], assignments[2][0]);
+    }
+
+    /**
+     * Tests that solving the connected components separately gives the same
+     * assignment and objective as solving a single model.
+     */
+    @Test
+    public void testDecompositionMatchesSingleModel() {
+        Loader.loadNativeLibraries();
+        int[][] prof = {{1, 2, 0}, {2, 1, 0}, {0, 0, 3}, {0, 0, 1}};
+        int[][] stud = {{1, 2, 0}, {2, 1, 0}, {0, 0, 1}, {0, 0, 2}};
+        int[] hours = {10, 15, 10};
+        int[][][] registered = new int[4][5][0];
+        int[][] slots = {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0}, {1, 0, 0, 0, 0}};
+
+        StudentEmploymentAssignment single = new StudentEmploymentAssignment(
+                prof, stud, hours, registered, slots);
+        single.setDecomposition(false);
+        single.solve();
+        StudentEmploymentAssignment split = new StudentEmploymentAssignment(
+                prof, stud, hours, registered, slots);
+        split.solve();
+        assertEquals(2, new PairComponents(split.getPairs()).size());
+
+        assertEquals(single.getObjectiveValue(), split.getObjectiveValue(),
+                1e-9);
+        for (int s = 0; s < prof.length; s++) {
+            for (int c = 0; c < hours.length; c++) {
+                assertEquals(single.isAssigned(s, c), split.isAssigned(s, c));
+            }
+        }
+    }
+
+    /**
+     * Tests that components share the time limit of the solve, and that a
+     * component started after it keeps the other components' results.
+     */
+    @Test
+    public void testComponentsShareTheTimeLimit() {
+        Loader.loadNativeLibraries();
+        int[][] prof = {{1, 2, 0}, {2, 1, 0}, {0, 0, 3}, {0, 0, 1}};
+        int[][] stud = {{1, 2, 0}, {2, 1, 0}, {0, 0, 1}, {0, 0, 2}};
+        int[] hours = {10, 15, 10};
+        int[][][] registered = new int[4][5][0];
+        int[][] slots = {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0}, {1, 0, 0, 0, 0}};
+        long limit = 500;
+
+        StudentEmploymentAssignment full = new StudentEmploymentAssignment(
+                prof, stud, hours, registered, slots);
+        full.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        full.setPresolve(false);
+        full.solve();
+
+        // One worker that holds the second component past the time limit.
+        final int[] started = {0};
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0,
+                TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            protected void beforeExecute(Thread thread, Runnable task) {
+                if (started[0]++ == 1) {
+                    try {
+                        Thread.sleep(limit + 100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        StudentEmploymentAssignment split = new StudentEmploymentAssignment(
+                prof, stud, hours, registered, slots);
+        split.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        split.setPresolve(false);
+        split.setComponentExecutor(executor);
+        split.setSolveConfig(new SolveConfig().timeLimit(limit));
+        try {
+            assertEquals(SolveStatus.FEASIBLE, split.optimize());
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(split.getObjectiveValue() > 0.0);
+        assertTrue(split.getObjectiveValue()
+                < full.getObjectiveValue() - 1e-9);
+        assertTrue(split.getBestBound()
+                >= full.getObjectiveValue() - 1e-9);
+        SolutionVerifier.Result result = SolutionVerifier.check(split);
+        assertTrue(result.isValid(), result.getMessages().toString());
+    }
+
+    /**
+     * Tests that the engines that certify a bound return a valid assignment
+     * no better than the MIP optimum, and a bound no lower than it.
+     *
+     * @param engine The engine.
+     */
+    @ParameterizedTest
+    @EnumSource(value = StudentEmploymentAssignment.Engine.class,
+            names = {"LAGRANGIAN", "COLUMN_GENERATION"})
+    public void testBoundEnclosesTheOptimum(
+            StudentEmploymentAssignment.Engine engine) {
+        Loader.loadNativeLibraries();
+        for (long seed = 1; seed <= 10; seed++) {
+            ProblemInstance instance = new InstanceGenerator(12, 6, seed)
+                    .applicationRate(0.4)
+                    .generate();
+            StudentEmploymentAssignment mip =
+                    new StudentEmploymentAssignment(instance);
+            mip.setEngine(StudentEmploymentAssignment.Engine.MIP);
+            mip.solve();
+            StudentEmploymentAssignment problem =
+                    new StudentEmploymentAssignment(instance);
+            problem.setEngine(engine);
+            problem.solve();
+
+            assertTrue(problem.getBestBound()
+                    >= mip.getObjectiveValue() - 1e-6);
+            assertTrue(problem.getObjectiveValue()
+                    <= mip.getObjectiveValue() + 1e-6);
+            SolutionVerifier.Result result = SolutionVerifier.check(problem);
+            assertTrue(result.isValid(), result.getMessages().toString());
+            assertTrue(problem.getSolveReport().getIterations() > 0);
+        }
+    }
+
+    /**
+     * Tests that the heuristic engine reports its gap to the bound of an
+     * earlier exact solve of the same problem.
+     */
+    @Test
+    public void testHeuristicReportsGapToExactBound() {
+        Loader.loadNativeLibraries();
+        StudentEmploymentAssignment problem = new
+                StudentEmploymentAssignment(
+                    new int[][] {{1, 2}, {2, 1}, {3, 2}},
+                    new int[][] {{1, 2}, {2, 1}, {3, 2}},
+                    new int[] {10, 10},
+                    new int[3][5][0],
+                    new int[][] {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0}}
+        );
+        problem.setEngine(StudentEmploymentAssignment.Engine.HEURISTIC);
+        problem.solve();
+        assertTrue(Double.isNaN(problem.getRelativeGap()));
+
+        problem.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        problem.solve();
+        double optimum = problem.getObjectiveValue();
+
+        problem.setEngine(StudentEmploymentAssignment.Engine.HEURISTIC);
+        assertEquals(MPSolver.ResultStatus.FEASIBLE, problem.solve());
+        assertEquals(optimum, problem.getBestBound(), 1e-9);
+        assertEquals((optimum - problem.getObjectiveValue()) / optimum,
+                problem.getRelativeGap(), 1e-9);
+    }
+
+    /**
+     * Creates a problem of 3 students who all want both classes of 10 hours,
+     * so there are 16 assignments: each class goes to one of the students
+     * or to nobody.
+     *
+     * @return The problem.
+     */
+    private StudentEmploymentAssignment newOpenProblem() {
+        return new StudentEmploymentAssignment(
+                new int[][] {{1, 2}, {2, 1}, {3, 2}},
+                new int[][] {{1, 2}, {2, 1}, {3, 2}},
+                new int[] {10, 10},
+                new int[3][5][0],
+                new int[][] {{0, 1, 0, 0, 0}, {0, 2, 0, 0, 0}}
+        );
+    }
+
+    /**
+     * Tests that the k best alternatives are distinct, come in order of
+     * satisfaction, are streamed as they are found and run out after every
+     * assignment was listed.
+     */
+    @Test
+    public void testAlternativesAreRankedAndDistinct() {
+        Loader.loadNativeLibraries();
+        StudentEmploymentAssignment problem = newOpenProblem();
+        problem.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        problem.solve();
+        double optimum = problem.getObjectiveValue();
+
+        List<StudentEmploymentAssignment.Alternative> streamed =
+                new ArrayList<>();
+        List<StudentEmploymentAssignment.Alternative> alternatives =
+                problem.solveAlternatives(100, 1, streamed::add);
+
+        assertEquals(16, alternatives.size());
+        assertEquals(alternatives, streamed);
+        assertEquals(optimum, alternatives.get(0).getObjectiveValue(), 1e-9);
+        assertEquals(optimum, problem.getObjectiveValue(), 1e-9);
+        for (int i = 1; i < alternatives.size(); i++) {
+            assertEquals(i, alternatives.get(i).getRank());
+            assertTrue(alternatives.get(i).getObjectiveValue()
+                    <= alternatives.get(i - 1).getObjectiveValue() + 1e-9);
+            assertTrue(alternatives.get(i).getDistance() >= 1);
+        }
+        assertEquals(0.0, alternatives.get(15).getObjectiveValue(), 1e-9);
+
+        problem.useAlternative(alternatives.get(15));
+        for (int s = 0; s < 3; s++) {
+            for (int c = 0; c < 2; c++) {
+                assertFalse(problem.isAssigned(s, c));
+            }
+        }
+    }
+
+    /**
+     * Tests that diverse alternatives differ from each other in at least the
+     * minimum distance, and that the listener can end the enumeration.
+     */
+    @Test
+    public void testDiverseAlternativesKeepTheirDistance() {
+        Loader.loadNativeLibraries();
+        StudentEmploymentAssignment problem = newOpenProblem();
+        List<StudentEmploymentAssignment.Alternative> alternatives =
+                problem.solveAlternatives(4, 3, null);
+        int numPairs = problem.getPairs().size();
+
+        assertFalse(alternatives.isEmpty());
+        for (int i = 0; i < alternatives.size(); i++) {
+            for (int j = 0; j < i; j++) {
+                int distance = 0;
+                for (int p = 0; p < numPairs; p++) {
+                    if (alternatives.get(i).isAssigned(p)
+                            != alternatives.get(j).isAssigned(p)) {
+                        distance++;
+                    }
+                }
+                assertTrue(distance >= 3);
+            }
+        }
+
+        List<StudentEmploymentAssignment.Alternative> first =
+                problem.solveAlternatives(4, 1, alternative -> false);
+        assertEquals(1, first.size());
+        assertThrows(IllegalArgumentException.class,
+                () -> problem.solveAlternatives(4, 0, null));
+    }
+
+    /**
+     * Tests that the assignments array holds the solved variables of a
+     * linear model, and that there is none after a presolve that reduced
+     * the model, on CP-SAT or with an engine without a solver model.
+     */
+    @Test
+    public void testAssignmentsHoldTheLinearModelOnly() {
+        Loader.loadNativeLibraries();
+        ProblemInstance instance = new InstanceGenerator(8, 4, 5)
+                .applicationRate(0.5)
+                .generate();
+        StudentEmploymentAssignment linear =
+                new StudentEmploymentAssignment(instance);
+        linear.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        linear.setPresolve(false);
+        linear.solve();
+
+        MPVariable[][] assignments = linear.getAssignments();
+        for (int s = 0; s < instance.numStudents(); s++) {
+            for (int c = 0; c < instance.numClasses(); c++) {
+                assertEquals(linear.isAssigned(s, c) ? 1.0 : 0.0,
+                        assignments[s][c].solutionValue(), 1e-9);
+            }
+        }
+
+        StudentEmploymentAssignment presolved =
+                new StudentEmploymentAssignment(instance);
+        presolved.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        StudentEmploymentAssignment cpSat =
+                new StudentEmploymentAssignment(instance);
+        cpSat.setEngine(StudentEmploymentAssignment.Engine.MIP);
+        cpSat.setBackend(StudentEmploymentAssignment.Backend.CP_SAT);
+        StudentEmploymentAssignment heuristic =
+                new StudentEmploymentAssignment(instance);
+        heuristic.setEngine(StudentEmploymentAssignment.Engine.HEURISTIC);
+        for (StudentEmploymentAssignment problem
+                : Arrays.asList(presolved, cpSat, heuristic)) {
+            problem.solve();
+            assertNull(problem.getAssignments());
+            assertEquals(linear.getObjectiveValue(),
+                    problem.getObjectiveValue(), 1e-6);
+        }
+    }
 }